@@ -1,10 +1,18 @@
 package com.roombooking;
 
+import com.roombooking.controller.ReservationController;
+import com.roombooking.util.ChangeFeedPoller;
+import com.roombooking.util.OfflineSchedule;
+import com.roombooking.util.ReminderScheduler;
+import com.roombooking.util.ReservationArchiver;
 import com.roombooking.util.ThemeManager;
 import com.roombooking.view.LoginPanel;
 import com.roombooking.view.MainFrame;
 import javax.swing.*;
 import java.awt.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 
 /**
  * Main class to launch the Room Booking Application
@@ -21,6 +29,29 @@ public class Main {
                 MainFrame mainFrame = MainFrame.getInstance();
                 mainFrame.showPanel("login", new LoginPanel());
                 mainFrame.setVisible(true);
+                
+                // Keep a saved copy of the schedule to show while the database is unreachable
+                OfflineSchedule schedule = OfflineSchedule.getInstance();
+                schedule.addListener(offline -> SwingUtilities.invokeLater(() -> {
+                    if (offline) {
+                        String savedAt = DateTimeFormatter.ofPattern("MMM d, HH:mm").format(
+                            Instant.ofEpochMilli(schedule.getSnapshot().getCreatedAtMillis()).atZone(ZoneId.systemDefault()));
+                        mainFrame.setStatus("Offline: showing the schedule saved " + savedAt + " (read-only)");
+                    } else {
+                        new ReservationController().invalidateCalendar();
+                        mainFrame.setStatus("Back online");
+                    }
+                }));
+                schedule.start();
+                
+                // Send reminders for upcoming reservations in the background
+                ReminderScheduler.getInstance().start();
+                
+                // Push changes made by other clients to open dashboards
+                ChangeFeedPoller.getInstance().start();
+                
+                // Move finished reservations past the archive horizon out of the hot table
+                ReservationArchiver.getInstance().start();
             } catch (Exception e) {
                 e.printStackTrace();
                 JOptionPane.showMessageDialog(null, 
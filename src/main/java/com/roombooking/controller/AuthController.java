@@ -2,33 +2,137 @@ package com.roombooking.controller;
 
 import com.roombooking.dao.UserDAO;
 import com.roombooking.model.User;
+import com.roombooking.util.AuthExecutor;
+import com.roombooking.util.CsvImporter;
+import com.roombooking.util.ImportReport;
+import com.roombooking.util.LoginRateLimiter;
+import com.roombooking.util.PasswordHashPolicy;
+import com.roombooking.util.SessionStore;
+import com.roombooking.util.UserDirectory;
 import org.mindrot.jbcrypt.BCrypt;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Controller for handling authentication and user management
+ * Controller for handling authentication and user management. Login and registration
+ * run on the bounded {@link AuthExecutor}; the blocking variants wait for it and the
+ * async ones are meant for the EDT. Login attempts pass the {@link LoginRateLimiter}
+ * before any of that work is queued.
  */
 public class AuthController {
     private final UserDAO userDAO;
+    private final AuthExecutor authExecutor;
+    private final SessionStore sessionStore;
+    private final LoginRateLimiter rateLimiter;
+    private final PasswordHashPolicy hashPolicy;
+    private final UserDirectory userDirectory;
 
     public AuthController() {
         this.userDAO = new UserDAO();
+        this.authExecutor = AuthExecutor.getInstance();
+        this.sessionStore = SessionStore.getInstance();
+        this.rateLimiter = LoginRateLimiter.getInstance();
+        this.hashPolicy = PasswordHashPolicy.getInstance();
+        this.userDirectory = UserDirectory.getInstance();
     }
 
     /**
-     * Attempts to log in a user
+     * Attempts to log in a user from a given source, waiting for the authentication pool
      * @param username the username
      * @param password the password
+     * @param source where the attempt comes from, for rate limiting, e.g. {@link #clientSource()}
      * @return the logged-in user, or null if login failed
+     * @throws java.util.concurrent.RejectedExecutionException if the pool is saturated
+     * @throws com.roombooking.util.RateLimitExceededException if too many attempts failed
      */
-    public User login(String username, String password) {
+    public User login(String username, String password, String source) {
+        rateLimiter.check(username, source);
+        return authExecutor.invoke(() -> verify(username, password, source));
+    }
+    
+    /**
+     * Attempts to log in a user on the authentication pool
+     * @param username the username
+     * @param password the password
+     * @param source where the attempt comes from, for rate limiting, e.g. {@link #clientSource()}
+     * @return the logged-in user, or null if login failed; fails with
+     *         RejectedExecutionException if the pool is saturated and
+     *         RateLimitExceededException if too many attempts failed
+     */
+    public CompletableFuture<User> loginAsync(String username, String password, String source) {
+        try {
+            rateLimiter.check(username, source);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return authExecutor.submit(() -> verify(username, password, source));
+    }
+    
+    /**
+     * Identifies this client for login rate limiting: the operating system user and
+     * the host name
+     * @return the source identifier
+     */
+    public static String clientSource() {
+        return ClientSource.VALUE;
+    }
+    
+    /**
+     * Starts a session for a user who has just logged in
+     * @param user the authenticated user
+     * @return the session token
+     */
+    public String startSession(User user) {
+        return sessionStore.create(user);
+    }
+    
+    /**
+     * Gets the user of a session without touching the database
+     * @param token the session token
+     * @return the user, or null if the session is unknown or expired
+     */
+    public User getSessionUser(String token) {
+        return sessionStore.authenticate(token);
+    }
+    
+    /**
+     * Ends a session
+     * @param token the session token
+     */
+    public void logout(String token) {
+        sessionStore.invalidate(token);
+    }
+    
+    private User verify(String username, String password, String source) {
+        User user = checkCredentials(username, password);
+        if (user != null) {
+            rateLimiter.recordSuccess(username);
+        } else {
+            rateLimiter.recordFailure(username, source);
+        }
+        return user;
+    }
+    
+    private User checkCredentials(String username, String password) {
         User user = userDAO.getUserByUsername(username);
         if (user != null && BCrypt.checkpw(password, user.getPassword())) {
+            if (hashPolicy.needsRehash(user.getPassword())) {
+                rehash(user, password);
+            }
             return user;
         }
         return null;
     }
     
+    // Runs after the login returns; if the pool is busy the next login tries again
+    private void rehash(User user, String password) {
+        String oldHash = user.getPassword();
+        authExecutor.submit(() -> userDAO.updatePasswordHash(user.getId(), oldHash, hashPolicy.hash(password)));
+    }
+    
     /**
      * Registers a new user
      * @param username the username
@@ -48,11 +152,11 @@ public class AuthController {
 
         User newUser = new User();
         newUser.setUsername(username);
-        newUser.setPassword(BCrypt.hashpw(password, BCrypt.gensalt()));
+        newUser.setPassword(hashPassword(password));
         newUser.setAdmin(isAdmin);
         newUser.setActive(true);
         
-        return userDAO.createUser(newUser);
+        return createUser(newUser);
     }
     
     /**
@@ -70,11 +174,54 @@ public class AuthController {
         }
         
         // Create new user
-        User newUser = new User(username, fullName, email, BCrypt.hashpw(password, BCrypt.gensalt()));
+        User newUser = new User(username, fullName, email, hashPassword(password));
         newUser.setActive(true);
         newUser.setAdmin(false);
         
-        return userDAO.createUser(newUser);
+        return createUser(newUser);
+    }
+    
+    // The insert does not report the new ID, so the user is read back for the directory
+    private boolean createUser(User newUser) {
+        if (!userDAO.createUser(newUser)) {
+            return false;
+        }
+        User created = userDAO.getUserByUsername(newUser.getUsername());
+        if (created != null) {
+            userDirectory.put(created);
+        }
+        return true;
+    }
+    
+    /**
+     * Registers a new user on the authentication pool
+     * @param username the username
+     * @param fullName the full name
+     * @param email the email
+     * @param password the password
+     * @return true if registration successful, false otherwise
+     */
+    public CompletableFuture<Boolean> registerUserAsync(String username, String fullName, String email, String password) {
+        return authExecutor.submit(() -> registerUser(username, fullName, email, password));
+    }
+    
+    /**
+     * Imports users from a CSV file with the columns username, full_name, email,
+     * password (or password_hash) and optionally role and active. Passwords are hashed
+     * on a separate pool so that logins keep their own.
+     * @param in the CSV text; closed when done
+     * @return how many users were imported and why any rows were not
+     */
+    public ImportReport importUsers(Reader in) {
+        ImportReport report = new CsvImporter().importUsers(in);
+        if (report.getImported() > 0) {
+            userDirectory.invalidate();
+        }
+        return report;
+    }
+    
+    private String hashPassword(String password) {
+        return authExecutor.invoke(() -> hashPolicy.hash(password));
     }
     
     /**
@@ -85,6 +232,25 @@ public class AuthController {
         return userDAO.getAllUsers();
     }
     
+    /**
+     * Looks users up by the start of their username, email or a word of their full
+     * name, without querying the database
+     * @param query the text typed so far; blank lists users by username
+     * @param limit the maximum number of users to return
+     * @return up to limit matching users, without password hashes
+     */
+    public List<User> searchUsers(String query, int limit) {
+        return userDirectory.search(query, limit);
+    }
+    
+    /**
+     * Counts all users
+     * @return the number of users
+     */
+    public int countUsers() {
+        return userDirectory.size();
+    }
+    
     /**
      * Gets a user by ID
      * @param id the user ID
@@ -108,6 +274,29 @@ public class AuthController {
         }
         user.setAdmin(isAdmin);
         user.setActive(isActive);
-        return userDAO.updateUser(user);
+        if (!userDAO.updateUser(user)) {
+            return false;
+        }
+        userDirectory.put(user);
+        // The change feed does the same for other instances; this one applies it at once
+        if (isActive) {
+            sessionStore.forgetPrincipal(id);
+        } else {
+            sessionStore.invalidateUser(id);
+        }
+        return true;
+    }
+
+    // Resolved once, on first use, as the host name lookup may be slow
+    private static final class ClientSource {
+        private static final String VALUE = System.getProperty("user.name", "unknown-user") + "@" + hostName();
+
+        private static String hostName() {
+            try {
+                return InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                return "unknown-host";
+            }
+        }
     }
-} 
\ No newline at end of file
+}
@@ -3,7 +3,14 @@ package com.roombooking.controller;
 import com.roombooking.dao.EquipmentDAO;
 import com.roombooking.model.Equipment;
 import com.roombooking.model.Reservation;
+import com.roombooking.util.CatalogSearch;
+import com.roombooking.util.CsvImporter;
+import com.roombooking.util.ImportReport;
+import com.roombooking.util.OfflineSchedule;
+import com.roombooking.util.ScheduleSnapshot;
+import java.io.Reader;
 import java.util.List;
+import java.util.stream.Collectors;
 import java.time.LocalDateTime;
 
 /**
@@ -11,17 +18,20 @@ import java.time.LocalDateTime;
  */
 public class EquipmentController {
     private final EquipmentDAO equipmentDAO;
+    private final CatalogSearch catalogSearch;
     
     public EquipmentController() {
         this.equipmentDAO = new EquipmentDAO();
+        this.catalogSearch = CatalogSearch.getInstance();
     }
     
     public List<Equipment> getAllEquipment() {
-        return equipmentDAO.getAllEquipment();
+        return OfflineSchedule.getInstance().readThrough(equipmentDAO::getAllEquipment, ScheduleSnapshot::getEquipment);
     }
     
     public List<Equipment> getAvailableEquipment() {
-        return equipmentDAO.getAvailableEquipment();
+        return OfflineSchedule.getInstance().readThrough(equipmentDAO::getAvailableEquipment,
+            snapshot -> snapshot.getEquipment().stream().filter(Equipment::isAvailable).collect(Collectors.toList()));
     }
     
     public Equipment getEquipment(int id) {
@@ -32,16 +42,52 @@ public class EquipmentController {
         return equipmentDAO.getReservationEquipment(reservationId);
     }
     
+    /**
+     * Searches equipment by words and facets without querying the database
+     * @param query words matched as prefixes of name, type and description, plus
+     *              filters such as type=PROJECTOR or available=true
+     * @return matching equipment ordered by name
+     */
+    public List<Equipment> searchEquipment(String query) {
+        return catalogSearch.searchEquipment(query);
+    }
+    
     public boolean createEquipment(String name, String type, String description) {
-        return equipmentDAO.createEquipment(name, type, description);
+        boolean created = equipmentDAO.createEquipment(name, type, description);
+        if (created) {
+            catalogSearch.equipmentChanged();
+        }
+        return created;
+    }
+    
+    /**
+     * Imports equipment from a CSV file with the columns name and optionally type,
+     * description and available
+     * @param in the CSV text; closed when done
+     * @return how many items were imported and why any rows were not
+     */
+    public ImportReport importEquipment(Reader in) {
+        ImportReport report = new CsvImporter().importEquipment(in);
+        if (report.getImported() > 0) {
+            catalogSearch.equipmentChanged();
+        }
+        return report;
     }
     
     public boolean updateEquipment(Equipment equipment) {
-        return equipmentDAO.updateEquipment(equipment);
+        boolean updated = equipmentDAO.updateEquipment(equipment);
+        if (updated) {
+            catalogSearch.equipmentSaved(equipment);
+        }
+        return updated;
     }
     
     public boolean deleteEquipment(int id) {
-        return equipmentDAO.deleteEquipment(id);
+        boolean deleted = equipmentDAO.deleteEquipment(id);
+        if (deleted) {
+            catalogSearch.equipmentDeleted(id);
+        }
+        return deleted;
     }
     
     public boolean assignEquipment(int reservationId, int equipmentId) {
@@ -1,33 +1,68 @@
 package com.roombooking.controller;
 
+import com.roombooking.dao.ParticipantDAO;
 import com.roombooking.dao.ReservationDAO;
+import com.roombooking.dao.ReservationQuery;
 import com.roombooking.dao.RoomDAO;
+import com.roombooking.dao.UpdateResult;
 import com.roombooking.dao.UserDAO;
 import com.roombooking.model.Reservation;
 import com.roombooking.model.Room;
 import com.roombooking.model.User;
+import com.roombooking.model.UserReservationSnapshot;
 import com.roombooking.model.Participant;
+import com.roombooking.util.CalendarDataCache;
 import com.roombooking.util.EmailService;
+import com.roombooking.util.IcsFeedWriter;
+import com.roombooking.util.NotificationQueue;
+import com.roombooking.util.OfflineSchedule;
+import com.roombooking.util.SessionStore;
 
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+import java.io.IOException;
+import java.io.Writer;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
  * Controller for handling reservation operations
  */
 public class ReservationController {
+    // Shared by all controllers so every calendar view sees the same cached months
+    private static final CalendarDataCache calendarCache = new CalendarDataCache(month -> {
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+        return OfflineSchedule.getInstance().readThrough(
+            () -> new ReservationDAO().getReservationsInRange(start, end),
+            snapshot -> snapshot.getReservationsInRange(start, end));
+    });
+    
+    /** How far back a user's reservation snapshot lists ended reservations */
+    public static final int SNAPSHOT_HISTORY_DAYS = 90;
+    
     private final ReservationDAO reservationDAO;
     private final RoomDAO roomDAO;
     private final UserDAO userDAO;
+    private final ParticipantDAO participantDAO;
     private final EmailService emailService;
     
     public ReservationController() {
         this.reservationDAO = new ReservationDAO();
         this.roomDAO = new RoomDAO();
         this.userDAO = new UserDAO();
+        this.participantDAO = new ParticipantDAO();
         this.emailService = new EmailService();
     }
     
@@ -42,6 +77,23 @@ public class ReservationController {
      * @return true if creation successful, false otherwise
      */
     public boolean createReservation(int userId, int roomId, LocalDateTime startTime, int duration, String subject, List<Integer> equipmentIds) {
+        return createReservation(userId, roomId, startTime, duration, subject, equipmentIds, Collections.emptyList());
+    }
+    
+    /**
+     * Creates a new reservation with invited participants. Participants are stored with
+     * batched inserts and the confirmation and invitation emails are sent in the background.
+     * @param userId the user ID
+     * @param roomId the room ID
+     * @param startTime the start time
+     * @param duration the duration in hours
+     * @param subject the subject of the reservation
+     * @param equipmentIds the IDs of the equipment
+     * @param participants the invited participants
+     * @return true if creation successful, false otherwise
+     */
+    public boolean createReservation(int userId, int roomId, LocalDateTime startTime, int duration, String subject,
+                                     List<Integer> equipmentIds, List<Participant> participants) {
         Reservation reservation = new Reservation();
         reservation.setUserId(userId);
         reservation.setRoomId(roomId);
@@ -51,26 +103,55 @@ public class ReservationController {
         reservation.setStatus("PENDING");
 
         Room room = roomDAO.getRoom(roomId);
-        User user = userDAO.getUser(userId);
+        User user = findUser(userId);
         
         boolean success = reservationDAO.save(reservation);
         if (success) {
-            try {
-                emailService.sendReservationConfirmation(reservation, room, user, new Participant[0]);
-            } catch (Exception e) {
-                System.err.println("Email sending failed: " + e.getMessage());
-                // Continue with the reservation creation even if email fails
+            calendarCache.invalidate(reservation.getStartTime(), reservation.getEndTime());
+            if (!participantDAO.addParticipants(reservation.getId(), participants)) {
+                System.err.println("Failed to save participants for reservation " + reservation.getId());
             }
+            List<Participant> invitees = new ArrayList<>(participants);
+            NotificationQueue.getInstance().submit("confirmation for reservation " + reservation.getId(), () -> {
+                emailService.sendReservationConfirmation(reservation, room, user, new Participant[0]);
+                emailService.sendInvitations(reservation, room, user, invitees);
+            });
         }
         return success;
     }
     
+    /**
+     * Parses a participant list such as "Jane Doe &lt;jane@example.com&gt;, bob@example.com".
+     * Entries may be separated by commas, semicolons or new lines; duplicates are dropped.
+     * @param text the participant list
+     * @return the parsed participants
+     * @throws IllegalArgumentException if an address is invalid
+     */
+    public List<Participant> parseParticipants(String text) {
+        List<Participant> participants = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return participants;
+        }
+        try {
+            InternetAddress[] addresses = InternetAddress.parse(text.replaceAll("[;\\r\\n]+", ","), true);
+            Set<String> seen = new HashSet<>();
+            for (InternetAddress address : addresses) {
+                if (seen.add(address.getAddress().toLowerCase())) {
+                    participants.add(new Participant(address.getPersonal(), address.getAddress()));
+                }
+            }
+        } catch (AddressException e) {
+            throw new IllegalArgumentException("Invalid participant address: " + e.getRef(), e);
+        }
+        return participants;
+    }
+    
     /**
      * Cancels a reservation
      * @param reservationId the reservation ID
-     * @return true if cancellation successful, false otherwise
+     * @return UPDATED if cancelled, CONFLICT if it was changed concurrently into a state that cannot be cancelled
      */
-    public boolean cancelReservation(int reservationId) {
+    public UpdateResult cancelReservation(int reservationId) {
         return updateReservationStatus(reservationId, "CANCELLED", "Cancelled by user");
     }
     
@@ -91,6 +172,42 @@ public class ReservationController {
         return reservationDAO.getUserReservations(userId);
     }
     
+    /**
+     * Writes a user's or a room's reservations as an iCalendar feed, streamed from the
+     * database without loading them all
+     * @param feed the user or room
+     * @param calendarName the name external calendars show for the feed
+     * @param out where to write; not closed
+     * @param ifNoneMatch the ETag of a copy the caller already has, or null
+     * @return false, having written nothing, if that copy is still current
+     * @throws IOException if writing fails
+     */
+    public boolean exportCalendar(IcsFeedWriter.Feed feed, String calendarName, Writer out, String ifNoneMatch)
+            throws IOException {
+        return IcsFeedWriter.getInstance().write(feed, calendarName, out, ifNoneMatch);
+    }
+    
+    /**
+     * Gets the ETag of a user's or a room's calendar feed, usually without a query
+     * @param feed the user or room
+     * @param calendarName the name the feed is exported with
+     * @return the ETag
+     */
+    public String getCalendarETag(IcsFeedWriter.Feed feed, String calendarName) {
+        return IcsFeedWriter.getInstance().getETag(feed, calendarName);
+    }
+    
+    /**
+     * Gets a user's recent and upcoming reservations with counts over the whole history,
+     * for one dashboard refresh
+     * @param userId the user ID
+     * @return the snapshot
+     */
+    public UserReservationSnapshot getUserReservationSnapshot(int userId) {
+        LocalDateTime now = LocalDateTime.now();
+        return reservationDAO.findUserSnapshot(userId, now, now.minusDays(SNAPSHOT_HISTORY_DAYS));
+    }
+    
     public Reservation getReservation(int reservationId) {
         return reservationDAO.getReservation(reservationId);
     }
@@ -107,42 +224,248 @@ public class ReservationController {
         return reservationDAO.getReservationsByStatus("PENDING");
     }
     
+    /**
+     * Gets all reservations overlapping a time window
+     * @param start start of the window
+     * @param end end of the window
+     * @return the reservations ordered by start time
+     */
     public List<Reservation> getReservationsInRange(LocalDateTime start, LocalDateTime end) {
         return reservationDAO.getReservationsInRange(start, end);
     }
     
-    public boolean updateReservationStatus(int reservationId, String status, String comments) {
-        Reservation reservation = reservationDAO.getReservation(reservationId);
-        if (reservation == null) {
-            return false;
+    /**
+     * Finds reservations with explicit range semantics and filters
+     * @param query the query
+     * @return the matching reservations ordered by start time
+     */
+    public List<Reservation> findReservations(ReservationQuery query) {
+        return reservationDAO.findInRange(query);
+    }
+    
+    /**
+     * Gets the approved and pending reservations of a set of rooms overlapping a window;
+     * this is the query behind one tile of the room timeline
+     * @param roomIds the rooms
+     * @param start start of the window
+     * @param end end of the window
+     * @return the reservations ordered by start time
+     */
+    public List<Reservation> getTimelineReservations(List<Integer> roomIds, LocalDateTime start, LocalDateTime end) {
+        return reservationDAO.findInRange(ReservationQuery.overlapping(start, end)
+            .rooms(roomIds)
+            .statuses("APPROVED", "PENDING"));
+    }
+    
+    /**
+     * Gets the reservations of a month from the shared calendar cache, loading them in the background if needed
+     * @param month the month
+     * @return a future completed with the month's reservations
+     */
+    public CompletableFuture<List<Reservation>> getMonthReservations(YearMonth month) {
+        return calendarCache.get(month);
+    }
+    
+    /**
+     * Gets the reservations of a month if they are already cached
+     * @param month the month
+     * @return the reservations, or null if they are still loading
+     */
+    public List<Reservation> getLoadedMonthReservations(YearMonth month) {
+        return calendarCache.getIfLoaded(month);
+    }
+    
+    /**
+     * Starts loading the months adjacent to the given month
+     * @param month the month being shown
+     */
+    public void prefetchMonthsAround(YearMonth month) {
+        calendarCache.prefetchAround(month);
+    }
+    
+    /**
+     * Drops all cached calendar months, e.g. after an explicit refresh
+     */
+    public void invalidateCalendar() {
+        calendarCache.invalidateAll();
+    }
+    
+    /**
+     * Changes the status of a single reservation. The change is written with a version
+     * check and re-applied to the latest row if someone else updated it in between,
+     * as long as the transition is still allowed from the status found there. Approvals
+     * are checked against approved bookings of the room, as in the batch approval.
+     * @param reservationId the reservation ID
+     * @param status the new status
+     * @param comments the admin comments
+     * @return UPDATED, CONFLICT if a concurrent change made the transition invalid or an
+     *         approval overlaps an approved booking, NOT_FOUND or FAILED
+     */
+    public UpdateResult updateReservationStatus(int reservationId, String status, String comments) {
+        AtomicReference<Reservation> updated = new AtomicReference<>();
+        UpdateResult result = reservationDAO.updateWithRetry(reservationId, current -> {
+            if (!isAllowedTransition(current.getStatus(), status)) {
+                return false;
+            }
+            if ("APPROVED".equals(status) && !reservationDAO.findApprovedConflicts(List.of(reservationId)).isEmpty()) {
+                return false;
+            }
+            current.setStatus(status);
+            current.setAdminComments(comments);
+            updated.set(current);
+            return true;
+        });
+        if (result != UpdateResult.UPDATED) {
+            return result;
         }
-
+        
+        Reservation reservation = updated.get();
         Room room = roomDAO.getRoom(reservation.getRoomId());
-        User user = userDAO.getUser(reservation.getUserId());
+        User user = findUser(reservation.getUserId());
+        Participant[] participants = participantDAO.getReservationParticipants(reservationId).toArray(new Participant[0]);
+        calendarCache.invalidate(reservation.getStartTime(), reservation.getEndTime());
+        try {
+            switch (status) {
+                case "APPROVED":
+                    emailService.sendReservationApproval(reservation, room, user, participants);
+                    break;
+                case "REJECTED":
+                    emailService.sendReservationRejection(reservation, room, user, participants);
+                    break;
+                case "CANCELLED":
+                    emailService.sendReservationCancellation(reservation, room, user, participants);
+                    break;
+            }
+        } catch (Exception e) {
+            System.err.println("Email sending failed: " + e.getMessage());
+            // Continue with the reservation status update even if email fails
+        }
+        return result;
+    }
+    
+    /**
+     * Gets a user from a live session if there is one, otherwise from the database
+     */
+    private User findUser(int userId) {
+        User user = SessionStore.getInstance().findPrincipal(userId);
+        return user != null ? user : userDAO.getUser(userId);
+    }
+    
+    /**
+     * Pending reservations can be approved, rejected or cancelled; approved ones can only be cancelled
+     */
+    private static boolean isAllowedTransition(String from, String to) {
+        switch (to) {
+            case "APPROVED":
+            case "REJECTED":
+                return "PENDING".equals(from);
+            case "CANCELLED":
+                return "PENDING".equals(from) || "APPROVED".equals(from);
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * Approves or rejects many pending reservations at once. The batch is loaded with one
+     * query, approvals are re-validated against approved bookings with one query, the
+     * status change is a single UPDATE and the emails are sent from a background queue.
+     * @param reservationIds the reservations to update
+     * @param status the new status (APPROVED or REJECTED)
+     * @param comments the admin comments
+     * @return the outcome for each reservation in the batch
+     */
+    public BatchStatusResult updatePendingReservationStatuses(List<Integer> reservationIds, String status, String comments) {
+        BatchStatusResult result = new BatchStatusResult();
+        List<Reservation> pending = new ArrayList<>();
+        for (Reservation reservation : reservationDAO.findByIds(reservationIds)) {
+            if ("PENDING".equals(reservation.getStatus())) {
+                pending.add(reservation);
+            } else {
+                result.skippedIds.add(reservation.getId());
+            }
+        }
         
-        reservation.setStatus(status);
-        reservation.setAdminComments(comments);
-
-        boolean success = reservationDAO.save(reservation);
-        if (success) {
-            try {
-                switch (status) {
-                    case "APPROVED":
-                        emailService.sendReservationApproval(reservation, room, user, new Participant[0]);
-                        break;
-                    case "REJECTED":
-                        emailService.sendReservationRejection(reservation, room, user, new Participant[0]);
-                        break;
-                    case "CANCELLED":
-                        emailService.sendReservationCancellation(reservation, room, user, new Participant[0]);
-                        break;
+        List<Reservation> accepted = pending;
+        if ("APPROVED".equals(status) && !pending.isEmpty()) {
+            Set<Integer> conflicts = reservationDAO.findApprovedConflicts(idsOf(pending));
+            accepted = new ArrayList<>();
+            // Also keep two overlapping requests from the same batch from both being approved
+            pending.sort(Comparator.comparingInt(Reservation::getRoomId)
+                .thenComparing(Reservation::getStartTime));
+            Reservation lastAccepted = null;
+            for (Reservation reservation : pending) {
+                boolean overlapsBatch = lastAccepted != null
+                    && lastAccepted.getRoomId() == reservation.getRoomId()
+                    && reservation.getStartTime().isBefore(lastAccepted.getEndTime());
+                if (conflicts.contains(reservation.getId()) || overlapsBatch) {
+                    result.conflictIds.add(reservation.getId());
+                } else {
+                    accepted.add(reservation);
+                    lastAccepted = reservation;
                 }
-            } catch (Exception e) {
-                System.err.println("Email sending failed: " + e.getMessage());
-                // Continue with the reservation status update even if email fails
             }
         }
-        return success;
+        
+        if (accepted.isEmpty()) {
+            return result;
+        }
+        
+        List<Integer> acceptedIds = idsOf(accepted);
+        int updated = reservationDAO.updateStatusBatch(acceptedIds, "PENDING", status, comments);
+        List<Reservation> changed = accepted;
+        if (updated < accepted.size()) {
+            // Someone else changed part of the batch in the meantime; report what we really updated
+            changed = reservationDAO.findByIds(acceptedIds).stream()
+                .filter(r -> status.equals(r.getStatus()))
+                .collect(Collectors.toList());
+        }
+        for (Reservation reservation : changed) {
+            reservation.setStatus(status);
+            reservation.setAdminComments(comments);
+            result.updatedIds.add(reservation.getId());
+        }
+        for (Integer id : acceptedIds) {
+            if (!result.updatedIds.contains(id)) {
+                result.skippedIds.add(id);
+            }
+        }
+        
+        for (Reservation reservation : changed) {
+            calendarCache.invalidate(reservation.getStartTime(), reservation.getEndTime());
+        }
+        queueStatusNotifications(changed, status);
+        return result;
+    }
+    
+    private void queueStatusNotifications(List<Reservation> reservations, String status) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        List<Reservation> batch = new ArrayList<>(reservations);
+        NotificationQueue.getInstance().submit(status + " notifications for " + batch.size() + " reservations", () -> {
+            Map<Integer, Room> rooms = new HashMap<>();
+            Map<Integer, User> users = new HashMap<>();
+            Map<Integer, List<Participant>> participants = participantDAO.getParticipantsByReservationIds(idsOf(batch));
+            for (Reservation reservation : batch) {
+                Room room = rooms.computeIfAbsent(reservation.getRoomId(), roomDAO::getRoom);
+                User user = users.computeIfAbsent(reservation.getUserId(), this::findUser);
+                if (room == null || user == null) {
+                    continue;
+                }
+                Participant[] invitees = participants.getOrDefault(reservation.getId(), Collections.emptyList())
+                    .toArray(new Participant[0]);
+                if ("APPROVED".equals(status)) {
+                    emailService.sendReservationApproval(reservation, room, user, invitees);
+                } else if ("REJECTED".equals(status)) {
+                    emailService.sendReservationRejection(reservation, room, user, invitees);
+                }
+            }
+        });
+    }
+    
+    private static List<Integer> idsOf(List<Reservation> reservations) {
+        return reservations.stream().map(Reservation::getId).collect(Collectors.toList());
     }
     
     public boolean isRoomAvailable(int roomId, LocalDateTime startTime, LocalDateTime endTime) {
@@ -150,22 +473,21 @@ public class ReservationController {
     }
     
     public int calculateTotalHours(int roomId, LocalDateTime start, LocalDateTime end) {
-        List<Reservation> reservations = getReservationsInRange(start, end);
+        List<Reservation> reservations = findReservations(ReservationQuery.startingIn(start, end).room(roomId));
         return reservations.stream()
-            .filter(r -> r.getRoomId() == roomId)
             .mapToInt(Reservation::getDurationHours)
             .sum();
     }
     
     public int calculateTotalHoursAllRooms(LocalDateTime start, LocalDateTime end) {
-        List<Reservation> reservations = getReservationsInRange(start, end);
+        List<Reservation> reservations = findReservations(ReservationQuery.startingIn(start, end));
         return reservations.stream()
             .mapToInt(Reservation::getDurationHours)
             .sum();
     }
     
     public double calculateAverageDuration(LocalDateTime start, LocalDateTime end) {
-        List<Reservation> reservations = getReservationsInRange(start, end);
+        List<Reservation> reservations = findReservations(ReservationQuery.startingIn(start, end));
         return reservations.stream()
             .mapToInt(Reservation::getDurationHours)
             .average()
@@ -173,7 +495,7 @@ public class ReservationController {
     }
     
     public String getMostUsedRoom(LocalDateTime start, LocalDateTime end) {
-        List<Reservation> reservations = getReservationsInRange(start, end);
+        List<Reservation> reservations = findReservations(ReservationQuery.startingIn(start, end));
         return reservations.stream()
             .collect(java.util.stream.Collectors.groupingBy(
                 Reservation::getRoomName,
@@ -199,7 +521,7 @@ public class ReservationController {
     }
     
     public double calculateUsagePercentageByTimeSlot(LocalDateTime start, LocalDateTime end, int startHour, int endHour) {
-        List<Reservation> reservations = getReservationsInRange(start, end);
+        List<Reservation> reservations = findReservations(ReservationQuery.startingIn(start, end));
         long totalInSlot = reservations.stream()
             .filter(r -> {
                 int hour = r.getStartTime().getHour();
@@ -215,14 +537,11 @@ public class ReservationController {
     }
     
     public int countReservations(int roomId, LocalDateTime start, LocalDateTime end) {
-        List<Reservation> reservations = getReservationsInRange(start, end);
-        return (int) reservations.stream()
-            .filter(r -> r.getRoomId() == roomId)
-            .count();
+        return reservationDAO.countInRange(ReservationQuery.startingIn(start, end).room(roomId));
     }
     
     public int countTotalReservations(LocalDateTime start, LocalDateTime end) {
-        return getReservationsInRange(start, end).size();
+        return reservationDAO.countInRange(ReservationQuery.startingIn(start, end));
     }
     
     /**
@@ -235,35 +554,48 @@ public class ReservationController {
     }
     
     /**
-     * Gets all active reservations (not cancelled or completed)
+     * Gets all active reservations (not cancelled)
      * @return List of active reservations
      */
     public List<Reservation> getActiveReservations() {
-        return getAllReservations().stream()
-            .filter(r -> !"CANCELLED".equals(r.getStatus()) && !"COMPLETED".equals(r.getStatus()))
-            .collect(Collectors.toList());
+        return reservationDAO.findActive();
     }
     
     /**
-     * Gets active reservations for a specific user
-     * @param userId the user ID
-     * @return List of active reservations for the user
+     * Counts active reservations without loading them
+     * @return the number of active reservations
      */
-    public List<Reservation> getActiveUserReservations(int userId) {
-        return getUserReservations(userId).stream()
-            .filter(r -> !"CANCELLED".equals(r.getStatus()) && !"COMPLETED".equals(r.getStatus()))
-            .collect(Collectors.toList());
+    public int countActiveReservations() {
+        return reservationDAO.countActive();
     }
     
     /**
-     * Gets upcoming reservations for a specific user (future start time)
-     * @param userId the user ID
-     * @return List of upcoming reservations for the user
+     * Outcome of a bulk status change
      */
-    public List<Reservation> getUpcomingUserReservations(int userId) {
-        LocalDateTime now = LocalDateTime.now();
-        return getUserReservations(userId).stream()
-            .filter(r -> r.getStartTime().isAfter(now) && !"CANCELLED".equals(r.getStatus()))
-            .collect(Collectors.toList());
+    public static class BatchStatusResult {
+        private final List<Integer> updatedIds = new ArrayList<>();
+        private final List<Integer> conflictIds = new ArrayList<>();
+        private final List<Integer> skippedIds = new ArrayList<>();
+        
+        /**
+         * @return reservations whose status was changed
+         */
+        public List<Integer> getUpdatedIds() {
+            return Collections.unmodifiableList(updatedIds);
+        }
+        
+        /**
+         * @return reservations not approved because they overlap an approved booking
+         */
+        public List<Integer> getConflictIds() {
+            return Collections.unmodifiableList(conflictIds);
+        }
+        
+        /**
+         * @return reservations that were no longer pending
+         */
+        public List<Integer> getSkippedIds() {
+            return Collections.unmodifiableList(skippedIds);
+        }
     }
-} 
\ No newline at end of file
+}
@@ -2,9 +2,16 @@ package com.roombooking.controller;
 
 import com.roombooking.dao.RoomDAO;
 import com.roombooking.model.Room;
+import com.roombooking.util.CatalogSearch;
+import com.roombooking.util.CsvImporter;
+import com.roombooking.util.ImportReport;
+import com.roombooking.util.OfflineSchedule;
+import com.roombooking.util.ScheduleSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.io.Reader;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Controller for handling room management operations
@@ -12,9 +19,11 @@ import java.util.List;
 public class RoomController {
     private static final Logger logger = LoggerFactory.getLogger(RoomController.class);
     private final RoomDAO roomDAO;
+    private final CatalogSearch catalogSearch;
     
     public RoomController() {
         this.roomDAO = new RoomDAO();
+        this.catalogSearch = CatalogSearch.getInstance();
         logger.debug("RoomController initialized");
     }
     
@@ -29,27 +38,32 @@ public class RoomController {
      */
     public boolean createRoom(String name, int capacity, String type, String location, String description) {
         logger.debug("Creating room: name={}, capacity={}, type={}, location={}", name, capacity, type, location);
-        return roomDAO.createRoom(name, capacity, type, location, description);
+        boolean created = roomDAO.createRoom(name, capacity, type, location, description);
+        if (created) {
+            catalogSearch.roomsChanged();
+        }
+        return created;
     }
     
     /**
-     * Gets all rooms
+     * Gets all rooms, from the saved schedule while the database is unreachable
      * @return List of all rooms
      */
     public List<Room> getAllRooms() {
         logger.debug("Getting all rooms");
-        List<Room> rooms = roomDAO.getAllRooms();
+        List<Room> rooms = OfflineSchedule.getInstance().readThrough(roomDAO::getAllRooms, ScheduleSnapshot::getRooms);
         logger.debug("Retrieved {} rooms", rooms.size());
         return rooms;
     }
     
     /**
-     * Gets all available rooms
+     * Gets all available rooms, from the saved schedule while the database is unreachable
      * @return List of available rooms
      */
     public List<Room> getAvailableRooms() {
         logger.debug("Getting available rooms");
-        List<Room> rooms = roomDAO.getAvailableRooms();
+        List<Room> rooms = OfflineSchedule.getInstance().readThrough(roomDAO::getAvailableRooms,
+            snapshot -> snapshot.getRooms().stream().filter(Room::isActive).collect(Collectors.toList()));
         logger.debug("Retrieved {} available rooms", rooms.size());
         return rooms;
     }
@@ -85,7 +99,7 @@ public class RoomController {
         Room room = roomDAO.getRoom(id);
         if (room != null) {
             room.setActive(active);
-            return roomDAO.updateRoom(room);
+            return updateRoom(room);
         }
         return false;
     }
@@ -97,7 +111,11 @@ public class RoomController {
      */
     public boolean updateRoom(Room room) {
         logger.debug("Updating room: {}", room);
-        return roomDAO.updateRoom(room);
+        boolean updated = roomDAO.updateRoom(room);
+        if (updated) {
+            catalogSearch.roomSaved(room);
+        }
+        return updated;
     }
     
     /**
@@ -107,6 +125,34 @@ public class RoomController {
      */
     public boolean deleteRoom(int id) {
         logger.debug("Deleting room with ID: {}", id);
-        return roomDAO.deleteRoom(id);
+        boolean deleted = roomDAO.deleteRoom(id);
+        if (deleted) {
+            catalogSearch.roomDeleted(id);
+        }
+        return deleted;
+    }
+    
+    /**
+     * Searches rooms by words and facets without querying the database
+     * @param query words matched as prefixes of name, type, location and description,
+     *              plus filters such as type=CONFERENCE, building="Building 1" or capacity>=20
+     * @return matching rooms ordered by name
+     */
+    public List<Room> searchRooms(String query) {
+        return catalogSearch.searchRooms(query);
+    }
+    
+    /**
+     * Imports rooms from a CSV file with the columns name, capacity and optionally
+     * type, location, description and active
+     * @param in the CSV text; closed when done
+     * @return how many rooms were imported and why any rows were not
+     */
+    public ImportReport importRooms(Reader in) {
+        ImportReport report = new CsvImporter().importRooms(in);
+        if (report.getImported() > 0) {
+            catalogSearch.roomsChanged();
+        }
+        return report;
     }
 } 
\ No newline at end of file
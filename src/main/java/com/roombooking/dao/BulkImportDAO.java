@@ -0,0 +1,175 @@
+package com.roombooking.dao;
+
+import com.roombooking.model.Equipment;
+import com.roombooking.model.Room;
+import com.roombooking.model.User;
+import com.roombooking.util.DatabaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Access Object for bulk imports. Each call writes one chunk of rows as a JDBC
+ * batch in a single transaction; with {@code rewriteBatchedStatements} on the
+ * connection the driver sends it as a few multi-row inserts. If the batch fails, e.g.
+ * on a duplicate username, the chunk is rolled back and retried row by row behind
+ * savepoints, so the good rows are still imported and each bad one is reported.
+ */
+public class BulkImportDAO {
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportDAO.class);
+    private static final String ROOM_SQL = "INSERT INTO rooms (name, capacity, type, location, description, is_active) " +
+                                           "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String EQUIPMENT_SQL = "INSERT INTO equipment (name, type, description, is_available) " +
+                                                "VALUES (?, ?, ?, ?)";
+    private static final String PROFILE_SQL = "INSERT INTO profiles (first_name, last_name, email) VALUES (?, ?, ?)";
+    private static final String USER_SQL = "INSERT INTO users (username, email, password_hash, role, is_active, profile_id) " +
+                                           "VALUES (?, ?, ?, ?, ?, ?)";
+
+    @FunctionalInterface
+    private interface ChunkInsert<T> {
+        void insert(Connection conn, List<T> rows) throws SQLException;
+    }
+
+    /**
+     * Inserts a chunk of rooms
+     * @param rooms the rooms
+     * @return the reason each failed room was not inserted, by index in the list
+     */
+    public Map<Integer, String> insertRooms(List<Room> rooms) {
+        return insertChunk("rooms", rooms, (conn, rows) -> {
+            try (PreparedStatement stmt = conn.prepareStatement(ROOM_SQL)) {
+                for (Room room : rows) {
+                    stmt.setString(1, room.getName());
+                    stmt.setInt(2, room.getCapacity());
+                    stmt.setString(3, room.getType());
+                    stmt.setString(4, room.getLocation());
+                    stmt.setString(5, room.getDescription());
+                    stmt.setBoolean(6, room.isActive());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Inserts a chunk of equipment
+     * @param items the equipment
+     * @return the reason each failed item was not inserted, by index in the list
+     */
+    public Map<Integer, String> insertEquipment(List<Equipment> items) {
+        return insertChunk("equipment", items, (conn, rows) -> {
+            try (PreparedStatement stmt = conn.prepareStatement(EQUIPMENT_SQL)) {
+                for (Equipment item : rows) {
+                    stmt.setString(1, item.getName());
+                    stmt.setString(2, item.getType());
+                    stmt.setString(3, item.getDescription());
+                    stmt.setBoolean(4, item.isAvailable());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Inserts a chunk of users, each with a profile as in {@link UserDAO#createUser}
+     * @param users the users, with password hashes rather than passwords
+     * @return the reason each failed user was not inserted, by index in the list
+     */
+    public Map<Integer, String> insertUsers(List<User> users) {
+        return insertChunk("users", users, (conn, rows) -> {
+            int[] profileIds = new int[rows.size()];
+            try (PreparedStatement stmt = conn.prepareStatement(PROFILE_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (User user : rows) {
+                    String[] names = user.getFullName().split(" ", 2);
+                    stmt.setString(1, names[0]);
+                    stmt.setString(2, names.length > 1 ? names[1] : "");
+                    stmt.setString(3, user.getEmail());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                // Keys come back in batch order
+                int count = 0;
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    while (generatedKeys.next() && count < profileIds.length) {
+                        profileIds[count++] = generatedKeys.getInt(1);
+                    }
+                }
+                if (count != profileIds.length) {
+                    throw new SQLException("Creating profiles failed, " + count + " of " + profileIds.length + " IDs obtained.");
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(USER_SQL)) {
+                for (int i = 0; i < rows.size(); i++) {
+                    User user = rows.get(i);
+                    stmt.setString(1, user.getUsername());
+                    stmt.setString(2, user.getEmail());
+                    stmt.setString(3, user.getPassword());
+                    stmt.setString(4, user.isAdmin() ? "ADMIN" : "USER");
+                    stmt.setBoolean(5, user.isActive());
+                    stmt.setInt(6, profileIds[i]);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        });
+    }
+
+    private <T> Map<Integer, String> insertChunk(String entity, List<T> rows, ChunkInsert<T> insert) {
+        if (rows.isEmpty()) {
+            return Map.of();
+        }
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                insert.insert(conn, rows);
+                conn.commit();
+                return Map.of();
+            } catch (SQLException e) {
+                conn.rollback();
+                logger.debug("Batch of {} {} failed ({}), retrying row by row", rows.size(), entity, e.getMessage());
+                return insertEach(conn, rows, insert);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error importing {}: {}", entity, e.getMessage());
+            Map<Integer, String> errors = new HashMap<>();
+            for (int i = 0; i < rows.size(); i++) {
+                errors.put(i, e.getMessage());
+            }
+            return errors;
+        }
+    }
+
+    private <T> Map<Integer, String> insertEach(Connection conn, List<T> rows, ChunkInsert<T> insert) throws SQLException {
+        Map<Integer, String> errors = new HashMap<>();
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                Savepoint savepoint = conn.setSavepoint();
+                try {
+                    insert.insert(conn, rows.subList(i, i + 1));
+                    conn.releaseSavepoint(savepoint);
+                } catch (SQLException e) {
+                    conn.rollback(savepoint);
+                    errors.put(i, e.getMessage());
+                }
+            }
+            conn.commit();
+            return errors;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+    }
+}
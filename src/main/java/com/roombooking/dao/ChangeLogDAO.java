@@ -0,0 +1,112 @@
+package com.roombooking.dao;
+
+import com.roombooking.model.ChangeEvent;
+import com.roombooking.util.DatabaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object for the change_log table, which triggers on reservations, rooms
+ * and users append to. Readers remember the last sequence number they saw and ask
+ * only for newer rows, which is a primary key range scan.
+ */
+public class ChangeLogDAO {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeLogDAO.class);
+
+    /**
+     * Gets the sequence number of the newest change
+     * @return the latest sequence number, or 0 if the log is empty
+     */
+    public long getLatestSeq() {
+        String sql = "SELECT COALESCE(MAX(seq), 0) FROM change_log";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            logger.error("Error reading latest change sequence: {}", e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+    }
+
+    /**
+     * Gets the sequence number of the oldest change still in the log; older ones have
+     * been pruned
+     * @return the oldest sequence number, or 0 if the log is empty
+     */
+    public long getOldestSeq() {
+        String sql = "SELECT COALESCE(MIN(seq), 0) FROM change_log";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            logger.error("Error reading oldest change sequence: {}", e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+    }
+
+    /**
+     * Gets changes newer than a sequence number
+     * @param afterSeq the last sequence number already seen
+     * @param limit maximum number of changes to return
+     * @return the changes in sequence order
+     */
+    public List<ChangeEvent> findAfter(long afterSeq, int limit) {
+        String sql = "SELECT seq, entity_type, entity_id, operation, user_id, changed_at " +
+                    "FROM change_log WHERE seq > ? ORDER BY seq LIMIT ?";
+
+        List<ChangeEvent> events = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, afterSeq);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int owner = rs.getInt("user_id");
+                    Integer userId = rs.wasNull() ? null : owner;
+                    events.add(new ChangeEvent(
+                        rs.getLong("seq"),
+                        ChangeEvent.EntityType.valueOf(rs.getString("entity_type")),
+                        rs.getInt("entity_id"),
+                        ChangeEvent.Operation.valueOf(rs.getString("operation")),
+                        userId,
+                        rs.getTimestamp("changed_at").toLocalDateTime()));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error reading changes after {}: {}", afterSeq, e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+        return events;
+    }
+
+    /**
+     * Deletes old changes in bounded chunks so the log does not grow forever
+     * @param cutoff changes before this time are deleted
+     * @param limit maximum number of rows to delete
+     * @return the number of rows deleted
+     */
+    public int deleteOlderThan(LocalDateTime cutoff, int limit) {
+        String sql = "DELETE FROM change_log WHERE changed_at < ? ORDER BY changed_at LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+            stmt.setInt(2, limit);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error pruning change log: {}", e.getMessage());
+            return 0;
+        }
+    }
+}
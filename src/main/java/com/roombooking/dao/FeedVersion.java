@@ -0,0 +1,65 @@
+package com.roombooking.dao;
+
+import java.time.LocalDateTime;
+
+/**
+ * Summary of the reservations behind a calendar feed that changes whenever the feed's
+ * content may have: any insert raises the maximum ID, any update raises the sum of the
+ * row versions, any delete lowers the count, and renaming a user or room they refer to
+ * changes the names checksum and the latest user or room updated_at.
+ */
+public class FeedVersion {
+    private final int count;
+    private final int maxId;
+    private final long versionSum;
+    private final LocalDateTime lastModified;
+    private final LocalDateTime namesModified;
+    private final long namesChecksum;
+
+    public FeedVersion(int count, int maxId, long versionSum, LocalDateTime lastModified,
+                       LocalDateTime namesModified, long namesChecksum) {
+        this.count = count;
+        this.maxId = maxId;
+        this.versionSum = versionSum;
+        this.lastModified = lastModified;
+        this.namesModified = namesModified;
+        this.namesChecksum = namesChecksum;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getMaxId() {
+        return maxId;
+    }
+
+    /**
+     * @return the sum of the reservations' row versions, which every update raises
+     */
+    public long getVersionSum() {
+        return versionSum;
+    }
+
+    /**
+     * @return the latest updated_at of the reservations, or null if there are none
+     */
+    public LocalDateTime getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return the latest updated_at of the users and rooms the reservations refer to,
+     *         or null if there are none
+     */
+    public LocalDateTime getNamesModified() {
+        return namesModified;
+    }
+
+    /**
+     * @return the sum of a CRC-32 of each reservation's username and room name
+     */
+    public long getNamesChecksum() {
+        return namesChecksum;
+    }
+}
@@ -4,12 +4,17 @@ import com.roombooking.model.Participant;
 import com.roombooking.util.DatabaseConnection;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object for Participant-related database operations
  */
 public class ParticipantDAO {
+    // Rows per multi-row INSERT; keeps statements well below max_allowed_packet
+    private static final int INSERT_CHUNK_SIZE = 500;
     
     public ParticipantDAO() {
     }
@@ -22,7 +27,7 @@ public class ParticipantDAO {
      * @return true if creation successful, false otherwise
      */
     public boolean createParticipant(int reservationId, String name, String email) {
-        String sql = "INSERT INTO participants (reservation_id, name, email) VALUES (?, ?, ?)";
+        String sql = "INSERT INTO reservation_participants (reservation_id, name, email) VALUES (?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, reservationId);
@@ -35,13 +40,113 @@ public class ParticipantDAO {
         }
     }
     
+    /**
+     * Adds participants to a reservation using multi-row INSERT statements in one transaction
+     * @param reservationId the reservation ID
+     * @param participants the participants to add
+     * @return true if all participants were added, false otherwise
+     */
+    public boolean addParticipants(int reservationId, List<Participant> participants) {
+        if (participants.isEmpty()) {
+            return true;
+        }
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (int from = 0; from < participants.size(); from += INSERT_CHUNK_SIZE) {
+                    List<Participant> chunk = participants.subList(from,
+                        Math.min(from + INSERT_CHUNK_SIZE, participants.size()));
+                    insertChunk(conn, reservationId, chunk);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            for (Participant participant : participants) {
+                participant.setReservationId(reservationId);
+            }
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    private void insertChunk(Connection conn, int reservationId, List<Participant> chunk) throws SQLException {
+        StringBuilder sql = new StringBuilder("INSERT INTO reservation_participants (reservation_id, name, email) VALUES ");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS)) {
+            int index = 1;
+            for (Participant participant : chunk) {
+                stmt.setInt(index++, reservationId);
+                stmt.setString(index++, participant.getName());
+                stmt.setString(index++, participant.getEmail());
+            }
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                for (int i = 0; i < chunk.size() && keys.next(); i++) {
+                    chunk.get(i).setId(keys.getInt(1));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Gets the participants of many reservations with one query per
+     * {@value ReservationDAO#MAX_IN_LIST} reservation IDs
+     * @param reservationIds the reservation IDs
+     * @return participants keyed by reservation ID; reservations without participants are absent
+     */
+    public Map<Integer, List<Participant>> getParticipantsByReservationIds(List<Integer> reservationIds) {
+        if (reservationIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Integer, List<Participant>> participants = new HashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (List<Integer> chunk : ReservationDAO.chunks(reservationIds)) {
+                StringBuilder sql = new StringBuilder("SELECT * FROM reservation_participants WHERE reservation_id IN (");
+                for (int i = 0; i < chunk.size(); i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                }
+                sql.append(") ORDER BY reservation_id, id");
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Participant participant = new Participant(
+                                rs.getInt("id"),
+                                rs.getInt("reservation_id"),
+                                rs.getString("name"),
+                                rs.getString("email")
+                            );
+                            participants.computeIfAbsent(participant.getReservationId(), id -> new ArrayList<>())
+                                .add(participant);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            // Sending without the participants would silently drop them from the emails
+            throw new RuntimeException("Database error occurred", e);
+        }
+        return participants;
+    }
+    
     /**
      * Updates an existing participant
      * @param participant the participant to update
      * @return true if update successful, false otherwise
      */
     public boolean updateParticipant(Participant participant) {
-        String sql = "UPDATE participants SET name = ?, email = ? WHERE id = ?";
+        String sql = "UPDATE reservation_participants SET name = ?, email = ? WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, participant.getName());
@@ -60,7 +165,7 @@ public class ParticipantDAO {
      * @return true if deletion successful, false otherwise
      */
     public boolean deleteParticipant(int id) {
-        String sql = "DELETE FROM participants WHERE id = ?";
+        String sql = "DELETE FROM reservation_participants WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
@@ -78,7 +183,7 @@ public class ParticipantDAO {
      */
     public List<Participant> getReservationParticipants(int reservationId) {
         List<Participant> participants = new ArrayList<>();
-        String sql = "SELECT * FROM participants WHERE reservation_id = ?";
+        String sql = "SELECT * FROM reservation_participants WHERE reservation_id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, reservationId);
@@ -104,7 +209,7 @@ public class ParticipantDAO {
      * @return Participant object if found, null otherwise
      */
     public Participant getParticipant(int id) {
-        String sql = "SELECT * FROM participants WHERE id = ?";
+        String sql = "SELECT * FROM reservation_participants WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
@@ -130,7 +235,7 @@ public class ParticipantDAO {
      * @return Participant object if found, null otherwise
      */
     public Participant getParticipantByEmail(String email) {
-        String sql = "SELECT * FROM participants WHERE email = ?";
+        String sql = "SELECT * FROM reservation_participants WHERE email = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, email);
@@ -156,7 +261,7 @@ public class ParticipantDAO {
      * @return true if deletion successful, false otherwise
      */
     public boolean deleteReservationParticipants(int reservationId) {
-        String sql = "DELETE FROM participants WHERE reservation_id = ?";
+        String sql = "DELETE FROM reservation_participants WHERE reservation_id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, reservationId);
@@ -0,0 +1,184 @@
+package com.roombooking.dao;
+
+import com.roombooking.util.DatabaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Data Access Object for the range partitions of a table partitioned by
+ * RANGE COLUMNS on a DATETIME column, as set up by partition_reservations.sql
+ */
+public class PartitionDAO {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionDAO.class);
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // Partition and table names are spliced into DDL, so only plain identifiers are accepted
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z0-9_]+");
+
+    /**
+     * One range partition
+     */
+    public static final class Partition {
+        private final String name;
+        private final LocalDateTime upperBound;
+
+        public Partition(String name, LocalDateTime upperBound) {
+            this.name = name;
+            this.upperBound = upperBound;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the exclusive upper bound, or null for the MAXVALUE partition
+         */
+        public LocalDateTime getUpperBound() {
+            return upperBound;
+        }
+    }
+
+    /**
+     * Lists the partitions of a table in the current database
+     * @param table the table name
+     * @return the partitions in bound order, empty if the table is not partitioned
+     */
+    public List<Partition> listPartitions(String table) {
+        String sql = "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                    "ORDER BY PARTITION_ORDINAL_POSITION";
+
+        List<Partition> partitions = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    partitions.add(new Partition(rs.getString(1), parseBound(rs.getString(2))));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error listing partitions: {}", e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+        return partitions;
+    }
+
+    /**
+     * Splits a new partition off the bottom of the MAXVALUE partition. Rows of the
+     * MAXVALUE partition are copied, so this is cheap only while it holds few of them.
+     * @param table the table name
+     * @param maxPartition name of the MAXVALUE partition
+     * @param name name of the new partition
+     * @param upperBound exclusive upper bound of the new partition
+     * @return true if the partition was added
+     */
+    public boolean addPartition(String table, String maxPartition, String name, LocalDateTime upperBound) {
+        String sql = "ALTER TABLE " + identifier(table) + " REORGANIZE PARTITION " + identifier(maxPartition) + " INTO (" +
+                    "PARTITION " + identifier(name) + " VALUES LESS THAN ('" + upperBound.format(BOUND_FORMAT) + "'), " +
+                    "PARTITION " + identifier(maxPartition) + " VALUES LESS THAN (MAXVALUE))";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            stmt.executeUpdate(sql);
+            return true;
+        } catch (SQLException e) {
+            logger.error("Error adding partition {}: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Drops a partition if it holds no rows. The table is write-locked from the count
+     * to the drop, so no row can arrive in between: DROP PARTITION would remove it
+     * without running the delete triggers, and the change would never reach change_log.
+     * @param table the table name
+     * @param partition the partition name
+     * @return true if the partition was empty and has been dropped
+     */
+    public boolean dropEmptyPartition(String table, String partition) {
+        String countSql = "SELECT COUNT(*) FROM " + identifier(table) + " PARTITION (" + identifier(partition) + ")";
+        String dropSql = "ALTER TABLE " + identifier(table) + " DROP PARTITION " + identifier(partition);
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            stmt.execute("LOCK TABLES " + identifier(table) + " WRITE");
+            try {
+                try (ResultSet rs = stmt.executeQuery(countSql)) {
+                    if (!rs.next() || rs.getLong(1) > 0) {
+                        return false;
+                    }
+                }
+                stmt.executeUpdate(dropSql);
+                return true;
+            } finally {
+                stmt.execute("UNLOCK TABLES");
+            }
+        } catch (SQLException e) {
+            logger.error("Error dropping partition {}: {}", partition, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Gets the partitions the optimizer will read for a query, from the partitions
+     * column of EXPLAIN
+     * @param sql the query
+     * @param params the query parameters
+     * @return the partition names, empty if none or the table is not partitioned
+     */
+    public List<String> explainPartitions(String sql, List<Object> params) {
+        List<String> partitions = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String names = rs.getString("partitions");
+                    if (names != null) {
+                        for (String name : names.split(",")) {
+                            partitions.add(name.trim());
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error explaining query: {}", e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+        return partitions;
+    }
+
+    private static String identifier(String name) {
+        if (!IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid identifier: " + name);
+        }
+        return "`" + name + "`";
+    }
+
+    // PARTITION_DESCRIPTION is MAXVALUE or a quoted literal such as '2026-04-01 00:00:00'
+    private static LocalDateTime parseBound(String description) {
+        if (description == null || description.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        String value = description.replace("'", "").trim();
+        if (value.length() == 10) {
+            return LocalDate.parse(value).atStartOfDay();
+        }
+        return LocalDateTime.parse(value, BOUND_FORMAT);
+    }
+}
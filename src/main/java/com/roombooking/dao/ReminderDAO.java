@@ -0,0 +1,116 @@
+package com.roombooking.dao;
+
+import com.roombooking.util.DatabaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object for the reservation_reminders table, which records which
+ * reservations have been claimed for a reminder and whether it was sent, so that it is
+ * sent once across restarts and application instances.
+ */
+public class ReminderDAO {
+    private static final Logger logger = LoggerFactory.getLogger(ReminderDAO.class);
+
+    /**
+     * Claims up to limit approved reservations starting in [from, to) whose reminder has
+     * not been sent. Claims older than the lease that were never marked sent, because
+     * the claiming instance crashed or the send failed, are taken over first; then
+     * reservations never claimed before are added. The primary key on reservation_id
+     * makes a new claim atomic, and taking over re-checks the claim time under the row
+     * lock, so two instances running at the same time never claim the same reservation.
+     * @param claimToken unique token identifying this claim
+     * @param from start of the window (inclusive)
+     * @param to end of the window (exclusive)
+     * @param limit maximum number of reservations to claim
+     * @param lease how long a claim is left to its instance before it may be taken over
+     * @return the IDs of the claimed reservations
+     */
+    public List<Integer> claimDueReminders(String claimToken, LocalDateTime from, LocalDateTime to, int limit,
+                                           Duration lease) {
+        String reclaimSql = "UPDATE reservation_reminders SET claim_token = ?, claimed_at = NOW() " +
+                           "WHERE sent_at IS NULL AND claimed_at < NOW() - INTERVAL ? SECOND " +
+                           "AND reservation_id IN (SELECT r.id FROM reservations r " +
+                           "WHERE r.status = 'APPROVED' AND r.start_time >= ? AND r.start_time < ?) " +
+                           "ORDER BY claimed_at LIMIT ?";
+        String claimSql = "INSERT IGNORE INTO reservation_reminders (reservation_id, claim_token, claimed_at) " +
+                         "SELECT r.id, ?, NOW() FROM reservations r " +
+                         "WHERE r.status = 'APPROVED' AND r.start_time >= ? AND r.start_time < ? " +
+                         "AND NOT EXISTS (SELECT 1 FROM reservation_reminders rr WHERE rr.reservation_id = r.id) " +
+                         "ORDER BY r.start_time LIMIT ?";
+        String selectSql = "SELECT reservation_id FROM reservation_reminders WHERE claim_token = ?";
+
+        List<Integer> ids = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int claimed;
+            try (PreparedStatement stmt = conn.prepareStatement(reclaimSql)) {
+                stmt.setString(1, claimToken);
+                stmt.setLong(2, lease.getSeconds());
+                stmt.setTimestamp(3, Timestamp.valueOf(from));
+                stmt.setTimestamp(4, Timestamp.valueOf(to));
+                stmt.setInt(5, limit);
+                claimed = stmt.executeUpdate();
+            }
+            if (claimed > 0) {
+                logger.info("Took over {} reminder claims older than {} s", claimed, lease.getSeconds());
+            }
+            if (claimed < limit) {
+                try (PreparedStatement stmt = conn.prepareStatement(claimSql)) {
+                    stmt.setString(1, claimToken);
+                    stmt.setTimestamp(2, Timestamp.valueOf(from));
+                    stmt.setTimestamp(3, Timestamp.valueOf(to));
+                    stmt.setInt(4, limit - claimed);
+                    claimed += stmt.executeUpdate();
+                }
+            }
+            if (claimed == 0) {
+                return ids;
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+                stmt.setString(1, claimToken);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getInt("reservation_id"));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error claiming due reminders: {}", e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+        return ids;
+    }
+
+    /**
+     * Records that reminders for the given reservations have been sent
+     * @param reservationIds the reservation IDs
+     * @return the number of rows updated
+     */
+    public int markSent(List<Integer> reservationIds) {
+        if (reservationIds.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("UPDATE reservation_reminders SET sent_at = NOW() WHERE reservation_id IN (");
+        for (int i = 0; i < reservationIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < reservationIds.size(); i++) {
+                stmt.setInt(i + 1, reservationIds.get(i));
+            }
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error marking reminders as sent: {}", e.getMessage());
+            return 0;
+        }
+    }
+}
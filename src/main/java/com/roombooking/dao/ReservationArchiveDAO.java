@@ -0,0 +1,202 @@
+package com.roombooking.dao;
+
+import com.roombooking.util.DatabaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Data Access Object for reservations_archive and its child tables. Reservations that
+ * ended before the archive watermark and are no longer pending are moved out of the
+ * hot reservations table in small batches; ReservationDAO reads the archive only for
+ * queries whose range reaches back before the watermark.
+ */
+public class ReservationArchiveDAO {
+    private static final Logger logger = LoggerFactory.getLogger(ReservationArchiveDAO.class);
+    private static final String STATE_KEY = "reservations";
+    // MySQL ER_NO_SUCH_TABLE
+    private static final int NO_SUCH_TABLE = 1146;
+
+    /**
+     * How long readers may use a cached watermark. Rows are only moved below a
+     * watermark that was published longer ago than this, so no reader can miss them.
+     */
+    public static final long WATERMARK_CACHE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final Object cacheLock = new Object();
+    private static LocalDateTime cachedArchivedBefore;
+    private static long cachedAtMillis;
+
+    /**
+     * Gets the archive watermark: every archived reservation ended before it. Cached
+     * for {@link #WATERMARK_CACHE_MILLIS}.
+     * @return the watermark, or null if nothing has been archived or the archive tables
+     *         have not been created yet
+     */
+    public LocalDateTime getArchivedBefore() {
+        synchronized (cacheLock) {
+            if (cachedAtMillis > 0 && System.currentTimeMillis() - cachedAtMillis < WATERMARK_CACHE_MILLIS) {
+                return cachedArchivedBefore;
+            }
+        }
+        LocalDateTime archivedBefore = readArchivedBefore(0);
+        synchronized (cacheLock) {
+            cachedArchivedBefore = archivedBefore;
+            cachedAtMillis = System.currentTimeMillis();
+        }
+        return archivedBefore;
+    }
+
+    /**
+     * Gets the watermark if it has not moved for the given time
+     * @param settledSeconds minimum age of the watermark in seconds
+     * @return the watermark, or null if nothing is published or it changed too recently
+     */
+    public LocalDateTime getSettledArchivedBefore(long settledSeconds) {
+        return readArchivedBefore(settledSeconds);
+    }
+
+    private LocalDateTime readArchivedBefore(long settledSeconds) {
+        String sql = "SELECT archived_before FROM archive_state " +
+                    "WHERE table_name = ? AND updated_at <= NOW() - INTERVAL ? SECOND";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, STATE_KEY);
+            stmt.setLong(2, settledSeconds);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getTimestamp("archived_before").toLocalDateTime() : null;
+            }
+        } catch (SQLException e) {
+            if (e.getErrorCode() == NO_SUCH_TABLE) {
+                // Database from before archiving; nothing can have been moved yet
+                logger.warn("archive_state is missing, run add_reservation_archive.sql to enable archiving");
+                return null;
+            }
+            logger.error("Error reading archive watermark: {}", e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+    }
+
+    /**
+     * Moves the archive watermark forward. It never moves back.
+     * @param archivedBefore the new watermark
+     * @return true if the watermark was stored
+     */
+    public boolean publishArchivedBefore(LocalDateTime archivedBefore) {
+        String sql = "INSERT INTO archive_state (table_name, archived_before) VALUES (?, ?) " +
+                    "ON DUPLICATE KEY UPDATE archived_before = GREATEST(archived_before, VALUES(archived_before))";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, STATE_KEY);
+            stmt.setTimestamp(2, Timestamp.valueOf(archivedBefore));
+            stmt.executeUpdate();
+            synchronized (cacheLock) {
+                cachedAtMillis = 0;
+            }
+            return true;
+        } catch (SQLException e) {
+            logger.error("Error publishing archive watermark: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Moves one batch of finished reservations that ended before a cutoff, with their
+     * equipment and participants, into the archive tables. The batch is copied and
+     * deleted in one short transaction, so locks are held only for the rows in it.
+     * The move is not published to change_log: the rows are still readable.
+     * @param before reservations ending before this are moved
+     * @param limit maximum number of reservations to move
+     * @return the number of reservations moved
+     */
+    public int archiveBatch(LocalDateTime before, int limit) {
+        // start_time < before is implied by end_time < before but lets the seek use the time index
+        String selectSql = "SELECT id FROM reservations " +
+                          "WHERE start_time < ? AND end_time < ? AND status IN ('APPROVED', 'REJECTED', 'CANCELLED') " +
+                          "ORDER BY start_time LIMIT ? FOR UPDATE";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Integer> ids = new ArrayList<>();
+                try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+                    stmt.setTimestamp(1, Timestamp.valueOf(before));
+                    stmt.setTimestamp(2, Timestamp.valueOf(before));
+                    stmt.setInt(3, limit);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getInt(1));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    conn.commit();
+                    return 0;
+                }
+
+                String in = " IN (" + placeholders(ids.size()) + ")";
+                executeForIds(conn, "INSERT INTO reservations_archive " +
+                    "(id, user_id, room_id, start_time, end_time, subject, status, admin_comments, version, created_at, updated_at) " +
+                    "SELECT id, user_id, room_id, start_time, end_time, subject, status, admin_comments, version, created_at, updated_at " +
+                    "FROM reservations WHERE id" + in, ids);
+                executeForIds(conn, "INSERT INTO reservation_equipment_archive (reservation_id, equipment_id, created_at) " +
+                    "SELECT reservation_id, equipment_id, created_at FROM reservation_equipment WHERE reservation_id" + in, ids);
+                executeForIds(conn, "INSERT INTO reservation_participants_archive " +
+                    "(id, reservation_id, email, name, status, created_at, updated_at) " +
+                    "SELECT id, reservation_id, email, name, status, created_at, updated_at " +
+                    "FROM reservation_participants WHERE reservation_id" + in, ids);
+                // Child rows in the hot tables go with the reservation via ON DELETE CASCADE.
+                // @archiving keeps the delete trigger from publishing the moved rows as deletions.
+                int moved;
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SET @archiving = 1");
+                    try {
+                        moved = executeForIds(conn, "DELETE FROM reservations WHERE id" + in, ids);
+                    } finally {
+                        stmt.execute("SET @archiving = NULL");
+                    }
+                }
+
+                conn.commit();
+                return moved;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error archiving reservations: {}", e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+    }
+
+    private static int executeForIds(Connection conn, String sql, List<Integer> ids) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setInt(i + 1, ids.get(i));
+            }
+            return stmt.executeUpdate();
+        }
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+}
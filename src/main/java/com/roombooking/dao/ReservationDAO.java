@@ -1,21 +1,61 @@
 package com.roombooking.dao;
 
 import com.roombooking.model.Reservation;
+import com.roombooking.model.UserReservationSnapshot;
 import com.roombooking.util.DatabaseConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Data Access Object for Reservation-related database operations
  */
 public class ReservationDAO {
     private static final Logger logger = LoggerFactory.getLogger(ReservationDAO.class);
+    
+    /**
+     * Longest reservation that can be saved. Overlap queries look back this far before
+     * the window start, or further if older rows are longer (see {@link #lookBack}),
+     * which keeps their start_time index range bounded.
+     */
+    public static final Duration MAX_RESERVATION_LENGTH = Duration.ofHours(24);
+    
+    /** How long the longest stored reservation length is cached */
+    private static final long LOOK_BACK_CACHE_MILLIS = TimeUnit.HOURS.toMillis(1);
+    
+    private static final Object lookBackLock = new Object();
+    private static Duration cachedLookBack;
+    private static long lookBackCachedAtMillis;
+    
+    /** Attempts made by {@link #updateWithRetry} before reporting a conflict */
+    public static final int MAX_UPDATE_ATTEMPTS = 3;
+    
+    /** Most IDs bound in one IN list; longer lists are split over several statements */
+    static final int MAX_IN_LIST = 500;
+    
+    // Explicit columns so the hot and archive selects can be combined with UNION ALL
+    private static final String SELECT_COLUMNS = "SELECT r.id, r.user_id, r.room_id, r.start_time, r.end_time, " +
+                    "r.subject, r.status, r.admin_comments, r.version, u.username, rm.name as room_name ";
+    
+    private final ReservationArchiveDAO archiveDAO = new ReservationArchiveDAO();
 
+    /**
+     * Gets the reservations in the hot table, i.e. everything not yet archived
+     * @return the reservations, newest first
+     */
     public List<Reservation> findAll() {
         String sql = "SELECT r.*, u.username, rm.name as room_name " +
                     "FROM reservations r " +
@@ -38,6 +78,52 @@ public class ReservationDAO {
         return reservations;
     }
 
+    /**
+     * Gets the reservations that are not cancelled. Cancelled rows are filtered by the
+     * status index instead of being loaded and dropped in Java.
+     * @return the reservations, newest first
+     */
+    public List<Reservation> findActive() {
+        String sql = "SELECT r.*, u.username, rm.name as room_name " +
+                    "FROM reservations r " +
+                    "JOIN users u ON r.user_id = u.id " +
+                    "JOIN rooms rm ON r.room_id = rm.id " +
+                    "WHERE r.status <> 'CANCELLED' " +
+                    "ORDER BY r.start_time DESC";
+        
+        List<Reservation> reservations = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            while (rs.next()) {
+                reservations.add(mapResultSetToReservation(rs));
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding active reservations: {}", e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+        return reservations;
+    }
+
+    /**
+     * Counts the reservations that are not cancelled without loading them
+     * @return the number of active reservations
+     */
+    public int countActive() {
+        String sql = "SELECT COUNT(*) FROM reservations WHERE status <> 'CANCELLED'";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            logger.error("Error counting active reservations: {}", e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+    }
+
     public Reservation findById(int id) {
         String sql = "SELECT r.*, u.username, rm.name as room_name " +
                     "FROM reservations r " +
@@ -58,32 +144,65 @@ public class ReservationDAO {
             logger.error("Error finding reservation by ID: {}", e.getMessage());
             throw new RuntimeException("Database error occurred", e);
         }
-        return null;
+        return findArchived(id);
     }
 
-    public List<Reservation> findByUserId(int userId) {
-        String sql = "SELECT r.*, u.username, rm.name as room_name " +
-                    "FROM reservations r " +
-                    "JOIN users u ON r.user_id = u.id " +
-                    "JOIN rooms rm ON r.room_id = rm.id " +
-                    "WHERE r.user_id = ? " +
-                    "ORDER BY r.start_time DESC";
+    /**
+     * Loads a user's reservations that end at or after historyStart with one bounded
+     * query on (user_id, start_time), and counts over the whole history, archive
+     * included, with one aggregate query
+     * @param userId the user ID
+     * @param now the time the snapshot is taken at
+     * @param historyStart start of the history to load
+     * @return the snapshot
+     */
+    public UserReservationSnapshot findUserSnapshot(int userId, LocalDateTime now, LocalDateTime historyStart) {
+        boolean listArchive = reachesArchive(historyStart);
+        String listSql = selectReservations("r.user_id = ? AND r.start_time >= ? AND r.end_time >= ?", listArchive) +
+                    " ORDER BY start_time DESC";
+        String rows = "SELECT status, start_time, end_time FROM reservations WHERE user_id = ?";
+        boolean countArchive = archiveDAO.getArchivedBefore() != null;
+        if (countArchive) {
+            rows += " UNION ALL SELECT status, start_time, end_time FROM reservations_archive WHERE user_id = ?";
+        }
+        String countSql = "SELECT COALESCE(SUM(status <> 'CANCELLED'), 0), " +
+                    "COALESCE(SUM(status <> 'CANCELLED' AND start_time > ?), 0), " +
+                    "COALESCE(SUM(end_time < ?), 0) " +
+                    "FROM (" + rows + ") t";
         
+        Timestamp nowParam = Timestamp.valueOf(now);
         List<Reservation> reservations = new ArrayList<>();
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                reservations.add(mapResultSetToReservation(rs));
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(listSql)) {
+                int index = 1;
+                for (int part = 0; part < (listArchive ? 2 : 1); part++) {
+                    stmt.setInt(index++, userId);
+                    stmt.setTimestamp(index++, Timestamp.valueOf(historyStart.minus(lookBack())));
+                    stmt.setTimestamp(index++, Timestamp.valueOf(historyStart));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        reservations.add(mapResultSetToReservation(rs));
+                    }
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(countSql)) {
+                stmt.setTimestamp(1, nowParam);
+                stmt.setTimestamp(2, nowParam);
+                stmt.setInt(3, userId);
+                if (countArchive) {
+                    stmt.setInt(4, userId);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    return new UserReservationSnapshot(reservations, now, historyStart,
+                        rs.getInt(1), rs.getInt(2), rs.getInt(3));
+                }
             }
         } catch (SQLException e) {
-            logger.error("Error finding reservations by user ID: {}", e.getMessage());
+            logger.error("Error loading user reservation snapshot: {}", e.getMessage());
             throw new RuntimeException("Database error occurred", e);
         }
-        return reservations;
     }
 
     public List<Reservation> findUpcomingByUserId(int userId) {
@@ -112,18 +231,17 @@ public class ReservationDAO {
     }
 
     public List<Reservation> findPastByUserId(int userId) {
-        String sql = "SELECT r.*, u.username, rm.name as room_name " +
-                    "FROM reservations r " +
-                    "JOIN users u ON r.user_id = u.id " +
-                    "JOIN rooms rm ON r.room_id = rm.id " +
-                    "WHERE r.user_id = ? AND r.end_time < NOW() " +
-                    "ORDER BY r.start_time DESC";
+        boolean includeArchive = archiveDAO.getArchivedBefore() != null;
+        String sql = selectReservations("r.user_id = ? AND r.end_time < NOW()", includeArchive) + " ORDER BY start_time DESC";
         
         List<Reservation> reservations = new ArrayList<>();
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, userId);
+            if (includeArchive) {
+                stmt.setInt(2, userId);
+            }
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
@@ -138,10 +256,82 @@ public class ReservationDAO {
 
     public boolean save(Reservation reservation) {
         if (reservation.getId() == 0) {
-            return insert(reservation);
+            return hasValidLength(reservation) && insert(reservation);
         } else {
-            return update(reservation);
+            return updateIfCurrent(reservation) == UpdateResult.UPDATED;
+        }
+    }
+    
+    private static boolean hasValidLength(Reservation reservation) {
+        if (!isValidLength(reservation)) {
+            logger.error("Rejected reservation with invalid length: {}",
+                Duration.between(reservation.getStartTime(), reservation.getEndTime()));
+            return false;
+        }
+        return true;
+    }
+    
+    private static boolean isValidLength(Reservation reservation) {
+        Duration length = Duration.between(reservation.getStartTime(), reservation.getEndTime());
+        return !length.isNegative() && !length.isZero() && length.compareTo(MAX_RESERVATION_LENGTH) <= 0;
+    }
+    
+    /**
+     * Rows stored before MAX_RESERVATION_LENGTH was enforced may be longer. They can
+     * still be updated, e.g. cancelled or approved, as long as their times stay the same.
+     */
+    private static boolean keepsStoredTimes(Connection conn, Reservation reservation) throws SQLException {
+        String sql = "SELECT 1 FROM reservations WHERE id = ? AND start_time = ? AND end_time = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, reservation.getId());
+            stmt.setTimestamp(2, Timestamp.valueOf(reservation.getStartTime()));
+            stmt.setTimestamp(3, Timestamp.valueOf(reservation.getEndTime()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+    
+    /**
+     * Gets how far overlap queries have to look back before a window start: the longest
+     * reservation in the hot table, or the archive once something has been archived, but
+     * at least MAX_RESERVATION_LENGTH.
+     * New rows cannot be longer than that, so only rows stored before the limit existed
+     * extend it. Cached for an hour; if the length cannot be read the limit is used.
+     * @return the look-back
+     */
+    static Duration lookBack() {
+        synchronized (lookBackLock) {
+            if (lookBackCachedAtMillis > 0
+                    && System.currentTimeMillis() - lookBackCachedAtMillis < LOOK_BACK_CACHE_MILLIS) {
+                return cachedLookBack;
+            }
+        }
+        String hotLength = "COALESCE((SELECT MAX(TIMESTAMPDIFF(SECOND, start_time, end_time)) FROM reservations), 0)";
+        String sql = "SELECT " + hotLength;
+        if (new ReservationArchiveDAO().getArchivedBefore() != null) {
+            sql = "SELECT GREATEST(" + hotLength + ", " +
+                    "COALESCE((SELECT MAX(TIMESTAMPDIFF(SECOND, start_time, end_time)) FROM reservations_archive), 0))";
+        }
+        
+        Duration lookBack = MAX_RESERVATION_LENGTH;
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            if (rs.next() && rs.getLong(1) > MAX_RESERVATION_LENGTH.getSeconds()) {
+                lookBack = Duration.ofSeconds(rs.getLong(1));
+                logger.warn("Stored reservations up to {} long, overlap queries look back that far", lookBack);
+            }
+        } catch (SQLException e) {
+            logger.error("Error reading longest reservation: {}", e.getMessage());
+            return lookBack;
+        }
+        synchronized (lookBackLock) {
+            cachedLookBack = lookBack;
+            lookBackCachedAtMillis = System.currentTimeMillis();
         }
+        return lookBack;
     }
 
     private boolean insert(Reservation reservation) {
@@ -174,9 +364,16 @@ public class ReservationDAO {
         }
     }
 
-    private boolean update(Reservation reservation) {
+    /**
+     * Writes a reservation only if nobody changed it since it was read, i.e. its
+     * version still matches the row. On success the version is incremented.
+     * @param reservation the reservation as read and then modified
+     * @return UPDATED, CONFLICT if the row has a newer version, NOT_FOUND or FAILED
+     */
+    public UpdateResult updateIfCurrent(Reservation reservation) {
         String sql = "UPDATE reservations SET user_id = ?, room_id = ?, start_time = ?, end_time = ?, " +
-                    "status = ?, subject = ? WHERE id = ?";
+                    "status = ?, subject = ?, admin_comments = ?, version = version + 1 " +
+                    "WHERE id = ? AND version = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -187,12 +384,69 @@ public class ReservationDAO {
             stmt.setTimestamp(4, Timestamp.valueOf(reservation.getEndTime()));
             stmt.setString(5, reservation.getStatus());
             stmt.setString(6, reservation.getSubject());
-            stmt.setInt(7, reservation.getId());
+            stmt.setString(7, reservation.getAdminComments());
+            stmt.setInt(8, reservation.getId());
+            stmt.setInt(9, reservation.getVersion());
             
-            return stmt.executeUpdate() > 0;
+            if (!isValidLength(reservation) && !keepsStoredTimes(conn, reservation)) {
+                logger.error("Rejected change of reservation {} to an invalid length", reservation.getId());
+                return UpdateResult.FAILED;
+            }
+            if (stmt.executeUpdate() > 0) {
+                reservation.setVersion(reservation.getVersion() + 1);
+                return UpdateResult.UPDATED;
+            }
+            return exists(conn, reservation.getId()) ? UpdateResult.CONFLICT : UpdateResult.NOT_FOUND;
         } catch (SQLException e) {
             logger.error("Error updating reservation: {}", e.getMessage());
-            return false;
+            return UpdateResult.FAILED;
+        }
+    }
+    
+    /**
+     * Reads a reservation, applies a change and writes it back with a version check.
+     * On a conflict the latest row is read and the change applied again, so concurrent
+     * edits are serialised without holding locks. The change returns false when it no
+     * longer applies to the current state (e.g. the reservation was cancelled meanwhile),
+     * which is reported as a conflict.
+     * @param id the reservation ID
+     * @param change modifies the current reservation in place; may be called several times
+     * @return the outcome of the last attempt
+     */
+    public UpdateResult updateWithRetry(int id, Predicate<Reservation> change) {
+        for (int attempt = 1; attempt <= MAX_UPDATE_ATTEMPTS; attempt++) {
+            Reservation current = findById(id);
+            if (current == null) {
+                return UpdateResult.NOT_FOUND;
+            }
+            if (!change.test(current)) {
+                return UpdateResult.CONFLICT;
+            }
+            UpdateResult result = updateIfCurrent(current);
+            if (result != UpdateResult.CONFLICT) {
+                return result;
+            }
+            logger.debug("Version conflict on reservation {}, attempt {}", id, attempt);
+            backOff(attempt);
+        }
+        return UpdateResult.CONFLICT;
+    }
+    
+    private static void backOff(int attempt) {
+        try {
+            // Small randomised pause so two writers retrying together do not collide again
+            Thread.sleep(ThreadLocalRandom.current().nextInt(5, 20) * (long) attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static boolean exists(Connection conn, int id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM reservations WHERE id = ?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
         }
     }
 
@@ -211,34 +465,21 @@ public class ReservationDAO {
     }
 
     public boolean isRoomAvailable(int roomId, LocalDateTime startTime, LocalDateTime endTime) {
-        String sql = "SELECT COUNT(*) FROM reservations " +
-                    "WHERE room_id = ? AND status != 'CANCELLED' AND " +
-                    "((start_time <= ? AND end_time > ?) OR " +
-                    "(start_time < ? AND end_time >= ?) OR " +
-                    "(start_time >= ? AND end_time <= ?))";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, roomId);
-            stmt.setTimestamp(2, Timestamp.valueOf(endTime));
-            stmt.setTimestamp(3, Timestamp.valueOf(startTime));
-            stmt.setTimestamp(4, Timestamp.valueOf(endTime));
-            stmt.setTimestamp(5, Timestamp.valueOf(startTime));
-            stmt.setTimestamp(6, Timestamp.valueOf(startTime));
-            stmt.setTimestamp(7, Timestamp.valueOf(endTime));
-            
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1) == 0;
-            }
-        } catch (SQLException e) {
+        try {
+            return countInRange(ReservationQuery.overlapping(startTime, endTime)
+                .room(roomId)
+                .excludeStatuses("CANCELLED")) == 0;
+        } catch (RuntimeException e) {
             logger.error("Error checking room availability: {}", e.getMessage());
             return false;
         }
-        return false;
     }
 
+    /**
+     * Gets reservations in the hot table with a status; the archive holds no pending ones
+     * @param status the status
+     * @return the reservations, newest first
+     */
     public List<Reservation> getReservationsByStatus(String status) {
         String sql = "SELECT r.*, u.username, rm.name as room_name " +
                     "FROM reservations r " +
@@ -264,24 +505,42 @@ public class ReservationDAO {
         return reservations;
     }
     
+    /**
+     * Gets all reservations that overlap the given window, including ones that start
+     * before it or end after it
+     * @param start start of the window
+     * @param end end of the window
+     * @return the reservations ordered by start time
+     */
     public List<Reservation> getReservationsInRange(LocalDateTime start, LocalDateTime end) {
-        String sql = "SELECT r.*, u.username, rm.name as room_name " +
-                    "FROM reservations r " +
-                    "JOIN users u ON r.user_id = u.id " +
-                    "JOIN rooms rm ON r.room_id = rm.id " +
-                    "WHERE r.start_time >= ? AND r.end_time <= ? " +
-                    "ORDER BY r.start_time ASC";
+        return findInRange(ReservationQuery.overlapping(start, end));
+    }
+    
+    /**
+     * Finds reservations matching a range query. Every range mode seeks on start_time:
+     * overlap queries look back by the longest stored reservation ({@link #lookBack}),
+     * so the cost grows with the result size rather than with the table. The archive is
+     * only read when the window starts before the archive watermark.
+     * @param query the query
+     * @return the matching reservations ordered by start time
+     */
+    public List<Reservation> findInRange(ReservationQuery query) {
+        List<Object> params = new ArrayList<>();
+        boolean includeArchive = reachesArchive(query);
+        String sql = selectReservations(rangeCondition(query, params), includeArchive) + " ORDER BY start_time ASC";
+        if (includeArchive) {
+            params.addAll(new ArrayList<>(params));
+        }
         
         List<Reservation> reservations = new ArrayList<>();
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setTimestamp(1, Timestamp.valueOf(start));
-            stmt.setTimestamp(2, Timestamp.valueOf(end));
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                reservations.add(mapResultSetToReservation(rs));
+            bindParams(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    reservations.add(mapResultSetToReservation(rs));
+                }
             }
         } catch (SQLException e) {
             logger.error("Error finding reservations in range: {}", e.getMessage());
@@ -290,19 +549,135 @@ public class ReservationDAO {
         return reservations;
     }
     
-    public List<Reservation> getUserReservations(int userId) {
-        String sql = "SELECT r.*, u.username, rm.name as room_name " +
+    /**
+     * Counts reservations matching a range query without loading them
+     * @param query the query
+     * @return the number of matching reservations
+     */
+    public int countInRange(ReservationQuery query) {
+        List<Object> params = new ArrayList<>();
+        String condition = rangeCondition(query, params);
+        String sql = "SELECT COUNT(*) FROM reservations r WHERE " + condition;
+        if (reachesArchive(query)) {
+            sql = "SELECT (" + sql + ") + (SELECT COUNT(*) FROM reservations_archive r WHERE " + condition + ")";
+            params.addAll(new ArrayList<>(params));
+        }
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            bindParams(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            logger.error("Error counting reservations in range: {}", e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+    }
+    
+    /**
+     * Archived reservations all ended before the watermark, so a range query can only
+     * match them if it starts before it; overlap queries need end_time > start.
+     */
+    private boolean reachesArchive(ReservationQuery query) {
+        return reachesArchive(query.getStart());
+    }
+    
+    private boolean reachesArchive(LocalDateTime start) {
+        LocalDateTime archivedBefore = archiveDAO.getArchivedBefore();
+        return archivedBefore != null && start.isBefore(archivedBefore);
+    }
+    
+    /**
+     * Builds a select of reservations matching a condition on alias r, combined with the
+     * same select on the archive when needed. Parameters of the condition have to be
+     * bound once per part.
+     */
+    private static String selectReservations(String condition, boolean includeArchive) {
+        String hot = SELECT_COLUMNS +
                     "FROM reservations r " +
                     "JOIN users u ON r.user_id = u.id " +
                     "JOIN rooms rm ON r.room_id = rm.id " +
-                    "WHERE r.user_id = ? " +
-                    "ORDER BY r.start_time DESC";
+                    "WHERE " + condition;
+        if (!includeArchive) {
+            return hot;
+        }
+        return "(" + hot + ") UNION ALL (" + SELECT_COLUMNS +
+                    "FROM reservations_archive r " +
+                    "JOIN users u ON r.user_id = u.id " +
+                    "JOIN rooms rm ON r.room_id = rm.id " +
+                    "WHERE " + condition + ")";
+    }
+    
+    // Every mode bounds start_time on both sides, which also lets MySQL prune partitions
+    // when the table is partitioned by start_time
+    static String rangeCondition(ReservationQuery query, List<Object> params) {
+        StringBuilder where = new StringBuilder();
+        Timestamp start = Timestamp.valueOf(query.getStart());
+        Timestamp end = Timestamp.valueOf(query.getEnd());
+        
+        switch (query.getMode()) {
+            case OVERLAPPING:
+                where.append("r.start_time >= ? AND r.start_time < ? AND r.end_time > ?");
+                params.add(Timestamp.valueOf(query.getStart().minus(lookBack())));
+                params.add(end);
+                params.add(start);
+                break;
+            case CONTAINED:
+                where.append("r.start_time >= ? AND r.start_time < ? AND r.end_time <= ?");
+                params.add(start);
+                params.add(end);
+                params.add(end);
+                break;
+            case STARTING_IN:
+                where.append("r.start_time >= ? AND r.start_time < ?");
+                params.add(start);
+                params.add(end);
+                break;
+        }
+        
+        if (query.getRoomId() != null) {
+            where.append(" AND r.room_id = ?");
+            params.add(query.getRoomId());
+        }
+        if (!query.getRoomIds().isEmpty()) {
+            where.append(" AND r.room_id IN (").append(placeholders(query.getRoomIds().size())).append(")");
+            params.addAll(query.getRoomIds());
+        }
+        if (query.getUserId() != null) {
+            where.append(" AND r.user_id = ?");
+            params.add(query.getUserId());
+        }
+        if (!query.getStatuses().isEmpty()) {
+            where.append(" AND r.status IN (").append(placeholders(query.getStatuses().size())).append(")");
+            params.addAll(query.getStatuses());
+        }
+        if (!query.getExcludedStatuses().isEmpty()) {
+            where.append(" AND r.status NOT IN (").append(placeholders(query.getExcludedStatuses().size())).append(")");
+            params.addAll(query.getExcludedStatuses());
+        }
+        return where.toString();
+    }
+    
+    private static void bindParams(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+    
+    public List<Reservation> getUserReservations(int userId) {
+        boolean includeArchive = archiveDAO.getArchivedBefore() != null;
+        String sql = selectReservations("r.user_id = ?", includeArchive) + " ORDER BY start_time DESC";
         
         List<Reservation> reservations = new ArrayList<>();
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, userId);
+            if (includeArchive) {
+                stmt.setInt(2, userId);
+            }
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
@@ -315,6 +690,110 @@ public class ReservationDAO {
         return reservations;
     }
     
+    /**
+     * Streams a user's reservations, archived ones included, ordered by start time
+     * @param userId the user ID
+     * @param action called for each reservation that is neither cancelled nor rejected
+     * @return the number of reservations streamed
+     */
+    public int forEachUserReservation(int userId, Consumer<Reservation> action) {
+        return forEachReservation("user_id", userId, action);
+    }
+    
+    /**
+     * Streams a room's reservations, archived ones included, ordered by start time
+     * @param roomId the room ID
+     * @param action called for each reservation that is neither cancelled nor rejected
+     * @return the number of reservations streamed
+     */
+    public int forEachRoomReservation(int roomId, Consumer<Reservation> action) {
+        return forEachReservation("room_id", roomId, action);
+    }
+    
+    /**
+     * Summarizes a user's reservations, including cancelled and archived ones, so a
+     * calendar feed can tell whether it changed without reading them
+     * @param userId the user ID
+     * @return the feed version
+     */
+    public FeedVersion getUserFeedVersion(int userId) {
+        return getFeedVersion("user_id", userId);
+    }
+    
+    /**
+     * Summarizes a room's reservations, including cancelled and archived ones, so a
+     * calendar feed can tell whether it changed without reading them
+     * @param roomId the room ID
+     * @return the feed version
+     */
+    public FeedVersion getRoomFeedVersion(int roomId) {
+        return getFeedVersion("room_id", roomId);
+    }
+    
+    // column is one of the constants above, never user input
+    private int forEachReservation(String column, int id, Consumer<Reservation> action) {
+        boolean includeArchive = archiveDAO.getArchivedBefore() != null;
+        String sql = selectReservations("r." + column + " = ? AND r.status NOT IN ('CANCELLED', 'REJECTED')",
+            includeArchive) + " ORDER BY start_time ASC";
+        int count = 0;
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J streams rows instead of buffering the result with this fetch size
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            stmt.setInt(1, id);
+            if (includeArchive) {
+                stmt.setInt(2, id);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapResultSetToReservation(rs));
+                    count++;
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error streaming reservations by {}: {}", column, e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+        return count;
+    }
+    
+    private FeedVersion getFeedVersion(String column, int id) {
+        boolean includeArchive = archiveDAO.getArchivedBefore() != null;
+        String rows = feedVersionRows("reservations", column);
+        if (includeArchive) {
+            rows += " UNION ALL " + feedVersionRows("reservations_archive", column);
+        }
+        String sql = "SELECT COUNT(*), COALESCE(MAX(id), 0), COALESCE(SUM(version), 0), MAX(updated_at), " +
+                    "MAX(names_updated_at), COALESCE(SUM(names_crc), 0) FROM (" + rows + ") t";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            if (includeArchive) {
+                stmt.setInt(2, id);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                Timestamp lastModified = rs.getTimestamp(4);
+                Timestamp namesModified = rs.getTimestamp(5);
+                return new FeedVersion(rs.getInt(1), rs.getInt(2), rs.getLong(3),
+                    lastModified == null ? null : lastModified.toLocalDateTime(),
+                    namesModified == null ? null : namesModified.toLocalDateTime(), rs.getLong(6));
+            }
+        } catch (SQLException e) {
+            logger.error("Error reading feed version by {}: {}", column, e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+    }
+    
+    // Feeds show the username and room name, so renames have to change the version too
+    private static String feedVersionRows(String table, String column) {
+        return "SELECT r.id, r.version, r.updated_at, GREATEST(u.updated_at, rm.updated_at) AS names_updated_at, " +
+               "CRC32(CONCAT(u.username, '/', rm.name)) AS names_crc FROM " + table + " r " +
+               "JOIN users u ON r.user_id = u.id JOIN rooms rm ON r.room_id = rm.id WHERE r." + column + " = ?";
+    }
+    
     public Reservation getReservation(int id) {
         String sql = "SELECT r.*, u.username, rm.name as room_name " +
                     "FROM reservations r " +
@@ -335,7 +814,170 @@ public class ReservationDAO {
             logger.error("Error finding reservation by id: {}", e.getMessage());
             throw new RuntimeException("Database error occurred", e);
         }
-        return null;
+        return findArchived(id);
+    }
+    
+    private Reservation findArchived(int id) {
+        if (archiveDAO.getArchivedBefore() == null) {
+            return null;
+        }
+        String sql = SELECT_COLUMNS +
+                    "FROM reservations_archive r " +
+                    "JOIN users u ON r.user_id = u.id " +
+                    "JOIN rooms rm ON r.room_id = rm.id " +
+                    "WHERE r.id = ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapResultSetToReservation(rs) : null;
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding archived reservation: {}", e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+    }
+
+    /**
+     * Loads several reservations in a single query
+     * @param ids the reservation IDs
+     * @return the reservations found, in start time order
+     */
+    public List<Reservation> findByIds(List<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Reservation> reservations = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (List<Integer> chunk : chunks(ids)) {
+                String sql = "SELECT r.*, u.username, rm.name as room_name " +
+                            "FROM reservations r " +
+                            "JOIN users u ON r.user_id = u.id " +
+                            "JOIN rooms rm ON r.room_id = rm.id " +
+                            "WHERE r.id IN (" + placeholders(chunk.size()) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    bindIds(stmt, 1, chunk);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            reservations.add(mapResultSetToReservation(rs));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding reservations by IDs: {}", e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+        reservations.sort(Comparator.comparing(Reservation::getStartTime));
+        return reservations;
+    }
+    
+    /**
+     * Finds which of the given reservations overlap an already approved reservation
+     * in the same room. Candidates are checked with one self-join per {@value #MAX_IN_LIST} IDs.
+     * @param ids the candidate reservation IDs
+     * @return the IDs of candidates that would conflict if approved
+     */
+    public Set<Integer> findApprovedConflicts(List<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<Integer> conflicts = new HashSet<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (List<Integer> chunk : chunks(ids)) {
+                String sql = "SELECT DISTINCT c.id " +
+                            "FROM reservations c " +
+                            "JOIN reservations o ON o.room_id = c.room_id AND o.id <> c.id " +
+                            "AND o.status = 'APPROVED' " +
+                            "AND o.start_time < c.end_time AND o.end_time > c.start_time " +
+                            "WHERE c.id IN (" + placeholders(chunk.size()) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    bindIds(stmt, 1, chunk);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            conflicts.add(rs.getInt(1));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error checking approval conflicts: {}", e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+        return conflicts;
+    }
+    
+    /**
+     * Changes the status of several reservations in one transaction, with an UPDATE per
+     * {@value #MAX_IN_LIST} IDs. Only rows still in the expected status are touched, so
+     * concurrent changes are not overwritten.
+     * @param ids the reservation IDs
+     * @param expectedStatus the status the rows must currently have
+     * @param newStatus the status to set
+     * @param comments the admin comments to store
+     * @return the number of rows updated
+     */
+    public int updateStatusBatch(List<Integer> ids, String expectedStatus, String newStatus, String comments) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int updated = 0;
+                for (List<Integer> chunk : chunks(ids)) {
+                    String sql = "UPDATE reservations SET status = ?, admin_comments = ?, version = version + 1 " +
+                                "WHERE status = ? AND id IN (" + placeholders(chunk.size()) + ")";
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        stmt.setString(1, newStatus);
+                        stmt.setString(2, comments);
+                        stmt.setString(3, expectedStatus);
+                        bindIds(stmt, 4, chunk);
+                        updated += stmt.executeUpdate();
+                    }
+                }
+                conn.commit();
+                return updated;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error updating reservation statuses: {}", e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+    }
+    
+    /**
+     * Splits IDs into lists of at most {@value #MAX_IN_LIST}, keeping their order
+     */
+    static List<List<Integer>> chunks(List<Integer> ids) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST) {
+            chunks.add(ids.subList(from, Math.min(ids.size(), from + MAX_IN_LIST)));
+        }
+        return chunks;
+    }
+    
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+    
+    private static void bindIds(PreparedStatement stmt, int firstIndex, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            stmt.setInt(firstIndex + i, ids.get(i));
+        }
     }
 
     private Reservation mapResultSetToReservation(ResultSet rs) throws SQLException {
@@ -347,6 +989,8 @@ public class ReservationDAO {
         reservation.setEndTime(rs.getTimestamp("end_time").toLocalDateTime());
         reservation.setStatus(rs.getString("status"));
         reservation.setSubject(rs.getString("subject"));
+        reservation.setAdminComments(rs.getString("admin_comments"));
+        reservation.setVersion(rs.getInt("version"));
         reservation.setUserName(rs.getString("username"));
         reservation.setRoomName(rs.getString("room_name"));
         return reservation;
@@ -0,0 +1,122 @@
+package com.roombooking.dao;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Time-window query over reservations with optional room, user and status filters.
+ * All filters are applied in SQL by {@link ReservationDAO#findInRange(ReservationQuery)}.
+ */
+public class ReservationQuery {
+
+    /**
+     * How a reservation has to relate to the window [start, end) to be returned
+     */
+    public enum RangeMode {
+        /** Reservation lies completely inside the window */
+        CONTAINED,
+        /** Reservation shares at least one instant with the window, including ones that straddle its edges */
+        OVERLAPPING,
+        /** Reservation starts inside the window; every reservation falls in exactly one of adjacent windows */
+        STARTING_IN
+    }
+
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final RangeMode mode;
+    private Integer roomId;
+    private Integer userId;
+    private List<Integer> roomIds = Collections.emptyList();
+    private List<String> statuses = Collections.emptyList();
+    private List<String> excludedStatuses = Collections.emptyList();
+
+    private ReservationQuery(LocalDateTime start, LocalDateTime end, RangeMode mode) {
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("Range start must be before its end");
+        }
+        this.start = start;
+        this.end = end;
+        this.mode = mode;
+    }
+
+    public static ReservationQuery overlapping(LocalDateTime start, LocalDateTime end) {
+        return new ReservationQuery(start, end, RangeMode.OVERLAPPING);
+    }
+
+    public static ReservationQuery contained(LocalDateTime start, LocalDateTime end) {
+        return new ReservationQuery(start, end, RangeMode.CONTAINED);
+    }
+
+    public static ReservationQuery startingIn(LocalDateTime start, LocalDateTime end) {
+        return new ReservationQuery(start, end, RangeMode.STARTING_IN);
+    }
+
+    public ReservationQuery room(int roomId) {
+        this.roomId = roomId;
+        return this;
+    }
+
+    /**
+     * Restricts the query to a set of rooms, e.g. the rows of one timeline tile
+     * @param roomIds the room IDs; must not be empty
+     * @return this query
+     */
+    public ReservationQuery rooms(Collection<Integer> roomIds) {
+        if (roomIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one room is required");
+        }
+        this.roomIds = new ArrayList<>(roomIds);
+        return this;
+    }
+
+    public ReservationQuery user(int userId) {
+        this.userId = userId;
+        return this;
+    }
+
+    public ReservationQuery statuses(String... statuses) {
+        this.statuses = new ArrayList<>(Arrays.asList(statuses));
+        return this;
+    }
+
+    public ReservationQuery excludeStatuses(String... statuses) {
+        this.excludedStatuses = new ArrayList<>(Arrays.asList(statuses));
+        return this;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public RangeMode getMode() {
+        return mode;
+    }
+
+    public Integer getRoomId() {
+        return roomId;
+    }
+
+    public List<Integer> getRoomIds() {
+        return roomIds;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public List<String> getStatuses() {
+        return statuses;
+    }
+
+    public List<String> getExcludedStatuses() {
+        return excludedStatuses;
+    }
+}
@@ -0,0 +1,15 @@
+package com.roombooking.dao;
+
+/**
+ * Outcome of a conditional (optimistically locked) update
+ */
+public enum UpdateResult {
+    /** The row was updated */
+    UPDATED,
+    /** Someone else changed the row first and the change could not be re-applied */
+    CONFLICT,
+    /** The row no longer exists */
+    NOT_FOUND,
+    /** The update was invalid or the database failed */
+    FAILED
+}
@@ -8,6 +8,7 @@ import org.mindrot.jbcrypt.BCrypt;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object for User-related database operations
@@ -85,6 +86,38 @@ public class UserDAO {
         return users;
     }
 
+    /**
+     * Streams every user, without password hashes, to an action one row at a time so
+     * that the whole table never has to be held in memory
+     * @param action called for each user, in username order
+     * @return the number of users streamed
+     */
+    public int forEachUser(Consumer<User> action) {
+        String sql = "SELECT u.id, u.username, CONCAT(p.first_name, ' ', p.last_name) as full_name, " +
+                    "u.email, NULL as password, u.role = 'ADMIN' as is_admin, " +
+                    "u.is_active, u.profile_id " +
+                    "FROM users u " +
+                    "LEFT JOIN profiles p ON u.profile_id = p.id " +
+                    "ORDER BY u.username";
+        int count = 0;
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J streams rows instead of buffering the result with this fetch size
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapResultSetToUser(rs));
+                    count++;
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error streaming users: {}", e.getMessage());
+            throw new RuntimeException("Database error occurred", e);
+        }
+        return count;
+    }
+
     public boolean createUser(User user) {
         // First create a profile
         String profileSql = "INSERT INTO profiles (first_name, last_name, email) VALUES (?, ?, ?)";
@@ -164,6 +197,30 @@ public class UserDAO {
         }
     }
 
+    /**
+     * Replaces a user's password hash, unless it changed since it was read
+     * @param userId the user ID
+     * @param oldHash the hash the new one replaces
+     * @param newHash the new hash
+     * @return true if the hash was replaced
+     */
+    public boolean updatePasswordHash(int userId, String oldHash, String newHash) {
+        String sql = "UPDATE users SET password_hash = ? WHERE id = ? AND password_hash = ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, newHash);
+            stmt.setInt(2, userId);
+            stmt.setString(3, oldHash);
+            
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            logger.error("Error updating password hash: {}", e.getMessage());
+            return false;
+        }
+    }
+
     private User mapResultSetToUser(ResultSet rs) throws SQLException {
         User user = new User();
         user.setId(rs.getInt("id"));
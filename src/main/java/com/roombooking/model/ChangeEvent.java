@@ -0,0 +1,67 @@
+package com.roombooking.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the change_log feed: an entity that was inserted, updated or deleted
+ */
+public class ChangeEvent {
+    public enum EntityType { RESERVATION, ROOM, USER }
+
+    public enum Operation { INSERT, UPDATE, DELETE }
+
+    private final long seq;
+    private final EntityType entityType;
+    private final int entityId;
+    private final Operation operation;
+    private final Integer userId;
+    private final LocalDateTime changedAt;
+
+    public ChangeEvent(long seq, EntityType entityType, int entityId, Operation operation,
+                       Integer userId, LocalDateTime changedAt) {
+        this.seq = seq;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.operation = operation;
+        this.userId = userId;
+        this.changedAt = changedAt;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    /**
+     * @return the owner of a reservation, the user itself for user changes, or null for rooms
+     */
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{" +
+            "seq=" + seq +
+            ", entityType=" + entityType +
+            ", entityId=" + entityId +
+            ", operation=" + operation +
+            ", userId=" + userId +
+            '}';
+    }
+}
@@ -19,6 +19,7 @@ public class Reservation {
     private String subject;
     private String status;
     private String adminComments;
+    private int version;
     private List<Equipment> equipment;
     private List<Participant> participants;
     
@@ -126,6 +127,17 @@ public class Reservation {
         this.adminComments = adminComments;
     }
     
+    /**
+     * Row version used for optimistic locking; incremented by every update
+     */
+    public int getVersion() {
+        return version;
+    }
+    
+    public void setVersion(int version) {
+        this.version = version;
+    }
+    
     public List<Equipment> getEquipment() {
         return equipment;
     }
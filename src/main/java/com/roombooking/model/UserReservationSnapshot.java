@@ -0,0 +1,111 @@
+package com.roombooking.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A user's reservations as of one point in time: the recent and upcoming ones, loaded
+ * with a single bounded query, and counts over the whole history computed in SQL.
+ * The active, upcoming and past views are derived from the same list, so one refresh
+ * reads the user's reservations once.
+ */
+public class UserReservationSnapshot {
+    private final List<Reservation> reservations;
+    private final LocalDateTime takenAt;
+    private final LocalDateTime historyStart;
+    private final int activeCount;
+    private final int upcomingCount;
+    private final int pastCount;
+
+    /**
+     * @param reservations reservations ending at or after historyStart, newest first
+     * @param takenAt when the snapshot was taken
+     * @param historyStart start of the loaded history
+     * @param activeCount number of reservations that are not cancelled
+     * @param upcomingCount number of reservations not cancelled that start after takenAt
+     * @param pastCount number of reservations that ended before takenAt
+     */
+    public UserReservationSnapshot(List<Reservation> reservations, LocalDateTime takenAt, LocalDateTime historyStart,
+                                   int activeCount, int upcomingCount, int pastCount) {
+        this.reservations = Collections.unmodifiableList(new ArrayList<>(reservations));
+        this.takenAt = takenAt;
+        this.historyStart = historyStart;
+        this.activeCount = activeCount;
+        this.upcomingCount = upcomingCount;
+        this.pastCount = pastCount;
+    }
+
+    /**
+     * @return reservations ending at or after {@link #getHistoryStart()}, newest first
+     */
+    public List<Reservation> getReservations() {
+        return reservations;
+    }
+
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+
+    public LocalDateTime getHistoryStart() {
+        return historyStart;
+    }
+
+    /**
+     * @return loaded reservations that are not cancelled
+     */
+    public List<Reservation> getActive() {
+        List<Reservation> active = new ArrayList<>();
+        for (Reservation reservation : reservations) {
+            if (!"CANCELLED".equals(reservation.getStatus())) {
+                active.add(reservation);
+            }
+        }
+        return active;
+    }
+
+    /**
+     * @return reservations not cancelled that start after the snapshot was taken
+     */
+    public List<Reservation> getUpcoming() {
+        List<Reservation> upcoming = new ArrayList<>();
+        for (Reservation reservation : reservations) {
+            if (reservation.getStartTime().isAfter(takenAt) && !"CANCELLED".equals(reservation.getStatus())) {
+                upcoming.add(reservation);
+            }
+        }
+        return upcoming;
+    }
+
+    /**
+     * @return loaded reservations that ended before the snapshot was taken
+     */
+    public List<Reservation> getPast() {
+        List<Reservation> past = new ArrayList<>();
+        for (Reservation reservation : reservations) {
+            if (reservation.getEndTime().isBefore(takenAt)) {
+                past.add(reservation);
+            }
+        }
+        return past;
+    }
+
+    /**
+     * @return number of reservations in the whole history that are not cancelled
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public int getUpcomingCount() {
+        return upcomingCount;
+    }
+
+    /**
+     * @return number of reservations in the whole history that have ended
+     */
+    public int getPastCount() {
+        return pastCount;
+    }
+}
@@ -0,0 +1,202 @@
+package com.roombooking.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool for authentication work (user lookup plus BCrypt). BCrypt is slow on
+ * purpose, so a burst of logins must not be allowed to take every core or pile up
+ * unbounded: the pool leaves one core free, at most {@value #QUEUE_PER_WORKER} tasks
+ * per worker wait in line, and further submissions are rejected immediately with a
+ * {@link RejectedExecutionException} the caller can report as "busy, try again".
+ */
+public class AuthExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(AuthExecutor.class);
+    static final int QUEUE_PER_WORKER = 16;
+    private static final ThreadLocal<Boolean> IN_POOL = ThreadLocal.withInitial(() -> false);
+    private static AuthExecutor instance;
+
+    private final ThreadPoolExecutor executor;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxRunNanos = new LongAccumulator(Math::max, 0);
+
+    AuthExecutor(int workers, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread thread = new Thread(() -> {
+                    IN_POOL.set(true);
+                    r.run();
+                }, "auth-worker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static synchronized AuthExecutor getInstance() {
+        if (instance == null) {
+            int workers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            instance = new AuthExecutor(workers, workers * QUEUE_PER_WORKER);
+            logger.info("Authentication pool started ({} workers, queue {})", workers, workers * QUEUE_PER_WORKER);
+        }
+        return instance;
+    }
+
+    /**
+     * Runs a task on the pool
+     * @param task the task
+     * @return the task's result; fails with RejectedExecutionException if the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long startedAt = System.nanoTime();
+                record(waitNanos, maxWaitNanos, startedAt - queuedAt);
+                try {
+                    T result = task.get();
+                    completed.increment();
+                    return result;
+                } catch (RuntimeException e) {
+                    failed.increment();
+                    throw e;
+                } finally {
+                    record(runNanos, maxRunNanos, System.nanoTime() - startedAt);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Authentication queue full ({} waiting), rejecting request", executor.getQueue().size());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Runs a task on the pool and waits for it; tasks already on the pool run in place
+     * @param task the task
+     * @return the task's result
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public <T> T invoke(Supplier<T> task) {
+        if (IN_POOL.get()) {
+            return task.get();
+        }
+        try {
+            return submit(task).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static void record(LongAdder total, LongAccumulator max, long nanos) {
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * @return a snapshot of the pool's counters and latencies
+     */
+    public Stats getStats() {
+        return new Stats(executor.getActiveCount(), executor.getQueue().size(), completed.sum(), failed.sum(),
+            rejected.sum(), waitNanos.sum(), runNanos.sum(), maxWaitNanos.get(), maxRunNanos.get());
+    }
+
+    /**
+     * Counters and latencies of the authentication pool
+     */
+    public static final class Stats {
+        private final int active;
+        private final int queued;
+        private final long completed;
+        private final long failed;
+        private final long rejected;
+        private final long totalWaitNanos;
+        private final long totalRunNanos;
+        private final long maxWaitNanos;
+        private final long maxRunNanos;
+
+        Stats(int active, int queued, long completed, long failed, long rejected,
+              long totalWaitNanos, long totalRunNanos, long maxWaitNanos, long maxRunNanos) {
+            this.active = active;
+            this.queued = queued;
+            this.completed = completed;
+            this.failed = failed;
+            this.rejected = rejected;
+            this.totalWaitNanos = totalWaitNanos;
+            this.totalRunNanos = totalRunNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.maxRunNanos = maxRunNanos;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * @return average time a task waited in the queue, in milliseconds
+         */
+        public double getAverageWaitMillis() {
+            long finished = completed + failed;
+            return finished == 0 ? 0 : totalWaitNanos / 1e6 / finished;
+        }
+
+        /**
+         * @return average time a task ran, in milliseconds
+         */
+        public double getAverageRunMillis() {
+            long finished = completed + failed;
+            return finished == 0 ? 0 : totalRunNanos / 1e6 / finished;
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitNanos / 1e6;
+        }
+
+        public double getMaxRunMillis() {
+            return maxRunNanos / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Stats{active=%d, queued=%d, completed=%d, failed=%d, rejected=%d, " +
+                    "avgWait=%.1fms, maxWait=%.1fms, avgRun=%.1fms, maxRun=%.1fms}",
+                active, queued, completed, failed, rejected,
+                getAverageWaitMillis(), getMaxWaitMillis(), getAverageRunMillis(), getMaxRunMillis());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.roombooking.util;
+
+import com.roombooking.model.Reservation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Cache of reservations per calendar month. Months are loaded in the background,
+ * kept in a small LRU, refreshed after a time-to-live and dropped when reservations
+ * inside them change. Each month is held as a {@link ReservationStore}, so a busy
+ * month costs a fraction of its Reservation objects; readers get a list view that
+ * creates Reservations as they are read.
+ */
+public class CalendarDataCache {
+    private static final Logger logger = LoggerFactory.getLogger(CalendarDataCache.class);
+    private static final int MAX_MONTHS = 12;
+    private static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    private final Function<YearMonth, List<Reservation>> loader;
+    private final ExecutorService executor;
+    private final Map<YearMonth, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<YearMonth, Entry> eldest) {
+            return size() > MAX_MONTHS;
+        }
+    };
+
+    /**
+     * @param loader loads all reservations touching a month; called off the EDT
+     */
+    public CalendarDataCache(Function<YearMonth, List<Reservation>> loader) {
+        this.loader = loader;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "calendar-loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the reservations of a month, loading them in the background if they are
+     * not cached or have expired
+     * @param month the month
+     * @return a future completed with an unmodifiable list of reservations
+     */
+    public synchronized CompletableFuture<List<Reservation>> get(YearMonth month) {
+        Entry entry = entries.get(month);
+        if (entry == null || entry.isExpired()) {
+            entry = load(month);
+        }
+        return entry.future;
+    }
+
+    /**
+     * Gets the reservations of a month only if they are already loaded and fresh
+     * @param month the month
+     * @return the reservations, or null if they still need to be loaded
+     */
+    public synchronized List<Reservation> getIfLoaded(YearMonth month) {
+        Entry entry = entries.get(month);
+        if (entry == null || entry.isExpired() || !entry.future.isDone() || entry.future.isCompletedExceptionally()) {
+            return null;
+        }
+        return entry.future.join();
+    }
+
+    /**
+     * Starts loading the months before and after the given month
+     * @param month the month currently shown
+     */
+    public synchronized void prefetchAround(YearMonth month) {
+        get(month.minusMonths(1));
+        get(month.plusMonths(1));
+    }
+
+    /**
+     * Drops every cached month that overlaps the given time range
+     * @param start start of the changed range
+     * @param end end of the changed range
+     */
+    public synchronized void invalidate(LocalDateTime start, LocalDateTime end) {
+        YearMonth first = YearMonth.from(start);
+        YearMonth last = YearMonth.from(end);
+        Iterator<YearMonth> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            YearMonth month = it.next();
+            if (!month.isBefore(first) && !month.isAfter(last)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops all cached months
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    private Entry load(YearMonth month) {
+        CompletableFuture<List<Reservation>> future = new CompletableFuture<>();
+        Entry entry = new Entry(future);
+        entries.put(month, entry);
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                ReservationStore store = ReservationStore.of(loader.apply(month));
+                logger.debug("Loaded {} reservations for {} in {} ms ({} KB)", store.size(), month,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), store.footprintBytes() / 1024);
+                future.complete(store.asList());
+            } catch (RuntimeException e) {
+                logger.error("Failed to load reservations for {}: {}", month, e.getMessage());
+                synchronized (this) {
+                    // Let the next request retry instead of caching the failure
+                    entries.remove(month, entry);
+                }
+                future.completeExceptionally(e);
+            }
+        });
+        return entry;
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<List<Reservation>> future;
+        private final long createdMillis = System.currentTimeMillis();
+
+        private Entry(CompletableFuture<List<Reservation>> future) {
+            this.future = future;
+        }
+
+        private boolean isExpired() {
+            return future.isDone() && System.currentTimeMillis() - createdMillis > TTL_MILLIS;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.roombooking.util;
+
+import com.roombooking.dao.EquipmentDAO;
+import com.roombooking.dao.RoomDAO;
+import com.roombooking.model.ChangeEvent;
+import com.roombooking.model.Equipment;
+import com.roombooking.model.Room;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Search indexes over rooms and equipment, shared by all controllers. Each index is
+ * loaded in full on first use and then kept current one document at a time: by the
+ * controllers after their own writes and, for rooms, by ROOM events from the change
+ * feed. Creates only know success, not the new ID, so they mark the index for reload.
+ * Equipment has no change feed, so its index is also reloaded once it is older than
+ * {@link #MAX_AGE_MILLIS}.
+ * <p>
+ * Room queries support {@code type=}, {@code building=} (the part of the location
+ * before the first comma), {@code active=} and {@code capacity>=}/{@code <=}; equipment
+ * queries support {@code type=} and {@code available=}.
+ */
+public class CatalogSearch {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSearch.class);
+    static final long MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static CatalogSearch instance;
+
+    private final SearchIndex<Room> rooms = new SearchIndex<Room>(Room::getId,
+            Comparator.comparing(Room::getName, String.CASE_INSENSITIVE_ORDER))
+        .text(Room::getName)
+        .text(Room::getType)
+        .text(Room::getLocation)
+        .text(Room::getDescription)
+        .keyword("type", Room::getType)
+        .keyword("building", CatalogSearch::buildingOf)
+        .keyword("active", room -> String.valueOf(room.isActive()))
+        .numeric("capacity", Room::getCapacity);
+    private final SearchIndex<Equipment> equipment = new SearchIndex<Equipment>(Equipment::getId,
+            Comparator.comparing(Equipment::getName, String.CASE_INSENSITIVE_ORDER))
+        .text(Equipment::getName)
+        .text(Equipment::getType)
+        .text(Equipment::getDescription)
+        .keyword("type", Equipment::getType)
+        .keyword("available", item -> String.valueOf(item.isAvailable()));
+
+    private final Supplier<List<Room>> roomLoader;
+    private final IntFunction<Room> roomById;
+    private final Supplier<List<Equipment>> equipmentLoader;
+    private final LongSupplier clock;
+    private long roomsLoadedAt = -1;
+    private long equipmentLoadedAt = -1;
+
+    CatalogSearch(Supplier<List<Room>> roomLoader, IntFunction<Room> roomById,
+                  Supplier<List<Equipment>> equipmentLoader, LongSupplier clock) {
+        this.roomLoader = roomLoader;
+        this.roomById = roomById;
+        this.equipmentLoader = equipmentLoader;
+        this.clock = clock;
+    }
+
+    public static synchronized CatalogSearch getInstance() {
+        if (instance == null) {
+            RoomDAO roomDAO = new RoomDAO();
+            EquipmentDAO equipmentDAO = new EquipmentDAO();
+            OfflineSchedule schedule = OfflineSchedule.getInstance();
+            instance = new CatalogSearch(() -> schedule.readThrough(roomDAO::getAllRooms, ScheduleSnapshot::getRooms),
+                roomDAO::getRoom, () -> schedule.readThrough(equipmentDAO::getAllEquipment, ScheduleSnapshot::getEquipment),
+                System::currentTimeMillis);
+            CatalogSearch search = instance;
+            ChangeEventBus.getInstance().subscribe(
+                event -> event.getEntityType() == ChangeEvent.EntityType.ROOM,
+                events -> events.forEach(search::applyRoomEvent));
+        }
+        return instance;
+    }
+
+    /**
+     * Finds rooms matching a query
+     * @param query words matched as prefixes plus facet filters, e.g. {@code conf capacity>=20}
+     * @return the matching rooms ordered by name
+     */
+    public List<Room> searchRooms(String query) {
+        ensureRoomsLoaded();
+        return rooms.search(query);
+    }
+
+    /**
+     * Finds equipment matching a query
+     * @param query words matched as prefixes plus facet filters, e.g. {@code proj available=true}
+     * @return the matching equipment ordered by name
+     */
+    public List<Equipment> searchEquipment(String query) {
+        ensureEquipmentLoaded();
+        return equipment.search(query);
+    }
+
+    public void roomSaved(Room room) {
+        rooms.put(room);
+    }
+
+    public void roomDeleted(int id) {
+        rooms.remove(id);
+    }
+
+    /**
+     * Marks the room index for reload, e.g. after a create whose ID is not known
+     */
+    public synchronized void roomsChanged() {
+        roomsLoadedAt = -1;
+    }
+
+    public void equipmentSaved(Equipment item) {
+        equipment.put(item);
+    }
+
+    public void equipmentDeleted(int id) {
+        equipment.remove(id);
+    }
+
+    /**
+     * Marks the equipment index for reload, e.g. after a create whose ID is not known
+     */
+    public synchronized void equipmentChanged() {
+        equipmentLoadedAt = -1;
+    }
+
+    void applyRoomEvent(ChangeEvent event) {
+        if (event.getOperation() == ChangeEvent.Operation.DELETE) {
+            rooms.remove(event.getEntityId());
+            return;
+        }
+        Room room = roomById.apply(event.getEntityId());
+        if (room != null) {
+            rooms.put(room);
+        } else {
+            rooms.remove(event.getEntityId());
+        }
+    }
+
+    private synchronized void ensureRoomsLoaded() {
+        if (roomsLoadedAt < 0) {
+            rooms.replaceAll(roomLoader.get());
+            roomsLoadedAt = clock.getAsLong();
+            logger.debug("Indexed {} rooms", rooms.size());
+        }
+    }
+
+    private synchronized void ensureEquipmentLoaded() {
+        long now = clock.getAsLong();
+        if (equipmentLoadedAt < 0 || now - equipmentLoadedAt > MAX_AGE_MILLIS) {
+            equipment.replaceAll(equipmentLoader.get());
+            equipmentLoadedAt = now;
+            logger.debug("Indexed {} equipment items", equipment.size());
+        }
+    }
+
+    static String buildingOf(Room room) {
+        String location = room.getLocation();
+        if (location == null) {
+            return null;
+        }
+        int comma = location.indexOf(',');
+        return (comma < 0 ? location : location.substring(0, comma)).trim();
+    }
+}
@@ -0,0 +1,87 @@
+package com.roombooking.util;
+
+import com.roombooking.model.ChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * In-process publish/subscribe for change events. Listeners are called on the
+ * publishing thread with the events that pass their filter and have to hop to the
+ * EDT themselves before touching Swing components.
+ */
+public class ChangeEventBus {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeEventBus.class);
+    private static ChangeEventBus instance;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Handle returned by {@link #subscribe}; cancel it when the view is disposed
+     */
+    public interface Subscription {
+        void cancel();
+    }
+
+    public static synchronized ChangeEventBus getInstance() {
+        if (instance == null) {
+            instance = new ChangeEventBus();
+        }
+        return instance;
+    }
+
+    /**
+     * Subscribes to changes
+     * @param filter selects the events the listener is interested in
+     * @param listener receives each non-empty batch of matching events
+     * @return the subscription
+     */
+    public Subscription subscribe(Predicate<ChangeEvent> filter, Consumer<List<ChangeEvent>> listener) {
+        Listener entry = new Listener(filter, listener);
+        listeners.add(entry);
+        return () -> listeners.remove(entry);
+    }
+
+    public boolean hasSubscribers() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Delivers a batch of events to every subscriber whose filter matches at least one
+     * of them. A failing listener is logged and does not affect the others.
+     * @param events the events in sequence order
+     */
+    public void publish(List<ChangeEvent> events) {
+        for (Listener entry : listeners) {
+            List<ChangeEvent> matching = new ArrayList<>();
+            for (ChangeEvent event : events) {
+                if (entry.filter.test(event)) {
+                    matching.add(event);
+                }
+            }
+            if (matching.isEmpty()) {
+                continue;
+            }
+            try {
+                entry.consumer.accept(matching);
+            } catch (RuntimeException e) {
+                logger.error("Change listener failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class Listener {
+        private final Predicate<ChangeEvent> filter;
+        private final Consumer<List<ChangeEvent>> consumer;
+
+        private Listener(Predicate<ChangeEvent> filter, Consumer<List<ChangeEvent>> consumer) {
+            this.filter = filter;
+            this.consumer = consumer;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.roombooking.util;
+
+import com.roombooking.dao.ChangeLogDAO;
+import com.roombooking.model.ChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tails the change_log table once a second and publishes new rows on the
+ * {@link ChangeEventBus}. An idle poll is a single primary key range query that
+ * returns nothing, and nothing is queried while no view is subscribed.
+ * <p>
+ * Sequence numbers are handed out at insert time but become visible at commit, so
+ * a lower number can appear after a higher one. The poller therefore keeps a
+ * watermark below which everything has been seen, re-reads from there, and only
+ * skips a gap once it has stayed open for {@value #GAP_TIMEOUT_MILLIS} ms (the
+ * transaction rolled back or the number was never used).
+ */
+public class ChangeFeedPoller {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedPoller.class);
+    private static final long POLL_INTERVAL_MILLIS = 1000;
+    static final long GAP_TIMEOUT_MILLIS = 5000;
+    private static final int BATCH_SIZE = 500;
+    private static final long PRUNE_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final int PRUNE_RETENTION_HOURS = 24;
+    private static final int PRUNE_CHUNK = 10_000;
+    private static final int MAX_BACKOFF_POLLS = 30;
+    private static ChangeFeedPoller instance;
+
+    private final ChangeLogDAO changeLogDAO;
+    private final ChangeEventBus bus;
+    private ScheduledExecutorService executor;
+
+    // Only touched by the poller thread
+    private long watermark = -1;
+    private final TreeSet<Long> deliveredAboveWatermark = new TreeSet<>();
+    private long gapSince;
+    private long lastPruneMillis;
+    private int failures;
+    private int pollsToSkip;
+
+    ChangeFeedPoller(ChangeLogDAO changeLogDAO, ChangeEventBus bus) {
+        this.changeLogDAO = changeLogDAO;
+        this.bus = bus;
+    }
+
+    public static synchronized ChangeFeedPoller getInstance() {
+        if (instance == null) {
+            instance = new ChangeFeedPoller(new ChangeLogDAO(), ChangeEventBus.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Starts tailing the change log if it is not already running
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::pollSafely, POLL_INTERVAL_MILLIS, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        logger.info("Change feed poller started (every {} ms)", POLL_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Stops tailing the change log
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void pollSafely() {
+        if (pollsToSkip > 0) {
+            pollsToSkip--;
+            return;
+        }
+        try {
+            pollOnce(System.currentTimeMillis());
+            failures = 0;
+        } catch (RuntimeException e) {
+            // Back off while the database is unreachable instead of logging every second
+            failures++;
+            pollsToSkip = Math.min(MAX_BACKOFF_POLLS, 1 << Math.min(failures, 5));
+            logger.warn("Change feed poll failed ({} in a row): {}", failures, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads and publishes all changes committed since the last poll
+     * @param now the current time in milliseconds
+     */
+    void pollOnce(long now) {
+        if (!bus.hasSubscribers()) {
+            // Nobody is listening; start from the head again once someone subscribes
+            watermark = -1;
+            deliveredAboveWatermark.clear();
+            return;
+        }
+        if (watermark < 0) {
+            watermark = changeLogDAO.getLatestSeq();
+            gapSince = 0;
+            return;
+        }
+
+        while (true) {
+            long before = watermark;
+            List<ChangeEvent> rows = changeLogDAO.findAfter(watermark, BATCH_SIZE);
+            List<ChangeEvent> fresh = new ArrayList<>();
+            for (ChangeEvent event : rows) {
+                if (deliveredAboveWatermark.add(event.getSeq())) {
+                    fresh.add(event);
+                }
+            }
+            if (!fresh.isEmpty()) {
+                bus.publish(fresh);
+            }
+            advanceWatermark(now);
+            if (rows.size() < BATCH_SIZE || watermark == before) {
+                break;
+            }
+        }
+
+        if (now - lastPruneMillis >= PRUNE_INTERVAL_MILLIS) {
+            lastPruneMillis = now;
+            int pruned = changeLogDAO.deleteOlderThan(LocalDateTime.now().minusHours(PRUNE_RETENTION_HOURS), PRUNE_CHUNK);
+            if (pruned > 0) {
+                logger.info("Pruned {} old change log entries", pruned);
+            }
+        }
+    }
+
+    private void advanceWatermark(long now) {
+        while (!deliveredAboveWatermark.isEmpty()) {
+            long next = watermark + 1;
+            if (deliveredAboveWatermark.remove(next)) {
+                watermark = next;
+                gapSince = 0;
+                continue;
+            }
+            // A gap: wait for the missing sequence numbers to commit, then give up on them
+            if (gapSince == 0) {
+                gapSince = now;
+            }
+            if (now - gapSince < GAP_TIMEOUT_MILLIS) {
+                return;
+            }
+            watermark = deliveredAboveWatermark.first() - 1;
+            gapSince = 0;
+        }
+    }
+
+    long getWatermark() {
+        return watermark;
+    }
+}
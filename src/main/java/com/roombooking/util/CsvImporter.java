@@ -0,0 +1,426 @@
+package com.roombooking.util;
+
+import com.roombooking.dao.BulkImportDAO;
+import com.roombooking.model.Equipment;
+import com.roombooking.model.Room;
+import com.roombooking.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+/**
+ * Imports rooms, equipment and users from CSV files. The file is streamed: rows are
+ * validated as they are read and collected into chunks of {@value #CHUNK_SIZE}, each
+ * written as one batch in its own transaction. While a chunk is being written the next
+ * one is read and, for users, its passwords are hashed in parallel, so only two chunks
+ * are ever held in memory.
+ * <p>
+ * The first line names the columns, in any order and case; unknown columns are ignored.
+ * <ul>
+ * <li>rooms: name, capacity, and optionally type, location, description, active</li>
+ * <li>equipment: name, and optionally type, description, available</li>
+ * <li>users: username, full_name, email, password, and optionally role (USER or ADMIN)
+ * and active. A file exported from another system may give password_hash instead of
+ * password, in which case the BCrypt hashes are stored as they are.</li>
+ * </ul>
+ * Rows that fail validation or are rejected by the database, e.g. a username that is
+ * already taken, are listed in the {@link ImportReport} by line number; the other rows
+ * are imported. If the passwords of a chunk cannot be hashed, all rows of that chunk
+ * are reported as failed.
+ */
+public class CsvImporter {
+    private static final Logger logger = LoggerFactory.getLogger(CsvImporter.class);
+    static final int CHUNK_SIZE = 1000;
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+
+    /**
+     * Writes one chunk of rows
+     */
+    @FunctionalInterface
+    interface ChunkWriter<T> {
+        /**
+         * @return the reason each failed row was not written, by index in the chunk
+         */
+        Map<Integer, String> write(List<T> rows);
+    }
+
+    private final ChunkWriter<Room> roomWriter;
+    private final ChunkWriter<Equipment> equipmentWriter;
+    private final ChunkWriter<User> userWriter;
+    private final UnaryOperator<String> hasher;
+    private final int hashThreads;
+    private final int chunkSize;
+
+    public CsvImporter() {
+        this(new BulkImportDAO(), PasswordHashPolicy.getInstance());
+    }
+
+    private CsvImporter(BulkImportDAO bulkImportDAO, PasswordHashPolicy hashPolicy) {
+        // One core is left for logins and the UI while passwords are hashed
+        this(bulkImportDAO::insertRooms, bulkImportDAO::insertEquipment, bulkImportDAO::insertUsers,
+            hashPolicy::hash, Math.max(1, Runtime.getRuntime().availableProcessors() - 1), CHUNK_SIZE);
+    }
+
+    CsvImporter(ChunkWriter<Room> roomWriter, ChunkWriter<Equipment> equipmentWriter, ChunkWriter<User> userWriter,
+                UnaryOperator<String> hasher, int hashThreads, int chunkSize) {
+        this.roomWriter = roomWriter;
+        this.equipmentWriter = equipmentWriter;
+        this.userWriter = userWriter;
+        this.hasher = hasher;
+        this.hashThreads = hashThreads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports rooms
+     * @param in the CSV text; closed when done
+     * @return what was imported and why other rows were not
+     */
+    public ImportReport importRooms(Reader in) {
+        return run("rooms", in, List.of("name", "capacity"), row -> new Room(0,
+            row.required("name", 100),
+            row.positiveInt("capacity"),
+            row.optional("type", 50),
+            row.optional("location", 100),
+            row.optional("description", 65_535),
+            row.bool("active", true)), header -> null, roomWriter);
+    }
+
+    /**
+     * Imports equipment
+     * @param in the CSV text; closed when done
+     * @return what was imported and why other rows were not
+     */
+    public ImportReport importEquipment(Reader in) {
+        return run("equipment", in, List.of("name"), row -> new Equipment(0,
+            row.required("name", 100),
+            row.optional("type", 50),
+            row.optional("description", 65_535),
+            row.bool("available", true)), header -> null, equipmentWriter);
+    }
+
+    /**
+     * Imports users, each with a profile holding their name and email
+     * @param in the CSV text; closed when done
+     * @return what was imported and why other rows were not
+     */
+    public ImportReport importUsers(Reader in) {
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        ExecutorService hashPool = Executors.newFixedThreadPool(hashThreads, daemonThreads("csv-import-hash"));
+        try {
+            return run("users", in, List.of("username", "full_name", "email", "password|password_hash"), row -> {
+                String username = row.required("username", 50);
+                if (username.chars().anyMatch(Character::isWhitespace)) {
+                    throw new IllegalArgumentException("username must not contain spaces");
+                }
+                String fullName = row.required("full_name", 101);
+                String[] names = fullName.split(" ", 2);
+                if (names[0].length() > 50 || (names.length > 1 && names[1].length() > 50)) {
+                    throw new IllegalArgumentException("full_name: first and last name may have at most 50 characters each");
+                }
+                String email = row.required("email", 100);
+                if (!EMAIL.matcher(email).matches()) {
+                    throw new IllegalArgumentException("email is not a valid address: " + email);
+                }
+                String password;
+                if (row.hasColumn("password_hash")) {
+                    password = row.required("password_hash", 255);
+                    if (PasswordHashPolicy.costOf(password) < 0) {
+                        throw new IllegalArgumentException("password_hash is not a BCrypt hash");
+                    }
+                } else {
+                    password = row.required("password", 255);
+                }
+                String role = row.optional("role", 20);
+                if (role != null && !role.equalsIgnoreCase("USER") && !role.equalsIgnoreCase("ADMIN")) {
+                    throw new IllegalArgumentException("role must be USER or ADMIN: " + role);
+                }
+                boolean active = row.bool("active", true);
+                // Checked last so that a row rejected for another reason does not reserve its names
+                if (!usernames.add(username.toLowerCase(Locale.ROOT))) {
+                    throw new IllegalArgumentException("username appears earlier in the file: " + username);
+                }
+                if (!emails.add(email.toLowerCase(Locale.ROOT))) {
+                    usernames.remove(username.toLowerCase(Locale.ROOT));
+                    throw new IllegalArgumentException("email appears earlier in the file: " + email);
+                }
+                User user = new User(username, fullName, email, password);
+                user.setAdmin("ADMIN".equalsIgnoreCase(role));
+                user.setActive(active);
+                return user;
+            }, header -> header.containsKey("password_hash") ? null : chunk -> hashPasswords(chunk, hashPool), userWriter);
+        } finally {
+            hashPool.shutdownNow();
+        }
+    }
+
+    /**
+     * @param preparer given the columns, returns what to do to each chunk before it is
+     *                 written, or null for nothing
+     */
+    private <T> ImportReport run(String entity, Reader in, List<String> requiredColumns, Function<Row, T> mapper,
+                                 Function<Map<String, Integer>, Consumer<List<T>>> preparer, ChunkWriter<T> writer) {
+        ImportReport report = new ImportReport(entity);
+        long start = System.nanoTime();
+        ExecutorService writerThread = Executors.newSingleThreadExecutor(daemonThreads("csv-import-writer"));
+        CsvReader csv = new CsvReader(in);
+        try {
+            List<String> header = csv.next();
+            if (header == null) {
+                report.rowFailed(1, "The file is empty");
+                return report;
+            }
+            Map<String, Integer> columns = columnsOf(header);
+            for (String required : requiredColumns) {
+                if (!hasAnyColumn(columns, required)) {
+                    report.rowFailed(1, "Missing column: " + required.replace("|", " or "));
+                    return report;
+                }
+            }
+            Consumer<List<T>> prepare = preparer.apply(columns);
+
+            List<T> rows = new ArrayList<>(chunkSize);
+            List<Long> lines = new ArrayList<>(chunkSize);
+            PendingChunk pending = null;
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                report.rowRead();
+                try {
+                    rows.add(mapper.apply(new Row(columns, record)));
+                    lines.add(csv.getLineNumber());
+                } catch (IllegalArgumentException e) {
+                    report.rowFailed(csv.getLineNumber(), e.getMessage());
+                }
+                if (rows.size() == chunkSize) {
+                    pending = submit(rows, lines, prepare, writer, writerThread, pending, report);
+                    rows = new ArrayList<>(chunkSize);
+                    lines = new ArrayList<>(chunkSize);
+                }
+            }
+            pending = submit(rows, lines, prepare, writer, writerThread, pending, report);
+            complete(pending, report);
+        } catch (IOException e) {
+            logger.error("Error reading {} CSV: {}", entity, e.getMessage());
+            report.rowFailed(csv.getLineNumber(), e.getMessage());
+        } finally {
+            writerThread.shutdown();
+            try {
+                csv.close();
+            } catch (IOException e) {
+                logger.warn("Error closing {} CSV: {}", entity, e.getMessage());
+            }
+            report.finish((System.nanoTime() - start) / 1_000_000);
+        }
+        logger.info(report.getSummary());
+        return report;
+    }
+
+    /**
+     * A chunk whose write is in progress
+     */
+    private static class PendingChunk {
+        private final Future<Map<Integer, String>> result;
+        private final List<Long> lines;
+
+        PendingChunk(Future<Map<Integer, String>> result, List<Long> lines) {
+            this.result = result;
+            this.lines = lines;
+        }
+    }
+
+    // Prepares this chunk while the previous one is written, then waits for that one before queuing this
+    private <T> PendingChunk submit(List<T> rows, List<Long> lines, Consumer<List<T>> prepare, ChunkWriter<T> writer,
+                                    ExecutorService writerThread, PendingChunk previous, ImportReport report) {
+        if (rows.isEmpty()) {
+            return previous;
+        }
+        if (prepare != null) {
+            try {
+                prepare.accept(rows);
+            } catch (RuntimeException e) {
+                // e.g. a password that could not be hashed; the chunk is skipped, later ones are still imported
+                String message = e.getCause() != null ? e.getMessage() + ": " + e.getCause().getMessage() : e.getMessage();
+                logger.error("Error preparing {} rows for import: {}", rows.size(), message);
+                complete(previous, report);
+                for (Long line : lines) {
+                    report.rowFailed(line, message);
+                }
+                return null;
+            }
+        }
+        complete(previous, report);
+        return new PendingChunk(writerThread.submit(() -> writer.write(rows)), lines);
+    }
+
+    private static void complete(PendingChunk chunk, ImportReport report) {
+        if (chunk == null) {
+            return;
+        }
+        Map<Integer, String> errors;
+        try {
+            errors = chunk.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errors = allFailed(chunk.lines.size(), "Import interrupted");
+        } catch (ExecutionException e) {
+            errors = allFailed(chunk.lines.size(), e.getCause().getMessage());
+        }
+        report.rowsImported(chunk.lines.size() - errors.size());
+        errors.forEach((index, message) -> report.rowFailed(chunk.lines.get(index), message));
+    }
+
+    private static Map<Integer, String> allFailed(int count, String message) {
+        Map<Integer, String> errors = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            errors.put(i, message);
+        }
+        return errors;
+    }
+
+    private void hashPasswords(List<User> users, ExecutorService hashPool) {
+        List<Future<String>> hashes = new ArrayList<>(users.size());
+        for (User user : users) {
+            String password = user.getPassword();
+            hashes.add(hashPool.submit(() -> hasher.apply(password)));
+        }
+        try {
+            for (int i = 0; i < users.size(); i++) {
+                users.get(i).setPassword(hashes.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Password hashing interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static Map<String, Integer> columnsOf(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            columns.putIfAbsent(name.replace(' ', '_'), i);
+        }
+        return columns;
+    }
+
+    private static boolean hasAnyColumn(Map<String, Integer> columns, String alternatives) {
+        for (String column : alternatives.split("\\|")) {
+            if (columns.containsKey(column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * One record with access to its fields by column name. Validation failures are
+     * reported as IllegalArgumentException with a message for the import report.
+     */
+    static class Row {
+        private final Map<String, Integer> columns;
+        private final List<String> values;
+
+        Row(Map<String, Integer> columns, List<String> values) {
+            this.columns = columns;
+            this.values = values;
+        }
+
+        boolean hasColumn(String column) {
+            return columns.containsKey(column);
+        }
+
+        // Null when the column is absent or the field is blank
+        String get(String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= values.size()) {
+                return null;
+            }
+            String value = values.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        String required(String column, int maxLength) {
+            String value = get(column);
+            if (value == null) {
+                throw new IllegalArgumentException(column + " is required");
+            }
+            return checkLength(column, value, maxLength);
+        }
+
+        String optional(String column, int maxLength) {
+            String value = get(column);
+            return value == null ? null : checkLength(column, value, maxLength);
+        }
+
+        int positiveInt(String column) {
+            String value = required(column, 10);
+            try {
+                int number = Integer.parseInt(value);
+                if (number > 0) {
+                    return number;
+                }
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+            throw new IllegalArgumentException(column + " must be a positive whole number: " + value);
+        }
+
+        boolean bool(String column, boolean defaultValue) {
+            String value = get(column);
+            if (value == null) {
+                return defaultValue;
+            }
+            switch (value.toLowerCase(Locale.ROOT)) {
+                case "true": case "yes": case "y": case "1":
+                    return true;
+                case "false": case "no": case "n": case "0":
+                    return false;
+                default:
+                    throw new IllegalArgumentException(column + " must be true or false: " + value);
+            }
+        }
+
+        private static String checkLength(String column, String value, int maxLength) {
+            if (value.length() > maxLength) {
+                throw new IllegalArgumentException(column + " may have at most " + maxLength + " characters");
+            }
+            return value;
+        }
+    }
+}
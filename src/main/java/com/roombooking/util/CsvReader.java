@@ -0,0 +1,127 @@
+package com.roombooking.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader for comma-separated files as described in RFC 4180: fields may be
+ * quoted, quoted fields may contain commas, line breaks and doubled quotes, and lines
+ * may end in CRLF or LF. Records are read one at a time, so a file of any size is read
+ * in constant memory apart from the current record.
+ */
+public class CsvReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder field = new StringBuilder();
+    private int position;
+    private int limit;
+    private long line = 1;
+    private long recordLine;
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the next record
+     * @return the fields of the record, or null at the end of the input
+     * @throws IOException if reading fails or a quoted field is not closed
+     */
+    public List<String> next() throws IOException {
+        int c = read();
+        if (c < 0) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            if (c == '"' && field.length() == 0 && !quoted) {
+                quoted = true;
+                c = readQuoted();
+                continue;
+            }
+            if (c < 0 || c == '\n' || c == '\r') {
+                fields.add(field.toString());
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (c >= 0) {
+                    line++;
+                }
+                return fields;
+            }
+            if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                quoted = false;
+            } else {
+                // A quote inside an unquoted field is kept as it is
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * @return the line on which the record last returned by {@link #next} started
+     */
+    public long getLineNumber() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // Reads up to the closing quote and returns the character after it
+    private int readQuoted() throws IOException {
+        long startLine = line;
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                throw new IOException("Quoted field starting on line " + startLine + " is not closed");
+            }
+            if (c == '"') {
+                if (peek() != '"') {
+                    return read();
+                }
+                read();
+            } else if (c == '\n' || (c == '\r' && peek() != '\n')) {
+                line++;
+            }
+            field.append((char) c);
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+}
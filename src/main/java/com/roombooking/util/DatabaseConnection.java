@@ -10,6 +10,16 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
 
+/**
+ * Opens connections to the configured MySQL database. Loading the class never fails:
+ * if the configuration cannot be read or the database is unreachable at startup, the
+ * error is logged and {@link #getConnection} fails instead, so the application can
+ * start and show its offline schedule.
+ * <p>
+ * While the database is unreachable, connection requests fail at once rather than
+ * each waiting through the retries, and a single attempt is let through every
+ * {@value #OFFLINE_RETRY_MS} ms to notice when it is back.
+ */
 public class DatabaseConnection {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConnection.class);
     private static final Properties properties = new Properties();
@@ -18,6 +28,9 @@ public class DatabaseConnection {
     private static String password;
     private static final int MAX_RETRIES = 3;
     private static final int RETRY_DELAY_MS = 1000;
+    private static final int OFFLINE_RETRY_MS = 5000;
+    private static volatile boolean available;
+    private static volatile long lastFailureMillis;
 
     static {
         try {
@@ -43,6 +56,8 @@ public class DatabaseConnection {
             urlBuilder.append("&allowPublicKeyRetrieval=").append(properties.getProperty("db.allowPublicKeyRetrieval", "true"));
             urlBuilder.append("&autoReconnect=").append(properties.getProperty("db.autoReconnect", "true"));
             urlBuilder.append("&connectTimeout=").append(properties.getProperty("db.connectionTimeout", "30000"));
+            // Lets the driver send a JDBC batch as multi-row inserts, e.g. for CSV imports
+            urlBuilder.append("&rewriteBatchedStatements=").append(properties.getProperty("db.rewriteBatchedStatements", "true"));
             
             url = urlBuilder.toString();
             username = properties.getProperty("db.username");
@@ -54,10 +69,11 @@ public class DatabaseConnection {
             logger.info("Database configuration loaded successfully");
             
             // Test connection on startup
+            available = true;
             testConnection();
-        } catch (IOException | ClassNotFoundException e) {
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            url = null;
             logger.error("Error initializing database connection: {}", e.getMessage());
-            throw new RuntimeException("Failed to initialize database connection", e);
         }
     }
 
@@ -67,20 +83,32 @@ public class DatabaseConnection {
      * @throws SQLException if connection fails after retries
      */
     public static Connection getConnection() throws SQLException {
+        if (url == null) {
+            throw new SQLException("Database connection is not configured");
+        }
+        boolean wasAvailable = available;
+        if (!wasAvailable && System.currentTimeMillis() - lastFailureMillis < OFFLINE_RETRY_MS) {
+            throw new SQLException("Database is unavailable");
+        }
+        int attempts = wasAvailable ? MAX_RETRIES : 1;
         SQLException lastException = null;
         
-        for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
+        for (int attempt = 1; attempt <= attempts; attempt++) {
             try {
                 Connection conn = DriverManager.getConnection(url, username, password);
                 if (conn.isValid(1)) {
                     logger.debug("Database connection established");
+                    if (!wasAvailable) {
+                        logger.info("Database is reachable again");
+                    }
+                    available = true;
                     return conn;
                 }
             } catch (SQLException e) {
                 lastException = e;
                 logger.warn("Connection attempt {} failed: {}", attempt, e.getMessage());
                 
-                if (attempt < MAX_RETRIES) {
+                if (attempt < attempts) {
                     try {
                         Thread.sleep(RETRY_DELAY_MS * attempt);
                     } catch (InterruptedException ie) {
@@ -91,21 +119,40 @@ public class DatabaseConnection {
             }
         }
         
-        logger.error("Failed to establish database connection after {} attempts", MAX_RETRIES);
-        throw new SQLException("Failed to establish database connection after " + MAX_RETRIES + " attempts", lastException);
+        lastFailureMillis = System.currentTimeMillis();
+        available = false;
+        logger.error("Failed to establish database connection after {} attempts", attempts);
+        throw new SQLException("Failed to establish database connection after " + attempts + " attempts", lastException);
+    }
+
+    /**
+     * Tells whether the last connection attempt succeeded, without connecting
+     * @return false once connecting has failed, until it succeeds again
+     */
+    public static boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Gets a setting from database.properties
+     * @param key the property key
+     * @param defaultValue value used when the key is not set
+     * @return the property value
+     */
+    public static String getProperty(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue);
     }
 
     /**
      * Tests the database connection
      * @return true if connection successful
-     * @throws RuntimeException if connection fails
      */
     private static boolean testConnection() {
         try (Connection conn = getConnection()) {
             return conn.isValid(1);
         } catch (SQLException e) {
             logger.error("Database connection test failed: {}", e.getMessage());
-            throw new RuntimeException("Failed to verify database connection", e);
+            return false;
         }
     }
 
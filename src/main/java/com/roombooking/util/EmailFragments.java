@@ -0,0 +1,174 @@
+package com.roombooking.util;
+
+import com.roombooking.model.Room;
+import com.roombooking.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Caches the parts of notification emails that repeat across messages:
+ * room and organizer fragments and formatted dates and times.
+ */
+public final class EmailFragments {
+    private static final int MAX_CACHED_DATES = 1024;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final Map<Integer, RoomFragment> rooms = new ConcurrentHashMap<>();
+    private static final Map<Integer, OrganizerFragment> organizers = new ConcurrentHashMap<>();
+    private static final Map<LocalDate, String> dates = new ConcurrentHashMap<>();
+    private static final AtomicReferenceArray<String> times = new AtomicReferenceArray<>(MINUTES_PER_DAY);
+
+    private EmailFragments() {
+    }
+
+    /**
+     * Gets the cached room fragment, rebuilding it if the room has been renamed or moved
+     * @param room the room
+     * @return the fragment
+     */
+    public static RoomFragment room(Room room) {
+        RoomFragment cached = rooms.get(room.getId());
+        if (cached != null && cached.matches(room)) {
+            return cached;
+        }
+        RoomFragment fragment = new RoomFragment(room.getName(), room.getLocation());
+        rooms.put(room.getId(), fragment);
+        return fragment;
+    }
+
+    /**
+     * Gets the cached organizer fragment, rebuilding it if the name has changed
+     * @param organizer the organizer
+     * @return the fragment
+     */
+    public static OrganizerFragment organizer(User organizer) {
+        OrganizerFragment cached = organizers.get(organizer.getId());
+        String fullName = organizer.getFullName();
+        if (cached != null && Objects.equals(cached.text, fullName)) {
+            return cached;
+        }
+        OrganizerFragment fragment = new OrganizerFragment(fullName);
+        organizers.put(organizer.getId(), fragment);
+        return fragment;
+    }
+
+    /**
+     * Formats a date the same way LocalDate.toString does, caching the result
+     * @param date the date
+     * @return the formatted date
+     */
+    public static String formatDate(LocalDate date) {
+        String formatted = dates.get(date);
+        if (formatted == null) {
+            if (dates.size() >= MAX_CACHED_DATES) {
+                dates.clear();
+            }
+            formatted = date.toString();
+            dates.put(date, formatted);
+        }
+        return formatted;
+    }
+
+    /**
+     * Formats a time the same way LocalTime.toString does, caching whole minutes
+     * @param time the time
+     * @return the formatted time
+     */
+    public static String formatTime(LocalTime time) {
+        if (time.getSecond() != 0 || time.getNano() != 0) {
+            return time.toString();
+        }
+        int minute = time.getHour() * 60 + time.getMinute();
+        String formatted = times.get(minute);
+        if (formatted == null) {
+            formatted = time.toString();
+            times.set(minute, formatted);
+        }
+        return formatted;
+    }
+
+    /**
+     * Drops all cached fragments
+     */
+    public static void clear() {
+        rooms.clear();
+        organizers.clear();
+        dates.clear();
+    }
+
+    /**
+     * Room name and location, pre-rendered for both parts
+     */
+    public static final class RoomFragment {
+        private final String name;
+        private final String location;
+        private final String text;
+        private final String html;
+        private final String htmlName;
+        private final String htmlLocation;
+
+        private RoomFragment(String name, String location) {
+            this.name = name;
+            this.location = location;
+            this.text = "Room: " + name + "\nLocation: " + location;
+            this.htmlName = EmailTemplate.escapeHtml(name);
+            this.htmlLocation = EmailTemplate.escapeHtml(location);
+            this.html = "<tr><th align=\"left\">Room</th><td>" + htmlName + "</td></tr>\n"
+                + "<tr><th align=\"left\">Location</th><td>" + htmlLocation + "</td></tr>";
+        }
+
+        private boolean matches(Room room) {
+            return Objects.equals(name, room.getName()) && Objects.equals(location, room.getLocation());
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getHtml() {
+            return html;
+        }
+
+        public String getHtmlName() {
+            return htmlName;
+        }
+
+        public String getHtmlLocation() {
+            return htmlLocation;
+        }
+    }
+
+    /**
+     * Organizer display name, pre-rendered for both parts
+     */
+    public static final class OrganizerFragment {
+        private final String text;
+        private final String html;
+
+        private OrganizerFragment(String fullName) {
+            this.text = fullName;
+            this.html = EmailTemplate.escapeHtml(fullName);
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getHtml() {
+            return html;
+        }
+    }
+}
@@ -9,8 +9,17 @@ import org.slf4j.LoggerFactory;
 
 import javax.mail.*;
 import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeBodyPart;
 import javax.mail.internet.MimeMessage;
+import javax.mail.internet.MimeMultipart;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service class for handling email notifications
@@ -21,25 +30,98 @@ public class EmailService {
     private static final String SMTP_PORT = "587";
     private static final String SMTP_USERNAME = "your.email@gmail.com"; // Replace with actual email
     private static final String SMTP_PASSWORD = "your-app-password"; // Replace with actual app password
-    
-    private Properties getEmailProperties() {
+    private static final String SMTP_TIMEOUT_MS = "10000";
+    private static final int MAX_CONNECTIONS = 4;
+    private static final int INVITATION_CONCURRENCY = MAX_CONNECTIONS;
+    private static final int MIN_INVITATIONS_PER_WORKER = 10;
+    private static final long MAX_IDLE_MS = 60_000L;
+    private static final long BORROW_TIMEOUT_MS = 30_000L;
+
+    // Shared by every EmailService created with the default constructor
+    private static Session defaultSession;
+    private static SmtpTransportPool defaultPool;
+    private static ExecutorService invitationExecutor;
+
+    private final Session session;
+    private final SmtpTransportPool transportPool;
+    private final String fromAddress;
+
+    public EmailService() {
+        this(getDefaultSession(), getDefaultPool(), SMTP_USERNAME);
+    }
+
+    /**
+     * Creates a service that sends through the given session and transport pool
+     * @param session the mail session used to build messages
+     * @param transportPool the pool used to deliver messages
+     * @param fromAddress the sender address
+     */
+    public EmailService(Session session, SmtpTransportPool transportPool, String fromAddress) {
+        this.session = session;
+        this.transportPool = transportPool;
+        this.fromAddress = fromAddress;
+    }
+
+    private static Properties getEmailProperties() {
         Properties props = new Properties();
         props.put("mail.smtp.auth", "true");
         props.put("mail.smtp.starttls.enable", "true");
         props.put("mail.smtp.host", SMTP_HOST);
         props.put("mail.smtp.port", SMTP_PORT);
+        props.put("mail.smtp.connectiontimeout", SMTP_TIMEOUT_MS);
+        props.put("mail.smtp.timeout", SMTP_TIMEOUT_MS);
+        props.put("mail.smtp.writetimeout", SMTP_TIMEOUT_MS);
         return props;
     }
-    
-    private Session getEmailSession() {
-        return Session.getInstance(getEmailProperties(), new Authenticator() {
-            @Override
-            protected PasswordAuthentication getPasswordAuthentication() {
-                return new PasswordAuthentication(SMTP_USERNAME, SMTP_PASSWORD);
-            }
-        });
+
+    private static synchronized Session getDefaultSession() {
+        if (defaultSession == null) {
+            defaultSession = Session.getInstance(getEmailProperties(), new Authenticator() {
+                @Override
+                protected PasswordAuthentication getPasswordAuthentication() {
+                    return new PasswordAuthentication(SMTP_USERNAME, SMTP_PASSWORD);
+                }
+            });
+        }
+        return defaultSession;
     }
-    
+
+    private static synchronized SmtpTransportPool getDefaultPool() {
+        if (defaultPool == null) {
+            defaultPool = new SmtpTransportPool(getDefaultSession(), MAX_CONNECTIONS, MAX_IDLE_MS, BORROW_TIMEOUT_MS);
+            Runtime.getRuntime().addShutdownHook(new Thread(defaultPool::close, "smtp-pool-shutdown"));
+        }
+        return defaultPool;
+    }
+
+    private static synchronized ExecutorService getInvitationExecutor() {
+        if (invitationExecutor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            invitationExecutor = Executors.newFixedThreadPool(INVITATION_CONCURRENCY, r -> {
+                Thread thread = new Thread(r, "invitation-sender-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return invitationExecutor;
+    }
+
+    /**
+     * Sends several prepared messages over a single SMTP connection
+     * @param messages the messages to send
+     * @throws MessagingException if a message could not be delivered
+     */
+    public void sendAll(List<? extends Message> messages) throws MessagingException {
+        transportPool.sendAll(messages);
+    }
+
+    /**
+     * @return connection and timing metrics for outgoing mail
+     */
+    public SmtpTransportPool.Stats getTransportStats() {
+        return transportPool.getStats();
+    }
+
     /**
      * Sends a reservation confirmation email to all participants
      * @param reservation the reservation
@@ -50,9 +132,8 @@ public class EmailService {
     public void sendReservationConfirmation(Reservation reservation, Room room, 
             User organizer, Participant[] participants) {
         try {
-            Session session = getEmailSession();
             Message message = new MimeMessage(session);
-            message.setFrom(new InternetAddress(SMTP_USERNAME));
+            message.setFrom(new InternetAddress(fromAddress));
             
             // Add participants as recipients
             for (Participant participant : participants) {
@@ -62,37 +143,81 @@ public class EmailService {
             // Add organizer as CC
             message.addRecipient(Message.RecipientType.CC, new InternetAddress(organizer.getEmail()));
             
-            message.setSubject("Room Reservation Confirmation");
-            
-            String emailBody = String.format(
-                "Dear Participant,\n\n" +
-                "You have been invited to a meeting with the following details:\n\n" +
-                "Room: %s\n" +
-                "Location: %s\n" +
-                "Date: %s\n" +
-                "Time: %s - %s\n" +
-                "Organizer: %s\n" +
-                "Subject: %s\n\n" +
-                "Please confirm your attendance.\n\n" +
-                "Best regards,\n" +
-                "Room Booking System",
-                room.getName(),
-                room.getLocation(),
-                reservation.getStartTime().toLocalDate(),
-                reservation.getStartTime().toLocalTime(),
-                reservation.getEndTime().toLocalTime(),
-                organizer.getFullName(),
-                reservation.getSubject()
-            );
-            
-            message.setText(emailBody);
-            Transport.send(message);
+            applyTemplate(message, "confirmation", new TemplateValues(reservation, room, organizer, null, null));
+            transportPool.send(message);
         } catch (MessagingException e) {
             logger.error("Failed to send confirmation email: {}", e.getMessage(), e);
             // Log error but don't throw - email sending should not block the reservation process
         }
     }
     
+    /**
+     * Sends a personal invitation to every participant. Messages are rendered up front and
+     * delivered by at most INVITATION_CONCURRENCY workers, each reusing a pooled connection.
+     * Blocks until all invitations have been attempted.
+     * @param reservation the reservation
+     * @param room the room
+     * @param organizer the user who made the reservation
+     * @param participants the invitees
+     * @return the number of invitations delivered
+     */
+    public int sendInvitations(Reservation reservation, Room room, User organizer, List<Participant> participants) {
+        List<Message> messages = new ArrayList<>(participants.size());
+        for (Participant participant : participants) {
+            try {
+                Message message = new MimeMessage(session);
+                message.setFrom(new InternetAddress(fromAddress));
+                message.setReplyTo(new Address[] {new InternetAddress(organizer.getEmail())});
+                message.addRecipient(Message.RecipientType.TO, new InternetAddress(participant.getEmail()));
+                applyTemplate(message, "invitation",
+                    new TemplateValues(reservation, room, organizer, null, null, participant.getName()));
+                messages.add(message);
+            } catch (MessagingException e) {
+                logger.warn("Skipping invitation to {}: {}", participant.getEmail(), e.getMessage());
+            }
+        }
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        int workers = Math.max(1, Math.min(INVITATION_CONCURRENCY, messages.size() / MIN_INVITATIONS_PER_WORKER));
+        int chunkSize = (messages.size() + workers - 1) / workers;
+        List<Future<Integer>> results = new ArrayList<>(workers);
+        for (int from = 0; from < messages.size(); from += chunkSize) {
+            List<Message> chunk = messages.subList(from, Math.min(from + chunkSize, messages.size()));
+            results.add(getInvitationExecutor().submit(() -> sendEach(chunk)));
+        }
+
+        int sent = 0;
+        for (Future<Integer> result : results) {
+            try {
+                sent += result.get();
+            } catch (ExecutionException e) {
+                logger.error("Invitation worker failed: {}", e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        logger.info("Sent {}/{} invitations for reservation {} in {} ms", sent, messages.size(),
+            reservation.getId(), (System.nanoTime() - start) / 1_000_000);
+        return sent;
+    }
+
+    private int sendEach(List<Message> messages) {
+        int sent = 0;
+        for (Message message : messages) {
+            try {
+                transportPool.send(message);
+                sent++;
+            } catch (MessagingException e) {
+                logger.error("Failed to send invitation email: {}", e.getMessage());
+            }
+        }
+        return sent;
+    }
+    
     /**
      * Sends a reservation cancellation email to all participants
      * @param reservation the reservation
@@ -103,9 +228,8 @@ public class EmailService {
     public void sendReservationCancellation(Reservation reservation, Room room, 
             User organizer, Participant[] participants) {
         try {
-            Session session = getEmailSession();
             Message message = new MimeMessage(session);
-            message.setFrom(new InternetAddress(SMTP_USERNAME));
+            message.setFrom(new InternetAddress(fromAddress));
             
             // Add participants as recipients
             for (Participant participant : participants) {
@@ -115,30 +239,8 @@ public class EmailService {
             // Add organizer as CC
             message.addRecipient(Message.RecipientType.CC, new InternetAddress(organizer.getEmail()));
             
-            message.setSubject("Room Reservation Cancellation");
-            
-            String emailBody = String.format(
-                "Dear Participant,\n\n" +
-                "The following meeting has been cancelled:\n\n" +
-                "Room: %s\n" +
-                "Location: %s\n" +
-                "Date: %s\n" +
-                "Time: %s - %s\n" +
-                "Organizer: %s\n" +
-                "Subject: %s\n\n" +
-                "Best regards,\n" +
-                "Room Booking System",
-                room.getName(),
-                room.getLocation(),
-                reservation.getStartTime().toLocalDate(),
-                reservation.getStartTime().toLocalTime(),
-                reservation.getEndTime().toLocalTime(),
-                organizer.getFullName(),
-                reservation.getSubject()
-            );
-            
-            message.setText(emailBody);
-            Transport.send(message);
+            applyTemplate(message, "cancellation", new TemplateValues(reservation, room, organizer, null, null));
+            transportPool.send(message);
         } catch (MessagingException e) {
             logger.error("Failed to send cancellation email: {}", e.getMessage(), e);
             // Log error but don't throw - email sending should not block the cancellation process
@@ -151,13 +253,13 @@ public class EmailService {
      * @param room the room
      * @param organizer the user who made the reservation
      * @param participants list of participants
+     * @return true if the email was handed to the mail server, false if sending failed
      */
-    public void sendReservationReminder(Reservation reservation, Room room, 
+    public boolean sendReservationReminder(Reservation reservation, Room room, 
             User organizer, Participant[] participants) {
         try {
-            Session session = getEmailSession();
             Message message = new MimeMessage(session);
-            message.setFrom(new InternetAddress(SMTP_USERNAME));
+            message.setFrom(new InternetAddress(fromAddress));
             
             // Add participants as recipients
             for (Participant participant : participants) {
@@ -167,33 +269,13 @@ public class EmailService {
             // Add organizer as CC
             message.addRecipient(Message.RecipientType.CC, new InternetAddress(organizer.getEmail()));
             
-            message.setSubject("Room Reservation Reminder");
-            
-            String emailBody = String.format(
-                "Dear Participant,\n\n" +
-                "This is a reminder for your upcoming meeting:\n\n" +
-                "Room: %s\n" +
-                "Location: %s\n" +
-                "Date: %s\n" +
-                "Time: %s - %s\n" +
-                "Organizer: %s\n" +
-                "Subject: %s\n\n" +
-                "Best regards,\n" +
-                "Room Booking System",
-                room.getName(),
-                room.getLocation(),
-                reservation.getStartTime().toLocalDate(),
-                reservation.getStartTime().toLocalTime(),
-                reservation.getEndTime().toLocalTime(),
-                organizer.getFullName(),
-                reservation.getSubject()
-            );
-            
-            message.setText(emailBody);
-            Transport.send(message);
+            applyTemplate(message, "reminder", new TemplateValues(reservation, room, organizer, null, null));
+            transportPool.send(message);
+            return true;
         } catch (MessagingException e) {
+            // Not thrown so that one bad message does not stop the batch; the claim is retried later
             logger.error("Failed to send reminder email: {}", e.getMessage(), e);
-            // Log error but don't throw - email sending should not block the reminder process
+            return false;
         }
     }
     
@@ -207,9 +289,8 @@ public class EmailService {
     public void sendReservationApproval(Reservation reservation, Room room, 
             User organizer, Participant[] participants) {
         try {
-            Session session = getEmailSession();
             Message message = new MimeMessage(session);
-            message.setFrom(new InternetAddress(SMTP_USERNAME));
+            message.setFrom(new InternetAddress(fromAddress));
             
             // Add organizer as main recipient
             message.addRecipient(Message.RecipientType.TO, new InternetAddress(organizer.getEmail()));
@@ -219,35 +300,9 @@ public class EmailService {
                 message.addRecipient(Message.RecipientType.CC, new InternetAddress(participant.getEmail()));
             }
             
-            message.setSubject("Room Reservation Approved");
-            
-            String comments = reservation.getAdminComments() != null && !reservation.getAdminComments().isEmpty() 
-                ? "\nAdmin Comments: " + reservation.getAdminComments() + "\n" 
-                : "";
-            
-            String emailBody = String.format(
-                "Dear %s,\n\n" +
-                "Your room reservation has been APPROVED:\n\n" +
-                "Room: %s\n" +
-                "Location: %s\n" +
-                "Date: %s\n" +
-                "Time: %s - %s\n" +
-                "Subject: %s\n" +
-                "%s\n" +
-                "Best regards,\n" +
-                "Room Booking System",
-                organizer.getFullName(),
-                room.getName(),
-                room.getLocation(),
-                reservation.getStartTime().toLocalDate(),
-                reservation.getStartTime().toLocalTime(),
-                reservation.getEndTime().toLocalTime(),
-                reservation.getSubject(),
-                comments
-            );
-            
-            message.setText(emailBody);
-            Transport.send(message);
+            applyTemplate(message, "approval", new TemplateValues(reservation, room, organizer,
+                "Admin Comments", reservation.getAdminComments()));
+            transportPool.send(message);
         } catch (MessagingException e) {
             logger.error("Failed to send approval email: {}", e.getMessage(), e);
             // Log error but don't throw - email sending should not block the approval process
@@ -264,46 +319,127 @@ public class EmailService {
     public void sendReservationRejection(Reservation reservation, Room room, 
             User organizer, Participant[] participants) {
         try {
-            Session session = getEmailSession();
             Message message = new MimeMessage(session);
-            message.setFrom(new InternetAddress(SMTP_USERNAME));
+            message.setFrom(new InternetAddress(fromAddress));
             
             // Add organizer as main recipient
             message.addRecipient(Message.RecipientType.TO, new InternetAddress(organizer.getEmail()));
             
-            message.setSubject("Room Reservation Rejected");
-            
-            String comments = reservation.getAdminComments() != null && !reservation.getAdminComments().isEmpty() 
-                ? "\nReason for rejection: " + reservation.getAdminComments() + "\n" 
-                : "";
-            
-            String emailBody = String.format(
-                "Dear %s,\n\n" +
-                "Unfortunately, your room reservation has been REJECTED:\n\n" +
-                "Room: %s\n" +
-                "Location: %s\n" +
-                "Date: %s\n" +
-                "Time: %s - %s\n" +
-                "Subject: %s\n" +
-                "%s\n" +
-                "Please contact the administrator for more information.\n\n" +
-                "Best regards,\n" +
-                "Room Booking System",
-                organizer.getFullName(),
-                room.getName(),
-                room.getLocation(),
-                reservation.getStartTime().toLocalDate(),
-                reservation.getStartTime().toLocalTime(),
-                reservation.getEndTime().toLocalTime(),
-                reservation.getSubject(),
-                comments
-            );
-            
-            message.setText(emailBody);
-            Transport.send(message);
+            applyTemplate(message, "rejection", new TemplateValues(reservation, room, organizer,
+                "Reason for rejection", reservation.getAdminComments()));
+            transportPool.send(message);
         } catch (MessagingException e) {
             logger.error("Failed to send rejection email: {}", e.getMessage(), e);
             // Log error but don't throw - email sending should not block the rejection process
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Sets the subject and body of a message from a compiled template. Templates with an
+     * HTML part are sent as multipart/alternative with the plain text first.
+     * @param message the message to fill in
+     * @param templateName the template name
+     * @param values the values for the template placeholders
+     * @throws MessagingException if the content could not be set
+     */
+    private void applyTemplate(Message message, String templateName, TemplateValues values)
+            throws MessagingException {
+        EmailTemplate template = EmailTemplate.get(templateName);
+        message.setSubject(template.getSubject());
+
+        String text = template.renderText(values::text);
+        if (!template.hasHtml()) {
+            message.setText(text);
+            return;
+        }
+
+        MimeBodyPart textPart = new MimeBodyPart();
+        textPart.setText(text, "UTF-8");
+        MimeBodyPart htmlPart = new MimeBodyPart();
+        htmlPart.setContent(template.renderHtml(values::html), "text/html; charset=UTF-8");
+
+        MimeMultipart content = new MimeMultipart("alternative");
+        content.addBodyPart(textPart);
+        content.addBodyPart(htmlPart);
+        message.setContent(content);
+    }
+
+    /**
+     * Placeholder values for one message, backed by the shared fragment caches
+     */
+    private static final class TemplateValues {
+        private final Reservation reservation;
+        private final EmailFragments.RoomFragment room;
+        private final EmailFragments.OrganizerFragment organizer;
+        private final String commentsLabel;
+        private final String comments;
+        private final String participantName;
+
+        private TemplateValues(Reservation reservation, Room room, User organizer,
+                               String commentsLabel, String comments) {
+            this(reservation, room, organizer, commentsLabel, comments, null);
+        }
+
+        private TemplateValues(Reservation reservation, Room room, User organizer,
+                               String commentsLabel, String comments, String participantName) {
+            this.reservation = reservation;
+            this.room = EmailFragments.room(room);
+            this.organizer = EmailFragments.organizer(organizer);
+            this.commentsLabel = commentsLabel;
+            this.comments = comments != null && !comments.isEmpty() ? comments : null;
+            this.participantName = participantName != null && !participantName.isEmpty()
+                ? participantName : "Participant";
+        }
+
+        private String text(String name) {
+            switch (name) {
+                case "organizer":
+                    return organizer.getText();
+                case "subject":
+                    return reservation.getSubject();
+                case "participantName":
+                    return participantName;
+                case "comments":
+                    return comments != null ? "\n" + commentsLabel + ": " + comments + "\n" : "";
+                default:
+                    return common(name, false);
+            }
+        }
+
+        private String html(String name) {
+            switch (name) {
+                case "organizer":
+                    return organizer.getHtml();
+                case "subject":
+                    return EmailTemplate.escapeHtml(reservation.getSubject());
+                case "participantName":
+                    return EmailTemplate.escapeHtml(participantName);
+                case "comments":
+                    return comments != null
+                        ? "<p><strong>" + commentsLabel + ":</strong> " + EmailTemplate.escapeHtml(comments) + "</p>"
+                        : "";
+                default:
+                    return common(name, true);
+            }
+        }
+
+        private String common(String name, boolean html) {
+            switch (name) {
+                case "roomDetails":
+                    return html ? room.getHtml() : room.getText();
+                case "roomName":
+                    return html ? room.getHtmlName() : room.getName();
+                case "location":
+                    return html ? room.getHtmlLocation() : room.getLocation();
+                case "date":
+                    return EmailFragments.formatDate(reservation.getStartTime().toLocalDate());
+                case "startTime":
+                    return EmailFragments.formatTime(reservation.getStartTime().toLocalTime());
+                case "endTime":
+                    return EmailFragments.formatTime(reservation.getEndTime().toLocalTime());
+                default:
+                    return "";
+            }
+        }
+    }
+}
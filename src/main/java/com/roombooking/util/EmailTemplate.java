@@ -0,0 +1,208 @@
+package com.roombooking.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Email template loaded from resources and compiled once into literal and
+ * placeholder segments. Placeholders use the ${name} syntax.
+ */
+public class EmailTemplate {
+    private static final String TEMPLATE_DIR = "/templates/email/";
+    private static final Map<String, EmailTemplate> cache = new ConcurrentHashMap<>();
+    private static volatile Properties subjects;
+
+    // Reused per thread so bulk runs do not allocate a new buffer per message
+    private static final ThreadLocal<StringBuilder> buffer = ThreadLocal.withInitial(() -> new StringBuilder(2048));
+
+    private final String name;
+    private final String subject;
+    private final Compiled text;
+    private final Compiled html;
+
+    private EmailTemplate(String name, String subject, Compiled text, Compiled html) {
+        this.name = name;
+        this.subject = subject;
+        this.text = text;
+        this.html = html;
+    }
+
+    /**
+     * Gets a compiled template, loading and parsing it on first use
+     * @param name the template name, e.g. "confirmation"
+     * @return the compiled template
+     */
+    public static EmailTemplate get(String name) {
+        return cache.computeIfAbsent(name, EmailTemplate::load);
+    }
+
+    private static EmailTemplate load(String name) {
+        String textSource = readResource(TEMPLATE_DIR + name + ".txt");
+        if (textSource == null) {
+            throw new IllegalArgumentException("Email template not found: " + name);
+        }
+        String htmlSource = readResource(TEMPLATE_DIR + name + ".html");
+        String subject = getSubjects().getProperty(name, "");
+        return new EmailTemplate(name, subject, compile(textSource),
+            htmlSource != null ? compile(htmlSource) : null);
+    }
+
+    private static Properties getSubjects() {
+        if (subjects == null) {
+            synchronized (EmailTemplate.class) {
+                if (subjects == null) {
+                    Properties props = new Properties();
+                    try (InputStream input = EmailTemplate.class.getResourceAsStream(TEMPLATE_DIR + "subjects.properties")) {
+                        if (input != null) {
+                            props.load(input);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Unable to load email subjects", e);
+                    }
+                    subjects = props;
+                }
+            }
+        }
+        return subjects;
+    }
+
+    private static String readResource(String path) {
+        try (InputStream input = EmailTemplate.class.getResourceAsStream(path)) {
+            if (input == null) {
+                return null;
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read email template " + path, e);
+        }
+    }
+
+    /**
+     * Parses template source into segments
+     * @param source the template text
+     * @return the compiled form
+     */
+    static Compiled compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = source.indexOf("${", position);
+            int close = open < 0 ? -1 : source.indexOf('}', open + 2);
+            if (open < 0 || close < 0) {
+                literals.add(source.substring(position));
+                break;
+            }
+            literals.add(source.substring(position, open));
+            variables.add(source.substring(open + 2, close).trim());
+            position = close + 1;
+        }
+        return new Compiled(literals.toArray(new String[0]), variables.toArray(new String[0]), source.length());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public boolean hasHtml() {
+        return html != null;
+    }
+
+    /**
+     * Renders the plain-text part
+     * @param values resolves a placeholder name to its value
+     * @return the rendered text
+     */
+    public String renderText(Function<String, String> values) {
+        return text.render(values);
+    }
+
+    /**
+     * Renders the HTML part. Values must already be HTML-escaped.
+     * @param values resolves a placeholder name to its value
+     * @return the rendered HTML, or null if the template has no HTML part
+     */
+    public String renderHtml(Function<String, String> values) {
+        return html != null ? html.render(values) : null;
+    }
+
+    /**
+     * Escapes text for inclusion in HTML content
+     * @param value the raw value
+     * @return the escaped value
+     */
+    public static String escapeHtml(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            switch (c) {
+                case '<': replacement = "&lt;"; break;
+                case '>': replacement = "&gt;"; break;
+                case '&': replacement = "&amp;"; break;
+                case '"': replacement = "&quot;"; break;
+                case '\'': replacement = "&#39;"; break;
+                default: replacement = null;
+            }
+            if (replacement != null) {
+                if (escaped == null) {
+                    escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+                }
+                escaped.append(replacement);
+            } else if (escaped != null) {
+                escaped.append(c);
+            }
+        }
+        return escaped != null ? escaped.toString() : value;
+    }
+
+    /**
+     * Alternating literal/placeholder segments: literals[0] var[0] literals[1] ... literals[n]
+     */
+    static final class Compiled {
+        private final String[] literals;
+        private final String[] variables;
+        private final int sizeHint;
+
+        private Compiled(String[] literals, String[] variables, int sizeHint) {
+            this.literals = literals;
+            this.variables = variables;
+            this.sizeHint = sizeHint;
+        }
+
+        String render(Function<String, String> values) {
+            StringBuilder out = buffer.get();
+            out.setLength(0);
+            out.ensureCapacity(sizeHint + 256);
+            for (int i = 0; i < variables.length; i++) {
+                out.append(literals[i]);
+                String value = values.apply(variables[i]);
+                if (value != null) {
+                    out.append(value);
+                }
+            }
+            out.append(literals[literals.length - 1]);
+            String result = out.toString();
+            if (out.capacity() > 64 * 1024) {
+                // Don't let one huge message pin a large buffer to the thread
+                buffer.remove();
+            }
+            return result;
+        }
+    }
+}
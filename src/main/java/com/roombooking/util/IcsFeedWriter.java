@@ -0,0 +1,309 @@
+package com.roombooking.util;
+
+import com.roombooking.dao.FeedVersion;
+import com.roombooking.dao.ReservationDAO;
+import com.roombooking.model.ChangeEvent;
+import com.roombooking.model.Reservation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * Writes a user's or a room's reservations as an iCalendar (RFC 5545) feed for
+ * external calendars. Reservations are streamed from the database straight into the
+ * writer one at a time, so a room with tens of thousands of bookings takes no more
+ * memory than one with ten.
+ * <p>
+ * Each feed has an ETag built from its {@link FeedVersion} and the calendar name.
+ * Versions are cached until the change feed reports a reservation, room or user
+ * change, or for at most {@link #MAX_AGE_MILLIS} in case it is not running, so an
+ * unchanged feed is answered with "not modified" without touching the database. The
+ * output only depends on the version and the calendar name, so equal ETags mean
+ * equal feeds.
+ */
+public class IcsFeedWriter {
+    static final long MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final DateTimeFormatter UTC_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static IcsFeedWriter instance;
+
+    /**
+     * The reservations of one user or one room
+     */
+    public static final class Feed {
+        private final boolean room;
+        private final int id;
+
+        private Feed(boolean room, int id) {
+            this.room = room;
+            this.id = id;
+        }
+
+        public static Feed user(int userId) {
+            return new Feed(false, userId);
+        }
+
+        public static Feed room(int roomId) {
+            return new Feed(true, roomId);
+        }
+
+        public boolean isRoom() {
+            return room;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Feed)) {
+                return false;
+            }
+            Feed feed = (Feed) o;
+            return room == feed.room && id == feed.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(room, id);
+        }
+    }
+
+    /**
+     * Where feeds read their reservations from
+     */
+    interface FeedSource {
+        FeedVersion version(Feed feed);
+
+        void stream(Feed feed, Consumer<Reservation> action);
+    }
+
+    private static class CachedVersion {
+        private final FeedVersion version;
+        // The ETag without the calendar name
+        private final String tag;
+        private final long loadedAt;
+
+        CachedVersion(FeedVersion version, String tag, long loadedAt) {
+            this.version = version;
+            this.tag = tag;
+            this.loadedAt = loadedAt;
+        }
+
+        String etag(String calendarName) {
+            CRC32 crc = new CRC32();
+            crc.update(String.valueOf(calendarName).getBytes(StandardCharsets.UTF_8));
+            return "\"" + tag + "-" + Long.toHexString(crc.getValue()) + "\"";
+        }
+    }
+
+    private final FeedSource source;
+    private final LongSupplier clock;
+    private final ZoneId zone;
+    private final Map<Feed, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    /**
+     * @param source the reservations
+     * @param clock current time in milliseconds
+     * @param zone the zone reservation times are stored in
+     */
+    IcsFeedWriter(FeedSource source, LongSupplier clock, ZoneId zone) {
+        this.source = source;
+        this.clock = clock;
+        this.zone = zone;
+    }
+
+    public static synchronized IcsFeedWriter getInstance() {
+        if (instance == null) {
+            ReservationDAO reservationDAO = new ReservationDAO();
+            instance = new IcsFeedWriter(new FeedSource() {
+                @Override
+                public FeedVersion version(Feed feed) {
+                    return feed.isRoom() ? reservationDAO.getRoomFeedVersion(feed.getId())
+                        : reservationDAO.getUserFeedVersion(feed.getId());
+                }
+
+                @Override
+                public void stream(Feed feed, Consumer<Reservation> action) {
+                    if (feed.isRoom()) {
+                        reservationDAO.forEachRoomReservation(feed.getId(), action);
+                    } else {
+                        reservationDAO.forEachUserReservation(feed.getId(), action);
+                    }
+                }
+            }, System::currentTimeMillis, ZoneId.systemDefault());
+            IcsFeedWriter writer = instance;
+            ChangeEventBus.getInstance().subscribe(event -> true, events -> events.forEach(writer::applyEvent));
+        }
+        return instance;
+    }
+
+    /**
+     * @param feed the feed
+     * @param calendarName the name the feed is written with
+     * @return the feed's current ETag, a quoted string as used in HTTP
+     */
+    public String getETag(Feed feed, String calendarName) {
+        return currentVersion(feed).etag(calendarName);
+    }
+
+    /**
+     * @return when a reservation of the feed last changed, or null if it has none
+     */
+    public LocalDateTime getLastModified(Feed feed) {
+        return currentVersion(feed).version.getLastModified();
+    }
+
+    /**
+     * Writes a feed unless the caller already has its current version
+     * @param feed the feed
+     * @param calendarName the name external calendars show for it
+     * @param out where to write; neither buffered nor closed here
+     * @param ifNoneMatch the ETag of the copy the caller has, or null
+     * @return false, having written nothing, if ifNoneMatch is the current ETag
+     * @throws IOException if writing fails
+     */
+    public boolean write(Feed feed, String calendarName, Writer out, String ifNoneMatch) throws IOException {
+        CachedVersion current = currentVersion(feed);
+        if (current.etag(calendarName).equals(ifNoneMatch)) {
+            return false;
+        }
+        LocalDateTime lastModified = current.version.getLastModified();
+        String stamp = lastModified == null ? "19700101T000000Z" : utc(lastModified);
+
+        line(out, "BEGIN:VCALENDAR");
+        line(out, "VERSION:2.0");
+        line(out, "PRODID:-//Room Booking//Reservations//EN");
+        line(out, "CALSCALE:GREGORIAN");
+        line(out, "METHOD:PUBLISH");
+        line(out, "X-WR-CALNAME:" + escape(calendarName));
+        try {
+            source.stream(feed, reservation -> {
+                try {
+                    writeEvent(out, reservation, stamp, feed.isRoom());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        line(out, "END:VCALENDAR");
+        return true;
+    }
+
+    void applyEvent(ChangeEvent event) {
+        // A reservation only names its owner; any room's feed may hold it, and room
+        // and user names appear in every feed
+        if (event.getEntityType() == ChangeEvent.EntityType.RESERVATION && event.getUserId() != null) {
+            versions.remove(Feed.user(event.getUserId()));
+            versions.keySet().removeIf(Feed::isRoom);
+        } else {
+            versions.clear();
+        }
+    }
+
+    private CachedVersion currentVersion(Feed feed) {
+        long now = clock.getAsLong();
+        CachedVersion cached = versions.get(feed);
+        if (cached != null && now - cached.loadedAt <= MAX_AGE_MILLIS) {
+            return cached;
+        }
+        FeedVersion version = source.version(feed);
+        String tag = (feed.isRoom() ? "r" : "u") + feed.getId() + "-" + version.getCount() + "-"
+            + version.getMaxId() + "-" + version.getVersionSum() + "-" + epochSecond(version.getLastModified()) + "-"
+            + epochSecond(version.getNamesModified()) + "-" + Long.toHexString(version.getNamesChecksum());
+        cached = new CachedVersion(version, tag, now);
+        versions.put(feed, cached);
+        return cached;
+    }
+
+    private long epochSecond(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(zone).toEpochSecond();
+    }
+
+    private void writeEvent(Writer out, Reservation reservation, String stamp, boolean roomFeed) throws IOException {
+        String subject = reservation.getSubject() == null || reservation.getSubject().isBlank()
+            ? "Reservation" : reservation.getSubject();
+        if (roomFeed && reservation.getUserName() != null) {
+            subject += " (" + reservation.getUserName() + ")";
+        }
+        line(out, "BEGIN:VEVENT");
+        line(out, "UID:reservation-" + reservation.getId() + "@roombooking");
+        line(out, "DTSTAMP:" + stamp);
+        line(out, "DTSTART:" + utc(reservation.getStartTime()));
+        line(out, "DTEND:" + utc(reservation.getEndTime()));
+        line(out, "SUMMARY:" + escape(subject));
+        if (reservation.getRoomName() != null) {
+            line(out, "LOCATION:" + escape(reservation.getRoomName()));
+        }
+        line(out, "STATUS:" + ("APPROVED".equals(reservation.getStatus()) ? "CONFIRMED" : "TENTATIVE"));
+        line(out, "SEQUENCE:" + reservation.getVersion());
+        line(out, "END:VEVENT");
+    }
+
+    private String utc(LocalDateTime time) {
+        return UTC_FORMAT.format(time.atZone(zone).withZoneSameInstant(ZoneOffset.UTC));
+    }
+
+    static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\': escaped.append("\\\\"); break;
+                case ';': escaped.append("\\;"); break;
+                case ',': escaped.append("\\,"); break;
+                case '\n': escaped.append("\\n"); break;
+                case '\r': break;
+                default: escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    // Lines longer than 75 octets of UTF-8 are folded with CRLF and a space, never inside a character
+    static void line(Writer out, String text) throws IOException {
+        if (text.length() * 3 <= MAX_LINE_OCTETS) {
+            out.write(text);
+            out.write("\r\n");
+            return;
+        }
+        int start = 0;
+        int octets = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            int length = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (octets + length > MAX_LINE_OCTETS) {
+                out.write(text, start, i - start);
+                out.write("\r\n ");
+                start = i;
+                octets = 1;
+            }
+            octets += length;
+            i += Character.charCount(codePoint);
+        }
+        out.write(text, start, text.length() - start);
+        out.write("\r\n");
+    }
+}
@@ -0,0 +1,132 @@
+package com.roombooking.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Outcome of a CSV import: how many rows were read and imported, and why each of the
+ * others was rejected, by line number in the file. At most {@value #MAX_ERRORS} row
+ * errors are kept so that a file that fails on every row does not fill the heap; the
+ * failed count is always exact.
+ */
+public class ImportReport {
+    public static final int MAX_ERRORS = 10_000;
+
+    private final String entity;
+    private final List<RowError> errors = new ArrayList<>();
+    private long rowsRead;
+    private long imported;
+    private long failed;
+    private long elapsedMillis;
+
+    public ImportReport(String entity) {
+        this.entity = entity;
+    }
+
+    /**
+     * A row that was not imported
+     */
+    public static class RowError {
+        private final long line;
+        private final String message;
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    void rowRead() {
+        rowsRead++;
+    }
+
+    void rowsImported(int count) {
+        imported += count;
+    }
+
+    void rowFailed(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    void finish(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+        // Rows rejected by the database are reported a chunk after later validation errors
+        errors.sort(Comparator.comparingLong(RowError::getLine));
+    }
+
+    /**
+     * @return what was imported, e.g. "rooms"
+     */
+    public String getEntity() {
+        return entity;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return the first {@value #MAX_ERRORS} row errors ordered by line
+     */
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * @return a one-line summary, e.g. "Imported 980 of 1000 rooms in 0.4 s; 20 rows failed"
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("Imported ").append(imported).append(" of ").append(rowsRead).append(' ').append(entity)
+            .append(" in ").append(String.format("%.1f", elapsedMillis / 1000.0)).append(" s");
+        if (failed > 0) {
+            summary.append("; ").append(failed).append(failed == 1 ? " row" : " rows").append(" failed");
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Writes the row errors as CSV with the columns line and error
+     * @param out where to write; not closed
+     * @throws IOException if writing fails
+     */
+    public void writeErrors(Writer out) throws IOException {
+        out.write("line,error\r\n");
+        for (RowError error : errors) {
+            out.write(Long.toString(error.getLine()));
+            out.write(",\"");
+            out.write(error.getMessage() == null ? "" : error.getMessage().replace("\"", "\"\""));
+            out.write("\"\r\n");
+        }
+        if (failed > errors.size()) {
+            out.write(",\"" + (failed - errors.size()) + " more rows failed\"\r\n");
+        }
+    }
+}
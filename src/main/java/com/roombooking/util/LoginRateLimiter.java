@@ -0,0 +1,264 @@
+package com.roombooking.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding-window limit on failed logins, per username and per source, checked before
+ * the user lookup and BCrypt so that a scripted attack costs neither.
+ * <p>
+ * Only failed verifications are counted: refused attempts are not, and a successful
+ * login clears its username's count, so a user who knows their password is not kept
+ * out by someone else guessing. Attempts already past the check when the limit is
+ * reached can still fail and be counted, so the count may overshoot by the number of
+ * logins in flight.
+ * <p>
+ * Failures are counted in count-min sketches of fixed size, one per sub-window, so
+ * memory stays bounded however many usernames are tried; a sketch can only
+ * over-count, which errs on the side of refusing. Counters are atomics and no lock is
+ * held; the one wait is for a sub-window being cleared by the first attempt to land
+ * in it, which other attempts spin on for the few microseconds it takes. The window
+ * slides in steps of one sub-window ({@value #SLOTS} per window).
+ */
+public class LoginRateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(LoginRateLimiter.class);
+    public static final int DEFAULT_USERNAME_ATTEMPTS = 10;
+    public static final int DEFAULT_SOURCE_ATTEMPTS = 50;
+    public static final int DEFAULT_WINDOW_SECONDS = 300;
+    static final int SLOTS = 6;
+    static final int DEPTH = 4;
+    static final int WIDTH = 2048;
+    private static LoginRateLimiter instance;
+
+    private final WindowedSketch usernames;
+    private final WindowedSketch sources;
+    private final int usernameLimit;
+    private final int sourceLimit;
+    private final long slotMillis;
+    private final LongSupplier clock;
+
+    LoginRateLimiter(int usernameLimit, int sourceLimit, long windowMillis, LongSupplier clock) {
+        this.usernameLimit = usernameLimit;
+        this.sourceLimit = sourceLimit;
+        this.slotMillis = Math.max(1, windowMillis / SLOTS);
+        this.clock = clock;
+        this.usernames = new WindowedSketch();
+        this.sources = new WindowedSketch();
+    }
+
+    public static synchronized LoginRateLimiter getInstance() {
+        if (instance == null) {
+            int usernameLimit = Integer.parseInt(DatabaseConnection.getProperty(
+                "auth.rateLimit.usernameAttempts", String.valueOf(DEFAULT_USERNAME_ATTEMPTS)).trim());
+            int sourceLimit = Integer.parseInt(DatabaseConnection.getProperty(
+                "auth.rateLimit.sourceAttempts", String.valueOf(DEFAULT_SOURCE_ATTEMPTS)).trim());
+            int windowSeconds = Integer.parseInt(DatabaseConnection.getProperty(
+                "auth.rateLimit.windowSeconds", String.valueOf(DEFAULT_WINDOW_SECONDS)).trim());
+            instance = new LoginRateLimiter(usernameLimit, sourceLimit, windowSeconds * 1000L,
+                System::currentTimeMillis);
+        }
+        return instance;
+    }
+
+    /**
+     * Refuses a login attempt if its username or its source has used up its failed
+     * attempts in the current window. Nothing is counted here; report the outcome with
+     * {@link #recordFailure} or {@link #recordSuccess}.
+     * @param username the username being tried
+     * @param source where the attempt comes from
+     * @throws RateLimitExceededException if the attempt is refused
+     * @throws IllegalArgumentException if the source is missing
+     */
+    public void check(String username, String source) {
+        long now = clock.getAsLong();
+        long slot = now / slotMillis;
+        String user = normalize(username);
+        String from = requireSource(source);
+        if (sources.estimate(from, slot) >= sourceLimit || usernames.estimate(user, slot) >= usernameLimit) {
+            long retryAfter = (slot + 1) * slotMillis - now;
+            throw new RateLimitExceededException(Math.max(1, (retryAfter + 999) / 1000));
+        }
+    }
+
+    /**
+     * Counts a failed verification against the username and the source
+     * @param username the username that was tried
+     * @param source where the attempt came from
+     */
+    public void recordFailure(String username, String source) {
+        long slot = clock.getAsLong() / slotMillis;
+        String user = normalize(username);
+        String from = requireSource(source);
+        int sourceCount = sources.increment(from, slot);
+        int userCount = usernames.increment(user, slot);
+        if (sourceCount == sourceLimit || userCount == usernameLimit) {
+            logger.warn("Login attempts limited for username '{}' from {}", user, from);
+        }
+    }
+
+    /**
+     * Clears the failures counted for a username after it logged in; its source keeps
+     * its count
+     * @param username the username that logged in
+     */
+    public void recordSuccess(String username) {
+        usernames.clear(normalize(username), clock.getAsLong() / slotMillis);
+    }
+
+    /**
+     * Estimates the attempts counted for a username in the current window
+     * @param username the username
+     * @return the estimate, never below the true count
+     */
+    public int getUsernameAttempts(String username) {
+        return usernames.estimate(normalize(username), clock.getAsLong() / slotMillis);
+    }
+
+    /**
+     * Estimates the attempts counted for a source in the current window
+     * @param source the source
+     * @return the estimate, never below the true count
+     */
+    public int getSourceAttempts(String source) {
+        return sources.estimate(source, clock.getAsLong() / slotMillis);
+    }
+
+    private static String requireSource(String source) {
+        if (source == null || source.isBlank()) {
+            throw new IllegalArgumentException("A login source is required for rate limiting");
+        }
+        return source;
+    }
+
+    // MySQL compares usernames case-insensitively, so variants must share a counter
+    private static String normalize(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A ring of {@value #SLOTS} count-min sketches, one per sub-window. A slot whose
+     * sub-window has passed is cleared by the first attempt that lands in it again.
+     * An attempt that arrives after its slot was claimed by a later sub-window is
+     * counted in the newer one, which only errs towards refusing.
+     */
+    static final class WindowedSketch {
+        private static final long UNUSED = Long.MIN_VALUE;
+        private static final long RESETTING = Long.MIN_VALUE + 1;
+        private final AtomicIntegerArray counters = new AtomicIntegerArray(SLOTS * DEPTH * WIDTH);
+        private final AtomicLongArray slotEpochs = new AtomicLongArray(SLOTS);
+
+        WindowedSketch() {
+            for (int i = 0; i < SLOTS; i++) {
+                slotEpochs.set(i, UNUSED);
+            }
+        }
+
+        /**
+         * Counts one occurrence of a key in a sub-window
+         * @return the estimate for the key over the window ending with this sub-window
+         */
+        int increment(String key, long slot) {
+            int ring = claim(slot);
+            int h1 = mix(key.hashCode());
+            int h2 = mix(h1 ^ 0x5bd1e995) | 1;
+            int current = Integer.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                int index = offset(ring, row) + Math.floorMod(h1 + row * h2, WIDTH);
+                current = Math.min(current, counters.incrementAndGet(index));
+            }
+            return current + estimatePrevious(h1, h2, slot);
+        }
+
+        /**
+         * Subtracts a key's estimate from its counters in every sub-window of the window.
+         * The estimate is the key's true count unless it collides in every row, so other
+         * keys sharing a counter keep their counts except in that rare case.
+         */
+        void clear(String key, long slot) {
+            int h1 = mix(key.hashCode());
+            int h2 = mix(h1 ^ 0x5bd1e995) | 1;
+            for (int back = 0; back < SLOTS; back++) {
+                long past = slot - back;
+                int ring = (int) Math.floorMod(past, (long) SLOTS);
+                if (slotEpochs.get(ring) != past) {
+                    continue;
+                }
+                int count = min(ring, h1, h2);
+                if (count == 0) {
+                    continue;
+                }
+                for (int row = 0; row < DEPTH; row++) {
+                    counters.getAndUpdate(offset(ring, row) + Math.floorMod(h1 + row * h2, WIDTH),
+                        value -> Math.max(0, value - count));
+                }
+            }
+        }
+
+        int estimate(String key, long slot) {
+            int h1 = mix(key.hashCode());
+            int h2 = mix(h1 ^ 0x5bd1e995) | 1;
+            int ring = (int) Math.floorMod(slot, (long) SLOTS);
+            int current = slotEpochs.get(ring) == slot ? min(ring, h1, h2) : 0;
+            return current + estimatePrevious(h1, h2, slot);
+        }
+
+        private int estimatePrevious(int h1, int h2, long slot) {
+            int total = 0;
+            for (int back = 1; back < SLOTS; back++) {
+                long previous = slot - back;
+                int ring = (int) Math.floorMod(previous, (long) SLOTS);
+                if (slotEpochs.get(ring) == previous) {
+                    total += min(ring, h1, h2);
+                }
+            }
+            return total;
+        }
+
+        private int min(int ring, int h1, int h2) {
+            int min = Integer.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                min = Math.min(min, counters.get(offset(ring, row) + Math.floorMod(h1 + row * h2, WIDTH)));
+            }
+            return min;
+        }
+
+        // The claiming thread marks the slot while clearing it; others wait the few microseconds that takes
+        private int claim(long slot) {
+            int ring = (int) Math.floorMod(slot, (long) SLOTS);
+            while (true) {
+                long epoch = slotEpochs.get(ring);
+                if (epoch >= slot) {
+                    return ring;
+                }
+                if (epoch == RESETTING) {
+                    Thread.onSpinWait();
+                } else if (slotEpochs.compareAndSet(ring, epoch, RESETTING)) {
+                    int start = offset(ring, 0);
+                    for (int i = start; i < start + DEPTH * WIDTH; i++) {
+                        counters.set(i, 0);
+                    }
+                    slotEpochs.set(ring, slot);
+                    return ring;
+                }
+            }
+        }
+
+        private static int offset(int ring, int row) {
+            return (ring * DEPTH + row) * WIDTH;
+        }
+
+        private static int mix(int h) {
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.roombooking.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background queue for outgoing notifications so that callers never wait on SMTP
+ */
+public class NotificationQueue {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationQueue.class);
+    private static NotificationQueue instance;
+
+    private final ExecutorService executor;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private NotificationQueue() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            r -> {
+                Thread thread = new Thread(r, "notification-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    public static synchronized NotificationQueue getInstance() {
+        if (instance == null) {
+            instance = new NotificationQueue();
+        }
+        return instance;
+    }
+
+    /**
+     * Queues a notification task. Failures are logged and never reach the caller.
+     * @param description short description used in log messages
+     * @param task the task to run
+     */
+    public void submit(String description, Runnable task) {
+        pending.incrementAndGet();
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                task.run();
+                logger.debug("Notification task '{}' finished in {} ms", description,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (Exception e) {
+                logger.error("Notification task '{}' failed: {}", description, e.getMessage(), e);
+            } finally {
+                pending.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * @return the number of queued or running notification tasks
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+}
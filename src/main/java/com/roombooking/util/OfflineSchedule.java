@@ -0,0 +1,431 @@
+package com.roombooking.util;
+
+import com.roombooking.dao.ChangeLogDAO;
+import com.roombooking.dao.EquipmentDAO;
+import com.roombooking.dao.ReservationDAO;
+import com.roombooking.dao.RoomDAO;
+import com.roombooking.model.ChangeEvent;
+import com.roombooking.model.Equipment;
+import com.roombooking.model.Reservation;
+import com.roombooking.model.Room;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a {@link ScheduleSnapshot} of rooms, equipment and the reservations from
+ * {@value #DAYS_BACK} days back to {@code snapshot.daysAhead} days ahead, so the
+ * schedule can be shown read-only while the database is unreachable.
+ * <p>
+ * At startup the last snapshot file is read before anything is queried.
+ * Once the database answers, the snapshot catches up by replaying the change_log
+ * entries written since it was taken, re-reading only the rooms and reservations they
+ * name; if the log has been pruned past that point it is rebuilt instead. While
+ * running, changes from the change feed are applied as they arrive and the file is
+ * rebuilt and rewritten every {@code snapshot.writeIntervalMinutes}. Equipment has no
+ * change feed, so it is only refreshed by that rebuild and when catching up.
+ * <p>
+ * Reads go through {@link #readThrough}, which answers from the snapshot only when the
+ * database cannot be reached. Writes are not queued; they fail until it is back.
+ */
+public class OfflineSchedule {
+    private static final Logger logger = LoggerFactory.getLogger(OfflineSchedule.class);
+    static final int DAYS_BACK = 7;
+    static final int CATCH_UP_BATCH = 500;
+    // Sequence numbers commit out of order, so catch-up re-reads a few already applied
+    static final int CATCH_UP_OVERLAP = 100;
+    private static final long CONNECTIVITY_CHECK_MILLIS = TimeUnit.SECONDS.toMillis(15);
+    private static OfflineSchedule instance;
+
+    /**
+     * Where snapshots are built from; the database in production
+     */
+    interface ScheduleSource {
+        boolean isAvailable();
+
+        long latestSeq();
+
+        long oldestSeq();
+
+        List<ChangeEvent> changesAfter(long seq, int limit);
+
+        List<Room> rooms();
+
+        Room room(int id);
+
+        List<Equipment> equipment();
+
+        List<Reservation> reservations(LocalDateTime start, LocalDateTime end);
+
+        Reservation reservation(int id);
+    }
+
+    private final ScheduleSource source;
+    private final Path file;
+    private final int daysAhead;
+    private final long writeIntervalMillis;
+    private final LongSupplier clock;
+    private final List<Consumer<Boolean>> listeners = new CopyOnWriteArrayList<>();
+    private volatile ScheduleSnapshot snapshot;
+    private volatile boolean offline;
+    private ScheduledExecutorService executor;
+
+    OfflineSchedule(ScheduleSource source, Path file, int daysAhead, long writeIntervalMillis, LongSupplier clock) {
+        this.source = source;
+        this.file = file;
+        this.daysAhead = daysAhead;
+        this.writeIntervalMillis = writeIntervalMillis;
+        this.clock = clock;
+    }
+
+    public static synchronized OfflineSchedule getInstance() {
+        if (instance == null) {
+            Path file = Paths.get(DatabaseConnection.getProperty("snapshot.path",
+                Paths.get(System.getProperty("user.home"), ".roombooking", "schedule.snapshot").toString()));
+            int daysAhead = Integer.parseInt(DatabaseConnection.getProperty("snapshot.daysAhead", "60").trim());
+            long interval = TimeUnit.MINUTES.toMillis(
+                Long.parseLong(DatabaseConnection.getProperty("snapshot.writeIntervalMinutes", "10").trim()));
+            instance = new OfflineSchedule(databaseSource(), file, daysAhead, interval, System::currentTimeMillis);
+        }
+        return instance;
+    }
+
+    private static ScheduleSource databaseSource() {
+        ChangeLogDAO changeLogDAO = new ChangeLogDAO();
+        RoomDAO roomDAO = new RoomDAO();
+        EquipmentDAO equipmentDAO = new EquipmentDAO();
+        ReservationDAO reservationDAO = new ReservationDAO();
+        return new ScheduleSource() {
+            @Override
+            public boolean isAvailable() {
+                return DatabaseConnection.isAvailable();
+            }
+
+            @Override
+            public long latestSeq() {
+                return changeLogDAO.getLatestSeq();
+            }
+
+            @Override
+            public long oldestSeq() {
+                return changeLogDAO.getOldestSeq();
+            }
+
+            @Override
+            public List<ChangeEvent> changesAfter(long seq, int limit) {
+                return changeLogDAO.findAfter(seq, limit);
+            }
+
+            @Override
+            public List<Room> rooms() {
+                return roomDAO.getAllRooms();
+            }
+
+            @Override
+            public Room room(int id) {
+                return roomDAO.getRoom(id);
+            }
+
+            @Override
+            public List<Equipment> equipment() {
+                return equipmentDAO.getAllEquipment();
+            }
+
+            @Override
+            public List<Reservation> reservations(LocalDateTime start, LocalDateTime end) {
+                return reservationDAO.getReservationsInRange(start, end);
+            }
+
+            @Override
+            public Reservation reservation(int id) {
+                return reservationDAO.findById(id);
+            }
+        };
+    }
+
+    /**
+     * Loads the last snapshot and starts keeping it current in the background
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "schedule-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledExecutorService worker = executor;
+        worker.execute(() -> {
+            load();
+            synchronize();
+        });
+        worker.scheduleWithFixedDelay(this::rebuildSafely, writeIntervalMillis, writeIntervalMillis, TimeUnit.MILLISECONDS);
+        worker.scheduleWithFixedDelay(() -> {
+            if (offline || !source.isAvailable()) {
+                synchronize();
+            }
+        }, CONNECTIVITY_CHECK_MILLIS, CONNECTIVITY_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+        ChangeEventBus.getInstance().subscribe(
+            event -> event.getEntityType() != ChangeEvent.EntityType.USER,
+            events -> worker.execute(() -> applyLive(events)));
+    }
+
+    /**
+     * Stops updating and writing the snapshot
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Runs a read against the database, or against the snapshot while the database
+     * cannot be reached
+     * @param online the database read
+     * @param fallback the same read on the snapshot
+     * @return the result of whichever read was used
+     */
+    public <T> T readThrough(Supplier<T> online, Function<ScheduleSnapshot, T> fallback) {
+        ScheduleSnapshot current = snapshot;
+        if (current == null) {
+            return online.get();
+        }
+        if (source.isAvailable()) {
+            // Some DAOs log and return nothing on failure, so availability is checked again after
+            try {
+                T result = online.get();
+                if (source.isAvailable()) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (source.isAvailable()) {
+                    throw e;
+                }
+            }
+        }
+        setOffline(true);
+        return fallback.apply(current);
+    }
+
+    /**
+     * @return the current snapshot, or null if none has been loaded or built yet
+     */
+    public ScheduleSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return true while reads are answered from the snapshot
+     */
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Registers a callback for switching between online and offline; called on a
+     * background thread
+     * @param listener receives true when going offline and false when back online
+     */
+    public void addListener(Consumer<Boolean> listener) {
+        listeners.add(listener);
+    }
+
+    void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            snapshot = ScheduleSnapshot.read(file);
+            logger.info("Loaded schedule snapshot with {} rooms and {} reservations in {} ms",
+                snapshot.getRooms().size(), snapshot.getReservations().size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            logger.warn("Ignoring schedule snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    // Brings the snapshot up to date from the database if it can be reached
+    void synchronize() {
+        try {
+            if (snapshot == null || !catchUp()) {
+                rebuild();
+            }
+            write();
+            setOffline(false);
+        } catch (RuntimeException e) {
+            logger.warn("Schedule snapshot not updated: {}", e.getMessage());
+            setOffline(snapshot != null);
+        }
+    }
+
+    /**
+     * Replays the change log since the snapshot was taken
+     * @return false if the log no longer goes back that far
+     */
+    boolean catchUp() {
+        ScheduleSnapshot base = snapshot;
+        long latest = source.latestSeq();
+        if (latest <= base.getChangeSeq()) {
+            snapshot = withChanges(base, List.of(), latest, true);
+            return true;
+        }
+        long oldest = source.oldestSeq();
+        if (oldest > base.getChangeSeq() + 1) {
+            logger.info("Change log starts at {}, after snapshot sequence {}; rebuilding", oldest, base.getChangeSeq());
+            return false;
+        }
+        List<ChangeEvent> changes = new ArrayList<>();
+        long seq = Math.max(0, base.getChangeSeq() - CATCH_UP_OVERLAP);
+        while (true) {
+            List<ChangeEvent> batch = source.changesAfter(seq, CATCH_UP_BATCH);
+            changes.addAll(batch);
+            if (batch.size() < CATCH_UP_BATCH) {
+                break;
+            }
+            seq = batch.get(batch.size() - 1).getSeq();
+        }
+        long current = changes.isEmpty() ? latest : Math.max(latest, changes.get(changes.size() - 1).getSeq());
+        snapshot = withChanges(base, changes, current, true);
+        logger.info("Schedule snapshot caught up over {} changes", changes.size());
+        return true;
+    }
+
+    void rebuild() {
+        // The sequence is read first so that changes made during the load are replayed later
+        long seq = source.latestSeq();
+        LocalDateTime windowStart = LocalDate.now(ZoneId.systemDefault()).minusDays(DAYS_BACK).atStartOfDay();
+        LocalDateTime windowEnd = windowStart.plusDays(DAYS_BACK + daysAhead + 1L);
+        List<Room> rooms = source.rooms();
+        List<Equipment> equipment = source.equipment();
+        List<Reservation> reservations = source.reservations(windowStart, windowEnd);
+        if (!source.isAvailable()) {
+            throw new IllegalStateException("Database became unavailable while building the snapshot");
+        }
+        snapshot = new ScheduleSnapshot(seq, clock.getAsLong(), windowStart, windowEnd, rooms, equipment, reservations);
+    }
+
+    private void rebuildSafely() {
+        if (!source.isAvailable()) {
+            return;
+        }
+        try {
+            rebuild();
+            write();
+        } catch (RuntimeException e) {
+            logger.warn("Schedule snapshot not rebuilt: {}", e.getMessage());
+        }
+    }
+
+    void applyLive(List<ChangeEvent> events) {
+        ScheduleSnapshot base = snapshot;
+        if (base == null) {
+            return;
+        }
+        try {
+            long seq = base.getChangeSeq();
+            for (ChangeEvent event : events) {
+                seq = Math.max(seq, event.getSeq());
+            }
+            // Equipment is left to the periodic rebuild
+            snapshot = withChanges(base, events, seq, false);
+        } catch (RuntimeException e) {
+            logger.warn("Changes not applied to schedule snapshot: {}", e.getMessage());
+        }
+    }
+
+    // Re-reads each room and reservation the changes name; equipment has no change feed and is re-read whole if asked
+    private ScheduleSnapshot withChanges(ScheduleSnapshot base, List<ChangeEvent> changes, long seq,
+                                         boolean refreshEquipment) {
+        Set<Integer> roomIds = new LinkedHashSet<>();
+        Set<Integer> reservationIds = new LinkedHashSet<>();
+        for (ChangeEvent change : changes) {
+            if (change.getEntityType() == ChangeEvent.EntityType.ROOM) {
+                roomIds.add(change.getEntityId());
+            } else if (change.getEntityType() == ChangeEvent.EntityType.RESERVATION) {
+                reservationIds.add(change.getEntityId());
+            }
+        }
+        Map<Integer, Room> rooms = new LinkedHashMap<>();
+        base.getRooms().forEach(room -> rooms.put(room.getId(), room));
+        for (Integer id : roomIds) {
+            Room room = source.room(id);
+            if (room != null) {
+                rooms.put(id, room);
+            } else {
+                rooms.remove(id);
+            }
+        }
+        Map<Integer, Reservation> reservations = new LinkedHashMap<>();
+        base.getReservations().forEach(reservation -> reservations.put(reservation.getId(), reservation));
+        for (Integer id : reservationIds) {
+            Reservation reservation = source.reservation(id);
+            if (reservation != null && reservation.getStartTime().isBefore(base.getWindowEnd())
+                    && reservation.getEndTime().isAfter(base.getWindowStart())) {
+                reservations.put(id, reservation);
+            } else {
+                reservations.remove(id);
+            }
+        }
+        List<Equipment> equipment = refreshEquipment ? source.equipment() : base.getEquipment();
+        if (!source.isAvailable()) {
+            throw new IllegalStateException("Database became unavailable while applying changes");
+        }
+        return new ScheduleSnapshot(seq, clock.getAsLong(), base.getWindowStart(), base.getWindowEnd(),
+            new ArrayList<>(rooms.values()), equipment, new ArrayList<>(reservations.values()));
+    }
+
+    private void write() {
+        ScheduleSnapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.write(file);
+            logger.debug("Wrote schedule snapshot at sequence {}", current.getChangeSeq());
+        } catch (IOException e) {
+            logger.warn("Could not write schedule snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void setOffline(boolean value) {
+        if (offline == value) {
+            return;
+        }
+        offline = value;
+        ScheduleSnapshot current = snapshot;
+        if (value && current != null) {
+            logger.warn("Database unreachable; showing the schedule saved at {}",
+                Instant.ofEpochMilli(current.getCreatedAtMillis()));
+        } else if (!value) {
+            logger.info("Database reachable again");
+        }
+        for (Consumer<Boolean> listener : listeners) {
+            listener.accept(value);
+        }
+    }
+}
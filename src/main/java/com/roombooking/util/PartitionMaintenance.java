@@ -0,0 +1,110 @@
+package com.roombooking.util;
+
+import com.roombooking.dao.PartitionDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the quarterly partitions of reservations rolling when the table has been
+ * partitioned with partition_reservations.sql; does nothing otherwise.
+ * <p>
+ * Partitions for the next {@value #QUARTERS_AHEAD} quarters are split off the MAXVALUE
+ * partition. The split copies the rows of the MAXVALUE partition, which are only the
+ * bookings made further ahead than the existing partitions reach, so keeping a year
+ * of partitions ahead keeps it small. A partition that lies entirely below the archive
+ * watermark is dropped once the archiver has emptied it; dropping is a metadata change
+ * instead of a row-by-row delete, and only happens while the table is locked and the
+ * partition is empty, so no reservation is removed without its change_log entry.
+ */
+public class PartitionMaintenance {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintenance.class);
+    static final String TABLE = "reservations";
+    static final int QUARTERS_AHEAD = 4;
+
+    private final PartitionDAO partitionDAO;
+
+    public PartitionMaintenance() {
+        this(new PartitionDAO());
+    }
+
+    PartitionMaintenance(PartitionDAO partitionDAO) {
+        this.partitionDAO = partitionDAO;
+    }
+
+    /**
+     * Adds missing future partitions and drops empty ones below the archive watermark
+     * @param today the current date
+     * @param archivedBefore the settled archive watermark, or null to drop nothing
+     */
+    public void runOnce(LocalDate today, LocalDateTime archivedBefore) {
+        List<PartitionDAO.Partition> partitions = partitionDAO.listPartitions(TABLE);
+        if (partitions.isEmpty()) {
+            return;
+        }
+        PartitionDAO.Partition max = partitions.get(partitions.size() - 1);
+        if (max.getUpperBound() != null) {
+            logger.warn("Partitioned {} has no MAXVALUE partition; not adding partitions", TABLE);
+        } else {
+            LocalDate lastBound = partitions.size() > 1
+                ? partitions.get(partitions.size() - 2).getUpperBound().toLocalDate()
+                : quarterStart(today);
+            for (LocalDate bound : missingBounds(lastBound, today)) {
+                String name = partitionName(bound);
+                if (!partitionDAO.addPartition(TABLE, max.getName(), name, bound.atStartOfDay())) {
+                    break;
+                }
+                logger.info("Added partition {} of {}", name, TABLE);
+            }
+        }
+
+        if (archivedBefore == null) {
+            return;
+        }
+        for (PartitionDAO.Partition partition : partitions) {
+            LocalDateTime bound = partition.getUpperBound();
+            if (bound == null || bound.isAfter(archivedBefore)) {
+                break;
+            }
+            // Pending reservations are never archived and keep their partition alive
+            if (partitionDAO.dropEmptyPartition(TABLE, partition.getName())) {
+                logger.info("Dropped empty partition {} of {}", partition.getName(), TABLE);
+            }
+        }
+    }
+
+    /**
+     * Gets the upper bounds of the partitions to add after the last bounded one so that
+     * the current quarter and the next {@value #QUARTERS_AHEAD} are covered
+     * @param lastBound upper bound of the last bounded partition
+     * @param today the current date
+     * @return the bounds to add, in order
+     */
+    static List<LocalDate> missingBounds(LocalDate lastBound, LocalDate today) {
+        LocalDate target = quarterStart(today).plusMonths(3L * (QUARTERS_AHEAD + 1));
+        List<LocalDate> bounds = new ArrayList<>();
+        for (LocalDate bound = quarterStart(lastBound).plusMonths(3); !bound.isAfter(target); bound = bound.plusMonths(3)) {
+            bounds.add(bound);
+        }
+        return bounds;
+    }
+
+    /**
+     * Names a partition after the quarter that ends at its upper bound, e.g. p2026q3
+     * for values less than 2026-10-01
+     * @param upperBound the upper bound, the first day of a quarter
+     * @return the partition name
+     */
+    static String partitionName(LocalDate upperBound) {
+        LocalDate quarter = upperBound.minusMonths(3);
+        return "p" + quarter.getYear() + "q" + ((quarter.getMonthValue() - 1) / 3 + 1);
+    }
+
+    static LocalDate quarterStart(LocalDate date) {
+        return LocalDate.of(date.getYear(), (date.getMonthValue() - 1) / 3 * 3 + 1, 1);
+    }
+}
@@ -0,0 +1,186 @@
+package com.roombooking.util;
+
+import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Chooses the BCrypt cost for new password hashes. Unless auth.bcryptCost pins it in
+ * database.properties, the cost is calibrated once to the highest one whose
+ * verification stays within auth.hashTargetMillis on this machine, never below
+ * {@value #MIN_COST}, and saved to auth.costFile (~/.roombooking/bcrypt.cost by
+ * default) so later starts reuse it. Until the first calibration finishes, hashes use
+ * {@value #MIN_COST}; delete the file to calibrate again.
+ * <p>
+ * Stored hashes with a lower cost are replaced on the next successful login, since
+ * that is the only time the plain password is at hand. Hashes are never downgraded,
+ * so clients on slower hardware sharing the database leave stronger hashes alone;
+ * pin the cost to keep login times the same on all of them.
+ */
+public class PasswordHashPolicy {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashPolicy.class);
+    public static final int MIN_COST = 10;
+    public static final int MAX_COST = 16;
+    public static final int DEFAULT_TARGET_MILLIS = 250;
+    private static final String SAMPLE_PASSWORD = "calibration-sample";
+    private static PasswordHashPolicy instance;
+
+    private volatile int cost;
+    // No rehashing on the provisional cost, which would undo an earlier upgrade
+    private volatile boolean settled;
+
+    PasswordHashPolicy(int cost, boolean settled) {
+        this.cost = cost;
+        this.settled = settled;
+    }
+
+    public static synchronized PasswordHashPolicy getInstance() {
+        if (instance == null) {
+            String pinned = DatabaseConnection.getProperty("auth.bcryptCost", "").trim();
+            Path costFile = Paths.get(DatabaseConnection.getProperty("auth.costFile",
+                Paths.get(System.getProperty("user.home"), ".roombooking", "bcrypt.cost").toString()));
+            int saved = pinned.isEmpty() ? readCost(costFile) : -1;
+            if (!pinned.isEmpty()) {
+                instance = new PasswordHashPolicy(clamp(Integer.parseInt(pinned)), true);
+                logger.info("BCrypt cost pinned to {}", instance.cost);
+            } else if (saved > 0) {
+                instance = new PasswordHashPolicy(saved, true);
+                logger.info("BCrypt cost {} read from {}", saved, costFile);
+            } else {
+                int targetMillis = Integer.parseInt(DatabaseConnection.getProperty(
+                    "auth.hashTargetMillis", String.valueOf(DEFAULT_TARGET_MILLIS)).trim());
+                instance = new PasswordHashPolicy(MIN_COST, false);
+                PasswordHashPolicy policy = instance;
+                AuthExecutor.getInstance().submit(() -> {
+                    int cost = policy.calibrate(targetMillis);
+                    writeCost(costFile, cost);
+                    return cost;
+                }).exceptionally(e -> {
+                    logger.warn("BCrypt calibration failed, keeping cost {}: {}", policy.cost, e.getMessage());
+                    return null;
+                });
+            }
+        }
+        return instance;
+    }
+
+    private static int clamp(int cost) {
+        return Math.max(MIN_COST, Math.min(MAX_COST, cost));
+    }
+
+    /**
+     * Reads a cost saved by an earlier calibration
+     * @param file the cost file
+     * @return the cost, or -1 if the file is missing or unreadable
+     */
+    static int readCost(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return -1;
+        }
+        try {
+            return clamp(Integer.parseInt(new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim()));
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Ignoring BCrypt cost file {}: {}", file, e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Saves a calibrated cost for later starts
+     * @param file the cost file
+     * @param cost the cost
+     */
+    static void writeCost(Path file, int cost) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.write(file, String.valueOf(cost).getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            logger.warn("Could not save BCrypt cost to {}, it will be calibrated again: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Measures a verification at {@value #MIN_COST} and sets the cost from it
+     * @param targetMillis the verification time to stay within
+     * @return the chosen cost
+     */
+    int calibrate(long targetMillis) {
+        String hash = BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(MIN_COST));
+        BCrypt.checkpw(SAMPLE_PASSWORD, hash); // warm-up
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            BCrypt.checkpw(SAMPLE_PASSWORD, hash);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        long millisAtMin = Math.max(1, best / 1_000_000);
+        cost = costFor(millisAtMin, targetMillis);
+        settled = true;
+        logger.info("BCrypt cost calibrated to {} ({} ms at cost {}, target {} ms)",
+            cost, millisAtMin, MIN_COST, targetMillis);
+        return cost;
+    }
+
+    /**
+     * Picks the highest cost whose time stays within the target; each step doubles the work
+     * @param millisAtMin time of one verification at {@value #MIN_COST}
+     * @param targetMillis the verification time to stay within
+     * @return the cost, between {@value #MIN_COST} and {@value #MAX_COST}
+     */
+    static int costFor(long millisAtMin, long targetMillis) {
+        int chosen = MIN_COST;
+        long millis = millisAtMin;
+        while (chosen < MAX_COST && millis * 2 <= targetMillis) {
+            millis *= 2;
+            chosen++;
+        }
+        return chosen;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Hashes a password at the current cost
+     * @param password the password
+     * @return the BCrypt hash
+     */
+    public String hash(String password) {
+        return BCrypt.hashpw(password, BCrypt.gensalt(cost));
+    }
+
+    /**
+     * Checks whether a stored hash should be replaced by one at the current cost
+     * @param hash the stored hash
+     * @return true if its cost is lower or cannot be read; false until the cost is settled
+     */
+    public boolean needsRehash(String hash) {
+        return settled && costOf(hash) < cost;
+    }
+
+    /**
+     * Reads the cost from a BCrypt hash such as {@code $2a$10$...}
+     * @param hash the hash
+     * @return the cost, or -1 if the hash is not in BCrypt format
+     */
+    static int costOf(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$'
+                || hash.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.roombooking.util;
+
+/**
+ * Thrown when a login attempt is refused by the {@link LoginRateLimiter}
+ */
+public class RateLimitExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long retryAfterSeconds) {
+        super("Too many login attempts, retry in " + retryAfterSeconds + " seconds");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return the earliest number of seconds after which a new attempt may be accepted
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
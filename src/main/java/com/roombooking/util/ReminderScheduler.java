@@ -0,0 +1,233 @@
+package com.roombooking.util;
+
+import com.roombooking.dao.ParticipantDAO;
+import com.roombooking.dao.ReminderDAO;
+import com.roombooking.dao.ReservationDAO;
+import com.roombooking.dao.RoomDAO;
+import com.roombooking.dao.UserDAO;
+import com.roombooking.model.Participant;
+import com.roombooking.model.Reservation;
+import com.roombooking.model.Room;
+import com.roombooking.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically sends reminder emails for approved reservations that start within
+ * the configured lead time. Reservations are claimed in batches through
+ * reservation_reminders before sending, so several application instances never send
+ * the same reminder at the same time. Only reminders that were sent are marked so;
+ * a claim whose send failed, or whose instance stopped before sending, is taken over
+ * once its lease has passed. A reminder can therefore go out twice only if an
+ * instance dies between sending and marking it.
+ */
+public class ReminderScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(ReminderScheduler.class);
+    private static final Duration DEFAULT_LEAD_TIME = Duration.ofMinutes(60);
+    private static final long DEFAULT_INTERVAL_SECONDS = 60;
+    private static final int DEFAULT_BATCH_SIZE = 200;
+    // Longer than a batch can take to send, so a live instance never loses its claims
+    static final Duration CLAIM_LEASE = Duration.ofMinutes(10);
+    private static ReminderScheduler instance;
+
+    /**
+     * Where reminders are claimed and their details read; the database in production
+     */
+    interface ReminderSource {
+        List<Integer> claim(String claimToken, LocalDateTime from, LocalDateTime to, int limit, Duration lease);
+
+        List<Reservation> reservations(List<Integer> ids);
+
+        Map<Integer, List<Participant>> participants(List<Integer> reservationIds);
+
+        Room room(int id);
+
+        User user(int id);
+
+        void markSent(List<Integer> reservationIds);
+    }
+
+    /**
+     * Sends one reminder
+     */
+    interface ReminderSender {
+        /**
+         * @return true if the reminder was sent
+         */
+        boolean send(Reservation reservation, Room room, User organizer, Participant[] participants);
+    }
+
+    private final ReminderSource source;
+    private final ReminderSender sender;
+    private final Duration leadTime;
+    private final long intervalSeconds;
+    private final int batchSize;
+    private ScheduledExecutorService executor;
+
+    ReminderScheduler(ReminderSource source, ReminderSender sender, Duration leadTime, long intervalSeconds,
+                      int batchSize) {
+        this.source = source;
+        this.sender = sender;
+        this.leadTime = leadTime;
+        this.intervalSeconds = intervalSeconds;
+        this.batchSize = batchSize;
+    }
+
+    public static synchronized ReminderScheduler getInstance() {
+        if (instance == null) {
+            EmailService emailService = new EmailService();
+            instance = new ReminderScheduler(databaseSource(), emailService::sendReservationReminder,
+                DEFAULT_LEAD_TIME, DEFAULT_INTERVAL_SECONDS, DEFAULT_BATCH_SIZE);
+        }
+        return instance;
+    }
+
+    private static ReminderSource databaseSource() {
+        ReminderDAO reminderDAO = new ReminderDAO();
+        ReservationDAO reservationDAO = new ReservationDAO();
+        RoomDAO roomDAO = new RoomDAO();
+        UserDAO userDAO = new UserDAO();
+        ParticipantDAO participantDAO = new ParticipantDAO();
+        return new ReminderSource() {
+            @Override
+            public List<Integer> claim(String claimToken, LocalDateTime from, LocalDateTime to, int limit,
+                                       Duration lease) {
+                return reminderDAO.claimDueReminders(claimToken, from, to, limit, lease);
+            }
+
+            @Override
+            public List<Reservation> reservations(List<Integer> ids) {
+                return reservationDAO.findByIds(ids);
+            }
+
+            @Override
+            public Map<Integer, List<Participant>> participants(List<Integer> reservationIds) {
+                return participantDAO.getParticipantsByReservationIds(reservationIds);
+            }
+
+            @Override
+            public Room room(int id) {
+                return roomDAO.getRoom(id);
+            }
+
+            @Override
+            public User user(int id) {
+                return userDAO.getUser(id);
+            }
+
+            @Override
+            public void markSent(List<Integer> reservationIds) {
+                reminderDAO.markSent(reservationIds);
+            }
+        };
+    }
+
+    /**
+     * Starts the periodic reminder run if it is not already running
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "reminder-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::runSafely, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        logger.info("Reminder scheduler started (lead time {} min, every {} s, batch {})",
+            leadTime.toMinutes(), intervalSeconds, batchSize);
+    }
+
+    /**
+     * Stops the periodic reminder run
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void runSafely() {
+        try {
+            int sent = runOnce();
+            if (sent > 0) {
+                logger.info("Sent {} reservation reminders", sent);
+            }
+        } catch (RuntimeException | LinkageError e) {
+            // A failed run must not cancel the schedule; the next run retries
+            logger.error("Reminder run failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Claims and sends all reminders that are currently due, one batch at a time
+     * @return the number of reminders sent
+     */
+    public int runOnce() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime windowEnd = now.plus(leadTime);
+        int total = 0;
+        while (true) {
+            String claimToken = UUID.randomUUID().toString();
+            List<Integer> claimed = source.claim(claimToken, now, windowEnd, batchSize, CLAIM_LEASE);
+            if (claimed.isEmpty()) {
+                break;
+            }
+            total += sendBatch(claimed);
+            if (claimed.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int sendBatch(List<Integer> reservationIds) {
+        long start = System.nanoTime();
+        Map<Integer, Room> rooms = new HashMap<>();
+        Map<Integer, User> users = new HashMap<>();
+        List<Integer> done = new ArrayList<>(reservationIds.size());
+        int sent = 0;
+        int failed = 0;
+        Map<Integer, List<Participant>> participants = source.participants(reservationIds);
+
+        for (Reservation reservation : source.reservations(reservationIds)) {
+            Room room = rooms.computeIfAbsent(reservation.getRoomId(), source::room);
+            User organizer = users.computeIfAbsent(reservation.getUserId(), source::user);
+            if (room == null || organizer == null) {
+                // Nothing can be sent; marked so that it is not taken over again and again
+                done.add(reservation.getId());
+                continue;
+            }
+            Participant[] invitees = participants.getOrDefault(reservation.getId(), Collections.emptyList())
+                .toArray(new Participant[0]);
+            if (sender.send(reservation, room, organizer, invitees)) {
+                done.add(reservation.getId());
+                sent++;
+            } else {
+                failed++;
+            }
+        }
+
+        source.markSent(done);
+        if (failed > 0) {
+            logger.warn("{} reminders failed to send; retried after {} min", failed, CLAIM_LEASE.toMinutes());
+        }
+        logger.debug("Reminder batch of {} sent in {} ms", sent,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return sent;
+    }
+}
@@ -0,0 +1,127 @@
+package com.roombooking.util;
+
+import com.roombooking.dao.ReservationArchiveDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically moves finished reservations older than the archive horizon
+ * (archive.horizonDays in database.properties) out of the hot reservations table.
+ * <p>
+ * Each run first archives below the watermark published by an earlier run, then
+ * publishes the next one. Readers cache the watermark for a short time, so rows are
+ * only moved below a watermark every reader has already seen; otherwise a query could
+ * skip the archive and miss rows that were just moved into it.
+ * <p>
+ * When reservations is range partitioned, each run also rolls the partitions forward
+ * through {@link PartitionMaintenance}.
+ */
+public class ReservationArchiver {
+    private static final Logger logger = LoggerFactory.getLogger(ReservationArchiver.class);
+    private static final long DEFAULT_INTERVAL_MINUTES = 60;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final long BATCH_PAUSE_MILLIS = 100;
+    private static ReservationArchiver instance;
+
+    private final ReservationArchiveDAO archiveDAO;
+    private final PartitionMaintenance partitionMaintenance;
+    private final int horizonDays;
+    private final long intervalMinutes;
+    private final int batchSize;
+    private ScheduledExecutorService executor;
+
+    private ReservationArchiver(int horizonDays, long intervalMinutes, int batchSize) {
+        this.archiveDAO = new ReservationArchiveDAO();
+        this.partitionMaintenance = new PartitionMaintenance();
+        this.horizonDays = horizonDays;
+        this.intervalMinutes = intervalMinutes;
+        this.batchSize = batchSize;
+    }
+
+    public static synchronized ReservationArchiver getInstance() {
+        if (instance == null) {
+            int horizonDays = Integer.parseInt(DatabaseConnection.getProperty("archive.horizonDays", "365").trim());
+            instance = new ReservationArchiver(horizonDays, DEFAULT_INTERVAL_MINUTES, DEFAULT_BATCH_SIZE);
+        }
+        return instance;
+    }
+
+    /**
+     * Starts the periodic archive run if it is not already running
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "reservation-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::runSafely, 1, intervalMinutes, TimeUnit.MINUTES);
+        logger.info("Reservation archiver started (horizon {} days, every {} min, batch {})",
+            horizonDays, intervalMinutes, batchSize);
+    }
+
+    /**
+     * Stops the periodic archive run
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void runSafely() {
+        try {
+            int moved = runOnce();
+            if (moved > 0) {
+                logger.info("Archived {} reservations", moved);
+            }
+        } catch (RuntimeException | LinkageError e) {
+            // A failed run must not cancel the schedule; the next run retries
+            logger.error("Archive run failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Archives everything below the settled watermark in batches, publishes the
+     * watermark for the current horizon and maintains partitions
+     * @return the number of reservations archived
+     */
+    public int runOnce() {
+        int total = 0;
+        long settledSeconds = TimeUnit.MILLISECONDS.toSeconds(2 * ReservationArchiveDAO.WATERMARK_CACHE_MILLIS);
+        LocalDateTime archivedBefore = archiveDAO.getSettledArchivedBefore(settledSeconds);
+        if (archivedBefore != null) {
+            while (true) {
+                int moved = archiveDAO.archiveBatch(archivedBefore, batchSize);
+                total += moved;
+                if (moved < batchSize || !pause()) {
+                    break;
+                }
+            }
+        }
+        archiveDAO.publishArchivedBefore(LocalDate.now().minusDays(horizonDays).atStartOfDay());
+        partitionMaintenance.runOnce(LocalDate.now(), archivedBefore);
+        return total;
+    }
+
+    // Lets other writers at the table between batches
+    private static boolean pause() {
+        try {
+            Thread.sleep(BATCH_PAUSE_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
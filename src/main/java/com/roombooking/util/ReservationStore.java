@@ -0,0 +1,297 @@
+package com.roombooking.util;
+
+import com.roombooking.model.Reservation;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * Read-only reservations stored column by column in primitive arrays, for caches
+ * that hold many of them. A {@link Reservation} with its two LocalDateTimes, status,
+ * name and subject Strings and empty equipment and participant lists takes several
+ * hundred bytes; here a row is 41 bytes of arrays, and every distinct string is kept
+ * once in a shared dictionary and referenced by an int code.
+ * <p>
+ * Times are epoch minutes of the local wall-clock time, so seconds are dropped.
+ * Equipment and participants are not stored. Rows are read through a {@link Cursor},
+ * a flyweight that can be moved over every row without allocating, or copied into
+ * new Reservation objects with {@link #get} and {@link #asList} for code that needs
+ * the model class.
+ */
+public class ReservationStore {
+    private static final String[] STATUSES = {"PENDING", "APPROVED", "REJECTED", "CANCELLED"};
+    private static final int NULL_CODE = -1;
+
+    private final int size;
+    private final int[] ids;
+    private final int[] userIds;
+    private final int[] roomIds;
+    private final int[] startMinutes;
+    private final int[] endMinutes;
+    private final int[] versions;
+    private final byte[] statuses;
+    private final int[] subjects;
+    private final int[] userNames;
+    private final int[] roomNames;
+    private final int[] comments;
+    // Set once by of()
+    private String[] dictionary;
+
+    private ReservationStore(int size) {
+        this.size = size;
+        this.ids = new int[size];
+        this.userIds = new int[size];
+        this.roomIds = new int[size];
+        this.startMinutes = new int[size];
+        this.endMinutes = new int[size];
+        this.versions = new int[size];
+        this.statuses = new byte[size];
+        this.subjects = new int[size];
+        this.userNames = new int[size];
+        this.roomNames = new int[size];
+        this.comments = new int[size];
+    }
+
+    /**
+     * Copies reservations into a new store, keeping their order
+     * @param reservations the reservations
+     * @return the store
+     * @throws IllegalArgumentException if a reservation has an unknown status
+     */
+    public static ReservationStore of(Collection<Reservation> reservations) {
+        ReservationStore store = new ReservationStore(reservations.size());
+        // The lookup map is only needed while building
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int row = 0;
+        for (Reservation reservation : reservations) {
+            store.ids[row] = reservation.getId();
+            store.userIds[row] = reservation.getUserId();
+            store.roomIds[row] = reservation.getRoomId();
+            store.startMinutes[row] = toEpochMinute(reservation.getStartTime());
+            store.endMinutes[row] = toEpochMinute(reservation.getEndTime());
+            store.versions[row] = reservation.getVersion();
+            store.statuses[row] = statusCode(reservation.getStatus());
+            store.subjects[row] = encode(reservation.getSubject(), codes, strings);
+            store.userNames[row] = encode(reservation.getUserName(), codes, strings);
+            store.roomNames[row] = encode(reservation.getRoomName(), codes, strings);
+            store.comments[row] = encode(reservation.getAdminComments(), codes, strings);
+            row++;
+        }
+        store.dictionary = strings.toArray(new String[0]);
+        return store;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a new cursor, on the first row if there is one
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Visits every row with one cursor, which must not be kept past the call
+     * @param action called for each row in order
+     */
+    public void forEach(Consumer<Cursor> action) {
+        Cursor cursor = new Cursor();
+        for (int i = 0; i < size; i++) {
+            action.accept(cursor.moveTo(i));
+        }
+    }
+
+    /**
+     * @param index the row
+     * @return a new Reservation with the row's values
+     */
+    public Reservation get(int index) {
+        return new Cursor().moveTo(index).toReservation();
+    }
+
+    /**
+     * @return an unmodifiable list that creates a Reservation for each element read
+     */
+    public List<Reservation> asList() {
+        return new ReservationList();
+    }
+
+    /**
+     * Approximate heap taken by the arrays and the dictionary strings, assuming
+     * compact (Latin-1) strings
+     * @return the size in bytes
+     */
+    public long footprintBytes() {
+        long bytes = 10L * (16 + 4L * size) + 16 + size + 16 + 4L * dictionary.length;
+        for (String value : dictionary) {
+            bytes += 24 + 16 + value.length();
+        }
+        return bytes;
+    }
+
+    /**
+     * @param time a local date-time
+     * @return its minutes since 1970-01-01T00:00, as stored in the start and end columns
+     */
+    public static int toEpochMinute(LocalDateTime time) {
+        return Math.toIntExact(Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60));
+    }
+
+    private static LocalDateTime fromEpochMinute(int minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60L, 0, ZoneOffset.UTC);
+    }
+
+    private static int encode(String value, Map<String, Integer> codes, List<String> strings) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = strings.size();
+            strings.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    private String decode(int code) {
+        return code == NULL_CODE ? null : dictionary[code];
+    }
+
+    private static byte statusCode(String status) {
+        for (int i = 0; i < STATUSES.length; i++) {
+            if (STATUSES[i].equals(status)) {
+                return (byte) i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown reservation status: " + status);
+    }
+
+    /**
+     * A movable view of one row. Strings come from the store's dictionary, so equal
+     * values are the same instance.
+     */
+    public final class Cursor {
+        private int index;
+
+        private Cursor() {
+        }
+
+        /**
+         * @param index the row to view
+         * @return this cursor
+         */
+        public Cursor moveTo(int index) {
+            this.index = Objects.checkIndex(index, size);
+            return this;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getId() {
+            return ids[index];
+        }
+
+        public int getUserId() {
+            return userIds[index];
+        }
+
+        public int getRoomId() {
+            return roomIds[index];
+        }
+
+        public int getStartMinute() {
+            return startMinutes[index];
+        }
+
+        public int getEndMinute() {
+            return endMinutes[index];
+        }
+
+        public LocalDateTime getStartTime() {
+            return fromEpochMinute(startMinutes[index]);
+        }
+
+        public LocalDateTime getEndTime() {
+            return fromEpochMinute(endMinutes[index]);
+        }
+
+        public String getStatus() {
+            return STATUSES[statuses[index]];
+        }
+
+        public int getVersion() {
+            return versions[index];
+        }
+
+        public String getSubject() {
+            return decode(subjects[index]);
+        }
+
+        public String getUserName() {
+            return decode(userNames[index]);
+        }
+
+        public String getRoomName() {
+            return decode(roomNames[index]);
+        }
+
+        public String getAdminComments() {
+            return decode(comments[index]);
+        }
+
+        /**
+         * @param fromMinute start of a range in epoch minutes
+         * @param toMinute end of the range in epoch minutes
+         * @return true if the row's time overlaps the range
+         */
+        public boolean overlaps(int fromMinute, int toMinute) {
+            return startMinutes[index] < toMinute && endMinutes[index] > fromMinute;
+        }
+
+        /**
+         * @return a new Reservation with this row's values
+         */
+        public Reservation toReservation() {
+            Reservation reservation = new Reservation();
+            reservation.setId(getId());
+            reservation.setUserId(getUserId());
+            reservation.setRoomId(getRoomId());
+            reservation.setStartTime(getStartTime());
+            reservation.setEndTime(getEndTime());
+            reservation.setStatus(getStatus());
+            reservation.setVersion(getVersion());
+            reservation.setSubject(getSubject());
+            reservation.setUserName(getUserName());
+            reservation.setRoomName(getRoomName());
+            reservation.setAdminComments(getAdminComments());
+            return reservation;
+        }
+    }
+
+    private final class ReservationList extends AbstractList<Reservation> implements RandomAccess {
+        @Override
+        public Reservation get(int index) {
+            return ReservationStore.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
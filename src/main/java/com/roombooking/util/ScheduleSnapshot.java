@@ -0,0 +1,330 @@
+package com.roombooking.util;
+
+import com.roombooking.model.Equipment;
+import com.roombooking.model.Reservation;
+import com.roombooking.model.Room;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Point-in-time copy of rooms, equipment and the reservations in a time window,
+ * stored in a compact binary file so the client can show its schedule at startup
+ * before the database answers, or at all when it is unreachable.
+ * <p>
+ * The file is a fixed header followed by the body:
+ * <pre>
+ * int   magic "RBSS"         short format version      short header length
+ * long  change_log sequence the snapshot is current up to
+ * long  creation time (epoch millis)
+ * long  window start, long window end (epoch seconds of local date-times)
+ * int   body length          int   CRC-32 of the body
+ * </pre>
+ * The body holds the rooms, equipment and reservations, each section a count followed
+ * by fixed-width fields and strings. Strings are a varint of the UTF-8 length plus
+ * one, with 0 for null. Room names of reservations are not stored but taken from the
+ * rooms. Readers skip header fields beyond the length they know, and reject files of a
+ * newer format version or with a bad checksum.
+ */
+public class ScheduleSnapshot {
+    static final int MAGIC = 0x52425353;
+    static final short FORMAT_VERSION = 1;
+    static final short HEADER_LENGTH = 48;
+    private static final String[] STATUSES = {"PENDING", "APPROVED", "REJECTED", "CANCELLED"};
+
+    private final long changeSeq;
+    private final long createdAtMillis;
+    private final LocalDateTime windowStart;
+    private final LocalDateTime windowEnd;
+    private final List<Room> rooms;
+    private final List<Equipment> equipment;
+    private final List<Reservation> reservations;
+
+    /**
+     * @param changeSeq the change_log sequence number the data is current up to
+     * @param createdAtMillis when the data was read
+     * @param windowStart start of the reservation window
+     * @param windowEnd end of the reservation window
+     * @param rooms all rooms
+     * @param equipment all equipment
+     * @param reservations the reservations overlapping the window
+     */
+    public ScheduleSnapshot(long changeSeq, long createdAtMillis, LocalDateTime windowStart, LocalDateTime windowEnd,
+                            List<Room> rooms, List<Equipment> equipment, List<Reservation> reservations) {
+        this.changeSeq = changeSeq;
+        this.createdAtMillis = createdAtMillis;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.rooms = Collections.unmodifiableList(new ArrayList<>(rooms));
+        this.equipment = Collections.unmodifiableList(new ArrayList<>(equipment));
+        List<Reservation> sorted = new ArrayList<>(reservations);
+        sorted.sort((a, b) -> a.getStartTime().compareTo(b.getStartTime()));
+        this.reservations = Collections.unmodifiableList(sorted);
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public LocalDateTime getWindowStart() {
+        return windowStart;
+    }
+
+    public LocalDateTime getWindowEnd() {
+        return windowEnd;
+    }
+
+    public List<Room> getRooms() {
+        return rooms;
+    }
+
+    public List<Equipment> getEquipment() {
+        return equipment;
+    }
+
+    /**
+     * @return the reservations overlapping the window, ordered by start time
+     */
+    public List<Reservation> getReservations() {
+        return reservations;
+    }
+
+    /**
+     * Gets the reservations overlapping a range, as far as the window covers it
+     * @param start start of the range
+     * @param end end of the range
+     * @return the reservations ordered by start time
+     */
+    public List<Reservation> getReservationsInRange(LocalDateTime start, LocalDateTime end) {
+        List<Reservation> matches = new ArrayList<>();
+        for (Reservation reservation : reservations) {
+            if (!reservation.getStartTime().isBefore(end)) {
+                break;
+            }
+            if (reservation.getEndTime().isAfter(start)) {
+                matches.add(reservation);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Writes the snapshot, replacing the file only once it is complete
+     * @param file the snapshot file
+     * @throws IOException if writing fails
+     */
+    public void write(Path file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + reservations.size() * 48);
+        DataOutputStream body = new DataOutputStream(bytes);
+        body.writeInt(rooms.size());
+        for (Room room : rooms) {
+            body.writeInt(room.getId());
+            body.writeInt(room.getCapacity());
+            body.writeBoolean(room.isActive());
+            writeString(body, room.getName());
+            writeString(body, room.getType());
+            writeString(body, room.getLocation());
+            writeString(body, room.getDescription());
+        }
+        body.writeInt(equipment.size());
+        for (Equipment item : equipment) {
+            body.writeInt(item.getId());
+            body.writeBoolean(item.isAvailable());
+            writeString(body, item.getName());
+            writeString(body, item.getType());
+            writeString(body, item.getDescription());
+        }
+        body.writeInt(reservations.size());
+        for (Reservation reservation : reservations) {
+            body.writeInt(reservation.getId());
+            body.writeInt(reservation.getUserId());
+            body.writeInt(reservation.getRoomId());
+            body.writeLong(epochSecond(reservation.getStartTime()));
+            body.writeInt((int) (epochSecond(reservation.getEndTime()) - epochSecond(reservation.getStartTime())));
+            body.writeByte(statusCode(reservation.getStatus()));
+            body.writeInt(reservation.getVersion());
+            writeString(body, reservation.getSubject());
+            writeString(body, reservation.getUserName());
+        }
+        body.flush();
+        byte[] content = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(content);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.putInt(MAGIC);
+        header.putShort(FORMAT_VERSION);
+        header.putShort(HEADER_LENGTH);
+        header.putLong(changeSeq);
+        header.putLong(createdAtMillis);
+        header.putLong(epochSecond(windowStart));
+        header.putLong(epochSecond(windowEnd));
+        header.putInt(content.length);
+        header.putInt((int) crc.getValue());
+        header.flip();
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.write(new ByteBuffer[] {header, ByteBuffer.wrap(content)});
+                channel.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads a snapshot file into memory in one read. The file is not memory mapped: a
+     * mapping stays open until garbage collected, and on Windows an open mapping makes
+     * the atomic replace in {@link #write} fail.
+     * @param file the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file cannot be read, is damaged or has an unknown format
+     */
+    public static ScheduleSnapshot read(Path file) throws IOException {
+        try {
+            return read(ByteBuffer.wrap(Files.readAllBytes(file)));
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Snapshot " + file + " is truncated or damaged", e);
+        }
+    }
+
+    private static ScheduleSnapshot read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a schedule snapshot");
+        }
+        short version = buffer.getShort();
+        if (version > FORMAT_VERSION) {
+            throw new IOException("Snapshot format " + version + " is newer than this client supports");
+        }
+        short headerLength = buffer.getShort();
+        long changeSeq = buffer.getLong();
+        long createdAtMillis = buffer.getLong();
+        LocalDateTime windowStart = localDateTime(buffer.getLong());
+        LocalDateTime windowEnd = localDateTime(buffer.getLong());
+        int bodyLength = buffer.getInt();
+        int expectedCrc = buffer.getInt();
+        buffer.position(headerLength);
+        if (buffer.remaining() != bodyLength) {
+            throw new IOException("Snapshot body is " + buffer.remaining() + " bytes, expected " + bodyLength);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("Snapshot checksum does not match");
+        }
+
+        int roomCount = buffer.getInt();
+        List<Room> rooms = new ArrayList<>(roomCount);
+        Map<Integer, String> roomNames = new HashMap<>();
+        for (int i = 0; i < roomCount; i++) {
+            int id = buffer.getInt();
+            int capacity = buffer.getInt();
+            boolean active = buffer.get() != 0;
+            String name = readString(buffer);
+            Room room = new Room(id, name, capacity, readString(buffer), readString(buffer), readString(buffer), active);
+            rooms.add(room);
+            roomNames.put(id, name);
+        }
+        int equipmentCount = buffer.getInt();
+        List<Equipment> equipment = new ArrayList<>(equipmentCount);
+        for (int i = 0; i < equipmentCount; i++) {
+            int id = buffer.getInt();
+            boolean available = buffer.get() != 0;
+            equipment.add(new Equipment(id, readString(buffer), readString(buffer), readString(buffer), available));
+        }
+        int reservationCount = buffer.getInt();
+        List<Reservation> reservations = new ArrayList<>(reservationCount);
+        for (int i = 0; i < reservationCount; i++) {
+            Reservation reservation = new Reservation();
+            reservation.setId(buffer.getInt());
+            reservation.setUserId(buffer.getInt());
+            reservation.setRoomId(buffer.getInt());
+            long start = buffer.getLong();
+            reservation.setStartTime(localDateTime(start));
+            reservation.setEndTime(localDateTime(start + buffer.getInt()));
+            reservation.setStatus(STATUSES[buffer.get()]);
+            reservation.setVersion(buffer.getInt());
+            reservation.setSubject(readString(buffer));
+            reservation.setUserName(readString(buffer));
+            reservation.setRoomName(roomNames.get(reservation.getRoomId()));
+            reservations.add(reservation);
+        }
+        return new ScheduleSnapshot(changeSeq, createdAtMillis, windowStart, windowEnd, rooms, equipment, reservations);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        int length = utf8.length + 1;
+        while ((length & ~0x7F) != 0) {
+            out.writeByte((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        out.writeByte(length);
+        out.write(utf8);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        if (length == 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length - 1];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static int statusCode(String status) {
+        for (int i = 0; i < STATUSES.length; i++) {
+            if (STATUSES[i].equals(status)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown reservation status: " + status);
+    }
+
+    // Local date-times are stored as wall-clock time, independent of the client's zone
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime localDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,311 @@
+package com.roombooking.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over a small catalog such as rooms or equipment, kept up to
+ * date one document at a time.
+ * <p>
+ * Text fields are split into lower-case words held in a sorted term map, so every word
+ * of a query matches as a prefix with one range lookup. Keyword facets (type, building)
+ * and numeric facets (capacity) have their own postings. A query string combines them,
+ * e.g. {@code proj type=conference capacity>=20 building="building 1"}; all parts must
+ * match. Fields that are not facets of this index are searched as text.
+ *
+ * @param <T> the indexed type
+ */
+public class SearchIndex<T> {
+    private static final Pattern WORD_SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern FILTER = Pattern.compile("([A-Za-z]+)(>=|<=|=|:|>|<)(.+)");
+    private static final Pattern QUERY_TOKEN = Pattern.compile("[^\\s\"]*\"[^\"]*\"?|\\S+");
+
+    private final ToIntFunction<T> idOf;
+    private final Comparator<T> order;
+    private final List<Function<T, String>> textFields = new ArrayList<>();
+    private final Map<String, Function<T, String>> keywordFacets = new LinkedHashMap<>();
+    private final Map<String, ToIntFunction<T>> numericFacets = new LinkedHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, T> documents = new HashMap<>();
+    private final TreeMap<String, Set<Integer>> terms = new TreeMap<>();
+    private final Map<String, Map<String, Set<Integer>>> keywords = new HashMap<>();
+    private final Map<String, TreeMap<Integer, Set<Integer>>> numbers = new HashMap<>();
+
+    /**
+     * @param idOf the document ID
+     * @param order order of search results
+     */
+    public SearchIndex(ToIntFunction<T> idOf, Comparator<T> order) {
+        this.idOf = idOf;
+        this.order = order;
+    }
+
+    /**
+     * Adds a field whose words are searchable; call before indexing documents
+     */
+    public SearchIndex<T> text(Function<T, String> field) {
+        textFields.add(field);
+        return this;
+    }
+
+    /**
+     * Adds a facet matched by whole value, case-insensitively; call before indexing documents
+     */
+    public SearchIndex<T> keyword(String name, Function<T, String> field) {
+        keywordFacets.put(name.toLowerCase(Locale.ROOT), field);
+        keywords.put(name.toLowerCase(Locale.ROOT), new HashMap<>());
+        return this;
+    }
+
+    /**
+     * Adds a facet matched by range; call before indexing documents
+     */
+    public SearchIndex<T> numeric(String name, ToIntFunction<T> field) {
+        numericFacets.put(name.toLowerCase(Locale.ROOT), field);
+        numbers.put(name.toLowerCase(Locale.ROOT), new TreeMap<>());
+        return this;
+    }
+
+    /**
+     * Replaces the whole contents of the index
+     * @param all the documents
+     */
+    public void replaceAll(Collection<T> all) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            terms.clear();
+            keywords.values().forEach(Map::clear);
+            numbers.values().forEach(Map::clear);
+            for (T document : all) {
+                documents.put(idOf.applyAsInt(document), document);
+                index(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a document or replaces the one with the same ID
+     * @param document the document
+     */
+    public void put(T document) {
+        lock.writeLock().lock();
+        try {
+            T old = documents.put(idOf.applyAsInt(document), document);
+            if (old != null) {
+                unindex(old);
+            }
+            index(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document
+     * @param id the document ID
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            T old = documents.remove(id);
+            if (old != null) {
+                unindex(old);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the documents matching every part of a query
+     * @param query words, matched as prefixes, and facet filters such as
+     *              {@code type=conference} or {@code capacity>=20}; blank matches all
+     * @return the matching documents in result order
+     */
+    public List<T> search(String query) {
+        lock.readLock().lock();
+        try {
+            Set<Integer> ids = match(query);
+            List<T> results = new ArrayList<>(ids == null ? documents.size() : ids.size());
+            if (ids == null) {
+                results.addAll(documents.values());
+            } else {
+                for (Integer id : ids) {
+                    results.add(documents.get(id));
+                }
+            }
+            results.sort(order);
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Null means no restriction; intersection starts from the smallest set, so broad words stay cheap
+    private Set<Integer> match(String query) {
+        if (query == null) {
+            return null;
+        }
+        List<Set<Integer>> restrictions = new ArrayList<>();
+        Matcher tokens = QUERY_TOKEN.matcher(query);
+        while (tokens.find()) {
+            String token = tokens.group();
+            Set<Integer> ids = null;
+            Matcher filter = FILTER.matcher(token);
+            if (filter.matches()) {
+                ids = filter(filter.group(1).toLowerCase(Locale.ROOT), filter.group(2), unquote(filter.group(3)));
+            }
+            if (ids != null) {
+                restrictions.add(ids);
+            } else {
+                for (String word : words(unquote(token))) {
+                    restrictions.add(prefix(word));
+                }
+            }
+        }
+        if (restrictions.isEmpty()) {
+            return null;
+        }
+        restrictions.sort(Comparator.comparingInt(Set::size));
+        Set<Integer> result = new HashSet<>(restrictions.get(0));
+        for (int i = 1; i < restrictions.size() && !result.isEmpty(); i++) {
+            result.retainAll(restrictions.get(i));
+        }
+        return result;
+    }
+
+    // Null if the token is not a filter on a facet of this index
+    private Set<Integer> filter(String name, String operator, String value) {
+        Map<String, Set<Integer>> keywordPostings = keywords.get(name);
+        if (keywordPostings != null && (operator.equals("=") || operator.equals(":"))) {
+            return keywordPostings.getOrDefault(normalize(value), Set.of());
+        }
+        TreeMap<Integer, Set<Integer>> numberPostings = numbers.get(name);
+        if (numberPostings == null) {
+            return null;
+        }
+        int bound;
+        try {
+            bound = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        NavigableMap<Integer, Set<Integer>> range;
+        switch (operator) {
+            case ">=": range = numberPostings.tailMap(bound, true); break;
+            case ">": range = numberPostings.tailMap(bound, false); break;
+            case "<=": range = numberPostings.headMap(bound, true); break;
+            case "<": range = numberPostings.headMap(bound, false); break;
+            default: range = numberPostings.subMap(bound, true, bound, true); break;
+        }
+        Set<Integer> ids = new HashSet<>();
+        range.values().forEach(ids::addAll);
+        return ids;
+    }
+
+    // The result is only read; a single matching term returns its postings without copying
+    private Set<Integer> prefix(String word) {
+        NavigableMap<String, Set<Integer>> matches = terms.subMap(word, true, word + Character.MAX_VALUE, true);
+        if (matches.size() == 1) {
+            return matches.firstEntry().getValue();
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (Set<Integer> postings : matches.values()) {
+            ids.addAll(postings);
+        }
+        return ids;
+    }
+
+    private void index(T document) {
+        int id = idOf.applyAsInt(document);
+        for (String word : wordsOf(document)) {
+            terms.computeIfAbsent(word, w -> new HashSet<>()).add(id);
+        }
+        keywordFacets.forEach((name, field) -> {
+            String value = field.apply(document);
+            if (value != null) {
+                keywords.get(name).computeIfAbsent(normalize(value), v -> new HashSet<>()).add(id);
+            }
+        });
+        numericFacets.forEach((name, field) ->
+            numbers.get(name).computeIfAbsent(field.applyAsInt(document), v -> new HashSet<>()).add(id));
+    }
+
+    private void unindex(T document) {
+        int id = idOf.applyAsInt(document);
+        for (String word : wordsOf(document)) {
+            removePosting(terms, word, id);
+        }
+        keywordFacets.forEach((name, field) -> {
+            String value = field.apply(document);
+            if (value != null) {
+                removePosting(keywords.get(name), normalize(value), id);
+            }
+        });
+        numericFacets.forEach((name, field) -> removePosting(numbers.get(name), field.applyAsInt(document), id));
+    }
+
+    private static <K> void removePosting(Map<K, Set<Integer>> postings, K key, int id) {
+        Set<Integer> ids = postings.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+
+    private Set<String> wordsOf(T document) {
+        Set<String> words = new HashSet<>();
+        for (Function<T, String> field : textFields) {
+            words.addAll(words(field.apply(document)));
+        }
+        return words;
+    }
+
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text != null) {
+            for (String word : WORD_SPLIT.split(text.toLowerCase(Locale.ROOT))) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String unquote(String value) {
+        return value.replace("\"", "");
+    }
+}
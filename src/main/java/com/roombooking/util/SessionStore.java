@@ -0,0 +1,250 @@
+package com.roombooking.util;
+
+import com.roombooking.dao.UserDAO;
+import com.roombooking.model.ChangeEvent;
+import com.roombooking.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory sessions keyed by opaque random tokens. Each session caches its user as
+ * a principal without the password hash, so an authenticated call costs one map
+ * lookup instead of a users/profiles join.
+ * <p>
+ * Sessions expire after {@link #DEFAULT_IDLE_TIMEOUT} without use (every lookup
+ * slides the deadline) and after {@link #DEFAULT_MAX_LIFETIME} in any case. At most
+ * {@value #DEFAULT_MAX_SESSIONS} are kept; beyond that the least recently used is
+ * evicted. When the change feed reports that a user changed, the cached principal is
+ * dropped and reloaded on next use, and sessions of deleted or deactivated users end.
+ */
+public class SessionStore {
+    private static final Logger logger = LoggerFactory.getLogger(SessionStore.class);
+    public static final int DEFAULT_MAX_SESSIONS = 10_000;
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+    public static final Duration DEFAULT_MAX_LIFETIME = Duration.ofHours(12);
+    private static final int TOKEN_BYTES = 32;
+    private static SessionStore instance;
+
+    private final SecureRandom random = new SecureRandom();
+    private final int maxSessions;
+    private final long idleNanos;
+    private final long lifetimeNanos;
+    private final IntFunction<User> userLoader;
+    private final LongSupplier clock;
+    // Access order, so iteration starts at the session idle the longest
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<Integer, Set<Session>> sessionsByUser = new HashMap<>();
+
+    private static final class Session {
+        private final String token;
+        private final int userId;
+        private final long createdAt;
+        private long lastUsedAt;
+        private User principal;
+
+        private Session(String token, int userId, User principal, long now) {
+            this.token = token;
+            this.userId = userId;
+            this.principal = principal;
+            this.createdAt = now;
+            this.lastUsedAt = now;
+        }
+    }
+
+    SessionStore(int maxSessions, Duration idleTimeout, Duration maxLifetime,
+                 IntFunction<User> userLoader, LongSupplier clock) {
+        this.maxSessions = maxSessions;
+        this.idleNanos = idleTimeout.toNanos();
+        this.lifetimeNanos = maxLifetime.toNanos();
+        this.userLoader = userLoader;
+        this.clock = clock;
+    }
+
+    public static synchronized SessionStore getInstance() {
+        if (instance == null) {
+            UserDAO userDAO = new UserDAO();
+            instance = new SessionStore(DEFAULT_MAX_SESSIONS, DEFAULT_IDLE_TIMEOUT, DEFAULT_MAX_LIFETIME,
+                userDAO::getUser, System::nanoTime);
+            SessionStore store = instance;
+            ChangeEventBus.getInstance().subscribe(
+                event -> event.getEntityType() == ChangeEvent.EntityType.USER,
+                events -> events.forEach(event -> store.forgetPrincipal(event.getEntityId())));
+        }
+        return instance;
+    }
+
+    /**
+     * Starts a session for an authenticated user
+     * @param user the user, as loaded at login
+     * @return the session token
+     */
+    public synchronized String create(User user) {
+        long now = clock.getAsLong();
+        purgeExpired(now);
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Session session = new Session(token, user.getId(), principalOf(user), now);
+        sessions.put(token, session);
+        sessionsByUser.computeIfAbsent(user.getId(), id -> new HashSet<>()).add(session);
+        if (sessions.size() > maxSessions) {
+            Iterator<Session> eldest = sessions.values().iterator();
+            Session evicted = eldest.next();
+            eldest.remove();
+            unindex(evicted);
+            logger.debug("Evicted least recently used session of user {}", evicted.userId);
+        }
+        return token;
+    }
+
+    /**
+     * Resolves a token to its user and extends the session
+     * @param token the session token
+     * @return the user, or null if the token is unknown, expired or the user is gone or inactive
+     */
+    public User authenticate(String token) {
+        Session session;
+        synchronized (this) {
+            session = token == null ? null : sessions.get(token);
+            if (session == null) {
+                return null;
+            }
+            long now = clock.getAsLong();
+            if (isExpired(session, now)) {
+                remove(token);
+                return null;
+            }
+            session.lastUsedAt = now;
+            if (session.principal != null) {
+                return session.principal;
+            }
+        }
+        // Principal was dropped after a change; reload outside the lock
+        User user = userLoader.apply(session.userId);
+        synchronized (this) {
+            if (!sessions.containsKey(token)) {
+                return null;
+            }
+            if (user == null || !user.isActive()) {
+                invalidateUser(session.userId);
+                return null;
+            }
+            session.principal = principalOf(user);
+            return session.principal;
+        }
+    }
+
+    /**
+     * Gets the cached principal of a user with a live session, without extending it
+     * @param userId the user ID
+     * @return the principal, or null if the user has no session with a cached principal
+     */
+    public synchronized User findPrincipal(int userId) {
+        Set<Session> userSessions = sessionsByUser.get(userId);
+        if (userSessions == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        for (Session session : userSessions) {
+            if (session.principal != null && !isExpired(session, now)) {
+                return session.principal;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Ends a session
+     * @param token the session token
+     */
+    public synchronized void invalidate(String token) {
+        if (token != null) {
+            remove(token);
+        }
+    }
+
+    /**
+     * Ends every session of a user
+     * @param userId the user ID
+     */
+    public synchronized void invalidateUser(int userId) {
+        Set<Session> userSessions = sessionsByUser.remove(userId);
+        if (userSessions != null) {
+            for (Session session : userSessions) {
+                sessions.remove(session.token);
+            }
+        }
+    }
+
+    /**
+     * Drops the cached principal of a user so the next lookup reloads it
+     * @param userId the user ID
+     */
+    public synchronized void forgetPrincipal(int userId) {
+        Set<Session> userSessions = sessionsByUser.get(userId);
+        if (userSessions != null) {
+            for (Session session : userSessions) {
+                session.principal = null;
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return sessions.size();
+    }
+
+    private boolean isExpired(Session session, long now) {
+        return now - session.lastUsedAt > idleNanos || now - session.createdAt > lifetimeNanos;
+    }
+
+    // Idle sessions sit at the front of the access order, so this stops at the first live one
+    private void purgeExpired(long now) {
+        Iterator<Session> it = sessions.values().iterator();
+        while (it.hasNext()) {
+            Session session = it.next();
+            if (!isExpired(session, now)) {
+                break;
+            }
+            it.remove();
+            unindex(session);
+        }
+    }
+
+    private void remove(String token) {
+        Session session = sessions.remove(token);
+        if (session != null) {
+            unindex(session);
+        }
+    }
+
+    private void unindex(Session session) {
+        Set<Session> userSessions = sessionsByUser.get(session.userId);
+        if (userSessions != null) {
+            userSessions.remove(session);
+            if (userSessions.isEmpty()) {
+                sessionsByUser.remove(session.userId);
+            }
+        }
+    }
+
+    // The principal is a copy without the password hash
+    private static User principalOf(User user) {
+        User principal = new User(user.getId(), user.getUsername(), user.getFullName(), user.getEmail(),
+            null, user.isAdmin(), user.isActive(), user.getProfileId());
+        principal.setProfile(user.getProfile());
+        return principal;
+    }
+}
@@ -0,0 +1,312 @@
+package com.roombooking.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of connected, authenticated SMTP transports that are kept open between sends.
+ * Connections are health-checked (NOOP) before reuse, replaced when they have been
+ * idle too long or have been dropped by the server, and reconnected once if a send
+ * fails because of a broken connection. A send the server refuses for its recipients
+ * ({@link SendFailedException}) leaves the connection in the pool.
+ */
+public class SmtpTransportPool implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    private final Session session;
+    private final long maxIdleMillis;
+    private final long borrowTimeoutMillis;
+    private final Semaphore permits;
+    private final BlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+    private volatile boolean closed;
+    private final AtomicLong nextConnectionId = new AtomicLong();
+
+    // Metrics
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder connectionsClosed = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+    private final LongAdder connectNanos = new LongAdder();
+    private final LongAdder sendNanos = new LongAdder();
+    private final AtomicLong maxSendNanos = new AtomicLong();
+
+    /**
+     * @param session the long-lived mail session
+     * @param maxConnections maximum number of simultaneously open connections
+     * @param maxIdleMillis connections idle longer than this are replaced instead of reused
+     * @param borrowTimeoutMillis how long a sender waits for a free connection
+     */
+    public SmtpTransportPool(Session session, int maxConnections, long maxIdleMillis, long borrowTimeoutMillis) {
+        this.session = session;
+        this.maxIdleMillis = maxIdleMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    /**
+     * Sends one message over a pooled connection
+     * @param message the message to send
+     * @throws MessagingException if the message could not be delivered
+     */
+    public void send(Message message) throws MessagingException {
+        sendAll(List.of(message));
+    }
+
+    /**
+     * Sends several messages over a single pooled connection
+     * @param messages the messages to send
+     * @throws MessagingException if a message could not be delivered; earlier messages have been sent
+     */
+    public void sendAll(List<? extends Message> messages) throws MessagingException {
+        if (messages.isEmpty()) {
+            return;
+        }
+        PooledTransport connection = borrow();
+        boolean reusable = false;
+        try {
+            for (Message message : messages) {
+                message.saveChanges();
+                try {
+                    timedSend(connection, message);
+                } catch (MessagingException e) {
+                    // A dropped connection is also reported as SendFailedException
+                    if (isRecipientFailure(e, connection)) {
+                        throw e;
+                    }
+                    logger.warn("SMTP send failed on connection #{} ({}), reconnecting", connection.id, e.getMessage());
+                    // Cleared first so the finally block does not close it a second time
+                    PooledTransport broken = connection;
+                    connection = null;
+                    closeQuietly(broken);
+                    reconnects.increment();
+                    connection = open();
+                    timedSend(connection, message);
+                }
+            }
+            reusable = true;
+        } catch (MessagingException e) {
+            sendFailures.increment();
+            reusable = connection != null && isRecipientFailure(e, connection);
+            throw e;
+        } finally {
+            release(connection, reusable);
+        }
+    }
+
+    /**
+     * @return true if the server refused the message, e.g. for unknown recipients,
+     *         but the connection is still usable
+     */
+    private static boolean isRecipientFailure(MessagingException e, PooledTransport connection) {
+        return e instanceof SendFailedException && connection.transport.isConnected();
+    }
+
+    private void timedSend(PooledTransport connection, Message message) throws MessagingException {
+        long start = System.nanoTime();
+        connection.transport.sendMessage(message, message.getAllRecipients());
+        long elapsed = System.nanoTime() - start;
+        connection.messagesSent++;
+        connection.sendNanos += elapsed;
+        messagesSent.increment();
+        sendNanos.add(elapsed);
+        maxSendNanos.accumulateAndGet(elapsed, Math::max);
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        if (closed) {
+            throw new MessagingException("SMTP transport pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("Timed out waiting for a free SMTP connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for an SMTP connection", e);
+        }
+
+        try {
+            PooledTransport connection;
+            while ((connection = idle.pollFirst()) != null) {
+                long idleFor = System.currentTimeMillis() - connection.lastUsedMillis;
+                if (idleFor <= maxIdleMillis && connection.transport.isConnected()) {
+                    return connection;
+                }
+                logger.debug("Discarding SMTP connection #{} (idle {} ms)", connection.id, idleFor);
+                closeQuietly(connection);
+            }
+            return open();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a borrowed connection, or only its permit if the connection is null
+     * because a reconnect failed
+     */
+    private void release(PooledTransport connection, boolean reusable) {
+        try {
+            if (connection == null) {
+                return;
+            }
+            if (reusable && !closed) {
+                connection.lastUsedMillis = System.currentTimeMillis();
+                idle.offerFirst(connection);
+            } else {
+                closeQuietly(connection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PooledTransport open() throws MessagingException {
+        long start = System.nanoTime();
+        Transport transport = session.getTransport("smtp");
+        transport.connect();
+        long elapsed = System.nanoTime() - start;
+        connectNanos.add(elapsed);
+        connectionsOpened.increment();
+        PooledTransport connection = new PooledTransport(transport, nextConnectionId.incrementAndGet());
+        logger.debug("Opened SMTP connection #{} in {} ms", connection.id, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return connection;
+    }
+
+    private void closeQuietly(PooledTransport connection) {
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            logger.debug("Error closing SMTP connection #{}: {}", connection.id, e.getMessage());
+        }
+        connectionsClosed.increment();
+        logger.debug("Closed SMTP connection #{} after {} messages ({} ms sending, {} ms open)",
+            connection.id, connection.messagesSent,
+            TimeUnit.NANOSECONDS.toMillis(connection.sendNanos),
+            System.currentTimeMillis() - connection.openedMillis);
+    }
+
+    /**
+     * @return a snapshot of the pool metrics
+     */
+    public Stats getStats() {
+        return new Stats(connectionsOpened.sum(), connectionsClosed.sum(), reconnects.sum(),
+            messagesSent.sum(), sendFailures.sum(), connectNanos.sum(), sendNanos.sum(),
+            maxSendNanos.get(), idle.size());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private final long id;
+        private final long openedMillis = System.currentTimeMillis();
+        private long lastUsedMillis = openedMillis;
+        private long messagesSent;
+        private long sendNanos;
+
+        private PooledTransport(Transport transport, long id) {
+            this.transport = transport;
+            this.id = id;
+        }
+    }
+
+    /**
+     * Point-in-time view of the pool counters
+     */
+    public static final class Stats {
+        private final long connectionsOpened;
+        private final long connectionsClosed;
+        private final long reconnects;
+        private final long messagesSent;
+        private final long sendFailures;
+        private final long totalConnectNanos;
+        private final long totalSendNanos;
+        private final long maxSendNanos;
+        private final int idleConnections;
+
+        private Stats(long connectionsOpened, long connectionsClosed, long reconnects, long messagesSent,
+                      long sendFailures, long totalConnectNanos, long totalSendNanos, long maxSendNanos,
+                      int idleConnections) {
+            this.connectionsOpened = connectionsOpened;
+            this.connectionsClosed = connectionsClosed;
+            this.reconnects = reconnects;
+            this.messagesSent = messagesSent;
+            this.sendFailures = sendFailures;
+            this.totalConnectNanos = totalConnectNanos;
+            this.totalSendNanos = totalSendNanos;
+            this.maxSendNanos = maxSendNanos;
+            this.idleConnections = idleConnections;
+        }
+
+        public long getConnectionsOpened() {
+            return connectionsOpened;
+        }
+
+        public long getConnectionsClosed() {
+            return connectionsClosed;
+        }
+
+        public long getReconnects() {
+            return reconnects;
+        }
+
+        public long getMessagesSent() {
+            return messagesSent;
+        }
+
+        public long getSendFailures() {
+            return sendFailures;
+        }
+
+        public double getAverageConnectMillis() {
+            return connectionsOpened == 0 ? 0 : totalConnectNanos / 1_000_000.0 / connectionsOpened;
+        }
+
+        public double getAverageSendMillis() {
+            return messagesSent == 0 ? 0 : totalSendNanos / 1_000_000.0 / messagesSent;
+        }
+
+        public double getMaxSendMillis() {
+            return maxSendNanos / 1_000_000.0;
+        }
+
+        public double getMessagesPerConnection() {
+            return connectionsOpened == 0 ? 0 : (double) messagesSent / connectionsOpened;
+        }
+
+        public int getIdleConnections() {
+            return idleConnections;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("connections=%d (closed %d, reconnects %d), messages=%d (failed %d), " +
+                    "avgConnect=%.1fms, avgSend=%.1fms, maxSend=%.1fms, msgs/conn=%.1f",
+                connectionsOpened, connectionsClosed, reconnects, messagesSent, sendFailures,
+                getAverageConnectMillis(), getAverageSendMillis(), getMaxSendMillis(), getMessagesPerConnection());
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.roombooking.util;
+
+import com.roombooking.model.Reservation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache of reservations for the room timeline, split into tiles of
+ * {@value #ROOMS_PER_TILE} rooms by {@value #DAYS_PER_TILE} days. Only tiles that
+ * intersect the viewport (plus one ring around it) are loaded, so the cost of
+ * scrolling depends on the screen size rather than on the number of rooms or the
+ * length of the history.
+ */
+public class TimelineTileCache {
+    private static final Logger logger = LoggerFactory.getLogger(TimelineTileCache.class);
+    public static final int ROOMS_PER_TILE = 25;
+    public static final int DAYS_PER_TILE = 7;
+    private static final int MAX_TILES = 256;
+    private static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    /**
+     * Loads the reservations of a set of rooms overlapping a time window
+     */
+    public interface TileLoader {
+        List<Reservation> load(List<Integer> roomIds, LocalDateTime start, LocalDateTime end);
+    }
+
+    private final TileLoader loader;
+    private final LocalDate origin;
+    private final Runnable onTileLoaded;
+    private final ExecutorService executor;
+    private final Map<Long, Tile> tiles = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Tile> eldest) {
+            return size() > MAX_TILES;
+        }
+    };
+    private List<Integer> roomIds = Collections.emptyList();
+    private long viewportSeq;
+
+    /**
+     * @param loader loads one tile; called off the EDT
+     * @param origin first day of tile 0
+     * @param onTileLoaded called from a loader thread whenever a tile has been loaded
+     */
+    public TimelineTileCache(TileLoader loader, LocalDate origin, Runnable onTileLoaded) {
+        this.loader = loader;
+        this.origin = origin;
+        this.onTileLoaded = onTileLoaded;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "timeline-loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sets the rooms shown as rows, in display order, and drops all tiles
+     * @param roomIds the room IDs
+     */
+    public synchronized void setRooms(List<Integer> roomIds) {
+        this.roomIds = new ArrayList<>(roomIds);
+        tiles.clear();
+    }
+
+    public synchronized int getBlockCount() {
+        return (roomIds.size() + ROOMS_PER_TILE - 1) / ROOMS_PER_TILE;
+    }
+
+    /**
+     * Gets the index of the tile column containing a point in time
+     * @param time the time
+     * @return the tile index, negative before the origin
+     */
+    public int tileAt(LocalDateTime time) {
+        return (int) Math.floorDiv(ChronoUnit.DAYS.between(origin, time.toLocalDate()), DAYS_PER_TILE);
+    }
+
+    public LocalDateTime tileStart(int tile) {
+        return origin.plusDays((long) tile * DAYS_PER_TILE).atStartOfDay();
+    }
+
+    /**
+     * Gets a tile if it has been loaded
+     * @param block index of the block of rooms
+     * @param tile index of the tile column
+     * @return the tile's reservations, or null if it is not loaded yet
+     */
+    public synchronized List<Reservation> getIfLoaded(int block, int tile) {
+        Tile entry = tiles.get(key(block, tile));
+        return entry == null ? null : entry.reservations;
+    }
+
+    /**
+     * Makes sure the tiles covering a viewport are loaded, visible ones first, then
+     * the ring of tiles around it. Tiles that were queued for an older viewport and
+     * have scrolled out of view are skipped when their turn comes.
+     * @param firstBlock first visible block of rooms
+     * @param lastBlock last visible block of rooms
+     * @param firstTile first visible tile column
+     * @param lastTile last visible tile column
+     */
+    public synchronized void requestViewport(int firstBlock, int lastBlock, int firstTile, int lastTile) {
+        long seq = ++viewportSeq;
+        int blockCount = getBlockCount();
+        for (int ring = 0; ring <= 1; ring++) {
+            for (int block = Math.max(0, firstBlock - ring); block <= Math.min(blockCount - 1, lastBlock + ring); block++) {
+                for (int tile = firstTile - ring; tile <= lastTile + ring; tile++) {
+                    boolean inRing = block < firstBlock || block > lastBlock || tile < firstTile || tile > lastTile;
+                    if (ring == 0 || inRing) {
+                        request(block, tile, seq);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks all tiles stale so they are reloaded the next time they are shown. Their
+     * current data stays visible until the reload finishes.
+     */
+    public synchronized void invalidateAll() {
+        for (Tile tile : tiles.values()) {
+            tile.stale = true;
+        }
+    }
+
+    private void request(int block, int tile, long seq) {
+        long key = key(block, tile);
+        Tile entry = tiles.get(key);
+        if (entry != null && !entry.isExpired()) {
+            entry.requestSeq = seq;
+            return;
+        }
+        Tile loading = new Tile(seq, entry == null ? null : entry.reservations);
+        tiles.put(key, loading);
+        int from = block * ROOMS_PER_TILE;
+        List<Integer> rooms = new ArrayList<>(roomIds.subList(from, Math.min(roomIds.size(), from + ROOMS_PER_TILE)));
+        executor.execute(() -> load(key, loading, rooms, tileStart(tile), tileStart(tile + 1)));
+    }
+
+    private void load(long key, Tile entry, List<Integer> rooms, LocalDateTime start, LocalDateTime end) {
+        synchronized (this) {
+            // Skip tiles that are gone or were not asked for by the last two viewports
+            if (tiles.get(key) != entry || entry.requestSeq < viewportSeq - 1) {
+                tiles.remove(key, entry);
+                return;
+            }
+        }
+        try {
+            List<Reservation> reservations = Collections.unmodifiableList(new ArrayList<>(loader.load(rooms, start, end)));
+            synchronized (this) {
+                entry.reservations = reservations;
+                entry.loadedMillis = System.currentTimeMillis();
+            }
+            onTileLoaded.run();
+        } catch (RuntimeException e) {
+            logger.error("Failed to load timeline tile {} - {}: {}", start, end, e.getMessage());
+            synchronized (this) {
+                tiles.remove(key, entry);
+            }
+        }
+    }
+
+    // Block in the high half, tile column (which may be negative) in the low half
+    private static long key(int block, int tile) {
+        return ((long) block << 32) | (tile & 0xFFFFFFFFL);
+    }
+
+    private static final class Tile {
+        private List<Reservation> reservations;
+        private long loadedMillis;
+        private long requestSeq;
+        private boolean stale;
+
+        private Tile(long requestSeq, List<Reservation> previous) {
+            this.requestSeq = requestSeq;
+            // Keep showing expired data until the reload finishes
+            this.reservations = previous;
+        }
+
+        private boolean isExpired() {
+            return stale || (loadedMillis > 0 && System.currentTimeMillis() - loadedMillis > TTL_MILLIS);
+        }
+    }
+}
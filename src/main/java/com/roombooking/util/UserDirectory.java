@@ -0,0 +1,251 @@
+package com.roombooking.util;
+
+import com.roombooking.dao.UserDAO;
+import com.roombooking.model.ChangeEvent;
+import com.roombooking.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Prefix index over users for typeahead lookup in user management. Each user is
+ * indexed under their username, email and each word of their full name in a sorted
+ * map, so a prefix is one range scan that stops as soon as enough users are found,
+ * however many accounts there are.
+ * <p>
+ * The index is filled from one streaming pass over the users table on first use and
+ * then kept current after creates and updates through this client and from USER
+ * events on the change feed. Users are held without their password hash.
+ */
+public class UserDirectory {
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectory.class);
+    // Separates a term from the user ID so that users sharing a term get distinct keys
+    private static final char KEY_SEPARATOR = '\u0000';
+    private static UserDirectory instance;
+
+    private final ToIntFunction<Consumer<User>> streamer;
+    private final IntFunction<User> userById;
+    private final Map<Integer, User> users = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Integer> terms = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Integer> byUsername = new ConcurrentSkipListMap<>();
+    private volatile boolean loaded;
+
+    /**
+     * @param streamer streams every user to a consumer and returns the count
+     * @param userById loads one user, or null if it no longer exists
+     */
+    UserDirectory(ToIntFunction<Consumer<User>> streamer, IntFunction<User> userById) {
+        this.streamer = streamer;
+        this.userById = userById;
+    }
+
+    public static synchronized UserDirectory getInstance() {
+        if (instance == null) {
+            UserDAO userDAO = new UserDAO();
+            instance = new UserDirectory(userDAO::forEachUser, userDAO::getUser);
+            UserDirectory directory = instance;
+            ChangeEventBus.getInstance().subscribe(
+                event -> event.getEntityType() == ChangeEvent.EntityType.USER,
+                events -> events.forEach(event -> directory.reload(event.getEntityId())));
+        }
+        return instance;
+    }
+
+    /**
+     * Finds users whose username, email or a word of whose full name starts with each
+     * word of the query
+     * @param query the text typed so far; blank lists users by username
+     * @param limit the maximum number of users to return
+     * @return up to limit users, those matching on an earlier term first
+     */
+    public List<User> search(String query, int limit) {
+        ensureLoaded();
+        String[] words = query == null ? new String[0] : query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        if (words.length == 0 || words[0].isEmpty()) {
+            return firstByUsername(limit);
+        }
+        // Scan the longest word's range, the most selective, and check the rest per user
+        String scan = words[0];
+        for (String word : words) {
+            if (word.length() > scan.length()) {
+                scan = word;
+            }
+        }
+        Set<Integer> found = new LinkedHashSet<>();
+        for (Map.Entry<String, Integer> entry : terms.tailMap(scan).entrySet()) {
+            if (found.size() >= limit || !entry.getKey().startsWith(scan)) {
+                break;
+            }
+            User user = users.get(entry.getValue());
+            if (user != null && matchesAll(user, words)) {
+                found.add(entry.getValue());
+            }
+        }
+        List<User> results = new ArrayList<>(found.size());
+        for (Integer id : found) {
+            User user = users.get(id);
+            if (user != null) {
+                results.add(user);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return the number of users in the directory
+     */
+    public int size() {
+        ensureLoaded();
+        return users.size();
+    }
+
+    /**
+     * Adds a user or replaces the entry with the same ID
+     * @param user the user; the password hash is not kept
+     */
+    public synchronized void put(User user) {
+        User entry = withoutPassword(user);
+        User old = users.put(entry.getId(), entry);
+        if (old != null) {
+            unindex(old);
+        }
+        index(entry);
+    }
+
+    /**
+     * Removes a user
+     * @param id the user ID
+     */
+    public synchronized void remove(int id) {
+        User old = users.remove(id);
+        if (old != null) {
+            unindex(old);
+        }
+    }
+
+    /**
+     * Reloads one user from the database, e.g. after the change feed reported it
+     * @param id the user ID
+     */
+    public void reload(int id) {
+        if (!loaded) {
+            return;
+        }
+        User user = userById.apply(id);
+        if (user != null) {
+            put(user);
+        } else {
+            remove(id);
+        }
+    }
+
+    /**
+     * Drops every entry so the directory is filled again on next use, e.g. after a bulk
+     * import whose new IDs are not known
+     */
+    public synchronized void invalidate() {
+        loaded = false;
+        users.clear();
+        terms.clear();
+        byUsername.clear();
+    }
+
+    private synchronized void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        long start = System.nanoTime();
+        int count = streamer.applyAsInt(this::put);
+        loaded = true;
+        logger.info("Indexed {} users in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private List<User> firstByUsername(int limit) {
+        List<User> results = new ArrayList<>(limit);
+        for (Integer id : byUsername.values()) {
+            if (results.size() >= limit) {
+                break;
+            }
+            User user = users.get(id);
+            if (user != null) {
+                results.add(user);
+            }
+        }
+        return results;
+    }
+
+    private static boolean matchesAll(User user, String[] words) {
+        List<String> userTerms = termsOf(user);
+        for (String word : words) {
+            boolean matched = false;
+            for (String term : userTerms) {
+                if (term.startsWith(word)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void index(User user) {
+        for (String term : termsOf(user)) {
+            terms.put(term + KEY_SEPARATOR + user.getId(), user.getId());
+        }
+        byUsername.put(lower(user.getUsername()) + KEY_SEPARATOR + user.getId(), user.getId());
+    }
+
+    private void unindex(User user) {
+        for (String term : termsOf(user)) {
+            terms.remove(term + KEY_SEPARATOR + user.getId());
+        }
+        byUsername.remove(lower(user.getUsername()) + KEY_SEPARATOR + user.getId());
+    }
+
+    static List<String> termsOf(User user) {
+        List<String> userTerms = new ArrayList<>();
+        addTerm(userTerms, user.getUsername());
+        addTerm(userTerms, user.getEmail());
+        if (user.getFullName() != null) {
+            for (String word : user.getFullName().split("\\s+")) {
+                addTerm(userTerms, word);
+            }
+        }
+        return userTerms;
+    }
+
+    private static void addTerm(List<String> userTerms, String value) {
+        String term = lower(value);
+        if (!term.isEmpty() && !userTerms.contains(term)) {
+            userTerms.add(term);
+        }
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static User withoutPassword(User user) {
+        if (user.getPassword() == null) {
+            return user;
+        }
+        User copy = new User(user.getId(), user.getUsername(), user.getFullName(), user.getEmail(),
+            null, user.isAdmin(), user.isActive(), user.getProfileId());
+        copy.setProfile(user.getProfile());
+        return copy;
+    }
+}
@@ -1,30 +1,51 @@
 package com.roombooking.view;
 
 import com.roombooking.controller.AuthController;
+import com.roombooking.controller.EquipmentController;
 import com.roombooking.controller.ReservationController;
 import com.roombooking.controller.RoomController;
+import com.roombooking.dao.UpdateResult;
+import com.roombooking.model.ChangeEvent;
 import com.roombooking.model.Reservation;
 import com.roombooking.model.Room;
 import com.roombooking.model.User;
+import com.roombooking.util.ChangeEventBus;
+import com.roombooking.util.IcsFeedWriter;
+import com.roombooking.util.ImportReport;
 import com.roombooking.util.ThemeManager;
 import com.roombooking.view.components.DashboardPanel;
 import com.roombooking.view.components.StatCard;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
+import java.io.File;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 /**
  * Dashboard for administrators
  */
 public class AdminDashboard extends DashboardPanel {
+    private static final int FALLBACK_REFRESH_MILLIS = 5 * 60 * 1000;
+    private static final int USER_RESULTS_LIMIT = 100;
+    
     private final ReservationController reservationController;
     private final RoomController roomController;
+    private final EquipmentController equipmentController;
     private final AuthController authController;
     
     private JTable reservationsTable;
@@ -33,7 +54,10 @@ public class AdminDashboard extends DashboardPanel {
     private DefaultTableModel reservationsModel;
     private DefaultTableModel roomsModel;
     private DefaultTableModel usersModel;
+    private JTextField userSearchField;
     private Timer refreshTimer;
+    private RoomTimelinePanel timelinePanel;
+    private ChangeEventBus.Subscription changeSubscription;
     
     // Dashboard stats
     private StatCard totalRoomsCard;
@@ -41,23 +65,30 @@ public class AdminDashboard extends DashboardPanel {
     private StatCard totalUsersCard;
     
     public AdminDashboard(User admin) {
-        super(admin);
+        this(admin, null);
+    }
+    
+    public AdminDashboard(User admin, String sessionToken) {
+        super(admin, sessionToken);
         
         this.reservationController = new ReservationController();
         this.roomController = new RoomController();
+        this.equipmentController = new EquipmentController();
         this.authController = new AuthController();
         
         setupNavigation();
         createDashboardPanel();
         createReservationsPanel();
         createRoomsPanel();
+        timelinePanel = new RoomTimelinePanel(reservationController, roomController);
+        addContentPanel(timelinePanel, "timeline");
         createUsersPanel();
         
         // Show dashboard panel initially
         showContentPanel("dashboard");
         
-        // Set up automatic refresh
-        setupRefreshTimer();
+        // Refresh when the change feed reports changes
+        setupLiveUpdates();
         
         // Initial data load
         refreshData();
@@ -67,6 +98,7 @@ public class AdminDashboard extends DashboardPanel {
         addNavigationItem("Dashboard", "dashboard.png", "dashboard");
         addNavigationItem("Reservations", "calendar.png", "reservations");
         addNavigationItem("Rooms", "room.png", "rooms");
+        addNavigationItem("Timeline", "calendar.png", "timeline");
         addNavigationItem("Users", "users.png", "users");
         addNavigationItem("Reports", "chart.png", "reports");
     }
@@ -171,6 +203,7 @@ public class AdminDashboard extends DashboardPanel {
         reservationsTable = new JTable(reservationsModel);
         reservationsTable.setRowHeight(30);
         reservationsTable.getTableHeader().setFont(ThemeManager.LABEL_FONT);
+        reservationsTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         
         // Add sorting capability
         TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<>(reservationsModel);
@@ -273,29 +306,28 @@ public class AdminDashboard extends DashboardPanel {
         JButton addButton = ThemeManager.createPrimaryButton("Add Room");
         JButton editButton = ThemeManager.createSecondaryButton("Edit Room");
         JButton deleteButton = ThemeManager.createDangerButton("Delete Room");
+        JButton importButton = ThemeManager.createSecondaryButton("Import CSV");
+        JButton exportButton = ThemeManager.createSecondaryButton("Export Calendar");
         
         addButton.addActionListener(e -> handleAddRoom());
         editButton.addActionListener(e -> handleEditRoom());
         deleteButton.addActionListener(e -> handleDeleteRoom());
+        importButton.addActionListener(e -> handleImportCatalog());
+        exportButton.addActionListener(e -> handleExportRoomCalendar());
         
         buttonsPanel.add(addButton);
         buttonsPanel.add(editButton);
         buttonsPanel.add(deleteButton);
+        buttonsPanel.add(importButton);
+        buttonsPanel.add(exportButton);
         
         roomsPanel.add(buttonsPanel, BorderLayout.SOUTH);
         
         // Add to content panel
         addContentPanel(roomsPanel, "rooms");
         
-        // Add search functionality
-        searchButton.addActionListener(e -> {
-            String searchText = searchField.getText().toLowerCase();
-            if (searchText.isEmpty()) {
-                sorter.setRowFilter(null);
-            } else {
-                sorter.setRowFilter(RowFilter.regexFilter("(?i)" + searchText));
-            }
-        });
+        // Search through the room index, e.g. "proj capacity>=20"
+        bindRoomSearch(searchField, searchButton, sorter, roomController::searchRooms);
     }
     
     private void createUsersPanel() {
@@ -312,11 +344,12 @@ public class AdminDashboard extends DashboardPanel {
         // Search field
         JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         searchPanel.setOpaque(false);
-        JTextField searchField = new JTextField(20);
-        searchField.setPreferredSize(new Dimension(200, 30));
+        userSearchField = new JTextField(20);
+        userSearchField.setPreferredSize(new Dimension(200, 30));
+        userSearchField.setToolTipText("Start of a username, email or name");
         JButton searchButton = ThemeManager.createSecondaryButton("Search");
         searchPanel.add(new JLabel("Search: "));
-        searchPanel.add(searchField);
+        searchPanel.add(userSearchField);
         searchPanel.add(searchButton);
         headerPanel.add(searchPanel, BorderLayout.EAST);
         
@@ -336,8 +369,7 @@ public class AdminDashboard extends DashboardPanel {
         usersTable.getTableHeader().setFont(ThemeManager.LABEL_FONT);
         
         // Add sorting capability
-        TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<>(usersModel);
-        usersTable.setRowSorter(sorter);
+        usersTable.setRowSorter(new TableRowSorter<>(usersModel));
         
         JScrollPane scrollPane = new JScrollPane(usersTable);
         JPanel tablePanel = ThemeManager.createCardPanel();
@@ -353,46 +385,113 @@ public class AdminDashboard extends DashboardPanel {
         JButton addButton = ThemeManager.createPrimaryButton("Add User");
         JButton editButton = ThemeManager.createSecondaryButton("Edit User");
         JButton toggleButton = ThemeManager.createDangerButton("Toggle Active");
+        JButton importButton = ThemeManager.createSecondaryButton("Import CSV");
         
         addButton.addActionListener(e -> handleAddUser());
         editButton.addActionListener(e -> handleEditUser());
         toggleButton.addActionListener(e -> handleToggleUserActive());
+        importButton.addActionListener(e -> runImport("users", authController::importUsers));
         
         buttonsPanel.add(addButton);
         buttonsPanel.add(editButton);
         buttonsPanel.add(toggleButton);
+        buttonsPanel.add(importButton);
         
         usersPanel.add(buttonsPanel, BorderLayout.SOUTH);
         
         // Add to content panel
         addContentPanel(usersPanel, "users");
         
-        // Add search functionality
-        searchButton.addActionListener(e -> {
-            String searchText = searchField.getText().toLowerCase();
-            if (searchText.isEmpty()) {
-                sorter.setRowFilter(null);
-            } else {
-                sorter.setRowFilter(RowFilter.regexFilter("(?i)" + searchText));
+        // Typeahead against the in-memory user directory, one lookup per keystroke
+        userSearchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchUsers();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchUsers();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchUsers();
             }
         });
+        searchButton.addActionListener(e -> searchUsers());
     }
     
-    private void setupRefreshTimer() {
-        refreshTimer = new Timer(30000, e -> refreshData());
+    private void searchUsers() {
+        String query = userSearchField.getText();
+        CompletableFuture.supplyAsync(() -> authController.searchUsers(query, USER_RESULTS_LIMIT))
+            .whenComplete((users, error) -> SwingUtilities.invokeLater(() -> {
+                if (error != null) {
+                    MainFrame.getInstance().setStatus("User search failed: " + error.getMessage());
+                } else if (query.equals(userSearchField.getText())) {
+                    // Results for text that has since changed are dropped
+                    showUsers(users);
+                }
+            }));
+    }
+    
+    private void setupLiveUpdates() {
+        // The timer is only a safety net in case the change feed is unavailable
+        refreshTimer = new Timer(FALLBACK_REFRESH_MILLIS, e -> refreshData());
         refreshTimer.start();
+        
+        changeSubscription = ChangeEventBus.getInstance().subscribe(
+            event -> true,
+            events -> SwingUtilities.invokeLater(() -> applyChanges(events)));
+    }
+    
+    private void applyChanges(List<ChangeEvent> events) {
+        boolean reservations = false;
+        boolean rooms = false;
+        boolean users = false;
+        for (ChangeEvent event : events) {
+            switch (event.getEntityType()) {
+                case RESERVATION:
+                    reservations = true;
+                    break;
+                case ROOM:
+                    rooms = true;
+                    break;
+                case USER:
+                    users = true;
+                    break;
+            }
+        }
+        if (reservations || rooms) {
+            timelinePanel.refresh(rooms);
+        }
+        refreshTimer.restart();
+        refreshData(reservations, rooms, users);
     }
     
     private void refreshData() {
+        refreshData(true, true, true);
+    }
+    
+    /**
+     * Reloads the selected tables and the dashboard stats in the background
+     */
+    private void refreshData(boolean reservations, boolean rooms, boolean users) {
         MainFrame.getInstance().setStatus("Refreshing data...");
         MainFrame.getInstance().showProgress(true);
         
         SwingWorker<Void, Void> worker = new SwingWorker<>() {
             @Override
             protected Void doInBackground() {
-                updateReservationsTable();
-                updateRoomsTable();
-                updateUsersTable();
+                if (reservations) {
+                    updateReservationsTable();
+                }
+                if (rooms) {
+                    updateRoomsTable();
+                }
+                if (users) {
+                    updateUsersTable();
+                }
                 updateDashboardStats();
                 return null;
             }
@@ -444,7 +543,11 @@ public class AdminDashboard extends DashboardPanel {
     }
     
     private void updateUsersTable() {
-        List<User> users = authController.getAllUsers();
+        List<User> users = authController.searchUsers(userSearchField.getText(), USER_RESULTS_LIMIT);
+        SwingUtilities.invokeLater(() -> showUsers(users));
+    }
+    
+    private void showUsers(List<User> users) {
         usersModel.setRowCount(0);
         
         for (User user : users) {
@@ -457,6 +560,10 @@ public class AdminDashboard extends DashboardPanel {
                 user.isActive() ? "Yes" : "No"
             });
         }
+        if (users.size() >= USER_RESULTS_LIMIT) {
+            MainFrame.getInstance().setStatus("Showing the first " + USER_RESULTS_LIMIT + " of "
+                + authController.countUsers() + " users; type to narrow the list");
+        }
     }
     
     private void updateDashboardStats() {
@@ -464,10 +571,10 @@ public class AdminDashboard extends DashboardPanel {
         int totalRooms = roomController.getAllRooms().size();
         totalRoomsCard.setValue(String.valueOf(totalRooms));
         
-        int activeReservations = reservationController.getActiveReservations().size();
+        int activeReservations = reservationController.countActiveReservations();
         activeReservationsCard.setValue(String.valueOf(activeReservations));
         
-        int totalUsers = authController.getAllUsers().size();
+        int totalUsers = authController.countUsers();
         totalUsersCard.setValue(String.valueOf(totalUsers));
     }
     
@@ -491,30 +598,15 @@ public class AdminDashboard extends DashboardPanel {
     }
     
     private void handleApproveReservation() {
-        int selectedRow = reservationsTable.getSelectedRow();
-        if (selectedRow == -1) {
-            JOptionPane.showMessageDialog(this,
-                "Please select a reservation to approve",
-                "No Selection",
-                JOptionPane.INFORMATION_MESSAGE);
-            return;
-        }
-        
-        int reservationId = (int) reservationsTable.getValueAt(
-            reservationsTable.convertRowIndexToModel(selectedRow), 0);
-        String status = (String) reservationsTable.getValueAt(
-            reservationsTable.convertRowIndexToModel(selectedRow), 5);
-            
-        if (!"PENDING".equals(status)) {
-            JOptionPane.showMessageDialog(this,
-                "Only pending reservations can be approved",
-                "Invalid Status",
-                JOptionPane.WARNING_MESSAGE);
+        List<Integer> pendingIds = getSelectedPendingReservationIds("approve", "approved");
+        if (pendingIds == null) {
             return;
         }
         
         int confirm = JOptionPane.showConfirmDialog(this,
-            "Are you sure you want to approve this reservation?",
+            pendingIds.size() == 1
+                ? "Are you sure you want to approve this reservation?"
+                : "Are you sure you want to approve " + pendingIds.size() + " reservations?",
             "Confirm Approval",
             JOptionPane.YES_NO_OPTION,
             JOptionPane.QUESTION_MESSAGE);
@@ -526,84 +618,209 @@ public class AdminDashboard extends DashboardPanel {
                 "Approval Comments",
                 JOptionPane.PLAIN_MESSAGE);
             
-            MainFrame.getInstance().showProgress(true);
-            MainFrame.getInstance().setStatus("Approving reservation...");
-            
-            try {
-                boolean success = reservationController.updateReservationStatus(
-                    reservationId, "APPROVED", comment);
-                if (success) {
-                    JOptionPane.showMessageDialog(this,
-                        "Reservation approved successfully",
-                        "Success",
-                        JOptionPane.INFORMATION_MESSAGE);
-                    refreshData();
-                } else {
-                    JOptionPane.showMessageDialog(this,
-                        "Failed to approve reservation",
-                        "Error",
-                        JOptionPane.ERROR_MESSAGE);
-                }
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this,
-                    "Error: " + e.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-            } finally {
-                MainFrame.getInstance().showProgress(false);
-                MainFrame.getInstance().setStatus("Ready");
-            }
+            runBulkStatusChange(pendingIds, "APPROVED", comment, "Approving", "approved");
         }
     }
     
     private void handleRejectReservation() {
-        int selectedRow = reservationsTable.getSelectedRow();
-        if (selectedRow == -1) {
-            JOptionPane.showMessageDialog(this,
-                "Please select a reservation to reject",
-                "No Selection",
-                JOptionPane.INFORMATION_MESSAGE);
+        List<Integer> pendingIds = getSelectedPendingReservationIds("reject", "rejected");
+        if (pendingIds == null) {
             return;
         }
         
-        int reservationId = (int) reservationsTable.getValueAt(
-            reservationsTable.convertRowIndexToModel(selectedRow), 0);
-        
         int confirm = JOptionPane.showConfirmDialog(this,
-            "Are you sure you want to reject this reservation?",
+            pendingIds.size() == 1
+                ? "Are you sure you want to reject this reservation?"
+                : "Are you sure you want to reject " + pendingIds.size() + " reservations?",
             "Confirm Rejection",
             JOptionPane.YES_NO_OPTION,
             JOptionPane.WARNING_MESSAGE);
         
         if (confirm == JOptionPane.YES_OPTION) {
-            MainFrame.getInstance().showProgress(true);
-            MainFrame.getInstance().setStatus("Rejecting reservation...");
+            runBulkStatusChange(pendingIds, "REJECTED", "Rejected by administrator", "Rejecting", "rejected");
+        }
+    }
+    
+    /**
+     * Collects the IDs of the selected reservations that are still pending
+     * @return the IDs, or null if nothing usable is selected (the user has been told why)
+     */
+    private List<Integer> getSelectedPendingReservationIds(String action, String doneVerb) {
+        int[] selectedRows = reservationsTable.getSelectedRows();
+        if (selectedRows.length == 0) {
+            JOptionPane.showMessageDialog(this,
+                "Please select a reservation to " + action,
+                "No Selection",
+                JOptionPane.INFORMATION_MESSAGE);
+            return null;
+        }
+        
+        List<Integer> pendingIds = new ArrayList<>();
+        for (int selectedRow : selectedRows) {
+            int modelRow = reservationsTable.convertRowIndexToModel(selectedRow);
+            if ("PENDING".equals(reservationsModel.getValueAt(modelRow, 5))) {
+                pendingIds.add((Integer) reservationsModel.getValueAt(modelRow, 0));
+            }
+        }
+        
+        if (pendingIds.isEmpty()) {
+            JOptionPane.showMessageDialog(this,
+                "Only pending reservations can be " + doneVerb,
+                "Invalid Status",
+                JOptionPane.WARNING_MESSAGE);
+            return null;
+        }
+        return pendingIds;
+    }
+    
+    private void handleExportRoomCalendar() {
+        int selectedRow = roomsTable.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this,
+                "Please select a room to export",
+                "No Selection",
+                JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        int modelRow = roomsTable.convertRowIndexToModel(selectedRow);
+        int roomId = (int) roomsModel.getValueAt(modelRow, 0);
+        String roomName = (String) roomsModel.getValueAt(modelRow, 1);
+        exportCalendar(IcsFeedWriter.Feed.room(roomId), roomName, reservationController);
+    }
+    
+    private void handleImportCatalog() {
+        String[] options = {"Rooms", "Equipment", "Cancel"};
+        int choice = JOptionPane.showOptionDialog(this,
+            "What does the file contain?",
+            "Import CSV",
+            JOptionPane.DEFAULT_OPTION,
+            JOptionPane.QUESTION_MESSAGE,
+            null,
+            options,
+            options[0]);
+        if (choice == 0) {
+            runImport("rooms", roomController::importRooms);
+        } else if (choice == 1) {
+            runImport("equipment", equipmentController::importEquipment);
+        }
+    }
+    
+    private void runImport(String entity, Function<Reader, ImportReport> importer) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import " + entity);
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV files", "csv"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        
+        MainFrame.getInstance().showProgress(true);
+        MainFrame.getInstance().setStatus("Importing " + entity + " from " + file.getName() + "...");
+        
+        SwingWorker<ImportReport, Void> worker = new SwingWorker<>() {
+            @Override
+            protected ImportReport doInBackground() throws Exception {
+                return importer.apply(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8));
+            }
             
-            try {
-                boolean success = reservationController.updateReservationStatus(
-                    reservationId, "REJECTED", "Rejected by administrator");
-                if (success) {
-                    JOptionPane.showMessageDialog(this,
-                        "Reservation rejected successfully",
-                        "Success",
-                        JOptionPane.INFORMATION_MESSAGE);
+            @Override
+            protected void done() {
+                MainFrame.getInstance().showProgress(false);
+                MainFrame.getInstance().setStatus("Ready");
+                try {
+                    ImportReport report = get();
                     refreshData();
-                } else {
-                    JOptionPane.showMessageDialog(this,
-                        "Failed to reject reservation",
-                        "Error",
+                    if (report.getFailed() == 0) {
+                        JOptionPane.showMessageDialog(AdminDashboard.this,
+                            report.getSummary(),
+                            "Import Complete",
+                            JOptionPane.INFORMATION_MESSAGE);
+                        return;
+                    }
+                    StringBuilder message = new StringBuilder(report.getSummary()).append("\n");
+                    report.getErrors().stream().limit(5).forEach(error ->
+                        message.append("\nLine ").append(error.getLine()).append(": ").append(error.getMessage()));
+                    message.append("\n\nSave the list of failed rows?");
+                    int save = JOptionPane.showConfirmDialog(AdminDashboard.this,
+                        message.toString(),
+                        "Import Finished With Errors",
+                        JOptionPane.YES_NO_OPTION,
+                        JOptionPane.WARNING_MESSAGE);
+                    if (save == JOptionPane.YES_OPTION) {
+                        saveImportErrors(report, file);
+                    }
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(AdminDashboard.this,
+                        "Error: " + cause.getMessage(),
+                        "Import Failed",
                         JOptionPane.ERROR_MESSAGE);
                 }
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this,
-                    "Error: " + e.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-            } finally {
+            }
+        };
+        worker.execute();
+    }
+    
+    private void saveImportErrors(ImportReport report, File source) {
+        JFileChooser chooser = new JFileChooser(source.getParentFile());
+        chooser.setSelectedFile(new File(source.getParentFile(), source.getName().replaceFirst("\\.csv$", "") + "-errors.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try (Writer out = Files.newBufferedWriter(chooser.getSelectedFile().toPath(), StandardCharsets.UTF_8)) {
+            report.writeErrors(out);
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this,
+                "Error: " + e.getMessage(),
+                "Save Failed",
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    private void runBulkStatusChange(List<Integer> reservationIds, String status, String comment,
+                                     String progressVerb, String doneVerb) {
+        MainFrame.getInstance().showProgress(true);
+        MainFrame.getInstance().setStatus(progressVerb + " " + reservationIds.size() + " reservation(s)...");
+        
+        SwingWorker<ReservationController.BatchStatusResult, Void> worker = new SwingWorker<>() {
+            @Override
+            protected ReservationController.BatchStatusResult doInBackground() {
+                return reservationController.updatePendingReservationStatuses(reservationIds, status, comment);
+            }
+            
+            @Override
+            protected void done() {
                 MainFrame.getInstance().showProgress(false);
                 MainFrame.getInstance().setStatus("Ready");
+                try {
+                    ReservationController.BatchStatusResult result = get();
+                    StringBuilder message = new StringBuilder();
+                    message.append(result.getUpdatedIds().size()).append(" reservation(s) ").append(doneVerb);
+                    if (!result.getConflictIds().isEmpty()) {
+                        message.append("\n").append(result.getConflictIds().size())
+                            .append(" not approved because the room is already booked: ")
+                            .append(result.getConflictIds());
+                    }
+                    if (!result.getSkippedIds().isEmpty()) {
+                        message.append("\n").append(result.getSkippedIds().size())
+                            .append(" skipped because they are no longer pending: ")
+                            .append(result.getSkippedIds());
+                    }
+                    JOptionPane.showMessageDialog(AdminDashboard.this,
+                        message.toString(),
+                        result.getUpdatedIds().isEmpty() ? "Nothing Updated" : "Success",
+                        result.getUpdatedIds().isEmpty() ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+                    refreshData();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(AdminDashboard.this,
+                        "Error: " + cause.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                }
             }
-        }
+        };
+        worker.execute();
     }
     
     private void handleCancelReservation() {
@@ -630,13 +847,22 @@ public class AdminDashboard extends DashboardPanel {
             MainFrame.getInstance().setStatus("Cancelling reservation...");
             
             try {
-                boolean success = reservationController.cancelReservation(reservationId);
-                if (success) {
+                UpdateResult result = reservationController.cancelReservation(reservationId);
+                if (result == UpdateResult.UPDATED) {
                     JOptionPane.showMessageDialog(this,
                         "Reservation cancelled successfully",
                         "Success",
                         JOptionPane.INFORMATION_MESSAGE);
                     refreshData();
+                } else if (result == UpdateResult.CONFLICT || result == UpdateResult.NOT_FOUND) {
+                    // Someone else got there first; show them what the reservation looks like now
+                    JOptionPane.showMessageDialog(this,
+                        result == UpdateResult.NOT_FOUND
+                            ? "This reservation no longer exists."
+                            : "This reservation was changed by someone else and can no longer be cancelled.",
+                        "Reservation Changed",
+                        JOptionPane.WARNING_MESSAGE);
+                    refreshData();
                 } else {
                     JOptionPane.showMessageDialog(this,
                         "Failed to cancel reservation",
@@ -1063,5 +1289,8 @@ public class AdminDashboard extends DashboardPanel {
         if (refreshTimer != null) {
             refreshTimer.stop();
         }
+        if (changeSubscription != null) {
+            changeSubscription.cancel();
+        }
     }
 } 
\ No newline at end of file
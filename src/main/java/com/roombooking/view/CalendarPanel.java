@@ -2,29 +2,34 @@ package com.roombooking.view;
 
 import com.roombooking.controller.ReservationController;
 import com.roombooking.model.Reservation;
+import com.roombooking.view.components.CalendarGrid;
 import javax.swing.*;
 import java.awt.*;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 public class CalendarPanel extends JPanel {
-    private static final Color HEADER_COLOR = new Color(41, 128, 185);
     private static final Color TODAY_COLOR = new Color(52, 152, 219);
-    private static final Color WEEKEND_COLOR = new Color(236, 240, 241);
     private static final Color RESERVATION_COLOR = new Color(46, 204, 113, 128);
+    private static final Color PENDING_COLOR = new Color(255, 193, 7, 170);
+    private static final int WORKDAY_START_HOUR = 8;
     
     private final ReservationController reservationController;
     private LocalDate currentDate;
     private JLabel monthLabel;
-    private JPanel calendarGrid;
-    private List<Reservation> monthReservations;
+    private JLabel loadingLabel;
+    private JToggleButton weekToggle;
+    private CalendarGrid calendarGrid;
+    private JScrollPane gridScrollPane;
     
     public CalendarPanel(ReservationController controller) {
         this.reservationController = controller;
@@ -45,31 +50,72 @@ public class CalendarPanel extends JPanel {
         monthLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
         
         prevButton.addActionListener(e -> {
-            currentDate = currentDate.minusMonths(1);
+            currentDate = isWeekView() ? currentDate.minusWeeks(1) : currentDate.minusMonths(1);
             updateCalendar();
         });
         
         nextButton.addActionListener(e -> {
-            currentDate = currentDate.plusMonths(1);
+            currentDate = isWeekView() ? currentDate.plusWeeks(1) : currentDate.plusMonths(1);
             updateCalendar();
         });
         
+        JToggleButton monthToggle = new JToggleButton("Month", true);
+        weekToggle = new JToggleButton("Week");
+        ButtonGroup viewGroup = new ButtonGroup();
+        viewGroup.add(monthToggle);
+        viewGroup.add(weekToggle);
+        monthToggle.addActionListener(e -> updateCalendar());
+        weekToggle.addActionListener(e -> {
+            updateCalendar();
+            SwingUtilities.invokeLater(() ->
+                gridScrollPane.getVerticalScrollBar().setValue(calendarGrid.hourY(WORKDAY_START_HOUR)));
+        });
+        
         navigationPanel.add(prevButton);
         navigationPanel.add(monthLabel);
         navigationPanel.add(nextButton);
+        navigationPanel.add(Box.createHorizontalStrut(20));
+        navigationPanel.add(monthToggle);
+        navigationPanel.add(weekToggle);
+        
+        loadingLabel = new JLabel("Loading...");
+        loadingLabel.setFont(new Font("Segoe UI", Font.ITALIC, 12));
+        loadingLabel.setForeground(Color.GRAY);
+        loadingLabel.setVisible(false);
+        navigationPanel.add(loadingLabel);
         add(navigationPanel, BorderLayout.NORTH);
         
         // Calendar Grid
-        calendarGrid = new JPanel(new GridLayout(0, 7, 2, 2));
-        add(new JScrollPane(calendarGrid), BorderLayout.CENTER);
+        calendarGrid = new CalendarGrid();
+        calendarGrid.setListener(new CalendarGrid.Listener() {
+            @Override
+            public void dayClicked(LocalDate date, List<Reservation> reservations) {
+                if (!reservations.isEmpty()) {
+                    showDayDetails(date, reservations);
+                }
+            }
+            
+            @Override
+            public void reservationClicked(Reservation reservation) {
+                new ReservationDetailsDialog((Frame) SwingUtilities.getWindowAncestor(CalendarPanel.this),
+                    reservation).setVisible(true);
+            }
+        });
+        gridScrollPane = new JScrollPane(calendarGrid);
+        add(gridScrollPane, BorderLayout.CENTER);
         
         // Legend Panel
         JPanel legendPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        JLabel reservationLabel = new JLabel("Reservations");
+        JLabel reservationLabel = new JLabel("Approved");
         reservationLabel.setOpaque(true);
         reservationLabel.setBackground(RESERVATION_COLOR);
         reservationLabel.setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
         
+        JLabel pendingLabel = new JLabel("Pending");
+        pendingLabel.setOpaque(true);
+        pendingLabel.setBackground(PENDING_COLOR);
+        pendingLabel.setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
+        
         JLabel todayLabel = new JLabel("Today");
         todayLabel.setOpaque(true);
         todayLabel.setBackground(TODAY_COLOR);
@@ -78,101 +124,91 @@ public class CalendarPanel extends JPanel {
         
         legendPanel.add(reservationLabel);
         legendPanel.add(Box.createHorizontalStrut(10));
+        legendPanel.add(pendingLabel);
+        legendPanel.add(Box.createHorizontalStrut(10));
         legendPanel.add(todayLabel);
         add(legendPanel, BorderLayout.SOUTH);
     }
     
+    private boolean isWeekView() {
+        return weekToggle.isSelected();
+    }
+    
+    /**
+     * Drops cached data and reloads the month or week being shown
+     */
+    public void refresh() {
+        reservationController.invalidateCalendar();
+        updateCalendar();
+    }
+    
     private void updateCalendar() {
-        monthLabel.setText(currentDate.format(DateTimeFormatter.ofPattern("MMMM yyyy")));
-        calendarGrid.removeAll();
-        
-        // Add day headers
-        String[] dayNames = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
-        for (String dayName : dayNames) {
-            JLabel label = new JLabel(dayName, SwingConstants.CENTER);
-            label.setForeground(Color.WHITE);
-            label.setBackground(HEADER_COLOR);
-            label.setOpaque(true);
-            label.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
-            calendarGrid.add(label);
+        boolean weekView = isWeekView();
+        LocalDate weekStart = currentDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+        LocalDate weekEnd = weekStart.plusDays(6);
+        // A week can straddle two months; both come from the month cache
+        YearMonth firstMonth = weekView ? YearMonth.from(weekStart) : YearMonth.from(currentDate);
+        YearMonth lastMonth = weekView ? YearMonth.from(weekEnd) : firstMonth;
+        
+        if (weekView) {
+            monthLabel.setText(weekStart.format(DateTimeFormatter.ofPattern("MMM d")) + " - "
+                + weekEnd.format(DateTimeFormatter.ofPattern("MMM d, yyyy")));
+        } else {
+            monthLabel.setText(currentDate.format(DateTimeFormatter.ofPattern("MMMM yyyy")));
         }
         
-        // Get reservations for the month
-        LocalDateTime monthStart = currentDate.withDayOfMonth(1).atStartOfDay();
-        LocalDateTime monthEnd = currentDate.with(TemporalAdjusters.lastDayOfMonth()).atTime(23, 59, 59);
-        monthReservations = reservationController.getReservationsInRange(monthStart, monthEnd);
-        
-        // Group reservations by date
-        Map<LocalDate, List<Reservation>> reservationsByDate = monthReservations.stream()
-            .collect(Collectors.groupingBy(r -> r.getStartTime().toLocalDate()));
-        
-        // Add calendar days
-        YearMonth yearMonth = YearMonth.from(currentDate);
-        LocalDate firstOfMonth = yearMonth.atDay(1);
-        int dayOfWeek = firstOfMonth.getDayOfWeek().getValue() % 7;
-        
-        // Add empty cells before first day
-        for (int i = 0; i < dayOfWeek; i++) {
-            calendarGrid.add(new JPanel());
+        List<Reservation> first = reservationController.getLoadedMonthReservations(firstMonth);
+        List<Reservation> last = reservationController.getLoadedMonthReservations(lastMonth);
+        if (first != null && last != null) {
+            loadingLabel.setVisible(false);
+            render(weekView, merge(first, last));
+        } else {
+            // Show the empty grid straight away and fill it in when the data arrives
+            loadingLabel.setText("Loading...");
+            loadingLabel.setVisible(true);
+            render(weekView, Collections.emptyList());
+            LocalDate shownDate = currentDate;
+            CompletableFuture<List<Reservation>> firstFuture = reservationController.getMonthReservations(firstMonth);
+            CompletableFuture<List<Reservation>> lastFuture = reservationController.getMonthReservations(lastMonth);
+            firstFuture.thenCombine(lastFuture, CalendarPanel::merge).whenComplete((reservations, error) ->
+                SwingUtilities.invokeLater(() -> {
+                    if (!shownDate.equals(currentDate) || weekView != isWeekView()) {
+                        return; // The user has already moved on
+                    }
+                    if (error != null) {
+                        loadingLabel.setText("Failed to load reservations");
+                        return;
+                    }
+                    loadingLabel.setVisible(false);
+                    render(weekView, reservations);
+                }));
         }
         
-        // Add days with reservations
-        for (int i = 1; i <= yearMonth.lengthOfMonth(); i++) {
-            LocalDate date = yearMonth.atDay(i);
-            DayPanel dayPanel = new DayPanel(date, reservationsByDate.get(date));
-            
-            if (date.equals(LocalDate.now())) {
-                dayPanel.setBackground(TODAY_COLOR);
-                dayPanel.setForeground(Color.WHITE);
-            } else if (date.getDayOfWeek() == DayOfWeek.SATURDAY || 
-                      date.getDayOfWeek() == DayOfWeek.SUNDAY) {
-                dayPanel.setBackground(WEEKEND_COLOR);
-            }
-            
-            calendarGrid.add(dayPanel);
+        reservationController.prefetchMonthsAround(firstMonth);
+    }
+    
+    private void render(boolean weekView, List<Reservation> reservations) {
+        if (weekView) {
+            calendarGrid.setWeek(currentDate, reservations);
+        } else {
+            calendarGrid.setMonth(YearMonth.from(currentDate), reservations);
         }
-        
-        revalidate();
-        repaint();
+        gridScrollPane.revalidate();
     }
     
-    private class DayPanel extends JPanel {
-        public DayPanel(LocalDate date, List<Reservation> reservations) {
-            setLayout(new BorderLayout());
-            setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
-            setPreferredSize(new Dimension(100, 80));
-            
-            // Day number
-            JLabel dayLabel = new JLabel(String.valueOf(date.getDayOfMonth()));
-            dayLabel.setBorder(BorderFactory.createEmptyBorder(2, 4, 2, 4));
-            add(dayLabel, BorderLayout.NORTH);
-            
-            // Reservations
-            if (reservations != null && !reservations.isEmpty()) {
-                JPanel reservationsPanel = new JPanel();
-                reservationsPanel.setLayout(new BoxLayout(reservationsPanel, BoxLayout.Y_AXIS));
-                reservationsPanel.setBackground(RESERVATION_COLOR);
-                
-                for (Reservation reservation : reservations) {
-                    String time = reservation.getStartTime().format(DateTimeFormatter.ofPattern("HH:mm"));
-                    JLabel resLabel = new JLabel(time + " - " + reservation.getSubject());
-                    resLabel.setFont(new Font("Segoe UI", Font.PLAIN, 10));
-                    reservationsPanel.add(resLabel);
-                }
-                
-                add(reservationsPanel, BorderLayout.CENTER);
-            }
-            
-            // Mouse listener for showing details
-            addMouseListener(new java.awt.event.MouseAdapter() {
-                @Override
-                public void mouseClicked(java.awt.event.MouseEvent evt) {
-                    if (reservations != null && !reservations.isEmpty()) {
-                        showDayDetails(date, reservations);
-                    }
-                }
-            });
+    private static List<Reservation> merge(List<Reservation> first, List<Reservation> second) {
+        if (first == second) {
+            return first;
+        }
+        // Reservations crossing the month boundary are in both lists
+        Map<Integer, Reservation> byId = new LinkedHashMap<>();
+        for (Reservation reservation : first) {
+            byId.put(reservation.getId(), reservation);
+        }
+        for (Reservation reservation : second) {
+            byId.putIfAbsent(reservation.getId(), reservation);
         }
+        return new ArrayList<>(byId.values());
     }
     
     private void showDayDetails(LocalDate date, List<Reservation> reservations) {
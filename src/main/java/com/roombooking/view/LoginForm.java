@@ -156,7 +156,7 @@ public class LoginForm extends BaseForm {
             return;
         }
         
-        User user = authController.login(username, password);
+        User user = authController.login(username, password, AuthController.clientSource());
         if (user != null) {
             if (!user.isActive()) {
                 showError("Your account has been deactivated. Please contact an administrator.");
@@ -2,10 +2,13 @@ package com.roombooking.view;
 
 import com.roombooking.controller.AuthController;
 import com.roombooking.model.User;
+import com.roombooking.util.RateLimitExceededException;
 import com.roombooking.util.ThemeManager;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 public class LoginPanel extends JPanel {
     private final JTextField usernameField;
@@ -120,6 +123,10 @@ public class LoginPanel extends JPanel {
     }
 
     private void handleLogin(ActionEvent e) {
+        // The Enter key still fires while a login is in flight
+        if (!loginButton.isEnabled()) {
+            return;
+        }
         String username = usernameField.getText().trim();
         String password = new String(passwordField.getPassword());
 
@@ -136,9 +143,36 @@ public class LoginPanel extends JPanel {
         MainFrame.getInstance().showProgress(true);
         MainFrame.getInstance().setStatus("Logging in...");
 
+        // BCrypt and the user lookup run on the authentication pool, not the EDT
+        authController.loginAsync(username, password, AuthController.clientSource())
+            .whenComplete((user, error) -> SwingUtilities.invokeLater(() -> finishLogin(user, error)));
+    }
+
+    private void finishLogin(User user, Throwable error) {
         try {
-            User user = authController.login(username, password);
-            if (user != null) {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof RateLimitExceededException) {
+                    JOptionPane.showMessageDialog(this,
+                        "Too many login attempts. Please try again in "
+                            + ((RateLimitExceededException) cause).getRetryAfterSeconds() + " seconds.",
+                        "Login Limited",
+                        JOptionPane.WARNING_MESSAGE);
+                    MainFrame.getInstance().setStatus("Login attempts limited");
+                } else if (cause instanceof RejectedExecutionException) {
+                    JOptionPane.showMessageDialog(this,
+                        "The server is busy signing other users in. Please try again in a moment.",
+                        "Login Busy",
+                        JOptionPane.WARNING_MESSAGE);
+                    MainFrame.getInstance().setStatus("Login busy");
+                } else {
+                    JOptionPane.showMessageDialog(this,
+                        "An error occurred during login: " + cause.getMessage(),
+                        "Login Error",
+                        JOptionPane.ERROR_MESSAGE);
+                    MainFrame.getInstance().setStatus("Error: " + cause.getMessage());
+                }
+            } else if (user != null) {
                 if (!user.isActive()) {
                     JOptionPane.showMessageDialog(this,
                         "Your account has been deactivated. Please contact an administrator.",
@@ -147,10 +181,11 @@ public class LoginPanel extends JPanel {
                     return;
                 }
                 
+                String sessionToken = authController.startSession(user);
                 if (user.isAdmin()) {
-                    MainFrame.getInstance().showPanel("admin", new AdminDashboard(user));
+                    MainFrame.getInstance().showPanel("admin", new AdminDashboard(user, sessionToken));
                 } else {
-                    MainFrame.getInstance().showPanel("user", new UserDashboard(user));
+                    MainFrame.getInstance().showPanel("user", new UserDashboard(user, sessionToken));
                 }
                 MainFrame.getInstance().setStatus("Logged in as " + user.getUsername());
             } else {
@@ -160,12 +195,6 @@ public class LoginPanel extends JPanel {
                     JOptionPane.ERROR_MESSAGE);
                 MainFrame.getInstance().setStatus("Login failed");
             }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this,
-                "An error occurred during login: " + ex.getMessage(),
-                "Login Error",
-                JOptionPane.ERROR_MESSAGE);
-            MainFrame.getInstance().setStatus("Error: " + ex.getMessage());
         } finally {
             setCursor(Cursor.getDefaultCursor());
             loginButton.setEnabled(true);
@@ -5,6 +5,8 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 public class RegistrationDialog extends JDialog {
     private final JTextField usernameField;
@@ -12,6 +14,7 @@ public class RegistrationDialog extends JDialog {
     private final JTextField emailField;
     private final JPasswordField passwordField;
     private final JPasswordField confirmPasswordField;
+    private final JButton registerButton;
     private boolean registrationSuccessful = false;
     private String registeredUsername = "";
     private final AuthController authController;
@@ -69,7 +72,7 @@ public class RegistrationDialog extends JDialog {
 
         // Buttons panel
         JPanel buttonsPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-        JButton registerButton = new JButton("Register");
+        registerButton = new JButton("Register");
         JButton cancelButton = new JButton("Cancel");
 
         registerButton.addActionListener(e -> handleRegistration());
@@ -130,24 +133,37 @@ public class RegistrationDialog extends JDialog {
             return;
         }
 
-        try {
-            if (authController.registerUser(username, fullName, email, password)) {
-                registrationSuccessful = true;
-                registeredUsername = username;
-                JOptionPane.showMessageDialog(this,
-                    "Registration successful! You can now login.",
-                    "Registration Success",
-                    JOptionPane.INFORMATION_MESSAGE);
-                dispose();
-            } else {
-                JOptionPane.showMessageDialog(this,
-                    "Username already exists",
-                    "Registration Error",
-                    JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (Exception e) {
+        // Hashing the password runs on the authentication pool, not the EDT
+        registerButton.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        authController.registerUserAsync(username, fullName, email, password)
+            .whenComplete((registered, error) -> SwingUtilities.invokeLater(() ->
+                finishRegistration(username, registered, error)));
+    }
+
+    private void finishRegistration(String username, Boolean registered, Throwable error) {
+        registerButton.setEnabled(true);
+        setCursor(Cursor.getDefaultCursor());
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            String message = cause instanceof RejectedExecutionException
+                ? "The server is busy. Please try again in a moment."
+                : "Error during registration: " + cause.getMessage();
+            JOptionPane.showMessageDialog(this,
+                message,
+                "Registration Error",
+                JOptionPane.ERROR_MESSAGE);
+        } else if (registered) {
+            registrationSuccessful = true;
+            registeredUsername = username;
+            JOptionPane.showMessageDialog(this,
+                "Registration successful! You can now login.",
+                "Registration Success",
+                JOptionPane.INFORMATION_MESSAGE);
+            dispose();
+        } else {
             JOptionPane.showMessageDialog(this,
-                "Error during registration: " + e.getMessage(),
+                "Username already exists",
                 "Registration Error",
                 JOptionPane.ERROR_MESSAGE);
         }
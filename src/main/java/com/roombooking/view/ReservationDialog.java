@@ -4,6 +4,7 @@ import com.roombooking.controller.EquipmentController;
 import com.roombooking.controller.ReservationController;
 import com.roombooking.controller.RoomController;
 import com.roombooking.model.Equipment;
+import com.roombooking.model.Participant;
 import com.roombooking.model.Room;
 import com.roombooking.model.User;
 
@@ -26,6 +27,7 @@ public class ReservationDialog extends JDialog {
     private JSpinner durationSpinner;
     private JTextField subjectField;
     private JList<Equipment> equipmentList;
+    private JTextArea participantsArea;
     private boolean reservationCreated = false;
 
     public ReservationDialog(Frame parent, User user) {
@@ -118,6 +120,18 @@ public class ReservationDialog extends JDialog {
         equipmentScrollPane.setPreferredSize(new Dimension(200, 100));
         formPanel.add(equipmentScrollPane, gbc);
 
+        // Participants
+        gbc.gridx = 0;
+        gbc.gridy = 7;
+        gbc.gridheight = 1;
+        formPanel.add(new JLabel("Participants:"), gbc);
+
+        gbc.gridx = 1;
+        participantsArea = new JTextArea(4, 20);
+        participantsArea.setLineWrap(true);
+        participantsArea.setToolTipText("Email addresses separated by commas or new lines, e.g. Jane Doe <jane@example.com>");
+        formPanel.add(new JScrollPane(participantsArea), gbc);
+
         add(formPanel, BorderLayout.CENTER);
 
         // Buttons panel
@@ -152,6 +166,17 @@ public class ReservationDialog extends JDialog {
             return;
         }
 
+        List<Participant> participants;
+        try {
+            participants = reservationController.parseParticipants(participantsArea.getText());
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this,
+                e.getMessage(),
+                "Validation Error",
+                JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
         // Get selected equipment
         List<Equipment> selectedEquipment = equipmentList.getSelectedValuesList();
 
@@ -210,7 +235,8 @@ public class ReservationDialog extends JDialog {
                 startTime,
                 duration,
                 subject,
-                equipmentIds
+                equipmentIds,
+                participants
             );
 
             if (success) {
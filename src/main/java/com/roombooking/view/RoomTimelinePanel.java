@@ -0,0 +1,133 @@
+package com.roombooking.view;
+
+import com.roombooking.controller.ReservationController;
+import com.roombooking.controller.RoomController;
+import com.roombooking.model.Room;
+import com.roombooking.util.ThemeManager;
+import com.roombooking.view.components.TimelineView;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * All rooms side by side on a scrollable timeline
+ */
+public class RoomTimelinePanel extends JPanel {
+    private static final String[] ZOOM_LEVELS = {"Day", "Week", "Month"};
+    private static final double[] PIXELS_PER_HOUR = {60, 12, 3};
+    private static final int YEARS_BACK = 2;
+    private static final int YEARS_AHEAD = 1;
+
+    private final RoomController roomController;
+    private final TimelineView timeline;
+    private final JScrollPane scrollPane;
+
+    public RoomTimelinePanel(ReservationController reservationController, RoomController roomController) {
+        this.roomController = roomController;
+        LocalDate today = LocalDate.now();
+        this.timeline = new TimelineView(reservationController::getTimelineReservations,
+            today.minusYears(YEARS_BACK), today.plusYears(YEARS_AHEAD));
+        timeline.setReservationListener(reservation ->
+            new ReservationDetailsDialog((Frame) SwingUtilities.getWindowAncestor(this), reservation).setVisible(true));
+
+        setLayout(new BorderLayout(0, 15));
+        setOpaque(false);
+
+        // Header with zoom and navigation controls
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setOpaque(false);
+        headerPanel.add(ThemeManager.createHeaderLabel("Room Timeline"), BorderLayout.WEST);
+
+        JPanel controlsPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
+        controlsPanel.setOpaque(false);
+        JComboBox<String> zoomCombo = new JComboBox<>(ZOOM_LEVELS);
+        zoomCombo.setSelectedIndex(1);
+        zoomCombo.setFont(ThemeManager.LABEL_FONT);
+        JButton todayButton = ThemeManager.createSecondaryButton("Today");
+        JButton refreshButton = ThemeManager.createSecondaryButton("Refresh");
+        controlsPanel.add(new JLabel("Zoom:"));
+        controlsPanel.add(zoomCombo);
+        controlsPanel.add(todayButton);
+        controlsPanel.add(refreshButton);
+        headerPanel.add(controlsPanel, BorderLayout.EAST);
+        add(headerPanel, BorderLayout.NORTH);
+
+        // Timeline
+        scrollPane = new JScrollPane(timeline);
+        scrollPane.setRowHeaderView(timeline.getRowHeader());
+        scrollPane.setColumnHeaderView(timeline.getColumnHeader());
+        scrollPane.getViewport().addChangeListener(e -> timeline.requestVisibleTiles());
+
+        JPanel timelineCard = ThemeManager.createCardPanel();
+        timelineCard.setLayout(new BorderLayout());
+        timelineCard.setBorder(new EmptyBorder(0, 0, 0, 0));
+        timelineCard.add(scrollPane, BorderLayout.CENTER);
+        add(timelineCard, BorderLayout.CENTER);
+
+        zoomCombo.addActionListener(e -> {
+            LocalDateTime center = visibleCenter();
+            timeline.setPixelsPerHour(PIXELS_PER_HOUR[zoomCombo.getSelectedIndex()]);
+            SwingUtilities.invokeLater(() -> scrollTo(center));
+        });
+        todayButton.addActionListener(e -> scrollTo(LocalDateTime.now()));
+        refreshButton.addActionListener(e -> refresh(true));
+
+        loadRooms();
+    }
+
+    /**
+     * Reloads the visible reservations, and the room rows if rooms changed
+     * @param reloadRooms whether to reload the list of rooms as well
+     */
+    public void refresh(boolean reloadRooms) {
+        if (reloadRooms) {
+            loadRooms();
+        }
+        timeline.refresh();
+    }
+
+    private LocalDateTime visibleCenter() {
+        Rectangle visible = scrollPane.getViewport().getViewRect();
+        return timeline.timeAt(visible.x + visible.width / 2);
+    }
+
+    private void scrollTo(LocalDateTime center) {
+        JViewport viewport = scrollPane.getViewport();
+        int x = Math.max(0, timeline.xAt(center) - viewport.getWidth() / 2);
+        viewport.setViewPosition(new Point(x, viewport.getViewPosition().y));
+    }
+
+    private void loadRooms() {
+        SwingWorker<List<Room>, Void> worker = new SwingWorker<>() {
+            @Override
+            protected List<Room> doInBackground() {
+                List<Room> rooms = roomController.getAllRooms();
+                rooms.sort(Comparator.comparing(Room::getName, String.CASE_INSENSITIVE_ORDER));
+                return rooms;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    boolean first = scrollPane.getViewport().getViewPosition().x == 0;
+                    timeline.setRooms(get());
+                    if (first) {
+                        SwingUtilities.invokeLater(() -> scrollTo(LocalDateTime.now()));
+                    }
+                    timeline.requestVisibleTiles();
+                } catch (Exception e) {
+                    JOptionPane.showMessageDialog(RoomTimelinePanel.this,
+                        "Error loading rooms: " + e.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.execute();
+    }
+}
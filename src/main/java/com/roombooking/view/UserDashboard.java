@@ -2,9 +2,14 @@ package com.roombooking.view;
 
 import com.roombooking.controller.ReservationController;
 import com.roombooking.controller.RoomController;
+import com.roombooking.dao.UpdateResult;
+import com.roombooking.model.ChangeEvent;
 import com.roombooking.model.Reservation;
 import com.roombooking.model.Room;
 import com.roombooking.model.User;
+import com.roombooking.model.UserReservationSnapshot;
+import com.roombooking.util.ChangeEventBus;
+import com.roombooking.util.IcsFeedWriter;
 import com.roombooking.util.ThemeManager;
 import com.roombooking.view.components.DashboardPanel;
 import com.roombooking.view.components.StatCard;
@@ -25,6 +30,7 @@ import java.util.List;
  */
 public class UserDashboard extends DashboardPanel {
     private static final Logger logger = LoggerFactory.getLogger(UserDashboard.class);
+    private static final int FALLBACK_REFRESH_MILLIS = 5 * 60 * 1000;
     
     private final ReservationController reservationController;
     private final RoomController roomController;
@@ -33,6 +39,8 @@ public class UserDashboard extends DashboardPanel {
     private DefaultTableModel reservationsModel;
     private DefaultTableModel roomsModel;
     private Timer refreshTimer;
+    private CalendarPanel calendarView;
+    private ChangeEventBus.Subscription changeSubscription;
     
     // Dashboard stats
     private StatCard activeReservationsCard;
@@ -40,7 +48,11 @@ public class UserDashboard extends DashboardPanel {
     private StatCard availableRoomsCard;
 
     public UserDashboard(User user) {
-        super(user);
+        this(user, null);
+    }
+    
+    public UserDashboard(User user, String sessionToken) {
+        super(user, sessionToken);
         
         this.reservationController = new ReservationController();
         this.roomController = new RoomController();
@@ -54,8 +66,8 @@ public class UserDashboard extends DashboardPanel {
         // Show dashboard panel initially
         showContentPanel("dashboard");
         
-        // Set up automatic refresh
-        setupRefreshTimer();
+        // Refresh when the change feed reports relevant changes
+        setupLiveUpdates();
         
         // Initial data load
         refreshData();
@@ -173,6 +185,12 @@ public class UserDashboard extends DashboardPanel {
         JLabel titleLabel = ThemeManager.createHeaderLabel("My Reservations");
         headerPanel.add(titleLabel, BorderLayout.WEST);
         
+        JLabel rangeLabel = new JLabel("Upcoming and the last " + ReservationController.SNAPSHOT_HISTORY_DAYS + " days");
+        rangeLabel.setFont(ThemeManager.SMALL_FONT);
+        rangeLabel.setForeground(ThemeManager.TEXT_SECONDARY);
+        rangeLabel.setBorder(new EmptyBorder(0, 10, 0, 0));
+        headerPanel.add(rangeLabel, BorderLayout.CENTER);
+        
         // Search field
         JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         searchPanel.setOpaque(false);
@@ -216,12 +234,16 @@ public class UserDashboard extends DashboardPanel {
         
         JButton newButton = ThemeManager.createPrimaryButton("New Reservation");
         JButton cancelButton = ThemeManager.createDangerButton("Cancel Reservation");
+        JButton exportButton = ThemeManager.createSecondaryButton("Export Calendar");
         
         newButton.addActionListener(e -> handleNewReservation());
         cancelButton.addActionListener(e -> handleCancelReservation());
+        exportButton.addActionListener(e -> exportCalendar(IcsFeedWriter.Feed.user(getCurrentUser().getId()),
+            "Reservations of " + getCurrentUser().getUsername(), reservationController));
         
         buttonsPanel.add(newButton);
         buttonsPanel.add(cancelButton);
+        buttonsPanel.add(exportButton);
         
         reservationsPanel.add(buttonsPanel, BorderLayout.SOUTH);
         
@@ -305,15 +327,8 @@ public class UserDashboard extends DashboardPanel {
         // Add to content panel
         addContentPanel(roomsPanel, "rooms");
         
-        // Add search functionality
-        searchButton.addActionListener(e -> {
-            String searchText = searchField.getText().toLowerCase();
-            if (searchText.isEmpty()) {
-                sorter.setRowFilter(null);
-            } else {
-                sorter.setRowFilter(RowFilter.regexFilter("(?i)" + searchText));
-            }
-        });
+        // Search through the room index, e.g. "proj capacity>=20"
+        bindRoomSearch(searchField, searchButton, sorter, roomController::searchRooms);
     }
     
     private void createCalendarPanel() {
@@ -333,11 +348,9 @@ public class UserDashboard extends DashboardPanel {
         JPanel contentPanel = ThemeManager.createCardPanel();
         contentPanel.setLayout(new BorderLayout());
         
-        // For now, just add a placeholder
-        JLabel placeholderLabel = new JLabel("Calendar view will be implemented soon");
-        placeholderLabel.setHorizontalAlignment(SwingConstants.CENTER);
-        placeholderLabel.setFont(ThemeManager.LABEL_FONT);
-        contentPanel.add(placeholderLabel, BorderLayout.CENTER);
+        // Month data is loaded in the background and cached by the controller
+        calendarView = new CalendarPanel(reservationController);
+        contentPanel.add(calendarView, BorderLayout.CENTER);
         
         calendarPanel.add(contentPanel, BorderLayout.CENTER);
         
@@ -345,41 +358,81 @@ public class UserDashboard extends DashboardPanel {
         addContentPanel(calendarPanel, "calendar");
     }
     
-    private void setupRefreshTimer() {
-        refreshTimer = new Timer(30000, e -> refreshData());
+    private void setupLiveUpdates() {
+        // The timer is only a safety net in case the change feed is unavailable
+        refreshTimer = new Timer(FALLBACK_REFRESH_MILLIS, e -> refreshData());
         refreshTimer.start();
+        
+        int userId = getCurrentUser().getId();
+        changeSubscription = ChangeEventBus.getInstance().subscribe(
+            event -> event.getEntityType() != ChangeEvent.EntityType.USER,
+            events -> SwingUtilities.invokeLater(() -> applyChanges(events, userId)));
+    }
+    
+    private void applyChanges(List<ChangeEvent> events, int userId) {
+        boolean anyReservation = false;
+        boolean ownData = false;
+        for (ChangeEvent event : events) {
+            if (event.getEntityType() == ChangeEvent.EntityType.RESERVATION) {
+                anyReservation = true;
+                ownData |= event.getUserId() != null && event.getUserId() == userId;
+            } else {
+                // Rooms feed the room list and the available rooms count
+                ownData = true;
+            }
+        }
+        if (anyReservation) {
+            calendarView.refresh();
+        }
+        if (ownData) {
+            refreshTimer.restart();
+            refreshData();
+        }
     }
     
     private void refreshData() {
         logger.info("Refreshing dashboard data");
         MainFrame.getInstance().setStatus("Refreshing data...");
         MainFrame.getInstance().showProgress(true);
+        int userId = getCurrentUser().getId();
         
+        // Load everything off the EDT, then update the Swing models on it
         SwingWorker<Void, Void> worker = new SwingWorker<>() {
+            private UserReservationSnapshot snapshot;
+            private List<Room> rooms;
+            
             @Override
             protected Void doInBackground() {
-                updateReservationsTable();
-                updateRoomsTable();
-                updateDashboardStats();
+                snapshot = reservationController.getUserReservationSnapshot(userId);
+                rooms = roomController.getAvailableRooms();
                 return null;
             }
             
             @Override
             protected void done() {
-                LocalDateTime now = LocalDateTime.now();
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm:ss");
-                MainFrame.getInstance().setStatus("Last updated: " + now.format(formatter));
-                MainFrame.getInstance().showProgress(false);
+                try {
+                    get();
+                    updateReservationsTable(snapshot);
+                    updateRoomsTable(rooms);
+                    updateDashboardStats(snapshot, rooms);
+                    LocalDateTime now = LocalDateTime.now();
+                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm:ss");
+                    MainFrame.getInstance().setStatus("Last updated: " + now.format(formatter));
+                } catch (Exception e) {
+                    logger.error("Error refreshing dashboard: {}", e.getMessage());
+                    MainFrame.getInstance().setStatus("Refresh failed");
+                } finally {
+                    MainFrame.getInstance().showProgress(false);
+                }
             }
         };
         worker.execute();
     }
     
-    private void updateReservationsTable() {
-        List<Reservation> reservations = reservationController.getUserReservations(getCurrentUser().getId());
-        System.out.println("UserDashboard: Found " + reservations.size() + " reservations for user ID " + getCurrentUser().getId());
+    private void updateReservationsTable(UserReservationSnapshot snapshot) {
+        logger.debug("Showing {} reservations for user ID {}", snapshot.getReservations().size(), getCurrentUser().getId());
         reservationsModel.setRowCount(0);
-        for (Reservation reservation : reservations) {
+        for (Reservation reservation : snapshot.getReservations()) {
             reservationsModel.addRow(new Object[]{
                 reservation.getId(),
                 reservation.getRoomName(),
@@ -391,11 +444,8 @@ public class UserDashboard extends DashboardPanel {
         }
     }
     
-    private void updateRoomsTable() {
-        logger.info("Updating rooms table");
-        List<Room> rooms = roomController.getAvailableRooms();
-        logger.debug("Retrieved {} rooms from controller", rooms.size());
-        
+    private void updateRoomsTable(List<Room> rooms) {
+        logger.debug("Showing {} rooms", rooms.size());
         roomsModel.setRowCount(0);
         for (Room room : rooms) {
             roomsModel.addRow(new Object[]{
@@ -409,20 +459,10 @@ public class UserDashboard extends DashboardPanel {
         }
     }
     
-    private void updateDashboardStats() {
-        int userId = getCurrentUser().getId();
-        
-        // Update active reservations count
-        int activeCount = reservationController.getActiveUserReservations(userId).size();
-        activeReservationsCard.setValue(String.valueOf(activeCount));
-        
-        // Update upcoming reservations count
-        int upcomingCount = reservationController.getUpcomingUserReservations(userId).size();
-        upcomingReservationsCard.setValue(String.valueOf(upcomingCount));
-        
-        // Update available rooms count
-        int availableCount = roomController.getAvailableRooms().size();
-        availableRoomsCard.setValue(String.valueOf(availableCount));
+    private void updateDashboardStats(UserReservationSnapshot snapshot, List<Room> rooms) {
+        activeReservationsCard.setValue(String.valueOf(snapshot.getActiveCount()));
+        upcomingReservationsCard.setValue(String.valueOf(snapshot.getUpcomingCount()));
+        availableRoomsCard.setValue(String.valueOf(rooms.size()));
     }
     
     private void handleNewReservation() {
@@ -461,13 +501,22 @@ public class UserDashboard extends DashboardPanel {
             MainFrame.getInstance().setStatus("Cancelling reservation...");
             
             try {
-                boolean success = reservationController.cancelReservation(reservationId);
-                if (success) {
+                UpdateResult result = reservationController.cancelReservation(reservationId);
+                if (result == UpdateResult.UPDATED) {
                     JOptionPane.showMessageDialog(this,
                         "Reservation cancelled successfully",
                         "Success",
                         JOptionPane.INFORMATION_MESSAGE);
                     refreshData();
+                } else if (result == UpdateResult.CONFLICT || result == UpdateResult.NOT_FOUND) {
+                    // Someone else got there first; show them what the reservation looks like now
+                    JOptionPane.showMessageDialog(this,
+                        result == UpdateResult.NOT_FOUND
+                            ? "This reservation no longer exists."
+                            : "This reservation was changed by someone else and can no longer be cancelled.",
+                        "Reservation Changed",
+                        JOptionPane.WARNING_MESSAGE);
+                    refreshData();
                 } else {
                     JOptionPane.showMessageDialog(this,
                         "Failed to cancel reservation",
@@ -636,5 +685,8 @@ public class UserDashboard extends DashboardPanel {
         if (refreshTimer != null) {
             refreshTimer.stop();
         }
+        if (changeSubscription != null) {
+            changeSubscription.cancel();
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,568 @@
+package com.roombooking.view.components;
+
+import com.roombooking.model.Reservation;
+import com.roombooking.util.ThemeManager;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Month and week calendar drawn entirely in paintComponent. Reservations are bucketed
+ * per day when data is set; painting and hit-testing only do arithmetic over the
+ * visible cells, so the component tree and paint cost do not grow with the number
+ * of bookings.
+ */
+public class CalendarGrid extends JComponent implements Scrollable {
+
+    public enum ViewMode { MONTH, WEEK }
+
+    /**
+     * Receives clicks on days and reservations
+     */
+    public interface Listener {
+        void dayClicked(LocalDate date, List<Reservation> reservations);
+
+        void reservationClicked(Reservation reservation);
+    }
+
+    private static final Color HEADER_COLOR = new Color(41, 128, 185);
+    private static final Color TODAY_COLOR = new Color(52, 152, 219, 60);
+    private static final Color WEEKEND_COLOR = new Color(236, 240, 241);
+    private static final Color OUTSIDE_MONTH_COLOR = new Color(248, 248, 248);
+    private static final Color GRID_COLOR = new Color(220, 220, 220);
+    private static final Color APPROVED_COLOR = new Color(46, 204, 113, 170);
+    private static final Color PENDING_COLOR = new Color(255, 193, 7, 170);
+    private static final Color INACTIVE_COLOR = new Color(189, 195, 199, 170);
+    private static final Font DAY_FONT = ThemeManager.SMALL_FONT;
+    private static final Font CHIP_FONT = new Font("Segoe UI", Font.PLAIN, 10);
+    private static final Font HEADER_FONT = new Font("Segoe UI", Font.BOLD, 12);
+
+    private static final int HEADER_HEIGHT = 24;
+    private static final int DAY_NUMBER_HEIGHT = 18;
+    private static final int CHIP_HEIGHT = 15;
+    private static final int CHIP_GAP = 2;
+    private static final int HOUR_HEIGHT = 40;
+    private static final int GUTTER_WIDTH = 48;
+    private static final int MONTH_CELLS = 42;
+
+    private static final String[] DAY_NAMES = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
+    private static final String[] DAY_NUMBERS = new String[32];
+    private static final String[] HOUR_LABELS = new String[24];
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    static {
+        for (int i = 1; i < DAY_NUMBERS.length; i++) {
+            DAY_NUMBERS[i] = String.valueOf(i);
+        }
+        for (int h = 0; h < HOUR_LABELS.length; h++) {
+            HOUR_LABELS[h] = String.format("%02d:00", h);
+        }
+    }
+
+    private ViewMode mode = ViewMode.MONTH;
+    private YearMonth month = YearMonth.now();
+    private LocalDate firstDay;
+    private int dayCount;
+    private final List<DayBucket> days = new ArrayList<>(MONTH_CELLS);
+    private final Map<Reservation, String> chipLabels = new IdentityHashMap<>();
+    private final String[] weekHeaders = new String[7];
+    private final List<String> moreLabels = new ArrayList<>();
+    private Listener listener;
+
+    public CalendarGrid() {
+        for (int i = 0; i < MONTH_CELLS; i++) {
+            days.add(new DayBucket());
+        }
+        setOpaque(true);
+        setBackground(ThemeManager.CARD_COLOR);
+        ToolTipManager.sharedInstance().registerComponent(this);
+        setMonth(month, Collections.emptyList());
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (listener == null) {
+                    return;
+                }
+                Reservation reservation = reservationAt(e.getX(), e.getY());
+                if (reservation != null) {
+                    listener.reservationClicked(reservation);
+                    return;
+                }
+                int index = dayIndexAt(e.getX(), e.getY());
+                if (index >= 0) {
+                    listener.dayClicked(firstDay.plusDays(index),
+                        Collections.unmodifiableList(days.get(index).reservations));
+                }
+            }
+        });
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public ViewMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Shows a whole month as a six-week grid starting on Sunday
+     * @param month the month
+     * @param reservations reservations touching the month
+     */
+    public void setMonth(YearMonth month, List<Reservation> reservations) {
+        this.mode = ViewMode.MONTH;
+        this.month = month;
+        LocalDate first = month.atDay(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+        setData(first, MONTH_CELLS, reservations);
+    }
+
+    /**
+     * Shows the week (Sunday to Saturday) containing the given date with an hourly time axis
+     * @param anyDay a day in the week
+     * @param reservations reservations touching the week
+     */
+    public void setWeek(LocalDate anyDay, List<Reservation> reservations) {
+        this.mode = ViewMode.WEEK;
+        this.month = YearMonth.from(anyDay);
+        LocalDate first = anyDay.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+        DateTimeFormatter headerFormat = DateTimeFormatter.ofPattern("EEE d");
+        for (int i = 0; i < 7; i++) {
+            weekHeaders[i] = first.plusDays(i).format(headerFormat);
+        }
+        setData(first, 7, reservations);
+    }
+
+    private void setData(LocalDate first, int count, List<Reservation> reservations) {
+        this.firstDay = first;
+        this.dayCount = count;
+        for (DayBucket bucket : days) {
+            bucket.clear();
+        }
+        chipLabels.clear();
+
+        LocalDateTime windowStart = first.atStartOfDay();
+        LocalDateTime windowEnd = first.plusDays(count).atStartOfDay();
+        for (Reservation reservation : reservations) {
+            if (!reservation.getStartTime().isBefore(windowEnd) || !reservation.getEndTime().isAfter(windowStart)) {
+                continue;
+            }
+            // Add to every day the reservation touches
+            int from = (int) Math.max(0, ChronoUnit.DAYS.between(first, reservation.getStartTime().toLocalDate()));
+            int to = (int) Math.min(count - 1,
+                ChronoUnit.DAYS.between(first, reservation.getEndTime().minusNanos(1).toLocalDate()));
+            for (int i = from; i <= to; i++) {
+                days.get(i).reservations.add(reservation);
+            }
+            chipLabels.put(reservation, reservation.getStartTime().format(TIME_FORMAT) + " " + reservation.getSubject());
+        }
+        for (int i = 0; i < count; i++) {
+            days.get(i).layout(first.plusDays(i));
+        }
+
+        revalidate();
+        repaint();
+    }
+
+    // Geometry
+
+    private double columnWidth() {
+        int left = mode == ViewMode.WEEK ? GUTTER_WIDTH : 0;
+        return (getWidth() - left) / 7.0;
+    }
+
+    private double monthRowHeight() {
+        return (getHeight() - HEADER_HEIGHT) / 6.0;
+    }
+
+    private int columnX(int column) {
+        int left = mode == ViewMode.WEEK ? GUTTER_WIDTH : 0;
+        return left + (int) Math.round(column * columnWidth());
+    }
+
+    private int monthRowY(int row) {
+        return HEADER_HEIGHT + (int) Math.round(row * monthRowHeight());
+    }
+
+    private int minuteY(int minuteOfDay) {
+        return HEADER_HEIGHT + minuteOfDay * HOUR_HEIGHT / 60;
+    }
+
+    private int maxChips(int cellHeight) {
+        return Math.max(0, (cellHeight - DAY_NUMBER_HEIGHT) / (CHIP_HEIGHT + CHIP_GAP));
+    }
+
+    private int dayIndexAt(int x, int y) {
+        if (y < HEADER_HEIGHT) {
+            return -1;
+        }
+        int left = mode == ViewMode.WEEK ? GUTTER_WIDTH : 0;
+        if (x < left) {
+            return -1;
+        }
+        int column = Math.min(6, (int) ((x - left) / columnWidth()));
+        if (mode == ViewMode.WEEK) {
+            return column;
+        }
+        int row = Math.min(5, (int) ((y - HEADER_HEIGHT) / monthRowHeight()));
+        return row * 7 + column;
+    }
+
+    /**
+     * Finds the reservation drawn at a point
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return the reservation, or null if there is none at that point
+     */
+    public Reservation reservationAt(int x, int y) {
+        int index = dayIndexAt(x, y);
+        if (index < 0) {
+            return null;
+        }
+        DayBucket bucket = days.get(index);
+        if (mode == ViewMode.MONTH) {
+            int row = index / 7;
+            int cellTop = monthRowY(row);
+            int cellHeight = monthRowY(row + 1) - cellTop;
+            int offset = y - cellTop - DAY_NUMBER_HEIGHT;
+            if (offset < 0) {
+                return null;
+            }
+            int chip = offset / (CHIP_HEIGHT + CHIP_GAP);
+            int shown = visibleChipCount(bucket.reservations.size(), maxChips(cellHeight));
+            return chip < shown ? bucket.reservations.get(chip) : null;
+        }
+
+        int column = index;
+        int colLeft = columnX(column);
+        int colWidth = columnX(column + 1) - colLeft;
+        // Iterate backwards so the block painted last wins
+        for (int i = bucket.reservations.size() - 1; i >= 0; i--) {
+            int top = minuteY(bucket.startMinute[i]);
+            int bottom = Math.max(top + CHIP_HEIGHT, minuteY(bucket.endMinute[i]));
+            int laneWidth = colWidth / bucket.laneCount[i];
+            int left = colLeft + bucket.lane[i] * laneWidth;
+            if (x >= left && x < left + laneWidth && y >= top && y < bottom) {
+                return bucket.reservations.get(i);
+            }
+        }
+        return null;
+    }
+
+    private static int visibleChipCount(int total, int capacity) {
+        return total <= capacity ? total : Math.max(0, capacity - 1);
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent event) {
+        Reservation reservation = reservationAt(event.getX(), event.getY());
+        if (reservation != null) {
+            return "<html><b>" + escape(reservation.getSubject()) + "</b><br>"
+                + escape(reservation.getRoomName()) + "<br>"
+                + reservation.getStartTime().format(TIME_FORMAT) + " - "
+                + reservation.getEndTime().format(TIME_FORMAT) + "<br>"
+                + reservation.getStatus() + "</html>";
+        }
+        int index = dayIndexAt(event.getX(), event.getY());
+        if (index >= 0 && !days.get(index).reservations.isEmpty()) {
+            return days.get(index).reservations.size() + " reservation(s)";
+        }
+        return null;
+    }
+
+    private static String escape(String text) {
+        return text == null ? "" : text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    // Painting
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setColor(getBackground());
+        g2.fillRect(0, 0, getWidth(), getHeight());
+
+        Shape clip = g2.getClip();
+        if (mode == ViewMode.MONTH) {
+            paintMonth(g2, clip);
+        } else {
+            paintWeek(g2, clip);
+        }
+        g2.setClip(clip);
+    }
+
+    private void paintHeader(Graphics2D g2, String[] labels) {
+        int left = mode == ViewMode.WEEK ? GUTTER_WIDTH : 0;
+        g2.setColor(HEADER_COLOR);
+        g2.fillRect(left, 0, getWidth() - left, HEADER_HEIGHT);
+        g2.setFont(HEADER_FONT);
+        g2.setColor(Color.WHITE);
+        FontMetrics fm = g2.getFontMetrics();
+        for (int column = 0; column < 7; column++) {
+            int x0 = columnX(column);
+            int width = columnX(column + 1) - x0;
+            String label = labels[column];
+            g2.drawString(label, x0 + (width - fm.stringWidth(label)) / 2,
+                (HEADER_HEIGHT + fm.getAscent() - fm.getDescent()) / 2);
+        }
+    }
+
+    private void paintMonth(Graphics2D g2, Shape clip) {
+        paintHeader(g2, DAY_NAMES);
+        LocalDate today = LocalDate.now();
+
+        for (int index = 0; index < MONTH_CELLS; index++) {
+            int row = index / 7;
+            int column = index % 7;
+            int x0 = columnX(column);
+            int y0 = monthRowY(row);
+            int width = columnX(column + 1) - x0;
+            int height = monthRowY(row + 1) - y0;
+            if (clip != null && !clip.intersects(x0, y0, width, height)) {
+                continue;
+            }
+            LocalDate date = firstDay.plusDays(index);
+            boolean inMonth = date.getMonthValue() == month.getMonthValue() && date.getYear() == month.getYear();
+
+            if (!inMonth) {
+                g2.setColor(OUTSIDE_MONTH_COLOR);
+                g2.fillRect(x0, y0, width, height);
+            } else if (column == 0 || column == 6) {
+                g2.setColor(WEEKEND_COLOR);
+                g2.fillRect(x0, y0, width, height);
+            }
+            if (date.equals(today)) {
+                g2.setColor(TODAY_COLOR);
+                g2.fillRect(x0, y0, width, height);
+            }
+            g2.setColor(GRID_COLOR);
+            g2.drawRect(x0, y0, width, height);
+
+            g2.setFont(DAY_FONT);
+            g2.setColor(inMonth ? ThemeManager.TEXT_PRIMARY : ThemeManager.TEXT_SECONDARY);
+            g2.drawString(DAY_NUMBERS[date.getDayOfMonth()], x0 + 4, y0 + 14);
+
+            List<Reservation> reservations = days.get(index).reservations;
+            int capacity = maxChips(height);
+            int shown = visibleChipCount(reservations.size(), capacity);
+            g2.setFont(CHIP_FONT);
+            int chipY = y0 + DAY_NUMBER_HEIGHT;
+            for (int i = 0; i < shown; i++) {
+                Reservation reservation = reservations.get(i);
+                g2.setColor(colorFor(reservation));
+                g2.fillRoundRect(x0 + 2, chipY, width - 4, CHIP_HEIGHT, 6, 6);
+                g2.setColor(ThemeManager.TEXT_PRIMARY);
+                g2.setClip(clip);
+                g2.clipRect(x0 + 2, chipY, width - 6, CHIP_HEIGHT);
+                g2.drawString(chipLabels.get(reservation), x0 + 5, chipY + CHIP_HEIGHT - 4);
+                g2.setClip(clip);
+                chipY += CHIP_HEIGHT + CHIP_GAP;
+            }
+            if (shown < reservations.size()) {
+                g2.setColor(ThemeManager.TEXT_SECONDARY);
+                g2.drawString(moreLabel(reservations.size() - shown), x0 + 5, chipY + CHIP_HEIGHT - 4);
+            }
+        }
+    }
+
+    private void paintWeek(Graphics2D g2, Shape clip) {
+        paintHeader(g2, weekHeaders);
+        LocalDate today = LocalDate.now();
+
+        // Hour lines and gutter labels
+        g2.setFont(CHIP_FONT);
+        for (int hour = 0; hour < 24; hour++) {
+            int y = minuteY(hour * 60);
+            g2.setColor(GRID_COLOR);
+            g2.drawLine(GUTTER_WIDTH, y, getWidth(), y);
+            g2.setColor(ThemeManager.TEXT_SECONDARY);
+            g2.drawString(HOUR_LABELS[hour], 6, y + 12);
+        }
+
+        for (int column = 0; column < 7; column++) {
+            int x0 = columnX(column);
+            int width = columnX(column + 1) - x0;
+            LocalDate date = firstDay.plusDays(column);
+            if (date.equals(today)) {
+                g2.setColor(TODAY_COLOR);
+                g2.fillRect(x0, HEADER_HEIGHT, width, 24 * HOUR_HEIGHT);
+            }
+            g2.setColor(GRID_COLOR);
+            g2.drawLine(x0, HEADER_HEIGHT, x0, getHeight());
+
+            DayBucket bucket = days.get(column);
+            for (int i = 0; i < bucket.reservations.size(); i++) {
+                int top = minuteY(bucket.startMinute[i]);
+                int bottom = Math.max(top + CHIP_HEIGHT, minuteY(bucket.endMinute[i]));
+                if (clip != null && !clip.intersects(x0, top, width, bottom - top)) {
+                    continue;
+                }
+                int laneWidth = width / bucket.laneCount[i];
+                int left = x0 + bucket.lane[i] * laneWidth;
+                Reservation reservation = bucket.reservations.get(i);
+                g2.setColor(colorFor(reservation));
+                g2.fillRoundRect(left + 1, top + 1, laneWidth - 2, bottom - top - 2, 6, 6);
+                g2.setColor(ThemeManager.TEXT_PRIMARY);
+                g2.setClip(clip);
+                g2.clipRect(left + 1, top + 1, laneWidth - 4, bottom - top - 2);
+                g2.drawString(chipLabels.get(reservation), left + 4, top + 12);
+                g2.setClip(clip);
+            }
+        }
+    }
+
+    private String moreLabel(int count) {
+        while (moreLabels.size() <= count) {
+            moreLabels.add("+" + moreLabels.size() + " more");
+        }
+        return moreLabels.get(count);
+    }
+
+    private static Color colorFor(Reservation reservation) {
+        String status = reservation.getStatus();
+        if ("APPROVED".equals(status)) {
+            return APPROVED_COLOR;
+        }
+        if ("PENDING".equals(status)) {
+            return PENDING_COLOR;
+        }
+        return INACTIVE_COLOR;
+    }
+
+    // Scrollable: month view fills the viewport, week view scrolls vertically
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        return mode == ViewMode.MONTH
+            ? new Dimension(700, HEADER_HEIGHT + 6 * 90)
+            : new Dimension(700, HEADER_HEIGHT + 24 * HOUR_HEIGHT);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(700, HEADER_HEIGHT + 6 * 90);
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return HOUR_HEIGHT / 2;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return HOUR_HEIGHT * 4;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return mode == ViewMode.MONTH;
+    }
+
+    /**
+     * @return the y coordinate of the given hour in week view, for scrolling to working hours
+     */
+    public int hourY(int hour) {
+        return minuteY(hour * 60);
+    }
+
+    /**
+     * Reservations of one visible day plus their layout in week view
+     */
+    private static final class DayBucket {
+        private final List<Reservation> reservations = new ArrayList<>();
+        private int[] startMinute = new int[8];
+        private int[] endMinute = new int[8];
+        private int[] lane = new int[8];
+        private int[] laneCount = new int[8];
+
+        private void clear() {
+            reservations.clear();
+        }
+
+        /**
+         * Sorts by start time and assigns side-by-side lanes to overlapping reservations
+         */
+        private void layout(LocalDate date) {
+            int size = reservations.size();
+            if (size == 0) {
+                return;
+            }
+            reservations.sort(Comparator.comparing(Reservation::getStartTime));
+            if (startMinute.length < size) {
+                int capacity = Math.max(size, startMinute.length * 2);
+                startMinute = new int[capacity];
+                endMinute = new int[capacity];
+                lane = new int[capacity];
+                laneCount = new int[capacity];
+            }
+
+            LocalDateTime dayStart = date.atStartOfDay();
+            for (int i = 0; i < size; i++) {
+                Reservation reservation = reservations.get(i);
+                long start = ChronoUnit.MINUTES.between(dayStart, reservation.getStartTime());
+                long end = ChronoUnit.MINUTES.between(dayStart, reservation.getEndTime());
+                startMinute[i] = (int) Math.max(0, start);
+                endMinute[i] = (int) Math.min(24 * 60, end);
+            }
+
+            // Greedy lane assignment within clusters of transitively overlapping reservations
+            List<Integer> laneEnds = new ArrayList<>();
+            int clusterStart = 0;
+            int clusterEnd = -1;
+            for (int i = 0; i < size; i++) {
+                if (startMinute[i] >= clusterEnd) {
+                    finishCluster(clusterStart, i, laneEnds.size());
+                    laneEnds.clear();
+                    clusterStart = i;
+                }
+                int assigned = -1;
+                for (int l = 0; l < laneEnds.size(); l++) {
+                    if (laneEnds.get(l) <= startMinute[i]) {
+                        assigned = l;
+                        break;
+                    }
+                }
+                if (assigned < 0) {
+                    assigned = laneEnds.size();
+                    laneEnds.add(endMinute[i]);
+                } else {
+                    laneEnds.set(assigned, endMinute[i]);
+                }
+                lane[i] = assigned;
+                clusterEnd = Math.max(clusterEnd, endMinute[i]);
+            }
+            finishCluster(clusterStart, size, laneEnds.size());
+        }
+
+        private void finishCluster(int from, int to, int lanes) {
+            for (int i = from; i < to; i++) {
+                laneCount[i] = Math.max(1, lanes);
+            }
+        }
+    }
+}
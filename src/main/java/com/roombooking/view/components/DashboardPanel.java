@@ -1,19 +1,39 @@
 package com.roombooking.view.components;
 
+import com.roombooking.controller.ReservationController;
+import com.roombooking.model.Room;
 import com.roombooking.model.User;
+import com.roombooking.util.IcsFeedWriter;
+import com.roombooking.util.SessionStore;
 import com.roombooking.util.ThemeManager;
 import com.roombooking.view.MainFrame;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.TableModel;
+import javax.swing.table.TableRowSorter;
 import java.awt.*;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 /**
  * Reusable dashboard panel with sidebar navigation
  */
 public class DashboardPanel extends JPanel {
     private final User currentUser;
+    private final String sessionToken;
     private final JPanel contentPanel;
     private final JPanel sidebarPanel;
     private final CardLayout contentLayout;
@@ -23,7 +43,16 @@ public class DashboardPanel extends JPanel {
     private Timer timeUpdateTimer;
     
     public DashboardPanel(User user) {
+        this(user, null);
+    }
+    
+    /**
+     * @param user the logged-in user
+     * @param sessionToken the user's session token, or null to start a new session
+     */
+    public DashboardPanel(User user, String sessionToken) {
         this.currentUser = user;
+        this.sessionToken = sessionToken != null ? sessionToken : SessionStore.getInstance().create(user);
         
         // Set up the main layout
         setLayout(new BorderLayout());
@@ -176,6 +205,84 @@ public class DashboardPanel extends JPanel {
         contentLayout.show(contentPanel, name);
     }
     
+    /**
+     * Filters a rooms table through the room search index when the search button is
+     * pressed or Enter is hit in the field; a blank search shows every row
+     * @param field the search field
+     * @param button the search button
+     * @param sorter the table's sorter; the room ID must be in column 0
+     * @param search runs a search, e.g. RoomController::searchRooms
+     */
+    protected void bindRoomSearch(JTextField field, JButton button, TableRowSorter<? extends TableModel> sorter,
+                                  Function<String, List<Room>> search) {
+        field.setToolTipText("Words match name, type, location and description; " +
+            "filter with type=, building=, capacity>= or capacity<=");
+        ActionListener listener = e -> {
+            String query = field.getText().trim();
+            if (query.isEmpty()) {
+                sorter.setRowFilter(null);
+                return;
+            }
+            CompletableFuture.supplyAsync(() -> search.apply(query))
+                .whenComplete((rooms, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        MainFrame.getInstance().setStatus("Search failed: " + error.getMessage());
+                        return;
+                    }
+                    Set<Integer> ids = new HashSet<>();
+                    for (Room room : rooms) {
+                        ids.add(room.getId());
+                    }
+                    sorter.setRowFilter(new RowFilter<TableModel, Integer>() {
+                        @Override
+                        public boolean include(Entry<? extends TableModel, ? extends Integer> entry) {
+                            return ids.contains((Integer) entry.getValue(0));
+                        }
+                    });
+                    MainFrame.getInstance().setStatus(rooms.size() + " rooms match \"" + query + "\"");
+                }));
+        };
+        button.addActionListener(listener);
+        field.addActionListener(listener);
+    }
+    
+    /**
+     * Asks for a file and writes a user's or a room's reservations to it as an
+     * iCalendar file that external calendars can import
+     * @param feed the user or room
+     * @param calendarName the calendar's name, also used for the suggested file name
+     * @param controller the reservation controller
+     */
+    protected void exportCalendar(IcsFeedWriter.Feed feed, String calendarName, ReservationController controller) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export Calendar");
+        chooser.setFileFilter(new FileNameExtensionFilter("iCalendar files", "ics"));
+        chooser.setSelectedFile(new File(calendarName.replaceAll("[^A-Za-z0-9 _-]", "").trim() + ".ics"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        MainFrame.getInstance().setStatus("Exporting " + calendarName + "...");
+        CompletableFuture.runAsync(() -> {
+            try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                controller.exportCalendar(feed, calendarName, out, null);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((ignored, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                MainFrame.getInstance().setStatus("Ready");
+                JOptionPane.showMessageDialog(this,
+                    "Error: " + cause.getMessage(),
+                    "Export Failed",
+                    JOptionPane.ERROR_MESSAGE);
+            } else {
+                MainFrame.getInstance().setStatus("Calendar exported to " + file.getName());
+            }
+        }));
+    }
+    
     private Icon createIcon(String iconName, String fallbackText) {
         try {
             ImageIcon icon = new ImageIcon(getClass().getResource("/images/" + iconName));
@@ -224,6 +331,7 @@ public class DashboardPanel extends JPanel {
         
         if (confirm == JOptionPane.YES_OPTION) {
             cleanup();
+            SessionStore.getInstance().invalidate(sessionToken);
             MainFrame.getInstance().showPanel("login", new com.roombooking.view.LoginPanel());
             MainFrame.getInstance().setStatus("Logged out successfully");
         }
@@ -244,4 +352,11 @@ public class DashboardPanel extends JPanel {
     protected User getCurrentUser() {
         return currentUser;
     }
+    
+    /**
+     * Get the session token of the current user
+     */
+    protected String getSessionToken() {
+        return sessionToken;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,430 @@
+package com.roombooking.view.components;
+
+import com.roombooking.model.Reservation;
+import com.roombooking.model.Room;
+import com.roombooking.util.ThemeManager;
+import com.roombooking.util.TimelineTileCache;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Resource timeline with one row per room and time on the x-axis. Only the tiles
+ * intersecting the viewport are requested from a {@link TimelineTileCache}, and
+ * everything (bars, grid and both headers) is painted directly, so hundreds of
+ * rooms and years of history cost no more than what is on screen.
+ */
+public class TimelineView extends JComponent implements Scrollable {
+    public static final int ROW_HEIGHT = 26;
+    private static final int HEADER_HEIGHT = 40;
+    private static final int ROW_HEADER_WIDTH = 160;
+
+    private static final Color ROW_ALT_COLOR = new Color(250, 250, 250);
+    private static final Color WEEKEND_COLOR = new Color(236, 240, 241, 120);
+    private static final Color GRID_COLOR = new Color(225, 225, 225);
+    private static final Color LOADING_COLOR = new Color(240, 240, 240);
+    private static final Color NOW_COLOR = new Color(244, 67, 54);
+    private static final Color APPROVED_COLOR = new Color(46, 204, 113, 200);
+    private static final Color PENDING_COLOR = new Color(255, 193, 7, 200);
+    private static final Font BAR_FONT = new Font("Segoe UI", Font.PLAIN, 10);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MMMM yyyy");
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("EEE d");
+
+    private final TimelineTileCache tileCache;
+    private final LocalDateTime origin;
+    private final LocalDateTime rangeEnd;
+    private final JComponent rowHeader = new RowHeader();
+    private final JComponent columnHeader = new ColumnHeader();
+    private List<Room> rooms = Collections.emptyList();
+    private final Map<Integer, Integer> rowByRoom = new HashMap<>();
+    private double pixelsPerHour = 12;
+    private Consumer<Reservation> reservationListener;
+
+    /**
+     * @param loader loads the reservations of one tile
+     * @param origin first day shown
+     * @param end day after the last day shown
+     */
+    public TimelineView(TimelineTileCache.TileLoader loader, LocalDate origin, LocalDate end) {
+        this.origin = origin.atStartOfDay();
+        this.rangeEnd = end.atStartOfDay();
+        this.tileCache = new TimelineTileCache(loader, origin, () -> SwingUtilities.invokeLater(this::repaint));
+        setOpaque(true);
+        setBackground(ThemeManager.CARD_COLOR);
+        ToolTipManager.sharedInstance().registerComponent(this);
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                Reservation reservation = reservationAt(e.getX(), e.getY());
+                if (reservation != null && reservationListener != null) {
+                    reservationListener.accept(reservation);
+                }
+            }
+        });
+    }
+
+    public void setReservationListener(Consumer<Reservation> listener) {
+        this.reservationListener = listener;
+    }
+
+    /**
+     * Sets the rooms shown as rows, in display order
+     * @param rooms the rooms
+     */
+    public void setRooms(List<Room> rooms) {
+        this.rooms = new ArrayList<>(rooms);
+        List<Integer> roomIds = new ArrayList<>(rooms.size());
+        rowByRoom.clear();
+        for (int row = 0; row < rooms.size(); row++) {
+            roomIds.add(rooms.get(row).getId());
+            rowByRoom.put(rooms.get(row).getId(), row);
+        }
+        tileCache.setRooms(roomIds);
+        resized();
+    }
+
+    public double getPixelsPerHour() {
+        return pixelsPerHour;
+    }
+
+    /**
+     * Changes the horizontal zoom. Callers should scroll afterwards to keep their point of interest in view.
+     * @param pixelsPerHour width of one hour in pixels
+     */
+    public void setPixelsPerHour(double pixelsPerHour) {
+        this.pixelsPerHour = pixelsPerHour;
+        resized();
+    }
+
+    /**
+     * Drops loaded tiles and requests the visible ones again
+     */
+    public void refresh() {
+        tileCache.invalidateAll();
+        requestVisibleTiles();
+        repaint();
+    }
+
+    private void resized() {
+        revalidate();
+        repaint();
+        rowHeader.revalidate();
+        rowHeader.repaint();
+        columnHeader.revalidate();
+        columnHeader.repaint();
+    }
+
+    public JComponent getRowHeader() {
+        return rowHeader;
+    }
+
+    public JComponent getColumnHeader() {
+        return columnHeader;
+    }
+
+    public int xAt(LocalDateTime time) {
+        long minutes = ChronoUnit.MINUTES.between(origin, time);
+        return (int) Math.max(Integer.MIN_VALUE / 2, Math.min(Integer.MAX_VALUE / 2, Math.round(minutes * pixelsPerHour / 60)));
+    }
+
+    public LocalDateTime timeAt(int x) {
+        return origin.plusMinutes(Math.round(x * 60 / pixelsPerHour));
+    }
+
+    /**
+     * Requests the tiles covering the visible area; call whenever the viewport moves
+     */
+    public void requestVisibleTiles() {
+        Rectangle visible = getVisibleRect();
+        if (rooms.isEmpty() || visible.isEmpty()) {
+            return;
+        }
+        int firstRow = Math.max(0, visible.y / ROW_HEIGHT);
+        int lastRow = Math.min(rooms.size() - 1, (visible.y + visible.height) / ROW_HEIGHT);
+        tileCache.requestViewport(firstRow / TimelineTileCache.ROOMS_PER_TILE, lastRow / TimelineTileCache.ROOMS_PER_TILE,
+            tileCache.tileAt(timeAt(visible.x)), tileCache.tileAt(timeAt(visible.x + visible.width)));
+    }
+
+    /**
+     * Finds the reservation bar at a point
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return the reservation, or null if there is none
+     */
+    public Reservation reservationAt(int x, int y) {
+        int row = y / ROW_HEIGHT;
+        if (y < 0 || row >= rooms.size()) {
+            return null;
+        }
+        int block = row / TimelineTileCache.ROOMS_PER_TILE;
+        int roomId = rooms.get(row).getId();
+        List<Reservation> tile = tileCache.getIfLoaded(block, tileCache.tileAt(timeAt(x)));
+        if (tile == null) {
+            return null;
+        }
+        for (Reservation reservation : tile) {
+            if (reservation.getRoomId() == roomId
+                && x >= xAt(reservation.getStartTime()) && x < Math.max(xAt(reservation.getEndTime()), xAt(reservation.getStartTime()) + 2)) {
+                return reservation;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent event) {
+        Reservation reservation = reservationAt(event.getX(), event.getY());
+        if (reservation == null) {
+            return null;
+        }
+        return "<html><b>" + escape(reservation.getSubject()) + "</b><br>"
+            + escape(reservation.getRoomName()) + " - " + escape(reservation.getUserName()) + "<br>"
+            + reservation.getStartTime().format(DateTimeFormatter.ofPattern("MMM d HH:mm")) + " - "
+            + reservation.getEndTime().format(TIME_FORMAT) + "<br>"
+            + reservation.getStatus() + "</html>";
+    }
+
+    private static String escape(String text) {
+        return text == null ? "" : text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g2.setColor(getBackground());
+        g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (rooms.isEmpty()) {
+            return;
+        }
+
+        int firstRow = Math.max(0, clip.y / ROW_HEIGHT);
+        int lastRow = Math.min(rooms.size() - 1, (clip.y + clip.height) / ROW_HEIGHT);
+        LocalDate firstDay = timeAt(clip.x).toLocalDate();
+        LocalDate lastDay = timeAt(clip.x + clip.width).toLocalDate();
+
+        // Row stripes, weekends and day lines
+        for (int row = firstRow; row <= lastRow; row++) {
+            if (row % 2 == 1) {
+                g2.setColor(ROW_ALT_COLOR);
+                g2.fillRect(clip.x, row * ROW_HEIGHT, clip.width, ROW_HEIGHT);
+            }
+        }
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            int x0 = xAt(day.atStartOfDay());
+            int x1 = xAt(day.plusDays(1).atStartOfDay());
+            if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                g2.setColor(WEEKEND_COLOR);
+                g2.fillRect(x0, clip.y, x1 - x0, clip.height);
+            }
+            g2.setColor(GRID_COLOR);
+            g2.drawLine(x0, clip.y, x0, clip.y + clip.height);
+        }
+
+        // Reservation bars, tile by tile
+        g2.setFont(BAR_FONT);
+        FontMetrics fm = g2.getFontMetrics();
+        int firstBlock = firstRow / TimelineTileCache.ROOMS_PER_TILE;
+        int lastBlock = lastRow / TimelineTileCache.ROOMS_PER_TILE;
+        int firstTile = tileCache.tileAt(timeAt(clip.x));
+        int lastTile = tileCache.tileAt(timeAt(clip.x + clip.width));
+        for (int block = firstBlock; block <= lastBlock; block++) {
+            for (int tile = firstTile; tile <= lastTile; tile++) {
+                List<Reservation> reservations = tileCache.getIfLoaded(block, tile);
+                if (reservations == null) {
+                    paintLoadingTile(g2, clip, block, tile);
+                    continue;
+                }
+                for (Reservation reservation : reservations) {
+                    paintBar(g2, fm, clip, reservation);
+                }
+            }
+        }
+
+        // Current time marker
+        int nowX = xAt(LocalDateTime.now());
+        if (nowX >= clip.x && nowX <= clip.x + clip.width) {
+            g2.setColor(NOW_COLOR);
+            g2.drawLine(nowX, clip.y, nowX, clip.y + clip.height);
+        }
+    }
+
+    private void paintLoadingTile(Graphics2D g2, Rectangle clip, int block, int tile) {
+        int x0 = xAt(tileCache.tileStart(tile));
+        int x1 = xAt(tileCache.tileStart(tile + 1));
+        int y0 = block * TimelineTileCache.ROOMS_PER_TILE * ROW_HEIGHT;
+        int y1 = Math.min(rooms.size(), (block + 1) * TimelineTileCache.ROOMS_PER_TILE) * ROW_HEIGHT;
+        Rectangle area = clip.intersection(new Rectangle(x0, y0, x1 - x0, y1 - y0));
+        if (!area.isEmpty()) {
+            g2.setColor(LOADING_COLOR);
+            g2.fillRect(area.x, area.y, area.width, area.height);
+        }
+    }
+
+    private void paintBar(Graphics2D g2, FontMetrics fm, Rectangle clip, Reservation reservation) {
+        Integer row = rowByRoom.get(reservation.getRoomId());
+        if (row == null) {
+            return;
+        }
+        int x0 = xAt(reservation.getStartTime());
+        int x1 = Math.max(x0 + 2, xAt(reservation.getEndTime()));
+        int y0 = row * ROW_HEIGHT + 3;
+        if (x1 < clip.x || x0 > clip.x + clip.width || y0 + ROW_HEIGHT < clip.y || y0 > clip.y + clip.height) {
+            return;
+        }
+        g2.setColor("APPROVED".equals(reservation.getStatus()) ? APPROVED_COLOR : PENDING_COLOR);
+        g2.fillRoundRect(x0, y0, x1 - x0, ROW_HEIGHT - 6, 6, 6);
+        String subject = reservation.getSubject();
+        if (subject != null && x1 - x0 > 30) {
+            Shape oldClip = g2.getClip();
+            g2.clipRect(x0 + 2, y0, x1 - x0 - 4, ROW_HEIGHT - 6);
+            g2.setColor(ThemeManager.TEXT_PRIMARY);
+            g2.drawString(subject, Math.max(x0, clip.x) + 4, y0 + (ROW_HEIGHT - 6 + fm.getAscent() - fm.getDescent()) / 2);
+            g2.setClip(oldClip);
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(xAt(rangeEnd), Math.max(1, rooms.size()) * ROW_HEIGHT);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(900, 20 * ROW_HEIGHT);
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? ROW_HEIGHT : (int) Math.max(10, pixelsPerHour);
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height - ROW_HEIGHT : visibleRect.width * 3 / 4;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    /**
+     * Room names on the left, scrolled vertically with the timeline
+     */
+    private class RowHeader extends JComponent {
+        RowHeader() {
+            setOpaque(true);
+            setBackground(ThemeManager.CARD_COLOR);
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            return new Dimension(ROW_HEADER_WIDTH, Math.max(1, rooms.size()) * ROW_HEIGHT);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            Rectangle clip = g2.getClipBounds();
+            g2.setColor(getBackground());
+            g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+            g2.setFont(ThemeManager.SMALL_FONT);
+            FontMetrics fm = g2.getFontMetrics();
+            int firstRow = Math.max(0, clip.y / ROW_HEIGHT);
+            int lastRow = Math.min(rooms.size() - 1, (clip.y + clip.height) / ROW_HEIGHT);
+            for (int row = firstRow; row <= lastRow; row++) {
+                int y = row * ROW_HEIGHT;
+                if (row % 2 == 1) {
+                    g2.setColor(ROW_ALT_COLOR);
+                    g2.fillRect(0, y, getWidth(), ROW_HEIGHT);
+                }
+                g2.setColor(ThemeManager.TEXT_PRIMARY);
+                g2.drawString(rooms.get(row).getName(), 8, y + (ROW_HEIGHT + fm.getAscent() - fm.getDescent()) / 2);
+            }
+            g2.setColor(GRID_COLOR);
+            g2.drawLine(getWidth() - 1, clip.y, getWidth() - 1, clip.y + clip.height);
+        }
+    }
+
+    /**
+     * Month and day labels on top, scrolled horizontally with the timeline
+     */
+    private class ColumnHeader extends JComponent {
+        ColumnHeader() {
+            setOpaque(true);
+            setBackground(ThemeManager.CARD_COLOR);
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            return new Dimension(TimelineView.this.getPreferredSize().width, HEADER_HEIGHT);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            Rectangle clip = g2.getClipBounds();
+            g2.setColor(getBackground());
+            g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+            LocalDate firstDay = timeAt(clip.x).toLocalDate();
+            LocalDate lastDay = timeAt(clip.x + clip.width).toLocalDate();
+            double dayWidth = pixelsPerHour * 24;
+            int half = HEADER_HEIGHT / 2;
+
+            g2.setFont(ThemeManager.SMALL_FONT);
+            for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+                int x = xAt(day.atStartOfDay());
+                if (day.getDayOfMonth() == 1 || day.equals(firstDay)) {
+                    g2.setColor(ThemeManager.TEXT_PRIMARY);
+                    g2.drawString(day.format(MONTH_FORMAT), Math.max(x, clip.x) + 4, half - 5);
+                    g2.setColor(GRID_COLOR);
+                    g2.drawLine(x, 0, x, half);
+                }
+                g2.setColor(GRID_COLOR);
+                g2.drawLine(x, half, x, HEADER_HEIGHT);
+                String label = dayWidth >= 48 ? day.format(DAY_FORMAT) : dayWidth >= 16 ? String.valueOf(day.getDayOfMonth()) : null;
+                if (label != null) {
+                    g2.setColor(ThemeManager.TEXT_SECONDARY);
+                    g2.drawString(label, x + 3, HEADER_HEIGHT - 6);
+                }
+                if (pixelsPerHour >= 30) {
+                    // Hour ticks once the hours are wide enough to tell apart
+                    for (int hour = 2; hour < 24; hour += 2) {
+                        int hx = xAt(day.atTime(hour, 0));
+                        g2.drawLine(hx, HEADER_HEIGHT - 4, hx, HEADER_HEIGHT);
+                    }
+                }
+            }
+            g2.setColor(GRID_COLOR);
+            g2.drawLine(clip.x, HEADER_HEIGHT - 1, clip.x + clip.width, HEADER_HEIGHT - 1);
+        }
+    }
+}
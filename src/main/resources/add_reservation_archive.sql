@@ -0,0 +1,56 @@
+-- Migration: add the archive tables and the archive watermark
+--
+-- Databases created from schema.sql before archiving was added need these tables for
+-- ReservationArchiver. Until they exist ReservationDAO treats nothing as archived and
+-- reads only the hot table. Run once against an existing room_booking database, after
+-- add_reservation_version.sql:
+--     mysql -u root -p room_booking < add_reservation_archive.sql
+-- Running the script again changes nothing.
+USE room_booking;
+
+-- Create archive tables (completed and cancelled reservations moved out of the hot table by ReservationArchiver)
+CREATE TABLE IF NOT EXISTS reservations_archive (
+    id INT PRIMARY KEY,
+    user_id INT NOT NULL,
+    room_id INT NOT NULL,
+    start_time DATETIME NOT NULL,
+    end_time DATETIME NOT NULL,
+    subject VARCHAR(200),
+    status ENUM('PENDING', 'APPROVED', 'REJECTED', 'CANCELLED') NOT NULL,
+    admin_comments TEXT,
+    version INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_reservations_archive_time (start_time, end_time),
+    INDEX idx_reservations_archive_user (user_id, start_time),
+    INDEX idx_reservations_archive_room_start (room_id, start_time),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (room_id) REFERENCES rooms(id) ON DELETE CASCADE
+);
+CREATE TABLE IF NOT EXISTS reservation_equipment_archive (
+    reservation_id INT,
+    equipment_id INT,
+    created_at TIMESTAMP NULL,
+    PRIMARY KEY (reservation_id, equipment_id),
+    FOREIGN KEY (reservation_id) REFERENCES reservations_archive(id) ON DELETE CASCADE,
+    FOREIGN KEY (equipment_id) REFERENCES equipment(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS reservation_participants_archive (
+    id INT PRIMARY KEY,
+    reservation_id INT,
+    email VARCHAR(100) NOT NULL,
+    name VARCHAR(100),
+    status ENUM('PENDING', 'ACCEPTED', 'DECLINED') DEFAULT 'PENDING',
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    FOREIGN KEY (reservation_id) REFERENCES reservations_archive(id) ON DELETE CASCADE
+);
+
+-- Create archive_state table (reservations_archive only holds rows that ended before archived_before)
+CREATE TABLE IF NOT EXISTS archive_state (
+    table_name VARCHAR(64) PRIMARY KEY,
+    archived_before DATETIME NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
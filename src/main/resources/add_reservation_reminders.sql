@@ -0,0 +1,32 @@
+-- Migration: add the tables and index used by the reservation reminder scheduler
+--
+-- Databases created from schema.sql before reminders were added need the
+-- reservation_reminders table for ReminderDAO and the (status, start_time) index for
+-- its due-reminder scan. Run once against an existing room_booking database, before
+-- partition_reservations.sql if that is used:
+--     mysql -u root -p room_booking < add_reservation_reminders.sql
+-- Running the script again changes nothing.
+USE room_booking;
+
+CREATE TABLE IF NOT EXISTS reservation_reminders (
+    reservation_id INT PRIMARY KEY,
+    claim_token VARCHAR(36) NOT NULL,
+    claimed_at DATETIME NOT NULL,
+    sent_at DATETIME NULL,
+    INDEX idx_reminders_claim (claim_token),
+    FOREIGN KEY (reservation_id) REFERENCES reservations(id) ON DELETE CASCADE
+);
+
+DELIMITER //
+CREATE PROCEDURE add_reservation_reminders()
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.STATISTICS
+                   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'reservations'
+                   AND INDEX_NAME = 'idx_reservations_status_start') THEN
+        CREATE INDEX idx_reservations_status_start ON reservations(status, start_time);
+    END IF;
+END //
+DELIMITER ;
+
+CALL add_reservation_reminders();
+DROP PROCEDURE add_reservation_reminders;
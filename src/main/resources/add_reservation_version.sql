@@ -0,0 +1,21 @@
+-- Migration: add the version column used for optimistic locking to reservations
+--
+-- Databases created from schema.sql before reservations had a version column need it
+-- for ReservationDAO.updateIfCurrent. Run once against an existing room_booking database:
+--     mysql -u root -p room_booking < add_reservation_version.sql
+-- Existing rows start at version 0. Running the script again changes nothing.
+USE room_booking;
+
+DELIMITER //
+CREATE PROCEDURE add_reservation_version()
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.COLUMNS
+                   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'reservations'
+                   AND COLUMN_NAME = 'version') THEN
+        ALTER TABLE reservations ADD COLUMN version INT NOT NULL DEFAULT 0 AFTER admin_comments;
+    END IF;
+END //
+DELIMITER ;
+
+CALL add_reservation_version();
+DROP PROCEDURE add_reservation_version;
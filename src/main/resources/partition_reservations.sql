@@ -0,0 +1,80 @@
+-- Optional migration: partition reservations by quarter of start_time
+--
+-- Meant for multi-year deployments where the hot table still grows large. Run once
+-- against an existing room_booking database created from schema.sql:
+--     mysql -u root -p room_booking < partition_reservations.sql
+-- ReservationArchiver then adds future partitions and drops emptied old ones.
+--
+-- Partitioned InnoDB tables cannot have foreign keys, and every unique key must include
+-- the partitioning column. This script therefore drops the foreign keys from and to
+-- reservations, replaces their ON DELETE CASCADE with triggers, and widens the primary
+-- key to (id, start_time). id stays AUTO_INCREMENT and unique in practice.
+USE room_booking;
+
+-- Foreign keys referencing reservations and those of reservations to users and rooms.
+-- Their names are generated by MySQL, so they are looked up rather than assumed.
+DELIMITER //
+CREATE PROCEDURE drop_reservation_foreign_keys()
+BEGIN
+    DECLARE done INT DEFAULT 0;
+    DECLARE fk_table VARCHAR(64);
+    DECLARE fk_name VARCHAR(64);
+    DECLARE fks CURSOR FOR SELECT table_name, constraint_name FROM reservation_foreign_keys;
+    DECLARE CONTINUE HANDLER FOR NOT FOUND SET done = 1;
+
+    -- Copied first: information_schema changes under the cursor as keys are dropped
+    CREATE TEMPORARY TABLE reservation_foreign_keys AS
+        SELECT DISTINCT TABLE_NAME AS table_name, CONSTRAINT_NAME AS constraint_name
+        FROM information_schema.KEY_COLUMN_USAGE
+        WHERE TABLE_SCHEMA = DATABASE() AND REFERENCED_TABLE_NAME IS NOT NULL
+        AND (REFERENCED_TABLE_NAME = 'reservations' OR TABLE_NAME = 'reservations');
+
+    OPEN fks;
+    drop_keys: LOOP
+        FETCH fks INTO fk_table, fk_name;
+        IF done THEN
+            LEAVE drop_keys;
+        END IF;
+        SET @drop_fk = CONCAT('ALTER TABLE `', fk_table, '` DROP FOREIGN KEY `', fk_name, '`');
+        PREPARE drop_fk FROM @drop_fk;
+        EXECUTE drop_fk;
+        DEALLOCATE PREPARE drop_fk;
+    END LOOP;
+    CLOSE fks;
+    DROP TEMPORARY TABLE reservation_foreign_keys;
+END//
+DELIMITER ;
+
+CALL drop_reservation_foreign_keys();
+DROP PROCEDURE drop_reservation_foreign_keys;
+
+ALTER TABLE reservations DROP PRIMARY KEY, ADD PRIMARY KEY (id, start_time);
+
+-- One partition per quarter; the first one holds everything older
+ALTER TABLE reservations PARTITION BY RANGE COLUMNS(start_time) (
+    PARTITION p_start VALUES LESS THAN ('2025-01-01 00:00:00'),
+    PARTITION p2025q1 VALUES LESS THAN ('2025-04-01 00:00:00'),
+    PARTITION p2025q2 VALUES LESS THAN ('2025-07-01 00:00:00'),
+    PARTITION p2025q3 VALUES LESS THAN ('2025-10-01 00:00:00'),
+    PARTITION p2025q4 VALUES LESS THAN ('2026-01-01 00:00:00'),
+    PARTITION p2026q1 VALUES LESS THAN ('2026-04-01 00:00:00'),
+    PARTITION p2026q2 VALUES LESS THAN ('2026-07-01 00:00:00'),
+    PARTITION p2026q3 VALUES LESS THAN ('2026-10-01 00:00:00'),
+    PARTITION p2026q4 VALUES LESS THAN ('2027-01-01 00:00:00'),
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
+
+-- Triggers standing in for the dropped ON DELETE CASCADE rules
+DELIMITER //
+CREATE TRIGGER trg_reservations_delete_children AFTER DELETE ON reservations FOR EACH ROW
+    FOLLOWS trg_reservations_delete
+BEGIN
+    DELETE FROM reservation_equipment WHERE reservation_id = OLD.id;
+    DELETE FROM reservation_participants WHERE reservation_id = OLD.id;
+    DELETE FROM reservation_reminders WHERE reservation_id = OLD.id;
+END//
+CREATE TRIGGER trg_users_delete_reservations BEFORE DELETE ON users FOR EACH ROW
+    DELETE FROM reservations WHERE user_id = OLD.id//
+CREATE TRIGGER trg_rooms_delete_reservations BEFORE DELETE ON rooms FOR EACH ROW
+    DELETE FROM reservations WHERE room_id = OLD.id//
+DELIMITER ;
@@ -3,6 +3,12 @@ CREATE DATABASE IF NOT EXISTS room_booking;
 USE room_booking;
 
 -- Drop tables if they exist (in reverse order of dependencies)
+DROP TABLE IF EXISTS archive_state;
+DROP TABLE IF EXISTS reservation_participants_archive;
+DROP TABLE IF EXISTS reservation_equipment_archive;
+DROP TABLE IF EXISTS reservations_archive;
+DROP TABLE IF EXISTS reservation_reminders;
+DROP TABLE IF EXISTS change_log;
 DROP TABLE IF EXISTS reservation_equipment;
 DROP TABLE IF EXISTS reservation_participants;
 DROP TABLE IF EXISTS reservations;
@@ -73,12 +79,19 @@ CREATE TABLE reservations (
     subject VARCHAR(200),
     status ENUM('PENDING', 'APPROVED', 'REJECTED', 'CANCELLED') DEFAULT 'PENDING',
     admin_comments TEXT,
+    version INT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     FOREIGN KEY (room_id) REFERENCES rooms(id) ON DELETE CASCADE
 );
 
+-- Databases created before the version column was added: run add_reservation_version.sql
+-- Databases created before reservation reminders were added: run add_reservation_reminders.sql
+-- Databases created before the change feed was added: run add_change_log.sql
+-- Databases created before archiving was added: run add_reservation_archive.sql
+-- Multi-year deployments can partition reservations by quarter with partition_reservations.sql
+
 -- Create reservation_equipment junction table
 CREATE TABLE reservation_equipment (
     reservation_id INT,
@@ -101,6 +114,97 @@ CREATE TABLE reservation_participants (
     FOREIGN KEY (reservation_id) REFERENCES reservations(id) ON DELETE CASCADE
 );
 
+-- Create reservation_reminders table (one row per reservation that has been claimed for a reminder)
+CREATE TABLE reservation_reminders (
+    reservation_id INT PRIMARY KEY,
+    claim_token VARCHAR(36) NOT NULL,
+    claimed_at DATETIME NOT NULL,
+    sent_at DATETIME NULL,
+    INDEX idx_reminders_claim (claim_token),
+    FOREIGN KEY (reservation_id) REFERENCES reservations(id) ON DELETE CASCADE
+);
+
+-- Create change_log table (append-only feed of row changes that open clients tail by seq)
+CREATE TABLE change_log (
+    seq BIGINT PRIMARY KEY AUTO_INCREMENT,
+    entity_type ENUM('RESERVATION', 'ROOM', 'USER') NOT NULL,
+    entity_id INT NOT NULL,
+    operation ENUM('INSERT', 'UPDATE', 'DELETE') NOT NULL,
+    user_id INT NULL,
+    changed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_change_log_changed_at (changed_at)
+);
+
+-- Triggers that fill change_log; user_id is the owner of a reservation so user dashboards can filter
+CREATE TRIGGER trg_reservations_insert AFTER INSERT ON reservations FOR EACH ROW
+    INSERT INTO change_log (entity_type, entity_id, operation, user_id) VALUES ('RESERVATION', NEW.id, 'INSERT', NEW.user_id);
+CREATE TRIGGER trg_reservations_update AFTER UPDATE ON reservations FOR EACH ROW
+    INSERT INTO change_log (entity_type, entity_id, operation, user_id) VALUES ('RESERVATION', NEW.id, 'UPDATE', NEW.user_id);
+-- Rows moved to reservations_archive are not deletions; ReservationArchiveDAO sets @archiving while moving them
+CREATE TRIGGER trg_reservations_delete AFTER DELETE ON reservations FOR EACH ROW
+    INSERT INTO change_log (entity_type, entity_id, operation, user_id)
+    SELECT 'RESERVATION', OLD.id, 'DELETE', OLD.user_id FROM DUAL WHERE @archiving IS NULL;
+CREATE TRIGGER trg_rooms_insert AFTER INSERT ON rooms FOR EACH ROW
+    INSERT INTO change_log (entity_type, entity_id, operation) VALUES ('ROOM', NEW.id, 'INSERT');
+CREATE TRIGGER trg_rooms_update AFTER UPDATE ON rooms FOR EACH ROW
+    INSERT INTO change_log (entity_type, entity_id, operation) VALUES ('ROOM', NEW.id, 'UPDATE');
+CREATE TRIGGER trg_rooms_delete AFTER DELETE ON rooms FOR EACH ROW
+    INSERT INTO change_log (entity_type, entity_id, operation) VALUES ('ROOM', OLD.id, 'DELETE');
+CREATE TRIGGER trg_users_insert AFTER INSERT ON users FOR EACH ROW
+    INSERT INTO change_log (entity_type, entity_id, operation, user_id) VALUES ('USER', NEW.id, 'INSERT', NEW.id);
+CREATE TRIGGER trg_users_update AFTER UPDATE ON users FOR EACH ROW
+    INSERT INTO change_log (entity_type, entity_id, operation, user_id) VALUES ('USER', NEW.id, 'UPDATE', NEW.id);
+CREATE TRIGGER trg_users_delete AFTER DELETE ON users FOR EACH ROW
+    INSERT INTO change_log (entity_type, entity_id, operation, user_id) VALUES ('USER', OLD.id, 'DELETE', OLD.id);
+
+-- Create archive tables (completed and cancelled reservations moved out of the hot table by ReservationArchiver)
+CREATE TABLE reservations_archive (
+    id INT PRIMARY KEY,
+    user_id INT NOT NULL,
+    room_id INT NOT NULL,
+    start_time DATETIME NOT NULL,
+    end_time DATETIME NOT NULL,
+    subject VARCHAR(200),
+    status ENUM('PENDING', 'APPROVED', 'REJECTED', 'CANCELLED') NOT NULL,
+    admin_comments TEXT,
+    version INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_reservations_archive_time (start_time, end_time),
+    INDEX idx_reservations_archive_user (user_id, start_time),
+    INDEX idx_reservations_archive_room_start (room_id, start_time),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (room_id) REFERENCES rooms(id) ON DELETE CASCADE
+);
+
+CREATE TABLE reservation_equipment_archive (
+    reservation_id INT,
+    equipment_id INT,
+    created_at TIMESTAMP NULL,
+    PRIMARY KEY (reservation_id, equipment_id),
+    FOREIGN KEY (reservation_id) REFERENCES reservations_archive(id) ON DELETE CASCADE,
+    FOREIGN KEY (equipment_id) REFERENCES equipment(id) ON DELETE CASCADE
+);
+
+CREATE TABLE reservation_participants_archive (
+    id INT PRIMARY KEY,
+    reservation_id INT,
+    email VARCHAR(100) NOT NULL,
+    name VARCHAR(100),
+    status ENUM('PENDING', 'ACCEPTED', 'DECLINED') DEFAULT 'PENDING',
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    FOREIGN KEY (reservation_id) REFERENCES reservations_archive(id) ON DELETE CASCADE
+);
+
+-- Create archive_state table (reservations_archive only holds rows that ended before archived_before)
+CREATE TABLE archive_state (
+    table_name VARCHAR(64) PRIMARY KEY,
+    archived_before DATETIME NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
 -- Insert sample data
 
 -- Insert sample profiles
@@ -128,9 +232,10 @@ INSERT INTO equipment (name, type, description) VALUES
 ('Laptop 1', 'COMPUTER', 'Dell laptop with presentation software');
 
 -- Create indexes for better performance
-CREATE INDEX idx_reservations_user ON reservations(user_id);
-CREATE INDEX idx_reservations_room ON reservations(room_id);
+CREATE INDEX idx_reservations_user_start ON reservations(user_id, start_time);
+CREATE INDEX idx_reservations_room_start ON reservations(room_id, start_time);
 CREATE INDEX idx_reservations_status ON reservations(status);
 CREATE INDEX idx_reservations_time ON reservations(start_time, end_time);
+CREATE INDEX idx_reservations_status_start ON reservations(status, start_time);
 CREATE INDEX idx_equipment_available ON equipment(is_available);
 CREATE INDEX idx_rooms_active ON rooms(is_active); 
\ No newline at end of file
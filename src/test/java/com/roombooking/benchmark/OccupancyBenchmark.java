@@ -0,0 +1,199 @@
+package com.roombooking.benchmark;
+
+import com.roombooking.model.Reservation;
+import com.roombooking.util.OccupancyBitmapIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares availability checks on a year of bookings: the slot bitmap, a sorted
+ * interval index per room (TreeMap keyed by start, valid because a room's bookings
+ * do not overlap) and the linear scan the controllers do over loaded reservations.
+ * The SQL variant needs a live database and is not part of this benchmark.
+ * {@link #main} logs the bitmap's footprint before the benchmarks run. Every room
+ * here is booked on nearly all of the 260 weekdays, a busy case whose sparse years
+ * come close to the dense size.
+ * <p>
+ * Run with {@code mvn test-compile} and then the {@link #main} method from the IDE
+ * or with the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OccupancyBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyBenchmark.class);
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    @Param({"50", "200"})
+    public int roomCount;
+
+    private final List<Integer> roomIds = new ArrayList<>();
+    private final Map<Integer, List<Reservation>> byRoom = new HashMap<>();
+    private final Map<Integer, TreeMap<LocalDateTime, Reservation>> intervalIndex = new HashMap<>();
+    private OccupancyBitmapIndex bitmap;
+    private List<LocalDate> twentyMondays;
+    private LocalDateTime[] windowStarts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Reservation> all = new ArrayList<>();
+        for (int roomId = 1; roomId <= roomCount; roomId++) {
+            roomIds.add(roomId);
+            List<Reservation> reservations = new ArrayList<>();
+            TreeMap<LocalDateTime, Reservation> tree = new TreeMap<>();
+            for (LocalDate day = FIRST_DAY; day.getYear() == FIRST_DAY.getYear(); day = day.plusDays(1)) {
+                if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                    continue;
+                }
+                // Up to six hour-long meetings between 08:00 and 18:00
+                LocalDateTime slot = day.atTime(8, 0);
+                while (slot.getHour() < 18) {
+                    if (random.nextInt(10) < 6) {
+                        Reservation reservation = new Reservation();
+                        reservation.setRoomId(roomId);
+                        reservation.setStartTime(slot);
+                        reservation.setEndTime(slot.plusMinutes(60));
+                        reservations.add(reservation);
+                        tree.put(slot, reservation);
+                    }
+                    slot = slot.plusMinutes(90);
+                }
+            }
+            byRoom.put(roomId, reservations);
+            intervalIndex.put(roomId, tree);
+            all.addAll(reservations);
+        }
+        bitmap = OccupancyBitmapIndex.of(all);
+
+        twentyMondays = new ArrayList<>();
+        for (int week = 0; week < 20; week++) {
+            twentyMondays.add(LocalDate.of(2024, 3, 4).plusWeeks(week));
+        }
+        windowStarts = new LocalDateTime[1024];
+        for (int i = 0; i < windowStarts.length; i++) {
+            windowStarts[i] = FIRST_DAY.plusDays(random.nextInt(360)).atTime(8 + random.nextInt(9), 15 * random.nextInt(4));
+        }
+    }
+
+    private LocalDateTime nextWindow() {
+        next = (next + 1) & (windowStarts.length - 1);
+        return windowStarts[next];
+    }
+
+    // Single window on one room
+
+    @Benchmark
+    public boolean windowBitmap() {
+        LocalDateTime start = nextWindow();
+        return bitmap.isFree(1 + next % roomCount, start, start.plusMinutes(45));
+    }
+
+    @Benchmark
+    public boolean windowIntervalIndex() {
+        LocalDateTime start = nextWindow();
+        return isFreeInterval(1 + next % roomCount, start, start.plusMinutes(45));
+    }
+
+    @Benchmark
+    public boolean windowLinearScan() {
+        LocalDateTime start = nextWindow();
+        return isFreeLinear(1 + next % roomCount, start, start.plusMinutes(45));
+    }
+
+    // Which rooms are free at 10:00 on twenty Mondays
+
+    @Benchmark
+    public List<Integer> recurringBitmap() {
+        return bitmap.findFreeRooms(roomIds, twentyMondays, LocalTime.of(10, 0), LocalTime.of(11, 0));
+    }
+
+    @Benchmark
+    public List<Integer> recurringIntervalIndex() {
+        List<Integer> free = new ArrayList<>();
+        for (Integer roomId : roomIds) {
+            boolean ok = true;
+            for (LocalDate day : twentyMondays) {
+                if (!isFreeInterval(roomId, day.atTime(10, 0), day.atTime(11, 0))) {
+                    ok = false;
+                    break;
+                }
+            }
+            if (ok) {
+                free.add(roomId);
+            }
+        }
+        return free;
+    }
+
+    @Benchmark
+    public List<Integer> recurringLinearScan() {
+        List<Integer> free = new ArrayList<>();
+        for (Integer roomId : roomIds) {
+            boolean ok = true;
+            for (LocalDate day : twentyMondays) {
+                if (!isFreeLinear(roomId, day.atTime(10, 0), day.atTime(11, 0))) {
+                    ok = false;
+                    break;
+                }
+            }
+            if (ok) {
+                free.add(roomId);
+            }
+        }
+        return free;
+    }
+
+    private boolean isFreeInterval(int roomId, LocalDateTime start, LocalDateTime end) {
+        Entry<LocalDateTime, Reservation> before = intervalIndex.get(roomId).lowerEntry(end);
+        return before == null || !before.getValue().getEndTime().isAfter(start);
+    }
+
+    private boolean isFreeLinear(int roomId, LocalDateTime start, LocalDateTime end) {
+        return byRoom.get(roomId).stream().noneMatch(r ->
+            start.isBefore(r.getEndTime()) && end.isAfter(r.getStartTime()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OccupancyBenchmark footprint = new OccupancyBenchmark();
+        footprint.roomCount = 200;
+        footprint.setUp();
+        logger.info("Bitmap footprint: {} bytes per room-year",
+            footprint.bitmap.footprintBytes() / footprint.roomCount);
+
+        new Runner(new OptionsBuilder()
+            .include(OccupancyBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
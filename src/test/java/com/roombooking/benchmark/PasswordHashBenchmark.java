@@ -0,0 +1,59 @@
+package com.roombooking.benchmark;
+
+import com.roombooking.util.PasswordHashPolicy;
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of one BCrypt verification at each cost {@link PasswordHashPolicy} may choose,
+ * i.e. the CPU a login costs on this machine. Each step should double the time; the
+ * policy's calibration assumes as much when it extrapolates from cost 10.
+ * <p>
+ * Run with {@code mvn test-compile} and then the {@link #main} method from the IDE
+ * or with the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashBenchmark {
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"10", "11", "12", "13", "14"})
+    public int cost;
+
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        hash = BCrypt.hashpw(PASSWORD, BCrypt.gensalt(cost));
+    }
+
+    @Benchmark
+    public boolean checkpw() {
+        return BCrypt.checkpw(PASSWORD, hash);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(PasswordHashBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
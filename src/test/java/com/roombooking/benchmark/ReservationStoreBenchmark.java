@@ -0,0 +1,151 @@
+package com.roombooking.benchmark;
+
+import com.roombooking.model.Reservation;
+import com.roombooking.util.ReservationStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a List of Reservation objects with a {@link ReservationStore} holding the
+ * same bookings: retained heap per reservation, printed by {@link #main} before the
+ * benchmarks run, and the time to scan every booking for one room's overlaps in a
+ * window. Strings are created per row, as the database driver returns them.
+ * <p>
+ * Run with {@code mvn test-compile} and then the {@link #main} method from the IDE
+ * or with the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReservationStoreBenchmark {
+    private static final String[] STATUSES = {"PENDING", "APPROVED", "APPROVED", "APPROVED", "CANCELLED"};
+    private static final String[] SUBJECTS = {"Standup", "Team meeting", "1:1", "Interview", "Planning", "Review"};
+    private static final int ROOMS = 200;
+    private static final int USERS = 2000;
+
+    @Param({"100000", "500000"})
+    public int reservationCount;
+
+    private List<Reservation> list;
+    private ReservationStore store;
+    private LocalDateTime windowStart;
+    private LocalDateTime windowEnd;
+
+    @Setup
+    public void setUp() {
+        list = generate(reservationCount);
+        store = ReservationStore.of(list);
+        windowStart = list.get(list.size() / 2).getStartTime();
+        windowEnd = windowStart.plusDays(7);
+    }
+
+    static List<Reservation> generate(int count) {
+        Random random = new Random(42);
+        LocalDate firstDay = LocalDate.of(2024, 1, 1);
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int roomId = 1 + random.nextInt(ROOMS);
+            int userId = 1 + random.nextInt(USERS);
+            LocalDateTime start = firstDay.plusDays(i * 365L / count).atTime(8 + random.nextInt(10), 15 * random.nextInt(4));
+            Reservation reservation = new Reservation();
+            reservation.setId(i + 1);
+            reservation.setRoomId(roomId);
+            reservation.setUserId(userId);
+            reservation.setRoomName("Room " + roomId);
+            reservation.setUserName("user" + userId);
+            reservation.setStartTime(start);
+            reservation.setEndTime(start.plusMinutes(30 + 30 * random.nextInt(4)));
+            reservation.setStatus(new String(STATUSES[random.nextInt(STATUSES.length)]));
+            // Most subjects repeat; one in five is free text
+            reservation.setSubject(random.nextInt(5) == 0 ? "Customer call #" + i
+                : new String(SUBJECTS[random.nextInt(SUBJECTS.length)]));
+            reservation.setVersion(1);
+            reservations.add(reservation);
+        }
+        return reservations;
+    }
+
+    @Benchmark
+    public int overlapsInList() {
+        int count = 0;
+        for (Reservation reservation : list) {
+            if (reservation.getRoomId() == 17 && reservation.getStartTime().isBefore(windowEnd)
+                    && reservation.getEndTime().isAfter(windowStart)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int overlapsInStore() {
+        int from = ReservationStore.toEpochMinute(windowStart);
+        int to = ReservationStore.toEpochMinute(windowEnd);
+        int count = 0;
+        ReservationStore.Cursor row = store.cursor();
+        for (int i = 0; i < store.size(); i++) {
+            row.moveTo(i);
+            if (row.getRoomId() == 17 && row.overlaps(from, to)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public ReservationStore buildStore() {
+        return ReservationStore.of(list);
+    }
+
+    private static long usedHeap(MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) throws RunnerException, InterruptedException {
+        int count = 500_000;
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long baseline = usedHeap(memory);
+        List<Reservation> reservations = generate(count);
+        long withList = usedHeap(memory);
+        ReservationStore store = ReservationStore.of(reservations);
+        long withBoth = usedHeap(memory);
+        System.out.printf("List<Reservation>: %d bytes per reservation%n", (withList - baseline) / count);
+        System.out.printf("ReservationStore: %d bytes per reservation (estimated %d)%n",
+            (withBoth - withList) / count, store.footprintBytes() / count);
+        Reference.reachabilityFence(reservations);
+        Reference.reachabilityFence(store);
+
+        new Runner(new OptionsBuilder()
+            .include(ReservationStoreBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
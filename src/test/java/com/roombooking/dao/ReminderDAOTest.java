@@ -0,0 +1,114 @@
+package com.roombooking.dao;
+
+import com.roombooking.util.DatabaseConnection;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs the reminder claim statements against a real database; skipped without one.
+ * Creates its own user, room and reservation and deletes them afterwards.
+ */
+public class ReminderDAOTest {
+    private static final Duration LEASE = Duration.ofMinutes(10);
+    private static final ReminderDAO reminderDAO = new ReminderDAO();
+    private static final LocalDateTime START = LocalDateTime.now().plusMinutes(30).truncatedTo(ChronoUnit.SECONDS);
+    private static int userId;
+    private static int roomId;
+    private static int reservationId;
+
+    @BeforeAll
+    public static void createReservation() throws SQLException {
+        boolean connected;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            connected = conn.isValid(2);
+        } catch (SQLException | RuntimeException | LinkageError e) {
+            connected = false;
+        }
+        assumeTrue(connected, "no database");
+        String name = "reminder-test-" + UUID.randomUUID().toString().substring(0, 8);
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            userId = insert(conn, "INSERT INTO users (username, password_hash, email) VALUES ('" + name
+                + "', 'x', '" + name + "@example.com')");
+            roomId = insert(conn, "INSERT INTO rooms (name, capacity) VALUES ('" + name + "', 1)");
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO reservations (user_id, room_id, start_time, end_time, status) " +
+                    "VALUES (?, ?, ?, ?, 'APPROVED')", Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setInt(1, userId);
+                stmt.setInt(2, roomId);
+                stmt.setTimestamp(3, Timestamp.valueOf(START));
+                stmt.setTimestamp(4, Timestamp.valueOf(START.plusHours(1)));
+                stmt.executeUpdate();
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    keys.next();
+                    reservationId = keys.getInt(1);
+                }
+            }
+        }
+    }
+
+    @AfterAll
+    public static void deleteReservation() throws SQLException {
+        if (userId == 0) {
+            return;
+        }
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM users WHERE id = " + userId);
+            stmt.executeUpdate("DELETE FROM rooms WHERE id = " + roomId);
+        }
+    }
+
+    private static int insert(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql, Statement.RETURN_GENERATED_KEYS);
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    private static void backdateClaim(int minutes) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE reservation_reminders SET claimed_at = NOW() - INTERVAL " + minutes
+                + " MINUTE WHERE reservation_id = " + reservationId);
+        }
+    }
+
+    private static boolean claim() {
+        return reminderDAO.claimDueReminders(UUID.randomUUID().toString(), START, START.plusSeconds(1), 10, LEASE)
+            .contains(reservationId);
+    }
+
+    @Test
+    public void testClaimReclaimAndSent() throws SQLException {
+        assertTrue(claim());
+        // Held by the first claim
+        assertFalse(claim());
+
+        // Never sent and past the lease: taken over, once
+        backdateClaim(11);
+        assertTrue(claim());
+        assertFalse(claim());
+
+        assertEquals(1, reminderDAO.markSent(List.of(reservationId)));
+        backdateClaim(11);
+        assertFalse(claim());
+    }
+}
@@ -0,0 +1,57 @@
+package com.roombooking.dao;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks with EXPLAIN that the DAO range queries only read the partitions they need.
+ * Needs a database where partition_reservations.sql has been applied; skipped otherwise.
+ */
+public class ReservationPartitionPruningTest {
+    private static final PartitionDAO partitionDAO = new PartitionDAO();
+
+    @BeforeAll
+    public static void requirePartitionedTable() {
+        boolean partitioned;
+        try {
+            partitioned = partitionDAO.listPartitions("reservations").size() > 1;
+        } catch (RuntimeException | LinkageError e) {
+            partitioned = false;
+        }
+        assumeTrue(partitioned, "reservations is not partitioned");
+    }
+
+    private static List<String> partitionsRead(ReservationQuery query) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM reservations r WHERE " + ReservationDAO.rangeCondition(query, params);
+        return partitionDAO.explainPartitions(sql, params);
+    }
+
+    @Test
+    public void testOverlappingWeekReadsOneQuarter() {
+        List<String> partitions = partitionsRead(ReservationQuery.overlapping(
+            LocalDateTime.of(2025, 2, 10, 0, 0), LocalDateTime.of(2025, 2, 17, 0, 0)));
+        assertEquals(List.of("p2025q1"), partitions);
+    }
+
+    @Test
+    public void testLookbackCrossesQuarterBoundary() {
+        // Overlap queries look back at least MAX_RESERVATION_LENGTH, into the previous quarter
+        List<String> partitions = partitionsRead(ReservationQuery.overlapping(
+            LocalDateTime.of(2025, 4, 1, 8, 0), LocalDateTime.of(2025, 4, 1, 18, 0)));
+        assertEquals(List.of("p2025q1", "p2025q2"), partitions);
+    }
+
+    @Test
+    public void testReportMonthReadsOneQuarter() {
+        List<String> partitions = partitionsRead(ReservationQuery.startingIn(
+            LocalDateTime.of(2025, 8, 1, 0, 0), LocalDateTime.of(2025, 9, 1, 0, 0)).room(1));
+        assertEquals(List.of("p2025q3"), partitions);
+    }
+}
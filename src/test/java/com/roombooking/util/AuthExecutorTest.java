@@ -0,0 +1,67 @@
+package com.roombooking.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class AuthExecutorTest {
+
+    @Test
+    public void testRejectsWhenQueueIsFull() throws Exception {
+        AuthExecutor executor = new AuthExecutor(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> running = executor.submit(() -> {
+            started.countDown();
+            await(release);
+            return "first";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = executor.submit(() -> "second");
+        CompletableFuture<String> rejected = executor.submit(() -> "third");
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertThrows(RejectedExecutionException.class, () -> executor.invoke(() -> "fourth"));
+
+        release.countDown();
+        assertEquals("first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+
+        AuthExecutor.Stats stats = executor.getStats();
+        assertEquals(2, stats.getCompleted());
+        assertEquals(2, stats.getRejected());
+        assertTrue(stats.getMaxWaitMillis() > 0);
+    }
+
+    @Test
+    public void testInvokeFromPoolRunsInPlace() throws Exception {
+        AuthExecutor executor = new AuthExecutor(1, 1);
+        // With one worker, waiting for a second pool slot here would never finish
+        CompletableFuture<String> outer = executor.submit(() -> executor.invoke(() -> "inner"));
+        assertEquals("inner", outer.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testInvokeRethrowsTaskException() {
+        AuthExecutor executor = new AuthExecutor(1, 1);
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> executor.invoke(() -> { throw new IllegalStateException("boom"); }));
+        assertEquals("boom", e.getMessage());
+        assertEquals(1, executor.getStats().getFailed());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.roombooking.util;
+
+import com.roombooking.model.Reservation;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CalendarDataCacheTest {
+
+    private final Map<YearMonth, AtomicInteger> loads = new ConcurrentHashMap<>();
+    private final CalendarDataCache cache = new CalendarDataCache(month -> {
+        loads.computeIfAbsent(month, m -> new AtomicInteger()).incrementAndGet();
+        Reservation reservation = new Reservation();
+        reservation.setStartTime(month.atDay(1).atTime(9, 0));
+        reservation.setEndTime(month.atDay(1).atTime(10, 0));
+        return List.of(reservation);
+    });
+
+    private int loadCount(YearMonth month) {
+        AtomicInteger count = loads.get(month);
+        return count == null ? 0 : count.get();
+    }
+
+    @Test
+    public void testMonthIsLoadedOnce() {
+        YearMonth month = YearMonth.of(2024, 3);
+        assertNull(cache.getIfLoaded(month));
+
+        assertEquals(1, cache.get(month).join().size());
+        assertEquals(1, cache.get(month).join().size());
+
+        assertNotNull(cache.getIfLoaded(month));
+        assertEquals(1, loadCount(month));
+    }
+
+    @Test
+    public void testPrefetchLoadsNeighbours() {
+        YearMonth month = YearMonth.of(2024, 3);
+        cache.prefetchAround(month);
+
+        cache.get(month.minusMonths(1)).join();
+        cache.get(month.plusMonths(1)).join();
+        assertEquals(1, loadCount(month.minusMonths(1)));
+        assertEquals(1, loadCount(month.plusMonths(1)));
+        assertEquals(0, loadCount(month));
+    }
+
+    @Test
+    public void testInvalidateDropsOverlappingMonthsOnly() {
+        YearMonth march = YearMonth.of(2024, 3);
+        YearMonth april = YearMonth.of(2024, 4);
+        YearMonth may = YearMonth.of(2024, 5);
+        cache.get(march).join();
+        cache.get(april).join();
+        cache.get(may).join();
+
+        // A reservation crossing midnight at the end of March touches March and April
+        cache.invalidate(LocalDateTime.of(2024, 3, 31, 22, 0), LocalDateTime.of(2024, 4, 1, 2, 0));
+
+        assertNull(cache.getIfLoaded(march));
+        assertNull(cache.getIfLoaded(april));
+        assertNotNull(cache.getIfLoaded(may));
+
+        cache.get(march).join();
+        assertEquals(2, loadCount(march));
+    }
+
+    @Test
+    public void testFailedLoadIsRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        CalendarDataCache failing = new CalendarDataCache(month -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new RuntimeException("Database error occurred");
+            }
+            return List.of();
+        });
+        YearMonth month = YearMonth.of(2024, 3);
+
+        assertThrows(Exception.class, () -> failing.get(month).join());
+        assertTrue(failing.get(month).join().isEmpty());
+        assertEquals(2, attempts.get());
+    }
+}
@@ -0,0 +1,113 @@
+package com.roombooking.util;
+
+import com.roombooking.dao.ChangeLogDAO;
+import com.roombooking.model.ChangeEvent;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+public class ChangeFeedPollerTest {
+
+    /**
+     * In-memory change log; rows become visible when "committed"
+     */
+    private static class FakeChangeLog extends ChangeLogDAO {
+        private final TreeMap<Long, ChangeEvent> rows = new TreeMap<>();
+        private int queries;
+
+        void commit(long seq) {
+            rows.put(seq, new ChangeEvent(seq, ChangeEvent.EntityType.RESERVATION, (int) seq,
+                ChangeEvent.Operation.UPDATE, 1, LocalDateTime.now()));
+        }
+
+        @Override
+        public long getLatestSeq() {
+            queries++;
+            return rows.isEmpty() ? 0 : rows.lastKey();
+        }
+
+        @Override
+        public List<ChangeEvent> findAfter(long afterSeq, int limit) {
+            queries++;
+            List<ChangeEvent> result = new ArrayList<>(rows.tailMap(afterSeq, false).values());
+            return result.subList(0, Math.min(limit, result.size()));
+        }
+
+        @Override
+        public int deleteOlderThan(LocalDateTime cutoff, int limit) {
+            return 0;
+        }
+    }
+
+    private final FakeChangeLog log = new FakeChangeLog();
+    private final ChangeEventBus bus = new ChangeEventBus();
+    private final ChangeFeedPoller poller = new ChangeFeedPoller(log, bus);
+    private final List<Long> received = new ArrayList<>();
+
+    private void subscribe() {
+        bus.subscribe(event -> true, events -> events.forEach(e -> received.add(e.getSeq())));
+    }
+
+    @Test
+    public void testStartsFromHeadAndDeliversNewChanges() {
+        log.commit(1);
+        log.commit(2);
+        subscribe();
+
+        poller.pollOnce(0);
+        assertTrue(received.isEmpty());
+        assertEquals(2, poller.getWatermark());
+
+        log.commit(3);
+        log.commit(4);
+        poller.pollOnce(1000);
+        poller.pollOnce(2000);
+        assertEquals(List.of(3L, 4L), received);
+        assertEquals(4, poller.getWatermark());
+    }
+
+    @Test
+    public void testLateCommitBelowWatermarkIsNotMissed() {
+        subscribe();
+        poller.pollOnce(0);
+
+        // 2 was allocated before 3 but commits after it
+        log.commit(1);
+        log.commit(3);
+        poller.pollOnce(1000);
+        assertEquals(List.of(1L, 3L), received);
+        assertEquals(1, poller.getWatermark());
+
+        log.commit(2);
+        poller.pollOnce(2000);
+        assertEquals(List.of(1L, 3L, 2L), received);
+        assertEquals(3, poller.getWatermark());
+    }
+
+    @Test
+    public void testGapIsSkippedAfterTimeout() {
+        subscribe();
+        poller.pollOnce(0);
+
+        log.commit(2);
+        poller.pollOnce(1000);
+        poller.pollOnce(1000 + ChangeFeedPoller.GAP_TIMEOUT_MILLIS - 1);
+        assertEquals(0, poller.getWatermark());
+
+        poller.pollOnce(1000 + ChangeFeedPoller.GAP_TIMEOUT_MILLIS);
+        assertEquals(2, poller.getWatermark());
+        assertEquals(List.of(2L), received);
+    }
+
+    @Test
+    public void testNoQueriesWithoutSubscribers() {
+        log.commit(1);
+        poller.pollOnce(0);
+        poller.pollOnce(1000);
+        assertEquals(0, log.queries);
+    }
+}
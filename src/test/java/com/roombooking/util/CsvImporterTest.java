@@ -0,0 +1,182 @@
+package com.roombooking.util;
+
+import com.roombooking.model.Equipment;
+import com.roombooking.model.Room;
+import com.roombooking.model.User;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+public class CsvImporterTest {
+
+    private final List<Room> rooms = Collections.synchronizedList(new ArrayList<>());
+    private final List<Equipment> equipment = Collections.synchronizedList(new ArrayList<>());
+    private final List<User> users = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> chunkSizes = Collections.synchronizedList(new ArrayList<>());
+
+    private CsvImporter importer(int chunkSize) {
+        return importer(chunkSize, password -> "hashed:" + password);
+    }
+
+    private CsvImporter importer(int chunkSize, UnaryOperator<String> hasher) {
+        return new CsvImporter(
+            chunk -> {
+                chunkSizes.add(chunk.size());
+                rooms.addAll(chunk);
+                return Map.of();
+            },
+            chunk -> {
+                equipment.addAll(chunk);
+                return Map.of();
+            },
+            chunk -> {
+                // The database rejects usernames that are already taken
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (chunk.get(i).getUsername().equals("taken")) {
+                        List<User> accepted = new ArrayList<>(chunk);
+                        accepted.remove(i);
+                        users.addAll(accepted);
+                        return Map.of(i, "Duplicate entry 'taken' for key 'username'");
+                    }
+                }
+                users.addAll(chunk);
+                return Map.of();
+            },
+            hasher, 2, chunkSize);
+    }
+
+    private static List<Long> errorLines(ImportReport report) {
+        return report.getErrors().stream().map(ImportReport.RowError::getLine).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testCsvReader() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(
+            "a,\"b, c\",\"say \"\"hi\"\"\"\r\n" +
+            ",\"two\nlines\",\n" +
+            "last"));
+
+        assertEquals(List.of("a", "b, c", "say \"hi\""), reader.next());
+        assertEquals(1, reader.getLineNumber());
+        assertEquals(List.of("", "two\nlines", ""), reader.next());
+        assertEquals(2, reader.getLineNumber());
+        assertEquals(List.of("last"), reader.next());
+        assertEquals(4, reader.getLineNumber());
+        assertNull(reader.next());
+
+        CsvReader unclosed = new CsvReader(new StringReader("a,\"open\nnever closed"));
+        assertThrows(IOException.class, unclosed::next);
+    }
+
+    @Test
+    public void testRoomsAreValidatedAndChunked() throws IOException {
+        StringBuilder csv = new StringBuilder("Name,Capacity,Type,Location,Description,Active,Notes\n");
+        for (int i = 1; i <= 25; i++) {
+            csv.append("Room ").append(i).append(',').append(i).append(",MEETING,\"Building 1, Floor 2\",,yes,x\n");
+        }
+        csv.append("\n");
+        csv.append(",10,MEETING,,,,\n");
+        csv.append("Big Room,many,,,,,\n");
+        csv.append("Zero Room,0,,,,,\n");
+        csv.append("Odd Room,5,,,,maybe,\n");
+
+        ImportReport report = importer(10).importRooms(new StringReader(csv.toString()));
+
+        assertEquals(29, report.getRowsRead());
+        assertEquals(25, report.getImported());
+        assertEquals(4, report.getFailed());
+        assertEquals(List.of(28L, 29L, 30L, 31L), errorLines(report));
+        assertEquals("name is required", report.getErrors().get(0).getMessage());
+        assertEquals(List.of(10, 10, 5), chunkSizes);
+        assertEquals("Building 1, Floor 2", rooms.get(0).getLocation());
+        assertNull(rooms.get(0).getDescription());
+        assertTrue(rooms.get(0).isActive());
+
+        StringWriter errors = new StringWriter();
+        report.writeErrors(errors);
+        assertTrue(errors.toString().startsWith("line,error\r\n28,\"name is required\"\r\n"));
+    }
+
+    @Test
+    public void testMissingColumnsRejectTheFile() {
+        ImportReport report = importer(10).importEquipment(new StringReader("type,description\nPROJECTOR,HD\n"));
+        assertEquals(0, report.getImported());
+        assertEquals("Missing column: name", report.getErrors().get(0).getMessage());
+        assertTrue(equipment.isEmpty());
+
+        report = importer(10).importUsers(new StringReader("username,full_name,email\n"));
+        assertEquals("Missing column: password or password_hash", report.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    public void testUsersAreHashedAndDatabaseErrorsReported() {
+        String csv = "username,full_name,email,password,role\n" +
+            "jdoe,John Doe,john@example.com,secret1,\n" +
+            "asmith,Anna Smith,anna@example.com,secret2,admin\n" +
+            "taken,Tom Taken,tom@example.com,secret3,USER\n" +
+            "jdoe,Jane Doe,jane@example.com,secret4,\n" +
+            "bad name,Bad Name,bad@example.com,secret5,\n" +
+            "noemail,No Email,not-an-email,secret6,\n" +
+            "boss,Big Boss,boss@example.com,secret7,OWNER\n" +
+            "last,Last User,last@example.com,secret8,\n";
+
+        ImportReport report = importer(2).importUsers(new StringReader(csv));
+
+        assertEquals(8, report.getRowsRead());
+        assertEquals(3, report.getImported());
+        assertEquals(List.of(4L, 5L, 6L, 7L, 8L), errorLines(report));
+        assertTrue(report.getErrors().get(0).getMessage().startsWith("Duplicate entry"));
+        assertEquals(List.of("jdoe", "asmith", "last"),
+            users.stream().map(User::getUsername).collect(Collectors.toList()));
+        assertEquals("hashed:secret1", users.get(0).getPassword());
+        assertTrue(users.get(1).isAdmin());
+        assertFalse(users.get(0).isAdmin());
+    }
+
+    @Test
+    public void testExistingHashesAreKept() {
+        String hash = "$2a$10$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0";
+        String csv = "username,full_name,email,password_hash\n" +
+            "jdoe,John Doe,john@example.com," + hash + "\n" +
+            "plain,Plain Text,plain@example.com,secret\n";
+
+        ImportReport report = importer(10).importUsers(new StringReader(csv));
+
+        assertEquals(1, report.getImported());
+        assertEquals(List.of(3L), errorLines(report));
+        assertEquals(hash, users.get(0).getPassword());
+    }
+
+    @Test
+    public void testHashingFailureFailsOnlyItsChunk() {
+        String csv = "username,full_name,email,password\n" +
+            "jdoe,John Doe,john@example.com,secret1\n" +
+            "asmith,Anna Smith,anna@example.com,secret2\n" +
+            "broken,Bro Ken,broken@example.com,boom\n" +
+            "other,Other User,other@example.com,secret4\n" +
+            "last,Last User,last@example.com,secret5\n";
+
+        ImportReport report = importer(2, password -> {
+            if (password.equals("boom")) {
+                throw new IllegalStateException("hasher unavailable");
+            }
+            return "hashed:" + password;
+        }).importUsers(new StringReader(csv));
+
+        assertEquals(5, report.getRowsRead());
+        assertEquals(3, report.getImported());
+        assertEquals(List.of(4L, 5L), errorLines(report));
+        assertEquals("Password hashing failed: hasher unavailable", report.getErrors().get(0).getMessage());
+        assertEquals(List.of("jdoe", "asmith", "last"),
+            users.stream().map(User::getUsername).collect(Collectors.toList()));
+    }
+}
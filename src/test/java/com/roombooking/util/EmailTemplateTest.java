@@ -0,0 +1,42 @@
+package com.roombooking.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+public class EmailTemplateTest {
+
+    @Test
+    public void testCompiledTemplateRendersPlaceholders() {
+        EmailTemplate.Compiled compiled = EmailTemplate.compile("Hello ${name}, see you at ${ time }.${missing}");
+        Map<String, String> values = Map.of("name", "Alice", "time", "10:00");
+
+        assertEquals("Hello Alice, see you at 10:00.", compiled.render(values::get));
+        assertEquals("Hello Bob, see you at 11:30.", compiled.render(Map.of("name", "Bob", "time", "11:30")::get));
+    }
+
+    @Test
+    public void testUnterminatedPlaceholderIsLiteral() {
+        EmailTemplate.Compiled compiled = EmailTemplate.compile("Total: ${amount");
+        assertEquals("Total: ${amount", compiled.render(name -> "x"));
+    }
+
+    @Test
+    public void testBundledTemplatesLoad() {
+        for (String name : new String[] {"confirmation", "cancellation", "reminder", "approval", "rejection"}) {
+            EmailTemplate template = EmailTemplate.get(name);
+            assertFalse(template.getSubject().isEmpty(), name + " should have a subject");
+            assertTrue(template.hasHtml(), name + " should have an HTML part");
+            assertTrue(template.renderText(var -> "[" + var + "]").contains("[roomDetails]"));
+        }
+        assertSame(EmailTemplate.get("approval"), EmailTemplate.get("approval"));
+    }
+
+    @Test
+    public void testEscapeHtml() {
+        assertEquals("Room &lt;A&gt; &amp; &quot;B&quot;", EmailTemplate.escapeHtml("Room <A> & \"B\""));
+        assertEquals("plain", EmailTemplate.escapeHtml("plain"));
+        assertEquals("", EmailTemplate.escapeHtml(null));
+    }
+}
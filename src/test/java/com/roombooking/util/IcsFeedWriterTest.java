@@ -0,0 +1,172 @@
+package com.roombooking.util;
+
+import com.roombooking.dao.FeedVersion;
+import com.roombooking.model.ChangeEvent;
+import com.roombooking.model.Reservation;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class IcsFeedWriterTest {
+
+    private final AtomicInteger versionQueries = new AtomicInteger();
+    private final AtomicInteger streams = new AtomicInteger();
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private List<Reservation> reservations = new ArrayList<>();
+    private FeedVersion version = version(2, LocalDateTime.of(2026, 3, 1, 9, 30), 99);
+
+    private static FeedVersion version(long versionSum, LocalDateTime lastModified, long namesChecksum) {
+        return new FeedVersion(1, 7, versionSum, lastModified, LocalDateTime.of(2026, 1, 1, 0, 0), namesChecksum);
+    }
+
+    private IcsFeedWriter writer() {
+        return new IcsFeedWriter(new IcsFeedWriter.FeedSource() {
+            @Override
+            public FeedVersion version(IcsFeedWriter.Feed feed) {
+                versionQueries.incrementAndGet();
+                return version;
+            }
+
+            @Override
+            public void stream(IcsFeedWriter.Feed feed, Consumer<Reservation> action) {
+                streams.incrementAndGet();
+                reservations.forEach(action);
+            }
+        }, now::get, ZoneOffset.UTC);
+    }
+
+    private static Reservation reservation(int id, String subject, String status) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setUserId(3);
+        reservation.setRoomId(5);
+        reservation.setUserName("jdoe");
+        reservation.setRoomName("Conference Room A");
+        reservation.setStartTime(LocalDateTime.of(2026, 3, 2, 10, 0));
+        reservation.setEndTime(LocalDateTime.of(2026, 3, 2, 11, 30));
+        reservation.setSubject(subject);
+        reservation.setStatus(status);
+        reservation.setVersion(2);
+        return reservation;
+    }
+
+    @Test
+    public void testFeedFormat() throws IOException {
+        reservations.add(reservation(7, "Budget; Q1, draft\nreview", "APPROVED"));
+        StringWriter out = new StringWriter();
+
+        assertTrue(writer().write(IcsFeedWriter.Feed.room(5), "Conference Room A", out, null));
+
+        String feed = out.toString();
+        assertTrue(feed.startsWith("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n"));
+        assertTrue(feed.endsWith("END:VEVENT\r\nEND:VCALENDAR\r\n"));
+        assertTrue(feed.contains("UID:reservation-7@roombooking\r\n"));
+        assertTrue(feed.contains("DTSTAMP:20260301T093000Z\r\n"));
+        assertTrue(feed.contains("DTSTART:20260302T100000Z\r\nDTEND:20260302T113000Z\r\n"));
+        assertTrue(feed.contains("SUMMARY:Budget\\; Q1\\, draft\\nreview (jdoe)\r\n"));
+        assertTrue(feed.contains("LOCATION:Conference Room A\r\nSTATUS:CONFIRMED\r\nSEQUENCE:2\r\n"));
+    }
+
+    @Test
+    public void testLongLinesAreFolded() throws IOException {
+        String subject = "Quarterly planning über alles — ".repeat(6);
+        StringWriter out = new StringWriter();
+        IcsFeedWriter.line(out, "SUMMARY:" + subject);
+
+        String[] lines = out.toString().split("\r\n");
+        assertTrue(lines.length > 1);
+        for (String line : lines) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+        }
+        StringBuilder unfolded = new StringBuilder(lines[0]);
+        for (int i = 1; i < lines.length; i++) {
+            assertEquals(' ', lines[i].charAt(0));
+            unfolded.append(lines[i].substring(1));
+        }
+        assertEquals("SUMMARY:" + subject, unfolded.toString());
+    }
+
+    @Test
+    public void testUnchangedFeedIsNotQueried() throws IOException {
+        reservations.add(reservation(7, "Standup", "PENDING"));
+        IcsFeedWriter writer = writer();
+        IcsFeedWriter.Feed feed = IcsFeedWriter.Feed.user(3);
+
+        String etag = writer.getETag(feed, "Mine");
+        assertFalse(writer.write(feed, "Mine", new StringWriter(), etag));
+        assertTrue(writer.write(feed, "Renamed", new StringWriter(), etag));
+        assertEquals(1, versionQueries.get());
+        assertEquals(1, streams.get());
+
+        // A second update within the same second still changes the version
+        version = version(3, LocalDateTime.of(2026, 3, 1, 9, 30), 99);
+        writer.applyEvent(new ChangeEvent(1, ChangeEvent.EntityType.RESERVATION, 7,
+            ChangeEvent.Operation.UPDATE, 3, LocalDateTime.now()));
+        StringWriter out = new StringWriter();
+        assertTrue(writer.write(feed, "Mine", out, etag));
+        assertEquals(2, versionQueries.get());
+        assertEquals(2, streams.get());
+        assertTrue(out.toString().contains("STATUS:TENTATIVE"));
+        String updated = writer.getETag(feed, "Mine");
+        assertNotEquals(etag, updated);
+
+        // Renaming a room or user the feed shows drops it too
+        version = version(3, LocalDateTime.of(2026, 3, 1, 9, 30), 100);
+        writer.applyEvent(new ChangeEvent(2, ChangeEvent.EntityType.USER, 3,
+            ChangeEvent.Operation.UPDATE, null, LocalDateTime.now()));
+        assertNotEquals(updated, writer.getETag(feed, "Mine"));
+        assertEquals(3, versionQueries.get());
+
+        // Without events the cached version expires
+        now.addAndGet(IcsFeedWriter.MAX_AGE_MILLIS + 1);
+        writer.getETag(feed, "Mine");
+        assertEquals(4, versionQueries.get());
+    }
+
+    @Test
+    public void testLargeFeedIsStreamed() throws IOException {
+        reservations = new ArrayList<>();
+        for (int i = 1; i <= 50_000; i++) {
+            reservations.add(reservation(i, "Booking " + i, i % 3 == 0 ? "PENDING" : "APPROVED"));
+        }
+        AtomicInteger events = new AtomicInteger();
+        Writer counting = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+            }
+
+            @Override
+            public void write(String text) {
+                if (text.equals("BEGIN:VEVENT")) {
+                    events.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        long start = System.nanoTime();
+        writer().write(IcsFeedWriter.Feed.room(5), "Busy Room", counting, null);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(50_000, events.get());
+        assertTrue(millis < 2000, "took " + millis + " ms");
+    }
+}
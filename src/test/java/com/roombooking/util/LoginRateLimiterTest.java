@@ -0,0 +1,137 @@
+package com.roombooking.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoginRateLimiterTest {
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    // A login attempt with a wrong password: refused, or checked and then counted as failed
+    private boolean tryFailedLogin(LoginRateLimiter limiter, String username, String source) {
+        try {
+            limiter.check(username, source);
+        } catch (RateLimitExceededException e) {
+            assertTrue(e.getRetryAfterSeconds() >= 1);
+            return false;
+        }
+        limiter.recordFailure(username, source);
+        return true;
+    }
+
+    @Test
+    public void testLimitsPerUsernameCaseInsensitively() {
+        LoginRateLimiter limiter = new LoginRateLimiter(3, 100, 60_000, clock::get);
+
+        assertTrue(tryFailedLogin(limiter, "alice", "a"));
+        assertTrue(tryFailedLogin(limiter, "Alice", "b"));
+        assertTrue(tryFailedLogin(limiter, " ALICE ", "c"));
+        assertFalse(tryFailedLogin(limiter, "alice", "d"));
+        assertTrue(tryFailedLogin(limiter, "bob", "a"));
+    }
+
+    @Test
+    public void testLimitsPerSource() {
+        LoginRateLimiter limiter = new LoginRateLimiter(100, 5, 60_000, clock::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(tryFailedLogin(limiter, "user" + i, "10.0.0.1"));
+        }
+        assertFalse(tryFailedLogin(limiter, "user9", "10.0.0.1"));
+        assertTrue(tryFailedLogin(limiter, "user9", "10.0.0.2"));
+        assertThrows(IllegalArgumentException.class, () -> limiter.check("user9", null));
+        assertThrows(IllegalArgumentException.class, () -> limiter.recordFailure("user9", " "));
+    }
+
+    @Test
+    public void testRefusedAttemptsAreNotCountedAndSuccessClears() {
+        LoginRateLimiter limiter = new LoginRateLimiter(3, 100, 60_000, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(tryFailedLogin(limiter, "alice", "attacker"));
+        }
+        for (int i = 0; i < 20; i++) {
+            assertFalse(tryFailedLogin(limiter, "alice", "attacker"));
+        }
+        assertEquals(3, limiter.getUsernameAttempts("alice"));
+        assertEquals(3, limiter.getSourceAttempts("attacker"));
+
+        // The owner gets in once the window moves on, and their success wipes the count
+        clock.addAndGet(60_000);
+        limiter.check("alice", "owner");
+        limiter.recordFailure("bob", "owner");
+        limiter.recordSuccess("Alice");
+        assertEquals(0, limiter.getUsernameAttempts("alice"));
+        assertEquals(1, limiter.getUsernameAttempts("bob"));
+    }
+
+    @Test
+    public void testWindowSlides() {
+        LoginRateLimiter limiter = new LoginRateLimiter(2, 100, 60_000, clock::get);
+
+        assertTrue(tryFailedLogin(limiter, "alice", "a"));
+        clock.addAndGet(30_000);
+        assertTrue(tryFailedLogin(limiter, "alice", "a"));
+        assertFalse(tryFailedLogin(limiter, "alice", "a"));
+
+        // The first failure leaves the window, the refused attempt was never counted
+        clock.addAndGet(35_000);
+        assertEquals(1, limiter.getUsernameAttempts("alice"));
+        assertTrue(tryFailedLogin(limiter, "alice", "a"));
+        clock.addAndGet(60_000);
+        assertEquals(0, limiter.getUsernameAttempts("alice"));
+    }
+
+    @Test
+    public void testConcurrentAttemptsStayNearLimit() throws Exception {
+        int limit = 50;
+        int threads = 8;
+        int attemptsPerThread = 20_000;
+        LoginRateLimiter limiter = new LoginRateLimiter(limit, Integer.MAX_VALUE, 60_000, clock::get);
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    long began = System.nanoTime();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        // One hot username plus a spread of cold ones sharing the sketch
+                        String username = i % 2 == 0 ? "victim" : "user-" + thread + "-" + i;
+                        if (tryFailedLogin(limiter, username, "source-" + thread) && username.equals("victim")) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                    return System.nanoTime() - began;
+                }));
+            }
+            start.countDown();
+            long totalNanos = 0;
+            for (Future<Long> result : results) {
+                totalNanos += result.get(60, TimeUnit.SECONDS);
+            }
+
+            // Once limit failures are counted every check refuses, so only attempts
+            // between their check and their failure at that moment can slip through
+            assertTrue(accepted.get() >= 1 && accepted.get() <= limit + threads,
+                "accepted " + accepted.get());
+            assertTrue(limiter.getUsernameAttempts("victim") >= accepted.get());
+            double microsPerAttempt = totalNanos / 1e3 / (threads * attemptsPerThread);
+            assertTrue(microsPerAttempt < 100, "took " + microsPerAttempt + "us per attempt");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
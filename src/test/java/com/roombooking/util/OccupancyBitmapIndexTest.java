@@ -0,0 +1,113 @@
+package com.roombooking.util;
+
+import com.roombooking.model.Reservation;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OccupancyBitmapIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 4);
+
+    private static LocalDateTime at(int hour, int minute) {
+        return DAY.atTime(hour, minute);
+    }
+
+    @Test
+    public void testMask() {
+        assertEquals(0b1110L, OccupancyBitmapIndex.mask(1, 4, 0));
+        assertEquals(0L, OccupancyBitmapIndex.mask(1, 4, 1));
+        assertEquals(-1L, OccupancyBitmapIndex.mask(0, 96, 0));
+        assertEquals((1L << 32) - 1, OccupancyBitmapIndex.mask(0, 96, 1));
+        assertEquals(1L << 63, OccupancyBitmapIndex.mask(63, 65, 0));
+        assertEquals(1L, OccupancyBitmapIndex.mask(63, 65, 1));
+    }
+
+    @Test
+    public void testIsFree() {
+        OccupancyBitmapIndex index = new OccupancyBitmapIndex();
+        index.occupy(1, at(10, 0), at(11, 0));
+
+        assertFalse(index.isFree(1, at(10, 30), at(10, 45)));
+        assertFalse(index.isFree(1, at(9, 0), at(12, 0)));
+        assertTrue(index.isFree(1, at(9, 0), at(10, 0)));
+        assertTrue(index.isFree(1, at(11, 0), at(12, 0)));
+        assertTrue(index.isFree(2, at(10, 0), at(11, 0)));
+
+        // Unaligned bookings and windows are widened to whole slots
+        index.occupy(1, at(13, 0), at(13, 20));
+        assertFalse(index.isFree(1, at(13, 25), at(13, 40)));
+        assertTrue(index.isFree(1, at(13, 30), at(13, 40)));
+        assertTrue(index.isFree(1, at(12, 50), at(13, 0)));
+
+        index.release(1, at(10, 0), at(11, 0));
+        assertTrue(index.isFree(1, at(10, 0), at(11, 0)));
+    }
+
+    @Test
+    public void testOvernightAndYearBoundary() {
+        OccupancyBitmapIndex index = new OccupancyBitmapIndex();
+        LocalDateTime newYearsEve = LocalDate.of(2024, 12, 31).atTime(22, 0);
+        index.occupy(1, newYearsEve, newYearsEve.plusHours(4));
+
+        assertFalse(index.isFree(1, newYearsEve.plusMinutes(30), newYearsEve.plusHours(1)));
+        assertFalse(index.isFree(1, LocalDate.of(2025, 1, 1).atTime(1, 0), LocalDate.of(2025, 1, 1).atTime(3, 0)));
+        assertTrue(index.isFree(1, LocalDate.of(2025, 1, 1).atTime(2, 0), LocalDate.of(2025, 1, 1).atTime(3, 0)));
+        // One sparse year each, with room for eight days
+        assertEquals(2 * 8 * (Short.BYTES + 2 * Long.BYTES), index.footprintBytes());
+    }
+
+    @Test
+    public void testSparseYearsTurnDense() {
+        OccupancyBitmapIndex index = new OccupancyBitmapIndex();
+        LocalDate first = LocalDate.of(2024, 1, 1);
+        // Booked out of order, every other day
+        for (int day = 364; day >= 0; day -= 2) {
+            index.occupy(1, first.plusDays(day).atTime(10, 0), first.plusDays(day).atTime(11, 0));
+        }
+        assertTrue(index.footprintBytes() < 366 * 2 * Long.BYTES);
+        assertFalse(index.isFree(1, first.plusDays(100).atTime(10, 30), first.plusDays(100).atTime(12, 0)));
+        assertTrue(index.isFree(1, first.plusDays(101).atTime(10, 0), first.plusDays(101).atTime(11, 0)));
+        index.release(1, first.plusDays(101).atTime(9, 0), first.plusDays(101).atTime(12, 0));
+
+        for (int day = 1; day < 366; day += 2) {
+            index.occupy(1, first.plusDays(day).atTime(10, 0), first.plusDays(day).atTime(11, 0));
+        }
+        assertEquals(366 * 2 * Long.BYTES, index.footprintBytes());
+        for (int day = 0; day < 366; day++) {
+            assertFalse(index.isFree(1, first.plusDays(day).atTime(10, 0), first.plusDays(day).atTime(10, 15)));
+            assertTrue(index.isFree(1, first.plusDays(day).atTime(11, 0), first.plusDays(day).atTime(12, 0)));
+        }
+        assertEquals(List.of(2), index.findFreeRooms(List.of(1, 2), List.of(first.plusDays(7), first.plusDays(300)),
+            LocalTime.of(10, 0), LocalTime.of(10, 30)));
+    }
+
+    @Test
+    public void testFindFreeRoomsAcrossDays() {
+        List<Reservation> reservations = new ArrayList<>();
+        // Room 1 is busy at 10:00 on the third Monday only, room 2 in the afternoon every day
+        reservations.add(reservation(1, DAY.plusWeeks(2).atTime(10, 0), DAY.plusWeeks(2).atTime(10, 30)));
+        for (int week = 0; week < 4; week++) {
+            reservations.add(reservation(2, DAY.plusWeeks(week).atTime(14, 0), DAY.plusWeeks(week).atTime(16, 0)));
+        }
+        OccupancyBitmapIndex index = OccupancyBitmapIndex.of(reservations);
+
+        List<LocalDate> mondays = List.of(DAY, DAY.plusWeeks(1), DAY.plusWeeks(2), DAY.plusWeeks(3));
+        assertEquals(List.of(2, 3), index.findFreeRooms(List.of(1, 2, 3), mondays, LocalTime.of(10, 0), LocalTime.of(11, 0)));
+        assertEquals(List.of(1, 3), index.findFreeRooms(List.of(1, 2, 3), mondays, LocalTime.of(15, 0), LocalTime.of(15, 30)));
+        assertEquals(List.of(3), index.findFreeRooms(List.of(1, 2, 3), mondays, LocalTime.of(0, 0), LocalTime.MIDNIGHT));
+    }
+
+    private static Reservation reservation(int roomId, LocalDateTime start, LocalDateTime end) {
+        Reservation reservation = new Reservation();
+        reservation.setRoomId(roomId);
+        reservation.setStartTime(start);
+        reservation.setEndTime(end);
+        return reservation;
+    }
+}
@@ -0,0 +1,80 @@
+package com.roombooking.util;
+
+import com.roombooking.dao.PartitionDAO;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PartitionMaintenanceTest {
+
+    /**
+     * Partition metadata kept in memory
+     */
+    private static class FakePartitionDAO extends PartitionDAO {
+        private final List<Partition> partitions = new ArrayList<>();
+        private final Map<String, Long> rows = new HashMap<>();
+        private final List<String> added = new ArrayList<>();
+        private final List<String> dropped = new ArrayList<>();
+
+        FakePartitionDAO(LocalDate... bounds) {
+            for (LocalDate bound : bounds) {
+                partitions.add(new Partition(PartitionMaintenance.partitionName(bound), bound.atStartOfDay()));
+            }
+            partitions.add(new Partition("pmax", null));
+        }
+
+        @Override
+        public List<Partition> listPartitions(String table) {
+            return new ArrayList<>(partitions);
+        }
+
+        @Override
+        public boolean addPartition(String table, String maxPartition, String name, LocalDateTime upperBound) {
+            added.add(name);
+            return true;
+        }
+
+        @Override
+        public boolean dropEmptyPartition(String table, String partition) {
+            if (rows.getOrDefault(partition, 0L) > 0) {
+                return false;
+            }
+            dropped.add(partition);
+            return true;
+        }
+    }
+
+    @Test
+    public void testPartitionNames() {
+        assertEquals("p2026q3", PartitionMaintenance.partitionName(LocalDate.of(2026, 10, 1)));
+        assertEquals("p2026q4", PartitionMaintenance.partitionName(LocalDate.of(2027, 1, 1)));
+        assertEquals(LocalDate.of(2026, 10, 1), PartitionMaintenance.quarterStart(LocalDate.of(2026, 12, 31)));
+    }
+
+    @Test
+    public void testAddsQuartersAhead() {
+        FakePartitionDAO dao = new FakePartitionDAO(LocalDate.of(2026, 10, 1), LocalDate.of(2027, 1, 1));
+        new PartitionMaintenance(dao).runOnce(LocalDate.of(2026, 10, 19), null);
+
+        assertEquals(List.of("p2027q1", "p2027q2", "p2027q3", "p2027q4"), dao.added);
+        assertTrue(dao.dropped.isEmpty());
+    }
+
+    @Test
+    public void testDropsOnlyEmptyPartitionsBelowWatermark() {
+        FakePartitionDAO dao = new FakePartitionDAO(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 4, 1),
+            LocalDate.of(2025, 7, 1), LocalDate.of(2028, 1, 1));
+        dao.rows.put("p2025q1", 3L);
+
+        new PartitionMaintenance(dao).runOnce(LocalDate.of(2026, 10, 19), LocalDateTime.of(2025, 7, 1, 0, 0));
+
+        assertTrue(dao.added.isEmpty());
+        assertEquals(List.of("p2024q4", "p2025q2"), dao.dropped);
+    }
+}
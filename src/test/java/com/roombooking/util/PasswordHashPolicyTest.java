@@ -0,0 +1,57 @@
+package com.roombooking.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class PasswordHashPolicyTest {
+
+    @Test
+    public void testCostForTarget() {
+        assertEquals(10, PasswordHashPolicy.costFor(80, 100));
+        assertEquals(11, PasswordHashPolicy.costFor(50, 100));
+        assertEquals(12, PasswordHashPolicy.costFor(60, 250));
+        assertEquals(PasswordHashPolicy.MAX_COST, PasswordHashPolicy.costFor(1, 10_000));
+        assertEquals(PasswordHashPolicy.MIN_COST, PasswordHashPolicy.costFor(500, 250));
+    }
+
+    @Test
+    public void testCostOf() {
+        assertEquals(10, PasswordHashPolicy.costOf("$2a$10$Be/WwQvP4GDU6eki4b0tQ.B4hBROlgMlBduwloFtEfuV8.sPURLoC"));
+        assertEquals(12, PasswordHashPolicy.costOf("$2b$12$abc"));
+        assertEquals(-1, PasswordHashPolicy.costOf("plain"));
+        assertEquals(-1, PasswordHashPolicy.costOf(null));
+    }
+
+    @Test
+    public void testRehashOnlyOnceSettled() {
+        String cost10 = "$2a$10$Be/WwQvP4GDU6eki4b0tQ.B4hBROlgMlBduwloFtEfuV8.sPURLoC";
+        assertFalse(new PasswordHashPolicy(11, false).needsRehash(cost10));
+
+        PasswordHashPolicy policy = new PasswordHashPolicy(11, true);
+        assertTrue(policy.needsRehash(cost10));
+        String rehashed = policy.hash("secret");
+        assertEquals(11, PasswordHashPolicy.costOf(rehashed));
+        assertFalse(policy.needsRehash(rehashed));
+        // Never downgraded by a client that calibrated lower
+        assertFalse(new PasswordHashPolicy(10, true).needsRehash(rehashed));
+    }
+
+    @Test
+    public void testCalibratedCostIsSaved(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("nested").resolve("bcrypt.cost");
+        assertEquals(-1, PasswordHashPolicy.readCost(file));
+        PasswordHashPolicy.writeCost(file, 12);
+        assertEquals(12, PasswordHashPolicy.readCost(file));
+
+        Files.write(file, "fast".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(-1, PasswordHashPolicy.readCost(file));
+        Files.write(file, "4\n".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(PasswordHashPolicy.MIN_COST, PasswordHashPolicy.readCost(file));
+    }
+}
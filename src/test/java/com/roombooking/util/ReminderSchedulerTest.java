@@ -0,0 +1,160 @@
+package com.roombooking.util;
+
+import com.roombooking.model.Participant;
+import com.roombooking.model.Reservation;
+import com.roombooking.model.Room;
+import com.roombooking.model.User;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ReminderSchedulerTest {
+
+    private static final class Claim {
+        String token;
+        LocalDateTime claimedAt;
+        boolean sent;
+    }
+
+    /**
+     * The reservation_reminders claim rules over a few reservations, with its own clock
+     */
+    private final Map<Integer, Reservation> reservations = new LinkedHashMap<>();
+    private final Map<Integer, Claim> claims = new LinkedHashMap<>();
+    private final Set<Integer> failing = new HashSet<>();
+    private final List<Integer> sends = new ArrayList<>();
+    private LocalDateTime databaseNow = LocalDateTime.now();
+
+    private final ReminderScheduler.ReminderSource source = new ReminderScheduler.ReminderSource() {
+        @Override
+        public List<Integer> claim(String claimToken, LocalDateTime from, LocalDateTime to, int limit,
+                                   Duration lease) {
+            List<Integer> claimed = new ArrayList<>();
+            for (Reservation reservation : reservations.values()) {
+                if (claimed.size() == limit || reservation.getStartTime().isBefore(from)
+                        || !reservation.getStartTime().isBefore(to)) {
+                    continue;
+                }
+                Claim claim = claims.get(reservation.getId());
+                if (claim == null) {
+                    claim = new Claim();
+                    claims.put(reservation.getId(), claim);
+                } else if (claim.sent || !claim.claimedAt.isBefore(databaseNow.minus(lease))) {
+                    continue;
+                }
+                claim.token = claimToken;
+                claim.claimedAt = databaseNow;
+                claimed.add(reservation.getId());
+            }
+            return claimed;
+        }
+
+        @Override
+        public List<Reservation> reservations(List<Integer> ids) {
+            List<Reservation> found = new ArrayList<>();
+            ids.forEach(id -> found.add(reservations.get(id)));
+            return found;
+        }
+
+        @Override
+        public Map<Integer, List<Participant>> participants(List<Integer> reservationIds) {
+            return Map.of();
+        }
+
+        @Override
+        public Room room(int id) {
+            return new Room(id, "Room " + id, 10, "MEETING", null, null, true);
+        }
+
+        @Override
+        public User user(int id) {
+            User user = new User();
+            user.setId(id);
+            return user;
+        }
+
+        @Override
+        public void markSent(List<Integer> reservationIds) {
+            reservationIds.forEach(id -> claims.get(id).sent = true);
+        }
+    };
+
+    private ReminderScheduler scheduler() {
+        return new ReminderScheduler(source, (reservation, room, organizer, participants) -> {
+            sends.add(reservation.getId());
+            return !failing.contains(reservation.getId());
+        }, Duration.ofMinutes(60), 60, 2);
+    }
+
+    private void reservation(int id, int minutesAhead) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setRoomId(1);
+        reservation.setUserId(1);
+        reservation.setStatus("APPROVED");
+        reservation.setStartTime(LocalDateTime.now().plusMinutes(minutesAhead));
+        reservation.setEndTime(reservation.getStartTime().plusHours(1));
+        reservations.put(id, reservation);
+    }
+
+    @Test
+    public void testDueRemindersAreSentOnce() {
+        reservation(1, 10);
+        reservation(2, 20);
+        reservation(3, 30);
+        reservation(4, 90);
+        ReminderScheduler scheduler = scheduler();
+
+        assertEquals(3, scheduler.runOnce());
+        assertEquals(List.of(1, 2, 3), sends);
+        assertEquals(0, scheduler.runOnce());
+        assertEquals(3, sends.size());
+    }
+
+    @Test
+    public void testFailedSendIsRetriedAfterTheLease() {
+        reservation(1, 10);
+        reservation(2, 20);
+        failing.add(2);
+        ReminderScheduler scheduler = scheduler();
+
+        assertEquals(1, scheduler.runOnce());
+        assertFalse(claims.get(2).sent);
+
+        // Still leased to the run that failed
+        failing.clear();
+        assertEquals(0, scheduler.runOnce());
+
+        databaseNow = databaseNow.plus(ReminderScheduler.CLAIM_LEASE).plusSeconds(1);
+        assertEquals(1, scheduler.runOnce());
+        assertEquals(List.of(1, 2, 2), sends);
+        assertTrue(claims.get(2).sent);
+    }
+
+    @Test
+    public void testAbandonedClaimIsTakenOver() {
+        reservation(1, 10);
+        reservation(2, 20);
+        // Claimed by instances that stopped before sending, one long ago and one just now
+        Claim stale = new Claim();
+        stale.token = "crashed";
+        stale.claimedAt = databaseNow.minus(ReminderScheduler.CLAIM_LEASE).minusMinutes(1);
+        claims.put(1, stale);
+        Claim recent = new Claim();
+        recent.token = "running";
+        recent.claimedAt = databaseNow.minusMinutes(1);
+        claims.put(2, recent);
+
+        assertEquals(1, scheduler().runOnce());
+        assertEquals(List.of(1), sends);
+        assertEquals("running", claims.get(2).token);
+    }
+}
@@ -0,0 +1,83 @@
+package com.roombooking.util;
+
+import com.roombooking.model.Reservation;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReservationStoreTest {
+
+    private static Reservation reservation(int id, int roomId, String roomName, LocalDateTime start, String status) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setUserId(3);
+        reservation.setRoomId(roomId);
+        // New String instances, as the database driver returns them
+        reservation.setUserName(new String("jdoe"));
+        reservation.setRoomName(new String(roomName));
+        reservation.setStartTime(start);
+        reservation.setEndTime(start.plusMinutes(90));
+        reservation.setSubject("Standup");
+        reservation.setStatus(new String(status));
+        reservation.setVersion(id * 2);
+        return reservation;
+    }
+
+    @Test
+    public void testRowsReadBackUnchanged() {
+        Reservation first = reservation(7, 5, "Conference Room A", LocalDateTime.of(2026, 3, 2, 10, 0), "APPROVED");
+        first.setAdminComments("Moved from room 4");
+        Reservation second = reservation(8, 6, "Boardroom", LocalDateTime.of(1969, 12, 31, 23, 30), "CANCELLED");
+        second.setSubject(null);
+
+        ReservationStore store = ReservationStore.of(List.of(first, second));
+
+        assertEquals(2, store.size());
+        assertEquals(first.toString(), store.get(0).toString());
+        assertEquals(second.toString(), store.get(1).toString());
+        Reservation copy = store.asList().get(0);
+        assertEquals(14, copy.getVersion());
+        assertEquals(LocalDateTime.of(2026, 3, 2, 11, 30), copy.getEndTime());
+        assertNull(store.get(1).getSubject());
+        assertThrows(UnsupportedOperationException.class, () -> store.asList().add(first));
+    }
+
+    @Test
+    public void testCursorReusesDictionaryStrings() {
+        List<Reservation> reservations = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2026, 3, 2, 8, 0);
+        for (int i = 0; i < 100; i++) {
+            reservations.add(reservation(i, 5 + i % 2, i % 2 == 0 ? "Conference Room A" : "Boardroom",
+                start.plusHours(i), i % 3 == 0 ? "PENDING" : "APPROVED"));
+        }
+        ReservationStore store = ReservationStore.of(reservations);
+
+        ReservationStore.Cursor a = store.cursor().moveTo(0);
+        ReservationStore.Cursor b = store.cursor().moveTo(2);
+        assertSame(a.getRoomName(), b.getRoomName());
+        assertSame(a.getUserName(), b.getUserName());
+
+        // Primitive overlap checks without creating Reservations
+        int from = ReservationStore.toEpochMinute(start.plusHours(10));
+        int to = ReservationStore.toEpochMinute(start.plusHours(12));
+        AtomicInteger overlapping = new AtomicInteger();
+        store.forEach(row -> {
+            if (row.getRoomId() == 5 && row.overlaps(from, to)) {
+                overlapping.incrementAndGet();
+            }
+        });
+        assertEquals(1, overlapping.get());
+        assertThrows(IndexOutOfBoundsException.class, () -> store.cursor().moveTo(100));
+        assertTrue(store.footprintBytes() < 100 * 64);
+    }
+
+    @Test
+    public void testUnknownStatusIsRejected() {
+        Reservation reservation = reservation(1, 5, "Boardroom", LocalDateTime.of(2026, 3, 2, 10, 0), "ON_HOLD");
+        assertThrows(IllegalArgumentException.class, () -> ReservationStore.of(List.of(reservation)));
+    }
+}
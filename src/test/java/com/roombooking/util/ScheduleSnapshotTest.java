@@ -0,0 +1,274 @@
+package com.roombooking.util;
+
+import com.roombooking.model.ChangeEvent;
+import com.roombooking.model.Equipment;
+import com.roombooking.model.Reservation;
+import com.roombooking.model.Room;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class ScheduleSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private static final LocalDateTime DAY = LocalDate.now().atTime(9, 0);
+
+    private static Reservation reservation(int id, int roomId, LocalDateTime start, String subject) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setUserId(3);
+        reservation.setRoomId(roomId);
+        reservation.setUserName("jdoe");
+        reservation.setStartTime(start);
+        reservation.setEndTime(start.plusMinutes(90));
+        reservation.setSubject(subject);
+        reservation.setStatus("APPROVED");
+        reservation.setVersion(1);
+        return reservation;
+    }
+
+    private static ChangeEvent change(long seq, ChangeEvent.EntityType type, int id) {
+        return new ChangeEvent(seq, type, id, ChangeEvent.Operation.UPDATE, 3, LocalDateTime.now());
+    }
+
+    /**
+     * An in-memory database with a change log
+     */
+    private static class FakeSource implements OfflineSchedule.ScheduleSource {
+        final Map<Integer, Room> rooms = new LinkedHashMap<>();
+        final Map<Integer, Reservation> reservations = new LinkedHashMap<>();
+        final List<ChangeEvent> log = new ArrayList<>();
+        final AtomicInteger fullLoads = new AtomicInteger();
+        final AtomicInteger equipmentLoads = new AtomicInteger();
+        boolean available = true;
+        long pruned;
+
+        @Override
+        public boolean isAvailable() {
+            return available;
+        }
+
+        @Override
+        public long latestSeq() {
+            return log.isEmpty() ? 0 : log.get(log.size() - 1).getSeq();
+        }
+
+        @Override
+        public long oldestSeq() {
+            return log.stream().mapToLong(ChangeEvent::getSeq).filter(seq -> seq > pruned).min().orElse(0);
+        }
+
+        @Override
+        public List<ChangeEvent> changesAfter(long seq, int limit) {
+            return log.stream().filter(e -> e.getSeq() > seq && e.getSeq() > pruned).limit(limit)
+                .collect(Collectors.toList());
+        }
+
+        @Override
+        public List<Room> rooms() {
+            fullLoads.incrementAndGet();
+            return new ArrayList<>(rooms.values());
+        }
+
+        @Override
+        public Room room(int id) {
+            return rooms.get(id);
+        }
+
+        @Override
+        public List<Equipment> equipment() {
+            equipmentLoads.incrementAndGet();
+            return List.of(new Equipment(1, "Projector", "PROJECTOR", null, true));
+        }
+
+        @Override
+        public List<Reservation> reservations(LocalDateTime start, LocalDateTime end) {
+            return reservations.values().stream()
+                .filter(r -> r.getStartTime().isBefore(end) && r.getEndTime().isAfter(start))
+                .collect(Collectors.toList());
+        }
+
+        @Override
+        public Reservation reservation(int id) {
+            return reservations.get(id);
+        }
+    }
+
+    private OfflineSchedule schedule(FakeSource source) {
+        return new OfflineSchedule(source, dir.resolve("schedule.snapshot"), 30, 60_000, () -> 42_000L);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<Room> rooms = List.of(new Room(5, "Conference Room A", 12, "MEETING", "Building 1", null, true),
+            new Room(6, "Salle über", 4, "OFFICE", null, "x".repeat(300), false));
+        Reservation second = reservation(8, 6, DAY.plusDays(1), null);
+        second.setStatus("PENDING");
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(17, 1234L, DAY.minusDays(7), DAY.plusDays(30), rooms,
+            List.of(new Equipment(1, "Projector", "PROJECTOR", "HD", false)),
+            List.of(second, reservation(7, 5, DAY, "Standup")));
+        Path file = dir.resolve("nested").resolve("schedule.snapshot");
+
+        snapshot.write(file);
+        ScheduleSnapshot read = ScheduleSnapshot.read(file);
+
+        assertEquals(17, read.getChangeSeq());
+        assertEquals(1234L, read.getCreatedAtMillis());
+        assertEquals(DAY.minusDays(7), read.getWindowStart());
+        assertEquals("x".repeat(300), read.getRooms().get(1).getDescription());
+        assertEquals("Salle über", read.getRooms().get(1).getName());
+        assertNull(read.getRooms().get(1).getLocation());
+        assertFalse(read.getRooms().get(1).isActive());
+        assertFalse(read.getEquipment().get(0).isAvailable());
+        Reservation first = read.getReservations().get(0);
+        assertEquals(7, first.getId());
+        assertEquals("Standup", first.getSubject());
+        assertEquals("Conference Room A", first.getRoomName());
+        assertEquals(DAY.plusMinutes(90), first.getEndTime());
+        assertEquals("PENDING", read.getReservations().get(1).getStatus());
+        assertNull(read.getReservations().get(1).getSubject());
+        assertEquals(List.of(7), read.getReservationsInRange(DAY.minusHours(1), DAY.plusHours(1)).stream()
+            .map(Reservation::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testDamagedOrNewerFilesAreRejected() throws IOException {
+        Path file = dir.resolve("schedule.snapshot");
+        new ScheduleSnapshot(1, 0, DAY, DAY.plusDays(1), List.of(), List.of(),
+            List.of(reservation(7, 5, DAY, "Standup"))).write(file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        byte[] corrupted = bytes.clone();
+        corrupted[corrupted.length - 3] ^= 1;
+        Files.write(file, corrupted);
+        assertThrows(IOException.class, () -> ScheduleSnapshot.read(file));
+
+        byte[] newer = bytes.clone();
+        ByteBuffer.wrap(newer).putShort(4, (short) (ScheduleSnapshot.FORMAT_VERSION + 1));
+        Files.write(file, newer);
+        assertThrows(IOException.class, () -> ScheduleSnapshot.read(file));
+
+        Files.write(file, Arrays.copyOf(bytes, 30));
+        assertThrows(IOException.class, () -> ScheduleSnapshot.read(file));
+    }
+
+    @Test
+    public void testStartupCatchesUpFromTheChangeLog() {
+        FakeSource source = new FakeSource();
+        source.rooms.put(5, new Room(5, "Conference Room A", 12, "MEETING", null, null, true));
+        source.reservations.put(7, reservation(7, 5, DAY, "Standup"));
+        source.reservations.put(8, reservation(8, 5, DAY.plusHours(2), "Review"));
+        source.log.add(change(1, ChangeEvent.EntityType.RESERVATION, 7));
+        schedule(source).synchronize();
+        assertEquals(1, source.fullLoads.get());
+
+        // Changes made while the client was closed
+        source.reservations.put(7, reservation(7, 5, DAY, "Standup moved"));
+        source.reservations.remove(8);
+        source.reservations.put(9, reservation(9, 5, DAY.plusDays(2), "Planning"));
+        source.rooms.put(5, new Room(5, "Boardroom", 12, "MEETING", null, null, true));
+        source.log.add(change(2, ChangeEvent.EntityType.RESERVATION, 7));
+        source.log.add(change(3, ChangeEvent.EntityType.RESERVATION, 8));
+        source.log.add(change(4, ChangeEvent.EntityType.RESERVATION, 9));
+        source.log.add(change(5, ChangeEvent.EntityType.ROOM, 5));
+
+        OfflineSchedule restarted = schedule(source);
+        restarted.load();
+        assertEquals(1, restarted.getSnapshot().getChangeSeq());
+        restarted.synchronize();
+
+        ScheduleSnapshot snapshot = restarted.getSnapshot();
+        assertEquals(1, source.fullLoads.get());
+        assertEquals(5, snapshot.getChangeSeq());
+        assertEquals("Boardroom", snapshot.getRooms().get(0).getName());
+        assertEquals(List.of("Standup moved", "Planning"), snapshot.getReservations().stream()
+            .map(Reservation::getSubject).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testLiveChangesDoNotReloadEquipment() {
+        FakeSource source = new FakeSource();
+        source.rooms.put(5, new Room(5, "Conference Room A", 12, "MEETING", null, null, true));
+        OfflineSchedule schedule = schedule(source);
+        schedule.synchronize();
+        int loads = source.equipmentLoads.get();
+
+        source.reservations.put(7, reservation(7, 5, DAY, "Standup"));
+        schedule.applyLive(List.of(change(1, ChangeEvent.EntityType.RESERVATION, 7)));
+        schedule.applyLive(List.of(change(2, ChangeEvent.EntityType.ROOM, 5)));
+
+        assertEquals(loads, source.equipmentLoads.get());
+        assertEquals(2, schedule.getSnapshot().getChangeSeq());
+        assertEquals(1, schedule.getSnapshot().getReservations().size());
+        assertEquals("Projector", schedule.getSnapshot().getEquipment().get(0).getName());
+
+        schedule.rebuild();
+        assertEquals(loads + 1, source.equipmentLoads.get());
+    }
+
+    @Test
+    public void testPrunedChangeLogForcesRebuild() {
+        FakeSource source = new FakeSource();
+        source.log.add(change(1, ChangeEvent.EntityType.ROOM, 5));
+        schedule(source).synchronize();
+
+        for (int seq = 2; seq <= 10; seq++) {
+            source.log.add(change(seq, ChangeEvent.EntityType.ROOM, 5));
+        }
+        source.pruned = 4;
+        source.rooms.put(5, new Room(5, "Conference Room A", 12, "MEETING", null, null, true));
+
+        OfflineSchedule restarted = schedule(source);
+        restarted.load();
+        restarted.synchronize();
+
+        assertEquals(2, source.fullLoads.get());
+        assertEquals(10, restarted.getSnapshot().getChangeSeq());
+        assertEquals(1, restarted.getSnapshot().getRooms().size());
+    }
+
+    @Test
+    public void testReadsFallBackToSnapshotWhileOffline() {
+        FakeSource source = new FakeSource();
+        source.rooms.put(5, new Room(5, "Conference Room A", 12, "MEETING", null, null, true));
+        OfflineSchedule schedule = schedule(source);
+        List<Boolean> changes = new ArrayList<>();
+        schedule.addListener(changes::add);
+        schedule.synchronize();
+
+        assertEquals("online", schedule.readThrough(() -> "online", snapshot -> "offline"));
+        assertThrows(IllegalStateException.class, () -> schedule.readThrough(() -> {
+            throw new IllegalStateException("query failed");
+        }, snapshot -> "offline"));
+
+        // The database goes away during a read
+        String result = schedule.readThrough(() -> {
+            source.available = false;
+            throw new RuntimeException("Database error occurred");
+        }, snapshot -> snapshot.getRooms().get(0).getName());
+        assertEquals("Conference Room A", result);
+        assertTrue(schedule.isOffline());
+        assertEquals(List.of(true), changes);
+
+        source.available = true;
+        schedule.synchronize();
+        assertFalse(schedule.isOffline());
+        assertEquals(List.of(true, false), changes);
+    }
+}
@@ -0,0 +1,96 @@
+package com.roombooking.util;
+
+import com.roombooking.model.Room;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class SearchIndexTest {
+
+    private CatalogSearch catalog(List<Room> rooms) {
+        return new CatalogSearch(() -> rooms, id -> null, List::of, System::currentTimeMillis);
+    }
+
+    private static List<String> names(List<Room> rooms) {
+        return rooms.stream().map(Room::getName).collect(Collectors.toList());
+    }
+
+    private static List<Room> sampleRooms() {
+        return new ArrayList<>(Arrays.asList(
+            new Room(1, "Conference Room A", 20, "CONFERENCE", "Building 1, Floor 1", "Large conference room with projector", true),
+            new Room(2, "Meeting Room B", 8, "MEETING", "Building 1, Floor 2", "Small meeting room with whiteboard", true),
+            new Room(3, "Training Room C", 30, "TRAINING", "Building 2, Floor 1", "Training room with computers", false)));
+    }
+
+    @Test
+    public void testPrefixAndKeywordSearch() {
+        CatalogSearch search = catalog(sampleRooms());
+
+        assertEquals(List.of("Conference Room A"), names(search.searchRooms("proj")));
+        assertEquals(List.of("Meeting Room B"), names(search.searchRooms("meet wh")));
+        assertEquals(3, search.searchRooms("").size());
+        assertEquals(3, search.searchRooms("ROOM").size());
+        assertTrue(search.searchRooms("projector whiteboard").isEmpty());
+    }
+
+    @Test
+    public void testFacets() {
+        CatalogSearch search = catalog(sampleRooms());
+
+        assertEquals(List.of("Conference Room A"), names(search.searchRooms("type=conference")));
+        assertEquals(List.of("Conference Room A", "Training Room C"), names(search.searchRooms("capacity>=20")));
+        assertEquals(List.of("Meeting Room B"), names(search.searchRooms("capacity<20")));
+        assertEquals(List.of("Conference Room A", "Meeting Room B"),
+            names(search.searchRooms("building=\"Building 1\"")));
+        assertEquals(List.of("Conference Room A"), names(search.searchRooms("room building=\"building 1\" capacity>10")));
+        assertEquals(List.of("Training Room C"), names(search.searchRooms("active=false")));
+        // Not a facet of rooms, so searched as words
+        assertEquals(List.of("Meeting Room B"), names(search.searchRooms("small:white")));
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        CatalogSearch search = catalog(sampleRooms());
+        assertEquals(1, search.searchRooms("type=meeting").size());
+
+        search.roomSaved(new Room(2, "Huddle Room B", 4, "HUDDLE", "Building 3", "Standing desk", true));
+        assertTrue(search.searchRooms("meeting").isEmpty());
+        assertTrue(search.searchRooms("type=meeting").isEmpty());
+        assertEquals(List.of("Huddle Room B"), names(search.searchRooms("building=\"building 3\" stand")));
+
+        search.roomDeleted(2);
+        assertTrue(search.searchRooms("huddle").isEmpty());
+        assertEquals(2, search.searchRooms("").size());
+
+        search.roomSaved(new Room(4, "Board Room", 12, "CONFERENCE", "Building 2, Floor 5", null, true));
+        assertEquals(List.of("Board Room", "Conference Room A"), names(search.searchRooms("type=CONFERENCE")));
+    }
+
+    @Test
+    public void testQueriesStaySubMillisecond() {
+        List<Room> rooms = new ArrayList<>();
+        String[] types = {"CONFERENCE", "MEETING", "TRAINING", "HUDDLE"};
+        for (int i = 1; i <= 2000; i++) {
+            rooms.add(new Room(i, "Room " + i, 4 + i % 60, types[i % types.length],
+                "Building " + (i % 25) + ", Floor " + (i % 7), "Room with projector " + (i % 13 == 0 ? "and video" : ""), true));
+        }
+        CatalogSearch search = catalog(rooms);
+        search.searchRooms("");
+
+        String[] queries = {"vid", "type=conference capacity>=40", "building=\"building 7\" proj", "room 12"};
+        for (int i = 0; i < 2000; i++) {
+            search.searchRooms(queries[i % queries.length]);
+        }
+        long start = System.nanoTime();
+        int runs = 4000;
+        for (int i = 0; i < runs; i++) {
+            search.searchRooms(queries[i % queries.length]);
+        }
+        double micros = (System.nanoTime() - start) / 1e3 / runs;
+        assertTrue(micros < 1000, "took " + micros + "us per query");
+    }
+}
@@ -0,0 +1,129 @@
+package com.roombooking.util;
+
+import com.roombooking.model.User;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SessionStoreTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<Integer, User> users = new HashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private SessionStore newStore(int maxSessions) {
+        return new SessionStore(maxSessions, Duration.ofMinutes(30), Duration.ofHours(12), id -> {
+            loads.incrementAndGet();
+            return users.get(id);
+        }, clock::get);
+    }
+
+    private User user(int id, boolean active) {
+        User user = new User(id, "user" + id, "User " + id, "user" + id + "@example.com", "$2a$hash", false, active, 0);
+        users.put(id, user);
+        return user;
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    public void testPrincipalHasNoPassword() {
+        SessionStore store = newStore(10);
+        String token = store.create(user(1, true));
+
+        User principal = store.authenticate(token);
+        assertEquals("user1", principal.getUsername());
+        assertNull(principal.getPassword());
+        assertSame(principal, store.findPrincipal(1));
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    public void testIdleExpirySlides() {
+        SessionStore store = newStore(10);
+        String token = store.create(user(1, true));
+
+        advance(Duration.ofMinutes(20));
+        assertNotNull(store.authenticate(token));
+        advance(Duration.ofMinutes(20));
+        assertNotNull(store.authenticate(token));
+        advance(Duration.ofMinutes(31));
+        assertNull(store.authenticate(token));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testAbsoluteLifetime() {
+        SessionStore store = newStore(10);
+        String token = store.create(user(1, true));
+
+        for (int i = 0; i < 24; i++) {
+            advance(Duration.ofMinutes(29));
+            assertNotNull(store.authenticate(token));
+        }
+        advance(Duration.ofMinutes(29));
+        assertNull(store.authenticate(token));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        SessionStore store = newStore(2);
+        String first = store.create(user(1, true));
+        String second = store.create(user(2, true));
+        assertNotNull(store.authenticate(first));
+        // findPrincipal must not count as use
+        assertNotNull(store.findPrincipal(2));
+
+        String third = store.create(user(3, true));
+        assertEquals(2, store.size());
+        assertNotNull(store.authenticate(first));
+        assertNull(store.authenticate(second));
+        assertNotNull(store.authenticate(third));
+        assertNull(store.findPrincipal(2));
+    }
+
+    @Test
+    public void testForgetPrincipalReloads() {
+        SessionStore store = newStore(10);
+        String token = store.create(user(1, true));
+        users.get(1).setFullName("Renamed");
+
+        store.forgetPrincipal(1);
+        assertNull(store.findPrincipal(1));
+        assertEquals("Renamed", store.authenticate(token).getFullName());
+        assertEquals(1, loads.get());
+        store.authenticate(token);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testInactiveUserEndsSessions() {
+        SessionStore store = newStore(10);
+        User user = user(1, true);
+        String first = store.create(user);
+        String second = store.create(user);
+        user(1, false);
+
+        store.forgetPrincipal(1);
+        assertNull(store.authenticate(first));
+        assertNull(store.authenticate(second));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testInvalidate() {
+        SessionStore store = newStore(10);
+        String token = store.create(user(1, true));
+
+        store.invalidate(token);
+        assertNull(store.authenticate(token));
+        assertNull(store.findPrincipal(1));
+        assertNull(store.authenticate(null));
+    }
+}
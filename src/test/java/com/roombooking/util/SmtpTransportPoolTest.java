@@ -0,0 +1,260 @@
+package com.roombooking.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SmtpTransportPoolTest {
+
+    private FakeSmtpServer server;
+    private Session session;
+    private SmtpTransportPool pool;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new FakeSmtpServer();
+        Properties props = new Properties();
+        props.put("mail.smtp.host", "localhost");
+        props.put("mail.smtp.port", String.valueOf(server.getPort()));
+        props.put("mail.smtp.connectiontimeout", "5000");
+        props.put("mail.smtp.timeout", "5000");
+        session = Session.getInstance(props);
+        pool = new SmtpTransportPool(session, 2, 60_000L, 5_000L);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        pool.close();
+        server.close();
+    }
+
+    @Test
+    public void testSequentialSendsReuseOneConnection() throws MessagingException {
+        for (int i = 0; i < 5; i++) {
+            pool.send(message("Message " + i));
+        }
+
+        assertEquals(5, server.getMessageCount());
+        assertEquals(1, server.getConnectionCount(), "All messages should go over a single connection");
+        SmtpTransportPool.Stats stats = pool.getStats();
+        assertEquals(5, stats.getMessagesSent());
+        assertEquals(1, stats.getConnectionsOpened());
+        assertEquals(5.0, stats.getMessagesPerConnection());
+        assertEquals(1, stats.getIdleConnections());
+    }
+
+    @Test
+    public void testSendAllUsesOneConnection() throws MessagingException {
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            messages.add(message("Batch " + i));
+        }
+        pool.sendAll(messages);
+
+        assertEquals(10, server.getMessageCount());
+        assertEquals(1, server.getConnectionCount());
+    }
+
+    @Test
+    public void testReconnectsAfterServerDropsConnection() throws Exception {
+        pool.send(message("Before drop"));
+        server.dropConnections();
+
+        pool.send(message("After drop"));
+
+        assertEquals(2, server.getMessageCount());
+        assertEquals(2, server.getConnectionCount(), "A dropped connection should be replaced");
+        assertEquals(2, pool.getStats().getConnectionsOpened());
+    }
+
+    @Test
+    public void testRejectedRecipientKeepsConnection() throws MessagingException {
+        Message rejected = message("Unknown user");
+        rejected.setRecipient(Message.RecipientType.TO, new InternetAddress("rejected@example.com"));
+        assertThrows(SendFailedException.class, () -> pool.send(rejected));
+
+        pool.send(message("Valid user"));
+
+        assertEquals(1, server.getMessageCount());
+        assertEquals(1, server.getConnectionCount());
+        SmtpTransportPool.Stats stats = pool.getStats();
+        assertEquals(1, stats.getSendFailures());
+        assertEquals(0, stats.getConnectionsClosed());
+    }
+
+    @Test
+    public void testFailedReconnectClosesOnce() throws Exception {
+        pool.send(message("Before shutdown"));
+        // The pooled connection passes its health check and breaks during the send
+        server.shutDownOnNextMail();
+
+        assertThrows(MessagingException.class, () -> pool.send(message("Server gone")));
+
+        SmtpTransportPool.Stats stats = pool.getStats();
+        assertEquals(1, stats.getConnectionsOpened());
+        assertEquals(1, stats.getConnectionsClosed());
+        assertEquals(1, stats.getReconnects());
+        assertEquals(0, stats.getIdleConnections());
+    }
+
+    @Test
+    public void testIdleConnectionsAreReplaced() throws Exception {
+        SmtpTransportPool shortIdlePool = new SmtpTransportPool(session, 1, 0L, 5_000L);
+        try {
+            shortIdlePool.send(message("First"));
+            Thread.sleep(5);
+            shortIdlePool.send(message("Second"));
+        } finally {
+            shortIdlePool.close();
+        }
+
+        assertEquals(2, server.getMessageCount());
+        assertEquals(2, shortIdlePool.getStats().getConnectionsOpened());
+    }
+
+    @Test
+    public void testClosedPoolRejectsSends() {
+        pool.close();
+        assertThrows(MessagingException.class, () -> pool.send(message("Too late")));
+    }
+
+    private Message message(String subject) throws MessagingException {
+        Message message = new MimeMessage(session);
+        message.setFrom(new InternetAddress("noreply@example.com"));
+        message.addRecipient(Message.RecipientType.TO, new InternetAddress("user@example.com"));
+        message.setSubject(subject);
+        message.setText("Body of " + subject);
+        return message;
+    }
+
+    /**
+     * Minimal SMTP server that accepts every message and counts connections
+     */
+    private static final class FakeSmtpServer implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger messages = new AtomicInteger();
+        private final List<Socket> openSockets = new CopyOnWriteArrayList<>();
+        private volatile boolean shutDownOnMail;
+
+        FakeSmtpServer() throws IOException {
+            serverSocket = new ServerSocket(0);
+            Thread acceptor = new Thread(this::acceptLoop, "fake-smtp-acceptor");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        int getConnectionCount() {
+            return connections.get();
+        }
+
+        int getMessageCount() {
+            return messages.get();
+        }
+
+        void shutDownOnNextMail() {
+            shutDownOnMail = true;
+        }
+
+        void dropConnections() throws IOException {
+            for (Socket socket : openSockets) {
+                socket.close();
+            }
+            openSockets.clear();
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    openSockets.add(socket);
+                    Thread handler = new Thread(() -> handle(socket), "fake-smtp-session");
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void handle(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+                reply(out, "220 localhost ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (command) {
+                        case "EHLO":
+                            reply(out, "250-localhost");
+                            reply(out, "250 8BITMIME");
+                            break;
+                        case "DATA":
+                            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                            while ((line = in.readLine()) != null && !line.equals(".")) {
+                                // Discard message content
+                            }
+                            messages.incrementAndGet();
+                            reply(out, "250 OK");
+                            break;
+                        case "MAIL":
+                            if (shutDownOnMail) {
+                                close();
+                                return;
+                            }
+                            reply(out, "250 OK");
+                            break;
+                        case "RCPT":
+                            reply(out, line.contains("rejected@") ? "550 5.1.1 No such user" : "250 OK");
+                            break;
+                        case "QUIT":
+                            reply(out, "221 Bye");
+                            return;
+                        default:
+                            reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // Connection dropped
+            }
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            dropConnections();
+        }
+    }
+}
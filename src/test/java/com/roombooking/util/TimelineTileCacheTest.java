@@ -0,0 +1,83 @@
+package com.roombooking.util;
+
+import com.roombooking.model.Reservation;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TimelineTileCacheTest {
+
+    private static final LocalDate ORIGIN = LocalDate.of(2024, 1, 7);
+
+    private final Map<String, AtomicInteger> loads = new ConcurrentHashMap<>();
+    private final Semaphore loaded = new Semaphore(0);
+    private final TimelineTileCache cache = new TimelineTileCache((roomIds, start, end) -> {
+        loads.computeIfAbsent(roomIds.get(0) + "@" + start, k -> new AtomicInteger()).incrementAndGet();
+        Reservation reservation = new Reservation();
+        reservation.setRoomId(roomIds.get(0));
+        reservation.setStartTime(start);
+        reservation.setEndTime(start.plusHours(1));
+        return List.of(reservation);
+    }, ORIGIN, loaded::release);
+
+    private static List<Integer> roomIds(int count) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            ids.add(i);
+        }
+        return ids;
+    }
+
+    @Test
+    public void testTileMath() {
+        assertEquals(0, cache.tileAt(ORIGIN.atTime(10, 0)));
+        assertEquals(0, cache.tileAt(ORIGIN.plusDays(6).atTime(23, 59)));
+        assertEquals(1, cache.tileAt(ORIGIN.plusDays(7).atStartOfDay()));
+        assertEquals(-1, cache.tileAt(ORIGIN.minusDays(1).atStartOfDay()));
+        assertEquals(ORIGIN.plusDays(14).atStartOfDay(), cache.tileStart(2));
+        assertEquals(ORIGIN.minusDays(7).atStartOfDay(), cache.tileStart(-1));
+    }
+
+    @Test
+    public void testViewportLoadsVisibleTilesAndRing() throws InterruptedException {
+        cache.setRooms(roomIds(TimelineTileCache.ROOMS_PER_TILE * 3));
+        assertEquals(3, cache.getBlockCount());
+
+        // One visible tile in the middle block: 1 visible + 8 around it
+        cache.requestViewport(1, 1, 5, 5);
+        assertTrue(loaded.tryAcquire(9, 5, TimeUnit.SECONDS));
+
+        List<Reservation> tile = cache.getIfLoaded(1, 5);
+        assertNotNull(tile);
+        assertEquals(TimelineTileCache.ROOMS_PER_TILE + 1, tile.get(0).getRoomId());
+        assertNotNull(cache.getIfLoaded(0, 4));
+        assertNotNull(cache.getIfLoaded(2, 6));
+        assertNull(cache.getIfLoaded(1, 7));
+        assertEquals(9, loads.size());
+    }
+
+    @Test
+    public void testLoadedTilesAreNotReloaded() throws InterruptedException {
+        cache.setRooms(roomIds(10));
+        // A single block has no rows above or below, so only the tiles to the sides are prefetched
+        cache.requestViewport(0, 0, 0, 0);
+        assertTrue(loaded.tryAcquire(3, 5, TimeUnit.SECONDS));
+
+        cache.requestViewport(0, 0, 0, 0);
+        cache.requestViewport(0, 0, 0, 1);
+        assertTrue(loaded.tryAcquire(1, 5, TimeUnit.SECONDS));
+
+        LocalDateTime start = cache.tileStart(0);
+        assertEquals(1, loads.get("1@" + start).get());
+        assertEquals(4, loads.size());
+    }
+}
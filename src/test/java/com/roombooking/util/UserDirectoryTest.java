@@ -0,0 +1,101 @@
+package com.roombooking.util;
+
+import com.roombooking.model.User;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+public class UserDirectoryTest {
+
+    private static User user(int id, String username, String fullName, String email) {
+        return new User(id, username, fullName, email, "$2a$10$hash", false, true, id);
+    }
+
+    private static UserDirectory directory(List<User> users) {
+        return new UserDirectory(action -> {
+            users.forEach(action);
+            return users.size();
+        }, id -> null);
+    }
+
+    private static List<String> usernames(List<User> users) {
+        return users.stream().map(User::getUsername).collect(Collectors.toList());
+    }
+
+    private static List<User> sampleUsers() {
+        List<User> users = new ArrayList<>();
+        users.add(user(1, "jdoe", "John Doe", "john.doe@example.com"));
+        users.add(user(2, "jsmith", "Jane Smith", "jane.smith@example.com"));
+        users.add(user(3, "admin", "Site Admin", "admin@example.com"));
+        users.add(user(4, "bjohnson", "Bob Johnson", "bob@corp.example"));
+        return users;
+    }
+
+    @Test
+    public void testPrefixLookup() {
+        UserDirectory directory = directory(sampleUsers());
+
+        assertEquals(List.of("jsmith"), usernames(directory.search("smi", 10)));
+        assertEquals(List.of("jsmith"), usernames(directory.search("JANE.S", 10)));
+        assertEquals(List.of("jdoe", "bjohnson"), usernames(directory.search("john", 10)));
+        assertEquals(List.of("jdoe"), usernames(directory.search("jo do", 10)));
+        assertTrue(directory.search("zz", 10).isEmpty());
+        assertEquals(List.of("admin", "bjohnson"), usernames(directory.search("", 2)));
+        assertEquals(4, directory.size());
+    }
+
+    @Test
+    public void testPasswordsAreNotKept() {
+        UserDirectory directory = directory(sampleUsers());
+
+        for (User user : directory.search("", 10)) {
+            assertNull(user.getPassword());
+        }
+    }
+
+    @Test
+    public void testUpdatesAreIndexed() {
+        UserDirectory directory = directory(sampleUsers());
+        directory.search("", 1);
+
+        directory.put(user(2, "jsmith", "Jane Brown", "jane.brown@example.com"));
+        assertTrue(directory.search("smith jane", 10).isEmpty());
+        assertEquals(List.of("jsmith"), usernames(directory.search("brown", 10)));
+
+        directory.put(user(5, "newbie", "New User", "new@example.com"));
+        assertEquals(List.of("newbie"), usernames(directory.search("new", 10)));
+
+        directory.remove(1);
+        assertEquals(List.of("bjohnson"), usernames(directory.search("john", 10)));
+        assertEquals(4, directory.size());
+    }
+
+    @Test
+    public void testTypeaheadOverManyUsers() {
+        List<User> users = new ArrayList<>();
+        String[] first = {"Anna", "Ben", "Carla", "David", "Eva", "Farid", "Grace", "Hugo"};
+        for (int i = 1; i <= 50_000; i++) {
+            String name = first[i % first.length];
+            users.add(user(i, name.toLowerCase() + i, name + " Person" + i, name.toLowerCase() + i + "@example.com"));
+        }
+        UserDirectory directory = directory(users);
+        assertEquals(50_000, directory.size());
+
+        String[] keystrokes = {"c", "ca", "car", "carl", "carla", "carla1", "carla12", "carla123"};
+        for (int i = 0; i < 20_000; i++) {
+            directory.search(keystrokes[i % keystrokes.length], 20);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < 20_000; i++) {
+            List<User> results = directory.search(keystrokes[i % keystrokes.length], 20);
+            assertFalse(results.isEmpty());
+        }
+        double micros = (System.nanoTime() - start) / 1e3 / 20_000;
+        assertTrue(micros < 500, "took " + micros + "us per keystroke");
+        assertEquals(List.of("carla122"), usernames(directory.search("person122 carla", 20)).subList(0, 1));
+    }
+}